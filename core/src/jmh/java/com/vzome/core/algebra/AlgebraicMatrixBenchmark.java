@@ -0,0 +1,68 @@
+package com.vzome.core.algebra;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class AlgebraicMatrixBenchmark
+{
+    @Param({ "golden", "rootTwo", "heptagon", "snubDodec" })
+    public String fieldName;
+
+    @Param({ "3", "4", "5" })
+    public int dims;
+
+    private AlgebraicMatrix m1, m2;
+    private AlgebraicVector column;
+
+    @Setup
+    public void setup()
+    {
+        AlgebraicField field = BenchmarkFields.create( fieldName );
+        Random random = new Random( 42 );
+        m1 = BenchmarkFields.randomMatrix( field, dims, random );
+        m2 = BenchmarkFields.randomMatrix( field, dims, random );
+        column = BenchmarkFields.randomVector( field, dims, random );
+    }
+
+    @Benchmark
+    public AlgebraicMatrix times()
+    {
+        return m1 .times( m2 );
+    }
+
+    @Benchmark
+    public AlgebraicVector timesColumn()
+    {
+        return m1 .timesColumn( column );
+    }
+
+    @Benchmark
+    public AlgebraicMatrix inverse()
+    {
+        return m1 .inverse();
+    }
+
+    @Benchmark
+    public AlgebraicNumber determinant()
+    {
+        return m1 .determinant();
+    }
+}
@@ -0,0 +1,68 @@
+package com.vzome.core.algebra;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * AlgebraicNumber arithmetic in every field of the number tower,
+ * from order 2 (golden, rootTwo, rootThree) up to the high order polygon fields.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class AlgebraicNumberBenchmark
+{
+    @Param({ "golden", "rootTwo", "rootThree", "heptagon", "snubCube", "snubDodec", "polygon5", "polygon7", "polygon12", "polygon17" })
+    public String fieldName;
+
+    private AlgebraicNumber n1, n2;
+
+    @Setup
+    public void setup()
+    {
+        AlgebraicField field = BenchmarkFields.create( fieldName );
+        Random random = new Random( 42 );
+        n1 = BenchmarkFields.randomNumber( field, random );
+        n2 = BenchmarkFields.randomNumber( field, random );
+    }
+
+    @Benchmark
+    public AlgebraicNumber plus()
+    {
+        return n1 .plus( n2 );
+    }
+
+    @Benchmark
+    public AlgebraicNumber times()
+    {
+        return n1 .times( n2 );
+    }
+
+    @Benchmark
+    public AlgebraicNumber reciprocal()
+    {
+        return n1 .reciprocal();
+    }
+
+    @Benchmark
+    public double evaluate()
+    {
+        // a new number each time, so the cached value doesn't hide the cost
+        return n1 .plus( n2 ) .evaluate();
+    }
+}
@@ -0,0 +1,57 @@
+package com.vzome.core.algebra;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class AlgebraicVectorBenchmark
+{
+    @Param({ "golden", "rootTwo", "heptagon", "snubDodec", "polygon12" })
+    public String fieldName;
+
+    private AlgebraicVector v1, v2;
+
+    @Setup
+    public void setup()
+    {
+        AlgebraicField field = BenchmarkFields.create( fieldName );
+        Random random = new Random( 42 );
+        v1 = BenchmarkFields.randomVector( field, 3, random );
+        v2 = BenchmarkFields.randomVector( field, 3, random );
+    }
+
+    @Benchmark
+    public AlgebraicVector cross()
+    {
+        return v1 .cross( v2 );
+    }
+
+    @Benchmark
+    public AlgebraicNumber dot()
+    {
+        return v1 .dot( v2 );
+    }
+
+    @Benchmark
+    public AlgebraicVector plus()
+    {
+        return v1 .plus( v2 );
+    }
+}
@@ -0,0 +1,95 @@
+package com.vzome.core.algebra;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput and allocation rate of the innermost arithmetic operations,
+ * for both BigRationalImpl and golden AlgebraicNumberImpl.
+ * The "jmh" task runs with the gc profiler, so each result is accompanied
+ * by gc.alloc.rate.norm, the number of bytes allocated per operation.
+ * To compare before and after a change, run
+ * {@code gradle :core:jmh -PjmhInclude=ArithmeticKernel} on both commits.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class ArithmeticKernelBenchmark
+{
+    private BigRational r1, r2;
+    private BigRational big1, big2;
+    private AlgebraicNumber n1, n2;
+
+    @Setup
+    public void setup()
+    {
+        r1 = new BigRationalImpl( 3, 7 );
+        r2 = new BigRationalImpl( -5, 12 );
+        big1 = new BigRationalImpl( Long.MAX_VALUE / 3, 7 );
+        big2 = new BigRationalImpl( -5, Long.MAX_VALUE / 11 );
+        AlgebraicField field = new PentagonField();
+        n1 = field .createAlgebraicNumber( new int[]{ 3, -2 }, 7 );
+        n2 = field .createAlgebraicNumber( new int[]{ -5, 8 }, 12 );
+    }
+
+    @Benchmark
+    public BigRational rationalPlus()
+    {
+        return r1 .plus( r2 );
+    }
+
+    @Benchmark
+    public BigRational rationalTimes()
+    {
+        return r1 .times( r2 );
+    }
+
+    @Benchmark
+    public BigRational rationalReciprocal()
+    {
+        return r1 .reciprocal();
+    }
+
+    @Benchmark
+    public BigRational bigRationalPlus()
+    {
+        return big1 .plus( big2 );
+    }
+
+    @Benchmark
+    public BigRational bigRationalTimes()
+    {
+        return big1 .times( big2 );
+    }
+
+    @Benchmark
+    public AlgebraicNumber goldenPlus()
+    {
+        return n1 .plus( n2 );
+    }
+
+    @Benchmark
+    public AlgebraicNumber goldenTimes()
+    {
+        return n1 .times( n2 );
+    }
+
+    @Benchmark
+    public AlgebraicNumber goldenReciprocal()
+    {
+        return n1 .reciprocal();
+    }
+}
@@ -0,0 +1,84 @@
+package com.vzome.core.algebra;
+
+import java.util.Random;
+
+/**
+ * Shared setup for the algebra benchmarks.
+ * The field names are the same ones used by AlgebraicFields.getCoefficients(),
+ * so every field in the number tower can be selected by a JMH {@code @Param}.
+ */
+public class BenchmarkFields
+{
+    private BenchmarkFields() {}
+
+    public static AlgebraicField create( String fieldName )
+    {
+        switch ( fieldName ) {
+        case PentagonField.FIELD_NAME:
+            return new PentagonField();
+
+        case RootTwoField.FIELD_NAME:
+            return new RootTwoField();
+
+        case RootThreeField.FIELD_NAME:
+            return new RootThreeField();
+
+        case HeptagonField.FIELD_NAME:
+            return new HeptagonField();
+
+        case SnubCubeField.FIELD_NAME:
+            return new SnubCubeField( AlgebraicNumberImpl.FACTORY );
+
+        case SnubDodecField.FIELD_NAME:
+            return new SnubDodecField( AlgebraicNumberImpl.FACTORY );
+
+        default:
+            if ( fieldName .startsWith( PolygonField.FIELD_PREFIX ) ) {
+                int nSides = Integer.parseInt( fieldName .substring( PolygonField.FIELD_PREFIX.length() ) );
+                return new PolygonField( nSides, AlgebraicNumberImpl.FACTORY );
+            }
+            throw new IllegalArgumentException( "Unknown field name: " + fieldName );
+        }
+    }
+
+    /**
+     * @return a number with every term populated by a small fraction,
+     * representative of the coordinates in a typical model.
+     */
+    public static AlgebraicNumber randomNumber( AlgebraicField field, Random random )
+    {
+        int[] numerators = new int[ field .getOrder() ];
+        for ( int i = 0; i < numerators.length; i++ ) {
+            numerators[ i ] = random .nextInt( 19 ) - 9;
+        }
+        if ( numerators[ 0 ] == 0 )
+            numerators[ 0 ] = 1; // never zero
+        int[] denominators = { 1, 1, 2, 3, 4 };
+        return field .createAlgebraicNumber( numerators, denominators[ random .nextInt( denominators.length ) ] );
+    }
+
+    public static AlgebraicVector randomVector( AlgebraicField field, int dims, Random random )
+    {
+        AlgebraicNumber[] components = new AlgebraicNumber[ dims ];
+        for ( int i = 0; i < dims; i++ ) {
+            components[ i ] = randomNumber( field, random );
+        }
+        return new AlgebraicVector( components );
+    }
+
+    /**
+     * @return a square matrix that is guaranteed to be invertible
+     */
+    public static AlgebraicMatrix randomMatrix( AlgebraicField field, int dims, Random random )
+    {
+        while ( true ) {
+            AlgebraicVector[] columns = new AlgebraicVector[ dims ];
+            for ( int i = 0; i < dims; i++ ) {
+                columns[ i ] = randomVector( field, dims, random );
+            }
+            AlgebraicMatrix matrix = new AlgebraicMatrix( columns );
+            if ( ! matrix .determinant() .isZero() )
+                return matrix;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.vzome.core.algebra;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Fields.gaussJordanReduction over BigRationals,
+ * which is what AbstractAlgebraicField.reciprocal() uses for fields of higher order.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class GaussJordanBenchmark
+{
+    @Param({ "3", "6", "10" })
+    public int size;
+
+    private BigRational[][] matrix;
+
+    @Setup
+    public void setup()
+    {
+        Random random = new Random( 42 );
+        matrix = new BigRational[ size ][ size ];
+        for ( int i = 0; i < size; i++ ) {
+            for ( int j = 0; j < size; j++ ) {
+                // diagonally dominant, so the matrix is never singular
+                long numerator = ( i == j )? 10 * size : random .nextInt( 19 ) - 9;
+                matrix[ i ][ j ] = new BigRationalImpl( numerator, 1 + random .nextInt( 4 ) );
+            }
+        }
+    }
+
+    @Benchmark
+    public BigRational[][] reduce()
+    {
+        BigRational[][] adjoined = new BigRational[ size ][ size ];
+        for ( int i = 0; i < size; i++ ) {
+            for ( int j = 0; j < size; j++ ) {
+                adjoined[ i ][ j ] = ( i == j )? BigRationalImpl.ONE : BigRationalImpl.ZERO;
+            }
+        }
+        Fields .gaussJordanReduction( matrix, adjoined );
+        return adjoined;
+    }
+}
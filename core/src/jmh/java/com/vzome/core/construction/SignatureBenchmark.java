@@ -0,0 +1,67 @@
+package com.vzome.core.construction;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.BenchmarkFields;
+
+/**
+ * The cost of looking up a strut in a map keyed by String signatures,
+ * as RealizedModelImpl used to, versus one keyed by SignatureKeys.
+ */
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class SignatureBenchmark
+{
+    private final Map<String, Segment> bySignature = new HashMap<>();
+    private final Map<SignatureKey, Segment> byKey = new HashMap<>();
+    private Segment[] segments;
+    private int next = 0;
+
+    @Setup
+    public void setup()
+    {
+        AlgebraicField field = BenchmarkFields.create( "golden" );
+        Random random = new Random( 42 );
+        segments = new Segment[ 1024 ];
+        for ( int i = 0; i < segments.length; i++ ) {
+            Point start = new FreePoint( BenchmarkFields.randomVector( field, 3, random ) );
+            Point end = new FreePoint( BenchmarkFields.randomVector( field, 3, random ) );
+            segments[ i ] = new SegmentJoiningPoints( start, end );
+            bySignature .put( segments[ i ] .getSignature(), segments[ i ] );
+            byKey .put( segments[ i ] .getSignatureKey(), segments[ i ] );
+        }
+    }
+
+    @Benchmark
+    public Segment lookupBySignature()
+    {
+        next = ( next + 1 ) % segments.length;
+        return bySignature .get( segments[ next ] .getSignature() );
+    }
+
+    @Benchmark
+    public Segment lookupByKey()
+    {
+        next = ( next + 1 ) % segments.length;
+        return byKey .get( segments[ next ] .getSignatureKey() );
+    }
+}
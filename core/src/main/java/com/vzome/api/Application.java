@@ -43,6 +43,7 @@ public class Application
 	public Application( Command.FailureChannel failures, Properties props )
 	{
 	    props .setProperty( "no.line.numbers", "true" );
+	    ForkJoinTaskRunner .install();
 		// TODO cleaner abstraction to wrap FailureChannel
 	    this .delegate = new com.vzome.core.editor.Application( true, failures, props );
 	}
@@ -78,6 +79,19 @@ public class Application
 		    docDelegate .finishLoading( false, false );
 		return new Document( docDelegate );
     }
+
+    /**
+     * Load a document finished for viewing or export, using its model cache if that matches,
+     * and replaying its edit history otherwise.
+     * @param cache the model cache saved with the document, or null
+     */
+    public Document loadDocument( InputStream bytes, InputStream cache ) throws Exception
+    {
+        DocumentModel docDelegate = this .delegate .loadDocument( bytes );
+        if ( cache == null || ! docDelegate .loadModelCache( cache ) )
+            docDelegate .finishLoading( false, false );
+        return new Document( docDelegate );
+    }
     
     public Polyhedron getBallShape()
     {
@@ -8,41 +8,142 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.vzome.core.commands.Command;
 import com.vzome.core.commands.Command.Failure;
+import com.vzome.core.editor.DocumentModel;
 
 /**
  * Modified from {@link com.vzome.core.regression.FileSystemVisitor2}
+ *
+ * Each .vZome file found is loaded and replayed once, then exported in every requested format.
+ * A file with a matching model cache beside it is not replayed, and the cache is loaded instead.
+ * With more than one thread, files are converted in parallel by a fixed pool of workers,
+ * each with its own Application, while the folder scan feeds them through a bounded queue.
+ * Load, replay and export times, and any failure, are recorded for every file,
+ * and can be written as CSV or JSON with writeReport().
  */
 public class BulkConverter
 {
     public static final File INITIAL_WORKING_DIR = new File( System .getProperty( "user.dir" ) );
-    
+
+    public static class FileReport
+    {
+        private final String path;
+
+        private long loadMillis = -1, replayMillis = -1;
+
+        private boolean cached = false;
+
+        private final Map<String, Long> exportMillis = new LinkedHashMap<>();
+
+        private String failure = null;
+
+        FileReport( String path )
+        {
+            this .path = path;
+        }
+
+        public String getPath()
+        {
+            return this .path;
+        }
+
+        public long getLoadMillis()
+        {
+            return this .loadMillis;
+        }
+
+        public long getReplayMillis()
+        {
+            return this .replayMillis;
+        }
+
+        /**
+         * @return true if the model came from a model cache, so getReplayMillis() is the time to load that
+         */
+        public boolean isCached()
+        {
+            return this .cached;
+        }
+
+        /**
+         * @return export times by format, for the formats that succeeded
+         */
+        public Map<String, Long> getExportMillis()
+        {
+            return this .exportMillis;
+        }
+
+        /**
+         * @return null if every step succeeded
+         */
+        public String getFailure()
+        {
+            return this .failure;
+        }
+    }
+
     public static class Actor
     {
-        private Application app;
+        private final Path baseFolder;
+
+        private final String[] formats, suffixes;
+
+        private final int threads;
 
-        private Exporter exporter;
+        private final ConcurrentLinkedQueue<FileReport> reports = new ConcurrentLinkedQueue<>();
 
-        private Path baseFolder;
+        // Applications not currently in use by a worker; there is one per worker thread.
+        private BlockingQueue<Application> idleApps;
 
-        private String format, suffix;
+        private ExecutorService workers;
+
+        private Semaphore queued;
 
         public Actor( String baseFolder, String format, String suffix )
+        {
+            this( baseFolder, new String[]{ format }, new String[]{ suffix }, 1 );
+        }
+
+        /**
+         * @param baseFolder
+         * @param formats exporter names, as for Application.getExporter()
+         * @param suffixes output file suffixes, corresponding to formats
+         * @param threads the number of documents to convert in parallel
+         */
+        public Actor( String baseFolder, String[] formats, String[] suffixes, int threads )
         {
             super();
+            if ( formats .length != suffixes .length )
+                throw new IllegalArgumentException( "each format needs a suffix" );
             this .baseFolder = new File( baseFolder ) .toPath();
-            this .format = format;
-            this .suffix = suffix;
+            this .formats = formats;
+            this .suffixes = suffixes;
+            this .threads = Math .max( 1, threads );
         }
 
-        private void convertAll()
+        private static Application createApplication()
         {
-            app = new Application( new Command.FailureChannel()
+            return new Application( new Command.FailureChannel()
             {
                 @Override
                 public void reportFailure( Failure f )
@@ -50,7 +151,19 @@ public class BulkConverter
                     System.err .println( f .toString() );
                 }
             });
-            exporter = app .getExporter( this.format );
+        }
+
+        public void convertAll()
+        {
+            // the reports describe only the latest run
+            this .reports .clear();
+            // Applications are created here, one at a time, since their construction is not thread-safe.
+            this .idleApps = new LinkedBlockingQueue<>();
+            for ( int i = 0; i < this .threads; i++ )
+                this .idleApps .add( createApplication() );
+            this .workers = Executors .newFixedThreadPool( this .threads );
+            // bound the files waiting for a worker, so a huge tree is not queued all at once
+            this .queued = new Semaphore( this .threads * 2 );
 
             if ( ! Files.exists( baseFolder, new LinkOption[]{} ) )
                 System .err. println( "directory does not exist: " + baseFolder .toString() );
@@ -61,7 +174,14 @@ public class BulkConverter
                     System .err. println( "scan failed: " + ioe .getLocalizedMessage() );
                 }
             }
-            app = null;
+            this .workers .shutdown();
+            try {
+                this .workers .awaitTermination( Long.MAX_VALUE, TimeUnit.DAYS );
+            } catch ( InterruptedException e ) {
+                Thread .currentThread() .interrupt();
+            }
+            this .workers = null;
+            this .idleApps = null;
         }
 
         public static File getFileFromSystemProperty( String propName )
@@ -74,45 +194,180 @@ public class BulkConverter
             else
                 return new File( INITIAL_WORKING_DIR, prop );
         }
-        
+
         public void actOnFileOrFolder( File dirOrFile, BulkConverter visitor ) throws Exception
         {
             visitor .visitFileOrFolder( dirOrFile, this );
         }
-        
-        public void actOnFile( File file, String extension, BulkConverter visitor ) throws Exception
+
+        public void actOnFile( final File file, String extension, BulkConverter visitor ) throws Exception
         {
             if ( ! "vZome" .equals( extension ) )
                 return;
 
+            this .queued .acquire();
+            this .workers .execute( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try {
+                        Application app = idleApps .take();
+                        try {
+                            reports .add( convert( app, file ) );
+                        } finally {
+                            idleApps .add( app );
+                        }
+                    } catch ( InterruptedException e ) {
+                        Thread .currentThread() .interrupt();
+                    } finally {
+                        queued .release();
+                    }
+                }
+            });
+        }
+
+        private FileReport convert( Application app, File file )
+        {
+            FileReport report = new FileReport( this .baseFolder .relativize( file .toPath() ) .toString() );
             File classFolder = file .getParentFile();
             String testName = file .getName();
             testName = testName .substring( 0, testName .length() - 6 ); // strip ".vZome"
-
-            InputStream bytes = new FileInputStream( file );
-            com.vzome.api.Document doc = app .loadDocument( bytes );
-
-            File outFile = new File( classFolder, testName + '.' + this.suffix );
-
-            PrintWriter output = new PrintWriter( outFile );
             try {
-                exporter .doExport( doc, output, 1080, 1920 );
-            } finally {
-                output .close();
+                long start = System .nanoTime();
+                Document doc;
+                try ( InputStream bytes = new FileInputStream( file ) ) {
+                    doc = app .loadDocument( bytes, false );
+                }
+                long loaded = System .nanoTime();
+                report .loadMillis = ( loaded - start ) / 1000000;
+                File cache = new File( file .getPath() + DocumentModel.MODEL_CACHE_SUFFIX );
+                if ( cache .isFile() )
+                    try ( InputStream bytes = new FileInputStream( cache ) ) {
+                        report .cached = doc .getDocumentModel() .loadModelCache( bytes );
+                    }
+                if ( ! report .cached )
+                    doc .getDocumentModel() .finishLoading( false, false );
+                report .replayMillis = ( System .nanoTime() - loaded ) / 1000000;
+
+                for ( int i = 0; i < this .formats .length; i++ ) {
+                    String format = this .formats[ i ];
+                    try {
+                        Exporter exporter = app .getExporter( format );
+                        File outFile = new File( classFolder, testName + '.' + this .suffixes[ i ] );
+                        start = System .nanoTime();
+                        PrintWriter output = new PrintWriter( outFile );
+                        try {
+                            exporter .doExport( doc, output, 1080, 1920 );
+                        } finally {
+                            output .close();
+                        }
+                        report .exportMillis .put( format, ( System .nanoTime() - start ) / 1000000 );
+                    } catch ( Exception e ) {
+                        // keep going with the other formats
+                        report .failure = appendFailure( report .failure, format + ": " + e .toString() );
+                        System .err .println( "export failed for " + file + ": " + e .toString() );
+                    }
+                }
+            } catch ( Exception e ) {
+                report .failure = appendFailure( report .failure, e .toString() );
+                System .err .println( "conversion failed for " + file + ": " + e .toString() );
             }
+            return report;
+        }
+
+        private static String appendFailure( String failures, String failure )
+        {
+            return ( failures == null )? failure : failures + "; " + failure;
         }
-        
+
         public void actOnFolder( File folder, BulkConverter visitor ) throws Exception
         {
             visitor .visitFolder( folder, this );
         }
+
+        /**
+         * @return a report for each file converted by convertAll(), sorted by path
+         */
+        public List<FileReport> getReports()
+        {
+            List<FileReport> result = new ArrayList<>( this .reports );
+            result .sort( ( r1, r2 ) -> r1 .path .compareTo( r2 .path ) );
+            return result;
+        }
+
+        /**
+         * Write the reports as JSON if the file name ends with ".json", and as CSV otherwise.
+         * Times are in milliseconds, with -1 for steps that were never reached.
+         */
+        public void writeReport( File reportFile ) throws IOException
+        {
+            try ( Writer out = new PrintWriter( reportFile ) ) {
+                if ( reportFile .getName() .endsWith( ".json" ) )
+                    writeJson( out );
+                else
+                    writeCsv( out );
+            }
+        }
+
+        public void writeJson( Writer out ) throws IOException
+        {
+            ObjectMapper mapper = new ObjectMapper();
+            ArrayNode files = mapper .createArrayNode();
+            for ( FileReport report : this .getReports() ) {
+                ObjectNode node = files .addObject();
+                node .put( "file", report .path );
+                node .put( "loadMillis", report .loadMillis );
+                node .put( "replayMillis", report .replayMillis );
+                node .put( "cached", report .cached );
+                ObjectNode exports = node .putObject( "exportMillis" );
+                for ( String format : this .formats ) {
+                    Long millis = report .exportMillis .get( format );
+                    exports .put( format, ( millis == null )? -1 : millis );
+                }
+                if ( report .failure != null )
+                    node .put( "failure", report .failure );
+                else
+                    node .putNull( "failure" );
+            }
+            mapper .writerWithDefaultPrettyPrinter() .writeValue( out, files );
+        }
+
+        public void writeCsv( Writer out ) throws IOException
+        {
+            StringBuilder line = new StringBuilder( "file,loadMillis,replayMillis,cached" );
+            for ( String format : this .formats )
+                line .append( ',' ) .append( csvField( format + "ExportMillis" ) );
+            line .append( ",failure\n" );
+            out .write( line .toString() );
+            for ( FileReport report : this .getReports() ) {
+                line .setLength( 0 );
+                line .append( csvField( report .path ) ) .append( ',' ) .append( report .loadMillis ) .append( ',' ) .append( report .replayMillis ) .append( ',' ) .append( report .cached );
+                for ( String format : this .formats ) {
+                    Long millis = report .exportMillis .get( format );
+                    line .append( ',' ) .append( ( millis == null )? -1 : millis );
+                }
+                line .append( ',' );
+                if ( report .failure != null )
+                    line .append( csvField( report .failure ) );
+                line .append( '\n' );
+                out .write( line .toString() );
+            }
+        }
+
+        private static String csvField( String value )
+        {
+            if ( value .indexOf( ',' ) < 0 && value .indexOf( '"' ) < 0 && value .indexOf( '\n' ) < 0 )
+                return value;
+            return '"' + value .replace( "\"", "\"\"" ) + '"';
+        }
     }
 
     public void visitFileOrFolder( File dirOrFile, Actor actor ) throws Exception
     {
         if ( dirOrFile .isDirectory() )
             actor .actOnFolder( dirOrFile, this );
-        else 
+        else
             actor .actOnFile( dirOrFile, getFileExtension( dirOrFile ), this );
     }
 
@@ -125,7 +380,7 @@ public class BulkConverter
           }
       }
     }
-    
+
     public static String getFileExtension( File file )
     {
         String ext = file .getAbsolutePath();
@@ -146,15 +401,24 @@ public class BulkConverter
         return out.toString();
     }
 
+    /**
+     * Usage: BulkConverter folder formats suffixes [threads [report]]
+     * where formats and suffixes are comma-separated lists of the same length,
+     * and report is a .csv or .json file to receive the timings and failures.
+     */
     public static void main( String[] args )
     {
         try {
-            BulkConverter.Actor actor = new BulkConverter.Actor( args[0], args[1], args[2] );
+            String[] formats = args[1] .split( "," );
+            String[] suffixes = args[2] .split( "," );
+            int threads = ( args.length > 3 )? Integer .parseInt( args[3] ) : 1;
+            BulkConverter.Actor actor = new BulkConverter.Actor( args[0], formats, suffixes, threads );
             actor .convertAll();
+            if ( args.length > 4 )
+                actor .writeReport( new File( args[4] ) );
         } catch ( Exception e ) {
             e.printStackTrace();
         }
     }
 
 }
-
@@ -0,0 +1,53 @@
+package com.vzome.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import com.vzome.core.generic.ChunkedLoop;
+import com.vzome.core.generic.TaskRunner;
+
+/**
+ * Runs the tasks of a ChunkedLoop on the common fork-join pool.
+ * This is not part of the transpiled core, so applications on a full JVM install it with install().
+ */
+public class ForkJoinTaskRunner implements TaskRunner
+{
+    public static void install()
+    {
+        if ( ForkJoinPool .getCommonPoolParallelism() > 1 )
+            ChunkedLoop .setTaskRunner( new ForkJoinTaskRunner() );
+    }
+
+    @Override
+    public int getParallelism()
+    {
+        return ForkJoinPool .getCommonPoolParallelism();
+    }
+
+    @Override
+    public void runAll( List<? extends Runnable> tasks )
+    {
+        List<Callable<Object>> callables = new ArrayList<>( tasks .size() );
+        for ( Runnable task : tasks )
+            callables .add( () -> { task .run(); return null; } );
+        for ( Future<Object> future : ForkJoinPool .commonPool() .invokeAll( callables ) ) {
+            try {
+                future .get();
+            } catch ( InterruptedException e ) {
+                Thread .currentThread() .interrupt();
+                throw new IllegalStateException( e );
+            } catch ( ExecutionException e ) {
+                Throwable cause = e .getCause();
+                if ( cause instanceof RuntimeException )
+                    throw (RuntimeException) cause;
+                if ( cause instanceof Error )
+                    throw (Error) cause;
+                throw new IllegalStateException( cause );
+            }
+        }
+    }
+}
@@ -18,7 +18,22 @@ public abstract class AbstractAlgebraicField implements AlgebraicField
     abstract double evaluateNumber( BigRational[] factors );
 
     abstract BigRational[] scaleBy( BigRational[] factors, int whichIrrational );
-    
+
+    /**
+     * The long-valued counterpart of {@code multiply( BigRational[], BigRational[] )}.
+     * Both arguments are in trailing divisor form: getOrder() integer numerators
+     * followed by a positive common denominator. The result is in the same form, but need not be reduced.
+     * This is used by AlgebraicNumberImpl to avoid allocating BigRationals
+     * whenever all of the terms fit in a long, which is nearly always the case.
+     * @return null if this field doesn't support long arithmetic,
+     * if the result would require normalization, or if any intermediate value overflows.
+     * In any of those cases, the caller falls back to the BigRational path.
+     */
+    long[] multiply( long[] v1, long[] v2 )
+    {
+        return null;
+    }
+
     public abstract double[] getCoefficients();
 
     /**
@@ -163,7 +178,7 @@ public abstract class AbstractAlgebraicField implements AlgebraicField
     // until the c'tor is fully executed. That means smallSeries can't be initialized
     // in this base class c'tor, so this method generates it one time upon first use 
     // rather than in the c'tor which also means smallSeries can't be final.
-    private void initSmallSeries() {
+    private synchronized void initSmallSeries() {
         if(smallSeries == null) {
             this .smallSeries = this .generateSeries( SMALL_SERIES_THRESHOLD );
         }
@@ -200,12 +215,13 @@ public abstract class AbstractAlgebraicField implements AlgebraicField
     public int hashCode() {
         if(hashCode == null) {
             final int prime = 43;
-            hashCode = 7;
+            int result = 7;
             double[] coefficients = getCoefficients();
             for(int i = 0; i < coefficients.length; i++) {
                 Double coefficient = coefficients[i];
-                hashCode = prime * hashCode + coefficient.hashCode();
+                result = prime * result + coefficient.hashCode();
             }
+            hashCode = result; // only assigned when complete, since fields are shared across threads
         }
         return hashCode;
     }
@@ -373,8 +389,10 @@ public abstract class AbstractAlgebraicField implements AlgebraicField
         return this .createPower( power, 1 );
     }
 
+    // synchronized, since the powers are filled in lazily, and a field is shared by all the documents
+    //  in an Application, and by the chunks of a ChunkedLoop when a parallel TaskRunner is installed
     @Override
-    public final AlgebraicNumber createPower( int power, int irr )
+    public final synchronized AlgebraicNumber createPower( int power, int irr )
     {
         AlgebraicNumber one = this .one();
         if ( power == 0 || irr == 0 )
@@ -143,7 +143,9 @@ public class AlgebraicMatrix
         AlgebraicField field = this .matrix[ 0 ][ 0 ] .getField();
         AlgebraicMatrix result = new AlgebraicMatrix( field, this .matrix .length );
 
-        int rank = Fields .gaussJordanReduction( this .matrix, result .matrix );
+        int rank = ( this .matrix .length >= BAREISS_MIN_DIMENSION && field .getOrder() <= BAREISS_MAX_ORDER )
+                ? Fields .bareissInverse( this .matrix, result .matrix )
+                : Fields .gaussJordanReduction( this .matrix, result .matrix );
         if(rank != matrix.length) {
             String message = "AlgebraicMatrix inverse expects matrix rank to be " + matrix.length + ", but it is " + rank + ".";
             System.err.println( message );
@@ -243,9 +245,25 @@ public class AlgebraicMatrix
         // AlgebraicMatrix is NOT immutable 
         // so we can't safely cache the determinant.
         // It has to be calculated each time.
+        int n = matrix.length;
+        if(n >= BAREISS_MIN_DIMENSION && (n >= LAPLACE_MAX_DIMENSION || matrix[0][0].getField().getOrder() <= BAREISS_MAX_ORDER)) {
+            if(n != matrix[0].length) {
+                throw new IllegalArgumentException("matrix is not square");
+            }
+            return Fields.bareissDeterminant(matrix);
+        }
         return laplaceDeterminant(matrix);
     }
 
+    // Below this size, the explicit formulas and plain Gauss-Jordan reduction are cheaper.
+    private static final int BAREISS_MIN_DIMENSION = 4;
+    // Bareiss elimination needs the reciprocal of each pivot,
+    // which is expensive in fields of higher order, so for those fields
+    // Gauss-Jordan reduction is as fast for inverses, and cofactor expansion is faster for determinants
+    // until its factorial cost finally catches up at LAPLACE_MAX_DIMENSION.
+    private static final int BAREISS_MAX_ORDER = 3;
+    private static final int LAPLACE_MAX_DIMENSION = 7;
+
     public static AlgebraicNumber laplaceDeterminant(AlgebraicNumber[][] matrix) {
         if(matrix.length != matrix[0].length) {
             throw new IllegalArgumentException("matrix is not square");
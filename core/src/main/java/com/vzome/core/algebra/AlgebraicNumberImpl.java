@@ -24,14 +24,22 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
 {
     private static final Logger LOGGER = Logger .getLogger( "com.vzome.core.algebra" );
     private final AbstractAlgebraicField field;
-    private final BigRational[] factors;
+    private volatile BigRational[] factors; // initialized on first use when created from trailingDivisor
+
+    /**
+     * The same value in trailing divisor form: one long numerator per term, followed by
+     * the least common denominator of all terms, reduced so that the array has no common factor.
+     * This is null whenever any of those values won't fit in a long,
+     * in which case the arithmetic methods fall back to the BigRational factors.
+     */
+    private final long[] trailingDivisor;
 
     private final boolean isOne;
     private final boolean isZero;
 
     private Double doubleValue;	// initialized on first use
     private Integer signum;     // initialized on first use
-    private final String[] toString = new String[AlgebraicField .MATH_FORMAT + 1]; // cache various String representations
+    private String[] toString; // cache various String representations, allocated on first use
     
     private Integer hashCode;	// initialized on first use
 
@@ -135,13 +143,15 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
     AlgebraicNumberImpl( AlgebraicField field, BigRational units )
     {
         this.field = (AbstractAlgebraicField) field;
-        factors = new BigRational[ field .getOrder() ];
+        BigRational[] factors = new BigRational[ field .getOrder() ];
         factors[ 0 ] = units;
         for ( int i = 1; i < factors.length; i++ ) {
             factors[ i ] = BigRationalImpl.ZERO;
         }
-        isZero = isZero(this.factors);
-        isOne = isOne(this.factors);
+        this.factors = factors;
+        trailingDivisor = toTrailingDivisor( factors );
+        isZero = isZero(factors);
+        isOne = isOne(factors);
     }
 
     public AlgebraicNumberImpl( AlgebraicField field, BigRational[] givenFactors )
@@ -149,18 +159,149 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
         if ( givenFactors.length > field .getOrder() )
             throw new IllegalStateException( givenFactors.length + " is too many factors for field \"" + field.getName() + "\"" );
         this .field = (AbstractAlgebraicField) field;
-        this .factors = new BigRational[ field .getOrder() ];
+        BigRational[] factors = new BigRational[ field .getOrder() ];
         for ( int i = 0; i < givenFactors.length; i++ ) {
-            this .factors[ i ] = givenFactors[ i ] == null 
+            factors[ i ] = givenFactors[ i ] == null 
                     ? BigRationalImpl.ZERO
                             : givenFactors[ i ];
         }
-        for ( int i = givenFactors.length; i < this.factors.length; i++ ) {
-            this .factors[ i ] = BigRationalImpl.ZERO;
+        for ( int i = givenFactors.length; i < factors.length; i++ ) {
+            factors[ i ] = BigRationalImpl.ZERO;
+        }
+        this .field .normalize(factors);
+        this .factors = factors;
+        trailingDivisor = toTrailingDivisor( factors );
+        isZero = isZero(factors);
+        isOne = isOne(factors);
+    }
+
+    /**
+     * Used only for the results of the long arithmetic in plus(), times() and negate(),
+     * which never require normalization. The BigRational factors are not created unless they're needed.
+     * @param field
+     * @param trailingDivisor must already be reduced, with a positive trailing divisor
+     */
+    private AlgebraicNumberImpl( AbstractAlgebraicField field, long[] trailingDivisor )
+    {
+        this .field = field;
+        this .trailingDivisor = trailingDivisor;
+        int order = trailingDivisor.length - 1;
+        boolean zero = true;
+        for ( int i = 0; i < order; i++ ) {
+            zero = zero && trailingDivisor[ i ] == 0;
+        }
+        boolean one = trailingDivisor[ 0 ] == 1 && trailingDivisor[ order ] == 1;
+        for ( int i = 1; one && i < order; i++ ) {
+            one = trailingDivisor[ i ] == 0;
+        }
+        isZero = zero;
+        isOne = one;
+    }
+
+    /**
+     * @return the BigRational terms, creating them from the trailingDivisor if necessary
+     */
+    private BigRational[] factors()
+    {
+        BigRational[] result = this .factors;
+        if ( result == null ) {
+            int order = trailingDivisor.length - 1;
+            long divisor = trailingDivisor[ order ];
+            result = new BigRational[ order ];
+            for ( int i = 0; i < order; i++ ) {
+                long numerator = trailingDivisor[ i ];
+                result[ i ] = numerator == 0 ? BigRationalImpl.ZERO
+                        : divisor == 1 ? new BigRationalImpl( numerator )
+                        : new BigRationalImpl( numerator, divisor );
+            }
+            this .factors = result;
         }
-        this .field .normalize(this.factors);
-        isZero = isZero(this.factors);
-        isOne = isOne(this.factors);
+        return result;
+    }
+
+    /**
+     * @param factors
+     * @return the reduced trailing divisor form of factors, or null if any value won't fit in a long,
+     * or is Long.MIN_VALUE, which can't be negated safely
+     */
+    private static long[] toTrailingDivisor( BigRational[] factors )
+    {
+        int order = factors.length;
+        boolean[] overflow = { false };
+        long divisor = 1;
+        for ( BigRational factor : factors ) {
+            BigRationalImpl term = (BigRationalImpl) factor;
+            if ( term .isBig() )
+                return null;
+            long den = term .longDenominator();
+            if ( den != 1 ) {
+                divisor = BigRationalImpl.multiplyAndCheck( divisor / BigRationalImpl.Gcd.gcd( divisor, den ), den, overflow );
+                if ( overflow[0] )
+                    return null;
+            }
+        }
+        long[] result = new long[ order + 1 ];
+        for ( int i = 0; i < order; i++ ) {
+            BigRationalImpl term = (BigRationalImpl) factors[ i ];
+            result[ i ] = BigRationalImpl.multiplyAndCheck( term .longNumerator(), divisor / term .longDenominator(), overflow );
+            if ( result[ i ] == Long.MIN_VALUE )
+                return null;
+        }
+        result[ order ] = divisor;
+        return overflow[0] ? null : result; // already reduced, since each term was reduced
+    }
+
+    /**
+     * Divides all elements of an unreduced trailing divisor array by their greatest common divisor.
+     * @param td may be null
+     * @return td, now reduced, or null if td is null or contains Long.MIN_VALUE, which can't be reduced safely
+     */
+    private static long[] reduce( long[] td )
+    {
+        if ( td == null )
+            return null;
+        long gcd = 0;
+        for ( long value : td ) {
+            if ( value == Long.MIN_VALUE )
+                return null;
+            if ( gcd != 1 )
+                gcd = BigRationalImpl.Gcd.gcd( gcd, value );
+        }
+        if ( gcd > 1 ) {
+            for ( int i = 0; i < td.length; i++ ) {
+                td[ i ] = td[ i ] / gcd;
+            }
+        }
+        return td;
+    }
+
+    /**
+     * @return the sum of the two trailing divisor arrays, or null if the long math overflows
+     */
+    private static long[] plus( long[] td1, long[] td2 )
+    {
+        int order = td1.length - 1;
+        long d1 = td1[ order ];
+        long d2 = td2[ order ];
+        boolean[] overflow = { false };
+        long[] sum = new long[ order + 1 ];
+        if ( d1 == d2 ) {
+            for ( int i = 0; i < order; i++ ) {
+                sum[ i ] = BigRationalImpl.addAndCheck( td1[ i ], td2[ i ], overflow );
+            }
+            sum[ order ] = d1;
+        } else {
+            long gcd = BigRationalImpl.Gcd.gcd( d1, d2 );
+            long scale1 = d2 / gcd;
+            long scale2 = d1 / gcd;
+            for ( int i = 0; i < order; i++ ) {
+                long n1 = BigRationalImpl.multiplyAndCheck( td1[ i ], scale1, overflow );
+                long n2 = BigRationalImpl.multiplyAndCheck( td2[ i ], scale2, overflow );
+                sum[ i ] = BigRationalImpl.addAndCheck( n1, n2, overflow );
+            }
+            sum[ order ] = BigRationalImpl.multiplyAndCheck( d1, scale1, overflow );
+        }
+        return overflow[0] ? null : sum;
     }
 
     /**
@@ -169,6 +310,8 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
      */
     public final BigInteger getDivisor()
     {
+        if ( trailingDivisor != null )
+            return BigInteger.valueOf( trailingDivisor[ trailingDivisor.length - 1 ] );
         BigInteger lcm = BigInteger.ONE;
         for (BigRational factor : this.factors) {
             if(! ((BigRationalImpl) factor).isWhole() ) {
@@ -181,15 +324,28 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
 
     public BigRational[] getFactors()
     {
-        return this .factors.clone(); // return a copy to ensure that this instance remains immutable
+        return this .factors().clone(); // return a copy to ensure that this instance remains immutable
     }
 
     @Override
     public int hashCode()
     {
         if(hashCode == null) {
-            hashCode = 31 // prime
-                    + Arrays.hashCode( factors );
+            BigRational[] factors = this .factors;
+            if ( factors == null ) {
+                // Same as Arrays.hashCode( factors() ), without materializing the factors
+                int order = trailingDivisor.length - 1;
+                long divisor = trailingDivisor[ order ];
+                int result = 1;
+                for ( int i = 0; i < order; i++ ) {
+                    result = 31 * result + BigRationalImpl.hashCode( trailingDivisor[ i ], divisor );
+                }
+                hashCode = 31 // prime
+                        + result;
+            } else {
+                hashCode = 31 // prime
+                        + Arrays.hashCode( factors );
+            }
         }
         return hashCode;
     }
@@ -213,7 +369,9 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
                     + other.field.getName();
             throw new IllegalStateException(reason);
         }
-        return Arrays.equals( factors, other.factors );
+        if ( trailingDivisor != null && other.trailingDivisor != null )
+            return Arrays.equals( trailingDivisor, other.trailingDivisor );
+        return Arrays.equals( factors(), other.factors() );
     }
     
     @Override
@@ -309,10 +467,19 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
             return that;
         if ( that .isZero() )
             return this;
-        int order = this .factors .length;
+        AlgebraicNumberImpl other = (AlgebraicNumberImpl) that;
+        if ( this .trailingDivisor != null && other .trailingDivisor != null ) {
+            long[] sum = reduce( plus( this .trailingDivisor, other .trailingDivisor ) );
+            if ( sum != null )
+                return new AlgebraicNumberImpl( this .field, sum );
+            // else the long math overflowed, so fall through to the BigRationals
+        }
+        BigRational[] thisFactors = this .factors();
+        BigRational[] otherFactors = other .factors();
+        int order = thisFactors .length;
         BigRational[] sum = new BigRational[ order ];
         for ( int i = 0; i < order; i++ ) {
-            sum[ i ] = this .factors[ i ] .plus( ((AlgebraicNumberImpl) that) .factors[ i ] );
+            sum[ i ] = thisFactors[ i ] .plus( otherFactors[ i ] );
         }
         return new AlgebraicNumberImpl( this .field, sum );
     }
@@ -358,7 +525,14 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
             return that;
         if ( that .isOne() )
             return this;
-        return new AlgebraicNumberImpl( this .field, this .field .multiply( this .factors, ((AlgebraicNumberImpl) that) .factors ) );
+        AlgebraicNumberImpl other = (AlgebraicNumberImpl) that;
+        if ( this .trailingDivisor != null && other .trailingDivisor != null ) {
+            long[] product = reduce( this .field .multiply( this .trailingDivisor, other .trailingDivisor ) );
+            if ( product != null )
+                return new AlgebraicNumberImpl( this .field, product );
+            // else the field has no long kernel or the long math overflowed, so fall through to the BigRationals
+        }
+        return new AlgebraicNumberImpl( this .field, this .field .multiply( this .factors(), other .factors() ) );
     }
 
     /**
@@ -434,7 +608,7 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
     public double evaluate()
     {
         if(doubleValue == null) {
-            doubleValue = field .evaluateNumber( factors );
+            doubleValue = field .evaluateNumber( factors() );
         }
         return doubleValue;
     }
@@ -466,6 +640,13 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
     @Override
     public boolean isRational()
     {
+        if ( trailingDivisor != null ) {
+            for( int i = 1; i < trailingDivisor.length - 1; i++ ) {
+                if ( trailingDivisor[ i ] != 0 )
+                    return false;
+            }
+            return true;
+        }
         for( int i = 1; i < factors.length; i++ ) {
             if ( ! factors[ i ] .isZero() )
                 return false;
@@ -489,6 +670,16 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
     @Override
     public AlgebraicNumber negate()
     {
+        if ( trailingDivisor != null ) {
+            // no overflow is possible, since trailingDivisor never contains Long.MIN_VALUE
+            int order = trailingDivisor.length - 1;
+            long[] negated = new long[ order + 1 ];
+            for ( int i = 0; i < order; i++ ) {
+                negated[ i ] = - trailingDivisor[ i ];
+            }
+            negated[ order ] = trailingDivisor[ order ];
+            return new AlgebraicNumberImpl( field, negated );
+        }
         BigRational[] result = new BigRational[ factors .length ];
         for ( int i = 0; i < result.length; i++ ) {
             result[ i ] = factors[ i ] .negate();
@@ -499,7 +690,7 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
     @Override
     public AlgebraicNumber reciprocal()
     {
-        return new AlgebraicNumberImpl( field, field .reciprocal( factors ) );
+        return new AlgebraicNumberImpl( field, field .reciprocal( factors() ) );
     }
 
     /**
@@ -518,12 +709,18 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
     @Override
     public void getNumberExpression( StringBuffer buf, int format )
     {
-        if(toString[format] == null) {
+        // numbers are shared between threads, so only read the cache field once
+        String[] strings = toString;
+        if(strings == null) {
+            strings = new String[AlgebraicField .MATH_FORMAT + 1];
+            toString = strings;
+        }
+        if(strings[format] == null) {
             int originalLength = buf.length(); // may not be empty
-            field .getNumberExpression( buf, factors, format ); // calculate it
-            toString[format] = buf.toString().substring(originalLength); // cache it 
+            field .getNumberExpression( buf, factors(), format ); // calculate it
+            strings[format] = buf.toString().substring(originalLength); // cache it 
         } else {
-            buf.append(toString[format]);
+            buf.append(strings[format]);
         }
     }
 
@@ -543,12 +740,13 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
     @Override
     public String toString( int format )
     {
-        if(toString[format] == null) {
+        String[] strings = toString;
+        if(strings == null || strings[format] == null) {
             StringBuffer buf = new StringBuffer();
             getNumberExpression( buf, format );
-            //	        toString[format] = buf .toString(); // getNumberExpression() will have cached it so no need to do it again here 
+            return buf .toString(); // getNumberExpression() will have cached it too
         }
-        return toString[format];
+        return strings[format];
     }
 
     @Override
@@ -590,6 +788,13 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
     @Override
     public String[] toTrailingDivisor()
     {
+        if ( trailingDivisor != null ) {
+            String[] result = new String[ trailingDivisor.length ];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = Long.toString( trailingDivisor[i] );
+            }
+            return result;
+        }
         int order = this.factors.length;
         String[] result = new String[order + 1];
         final BigRational lcm = new BigRationalImpl( this.getDivisor() );
@@ -644,7 +849,7 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
                 }
                 else
                 {
-                    jgen .writeObject( value .factors );
+                    jgen .writeObject( value .factors() );
                 }
             } catch(InvalidDefinitionException ex) {
                 LOGGER.severe("Exception during json serialization of AlgebraicNumber " + value.toString());
@@ -656,6 +861,6 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
     @Override
     public String getMathML()
     {
-        return field .getMathML( factors );
+        return field .getMathML( factors() );
     }
 }
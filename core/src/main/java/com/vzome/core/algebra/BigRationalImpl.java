@@ -45,7 +45,8 @@ public class BigRationalImpl implements Comparable<BigRationalImpl>, BigRational
     private final boolean canMultiplyInteger;
     private final int signum;
 
-    private final String toString; 
+    private String toString = null;	// initialized on first use
+    private String mathML = null;	// initialized on first use
     private Integer hashCode = null;	// initialized on first use
     private Double doubleValue = null;	// initialized on first use
 
@@ -93,7 +94,6 @@ public class BigRationalImpl implements Comparable<BigRationalImpl>, BigRational
         signum = signum(this);
         canAddInteger = canAddInteger(this);
         canMultiplyInteger = canMultiplyInteger(this);
-        toString = toString(this);
     }
 
 //  @SuppressWarnings("LeakingThisInConstructor") // This annotation is ignored (not supported) by Eclipse, but is used by NetBeans
@@ -117,7 +117,6 @@ public class BigRationalImpl implements Comparable<BigRationalImpl>, BigRational
         signum = signum(this);
         canAddInteger = canAddInteger(this);
         canMultiplyInteger = canMultiplyInteger(this);
-        toString = toString(this);
     }
 
 //  @SuppressWarnings("LeakingThisInConstructor") // This annotation is ignored (not supported) by Eclipse, but is used by NetBeans
@@ -141,7 +140,6 @@ public class BigRationalImpl implements Comparable<BigRationalImpl>, BigRational
         signum = signum(this);
         canAddInteger = canAddInteger(this);
         canMultiplyInteger = canMultiplyInteger(this);
-        toString = toString(this);
     }
 
 //  @SuppressWarnings("LeakingThisInConstructor") // This annotation is ignored (not supported) by Eclipse, but is used by NetBeans
@@ -165,7 +163,6 @@ public class BigRationalImpl implements Comparable<BigRationalImpl>, BigRational
         signum = signum(this);
         canAddInteger = canAddInteger(this);
         canMultiplyInteger = canMultiplyInteger(this);
-        toString = toString(this);
     }
 
     public BigRationalImpl( BigInteger numerator, long denominator )
@@ -215,7 +212,6 @@ public class BigRationalImpl implements Comparable<BigRationalImpl>, BigRational
         signum = signum(this);
         canAddInteger = canAddInteger(this);
         canMultiplyInteger = canMultiplyInteger(this);
-        toString = toString(this);
     }
 
     public static String stripLeadingZeros(String str) {
@@ -263,7 +259,6 @@ public class BigRationalImpl implements Comparable<BigRationalImpl>, BigRational
             signum = signum(this);
             canAddInteger = canAddInteger(this);
             canMultiplyInteger = canMultiplyInteger(this);
-            toString = toString(this);
             return;
 
         case 2:
@@ -306,7 +301,6 @@ public class BigRationalImpl implements Comparable<BigRationalImpl>, BigRational
             signum = temp.signum;
             canAddInteger = temp.canAddInteger;
             canMultiplyInteger = temp.canMultiplyInteger;
-            toString = temp.toString;
             return;
         }
         }
@@ -606,12 +600,17 @@ public class BigRationalImpl implements Comparable<BigRationalImpl>, BigRational
         if ( this.isWhole && this.notBig() )
             return Long.valueOf(this .num );
         else
-            return toString;    
+            return toString();    
     }
 
     @Override
     public String toString()
     {
+        // Most BigRationals are intermediate results that are never printed,
+        // so the String is not generated until it's actually needed.
+        if(toString == null) {
+            toString = toString(this);
+        }
         return toString;    
     }
 
@@ -629,13 +628,21 @@ public class BigRationalImpl implements Comparable<BigRationalImpl>, BigRational
     @Override
     public String getMathML()
     {
-        return ( this.bigNum == null )?
-                this.den == 1 ?
-                    "<mn>" + Long.toString(this.num) + "</mn>"
-                   :"<mfrac><mn>" + this.num + "</mn><mn>" + this.den + "</mn></mfrac>"
-               :this.bigDen .equals( BigInteger.ONE )?
-                    "<mn>" + this.bigNum.toString() + "</mn>"
-                   :"<mfrac><mn>" + this.bigNum + "</mn><mn>" + this.bigDen + "</mn></mfrac>";
+        if(mathML == null) {
+            mathML = getMathML(this);
+        }
+        return mathML;
+    }
+
+    private static String getMathML(BigRationalImpl that)
+    {
+        return ( that.bigNum == null )?
+                that.den == 1 ?
+                    "<mn>" + Long.toString(that.num) + "</mn>"
+                   :"<mfrac><mn>" + that.num + "</mn><mn>" + that.den + "</mn></mfrac>"
+               :that.bigDen .equals( BigInteger.ONE )?
+                    "<mn>" + that.bigNum.toString() + "</mn>"
+                   :"<mfrac><mn>" + that.bigNum + "</mn><mn>" + that.bigDen + "</mn></mfrac>";
     }
 
     /**
@@ -683,24 +690,82 @@ public class BigRationalImpl implements Comparable<BigRationalImpl>, BigRational
         if ( that == this ) return true;
         if ( that == null ) return false;
         Class<?> thatClass = that .getClass();
-        if (thatClass == this .getClass() || 
-                thatClass == String.class ||
+        if (thatClass == this .getClass()) {
+            // The invariants guarantee a unique representation,
+            // so there's no need to generate and compare Strings.
+            BigRationalImpl other = (BigRationalImpl) that;
+            return this.num == other.num && this.den == other.den 
+                    && ( this.bigNum == null 
+                        ? other.bigNum == null 
+                        : this.bigNum.equals(other.bigNum) && this.bigDen.equals(other.bigDen) );
+        }
+        if (thatClass == String.class ||
                 Number.class.isAssignableFrom(thatClass)) {
-            return this.toString.equals(that.toString());
+            return this.toString().equals(that.toString());
         }
         return false;
     }
 
     // hashCode consistent with equals() and compareTo()
+    // It is always the same as toString().hashCode(), 
+    // but doesn't generate the String unless this is big.
     @Override
     public int hashCode()
     {
         if(hashCode == null) {
-            hashCode = this .toString .hashCode();
+            if(this.bigNum == null) {
+                int h = hashDigits(0, this.num);
+                if(this.den != 1) {
+                    h = hashDigits(31 * h + '/', this.den);
+                }
+                hashCode = h;
+            } else {
+                hashCode = this .toString() .hashCode();
+            }
         }
         return hashCode;
     }
 
+    /**
+     * @return the same value as the hashCode() of a BigRationalImpl( numerator, denominator ),
+     * without creating it.
+     * @param denominator must be positive, and neither value may be Long.MIN_VALUE
+     */
+    static int hashCode(long numerator, long denominator)
+    {
+        if(numerator == 0) {
+            return hashDigits(0, 0);
+        }
+        long g = Gcd.gcd(Math.abs(numerator), denominator);
+        int h = hashDigits(0, numerator / g);
+        if(denominator != g) {
+            h = hashDigits(31 * h + '/', denominator / g);
+        }
+        return h;
+    }
+
+    /**
+     * Continues the String.hashCode() calculation as if the decimal characters of value were appended.
+     * @param h the hash of the preceding characters
+     * @param value must not be Long.MIN_VALUE, which the invariants already exclude
+     * @return the combined hash
+     */
+    private static int hashDigits(int h, long value)
+    {
+        if(value < 0) {
+            h = 31 * h + '-';
+            value = -value;
+        }
+        long divisor = 1;
+        while(value / divisor >= 10) {
+            divisor *= 10;
+        }
+        for( ; divisor > 0; divisor /= 10) {
+            h = 31 * h + (char) ('0' + (value / divisor) % 10);
+        }
+        return h;
+    }
+
     public boolean isPositive() { return signum() == 1; }
     @Override
     public boolean isNegative() { return signum() == -1; }
@@ -716,6 +781,11 @@ public class BigRationalImpl implements Comparable<BigRationalImpl>, BigRational
 
     public int signum()     { return signum; }
 
+    // These two are only meaningful when notBig() is true.
+    // They let AlgebraicNumberImpl pack its terms without allocating BigIntegers.
+    long longNumerator()    { return num; }
+    long longDenominator()  { return den; }
+
     /**
      * 
      * @param a
@@ -131,6 +131,135 @@ public class Fields
         return rank;   
     }
 
+    /**
+     * Computes the determinant of a square matrix by Bareiss fraction-free elimination.
+     * Every intermediate value is itself the determinant of a minor of the original matrix,
+     * so the terms stay as small as the inputs allow, and the cost is O(n^3)
+     * rather than the O(n!) of cofactor expansion.
+     * @param immutableMatrix is not modified
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Element<T>> T bareissDeterminant(T[][] immutableMatrix) {
+        final int n = rows(immutableMatrix);
+        if (n != columns(immutableMatrix))
+            throw new IllegalArgumentException("matrix is not square");
+        final Object[][] matrix = copyOf(immutableMatrix);
+        boolean negate = false;
+        T prevInverse = null; // null represents one, so the first step needs no reciprocal
+        for (int k = 0; k < n - 1; k++) {
+            int pivotRow = findPivot(matrix, k);
+            if (pivotRow < 0) {
+                // the column is all zeroes below the diagonal
+                return ((T) matrix[0][0]).minus((T) matrix[0][0]);
+            }
+            if (pivotRow != k) {
+                swap(matrix, k, pivotRow);
+                negate = !negate;
+            }
+            T pivot = (T) matrix[k][k];
+            T ratio = (prevInverse == null) ? pivot : pivot.times(prevInverse);
+            for (int row = k + 1; row < n; row++) {
+                T factor = (T) matrix[row][k];
+                if (prevInverse != null && !factor.isZero()) {
+                    factor = factor.times(prevInverse);
+                }
+                for (int col = k + 1; col < n; col++) {
+                    matrix[row][col] = bareissStep((T) matrix[row][col], ratio, factor, (T) matrix[k][col]);
+                }
+            }
+            prevInverse = pivot.reciprocal();
+        }
+        T determinant = (T) matrix[n - 1][n - 1];
+        return negate ? determinant.negate() : determinant;
+    }
+
+    /**
+     * Inverts a square matrix by Bareiss fraction-free Gauss-Jordan elimination.
+     * The adjoined matrix must be the identity on input, and holds the inverse on output.
+     * Only one reciprocal is needed per pivot, and the rows are never normalized,
+     * so the adjoined matrix accumulates the adjugate until a single final scaling
+     * by the reciprocal of the determinant.
+     * @param immutableMatrix is not modified
+     * @param adjoined is modified in place
+     * @return the rank of the matrix. If it is less than the matrix dimension, adjoined is not an inverse.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Element<T>> int bareissInverse(T[][] immutableMatrix, T[][] adjoined) {
+        final int n = rows(immutableMatrix);
+        if (n != columns(immutableMatrix))
+            throw new IllegalArgumentException("matrix is not square");
+        if (n != rows(adjoined) || n != columns(adjoined))
+            throw new IllegalArgumentException("adjoined matrix has the wrong dimensions");
+        final Object[][] matrix = copyOf(immutableMatrix);
+        T prevInverse = null; // null represents one, so the first step needs no reciprocal
+        for (int k = 0; k < n; k++) {
+            int pivotRow = findPivot(matrix, k);
+            if (pivotRow < 0) {
+                return k;
+            }
+            if (pivotRow != k) {
+                swap(matrix, k, pivotRow);
+                swap(adjoined, k, pivotRow);
+            }
+            T pivot = (T) matrix[k][k];
+            T ratio = (prevInverse == null) ? pivot : pivot.times(prevInverse);
+            boolean ratioIsOne = ratio.isOne();
+            for (int row = 0; row < n; row++) {
+                if (row == k)
+                    continue;
+                T factor = (T) matrix[row][k];
+                if (factor.isZero()) {
+                    if (ratioIsOne)
+                        continue; // nothing to do for this row
+                } else if (prevInverse != null) {
+                    factor = factor.times(prevInverse);
+                }
+                // Columns left of k are zero except on the diagonal, and pivot row entries there are zero,
+                // so only the diagonal needs the ratio applied.
+                if (row < k) {
+                    matrix[row][row] = bareissStep((T) matrix[row][row], ratio, null, null);
+                }
+                matrix[row][k] = ((T) matrix[row][k]).minus((T) matrix[row][k]);
+                for (int col = k + 1; col < n; col++) {
+                    matrix[row][col] = bareissStep((T) matrix[row][col], ratio, factor, (T) matrix[k][col]);
+                }
+                for (int col = 0; col < n; col++) {
+                    adjoined[row][col] = bareissStep(adjoined[row][col], ratio, factor, adjoined[k][col]);
+                }
+            }
+            prevInverse = pivot.reciprocal();
+        }
+        // Now matrix is the determinant times the identity, and adjoined is its adjugate (up to row order)
+        // so a single scaling completes the inverse, since prevInverse is the reciprocal of the determinant.
+        for (int row = 0; row < n; row++) {
+            scale(adjoined[row], prevInverse);
+        }
+        return n;
+    }
+
+    private static <T extends Element<T>> T bareissStep(T element, T ratio, T factor, T pivotRowElement) {
+        // ( pivot * element - factor * pivotRowElement ) / previous pivot,
+        // where ratio and factor have already been divided by the previous pivot
+        T result = element;
+        if (!element.isZero() && !ratio.isOne()) {
+            result = element.times(ratio);
+        }
+        if (factor != null && !factor.isZero() && !pivotRowElement.isZero()) {
+            result = result.minus(factor.times(pivotRowElement));
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Element<T>> int findPivot(Object[][] matrix, int k) {
+        for (int row = k; row < rows(matrix); row++) {
+            if (!((T) matrix[row][k]).isZero()) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
     // Elementary matrix operations used in Gauss Jordan Reduction are implemented as individual functions
     
     private static <T extends Element<T>> Object[][] copyOf(T[][] matrix) {
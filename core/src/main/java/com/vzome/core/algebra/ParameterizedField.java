@@ -1,5 +1,6 @@
 package com.vzome.core.algebra;
 
+import java.util.Arrays;
 import java.util.function.BiConsumer;
 
 /**
@@ -27,6 +28,9 @@ public abstract class ParameterizedField extends AbstractAlgebraicField {
      * @param factors
      */
     static final void doNothing(AlgebraicField field, BigRational[] factors) {}
+
+    // a single shared instance, so that multiply( long[], long[] ) can recognize it
+    private static final BiConsumer<AlgebraicField, BigRational[]> DO_NOTHING = ParameterizedField::doNothing;
     
     /**
      * Subclasses may need different normalization methods based on their parameters.
@@ -34,7 +38,7 @@ public abstract class ParameterizedField extends AbstractAlgebraicField {
      * By assigning an appropriate normalizer method once in the c'tor, 
      * the method can avoid the repeated overhead of checking isPerfectSquare() within the normalizer method itself.   
      */
-    protected BiConsumer<AlgebraicField, BigRational[]> normalizer = ParameterizedField::doNothing;
+    protected BiConsumer<AlgebraicField, BigRational[]> normalizer = DO_NOTHING;
     
     @Override
 	final void normalize( BigRational[] factors ) 
@@ -49,13 +53,70 @@ public abstract class ParameterizedField extends AbstractAlgebraicField {
         // The labels are initialized last because they could possibly utilize the other values.
         initializeNormalizer();
         initializeMultiplicationTensor();
+        compileMultiplicationTensor();
         initializeCoefficients();
         initializeLabels();
     }
 
+    // The multiplicationTensor is mostly zeros, especially for fields of higher order,
+    // so it is compiled once into a sparse form that multiply() and scaleBy() can simply execute.
+    // For each distinct (j, k) pair of input terms having any non-zero multiplier,
+    // productTargets holds the {i, multiplier} pairs that their product contributes to.
+    private int[] productJ, productK;
+    private int[][] productTargets;
+    // scaleTerms[ whichIrrational ][ i ] holds the {j, multiplier} pairs contributing to result[ i ]
+    private int[][][] scaleTerms;
+
+    private void compileMultiplicationTensor()
+    {
+        int order = getOrder();
+        int[] js = new int[order * order];
+        int[] ks = new int[order * order];
+        int[][] targets = new int[order * order][];
+        int nProducts = 0;
+        for (int j = 0; j < order; j++) {
+            for (int k = 0; k < order; k++) {
+                int[] terms = new int[2 * order];
+                int nTerms = 0;
+                for(int i = 0; i < order; i++) {
+                    int multiplier = multiplicationTensor[i][j][k];
+                    if(multiplier != 0) {
+                        terms[nTerms++] = i;
+                        terms[nTerms++] = multiplier;
+                    }
+                }
+                if(nTerms > 0) {
+                    js[nProducts] = j;
+                    ks[nProducts] = k;
+                    targets[nProducts] = Arrays.copyOf(terms, nTerms);
+                    nProducts++;
+                }
+            }
+        }
+        productJ = Arrays.copyOf(js, nProducts);
+        productK = Arrays.copyOf(ks, nProducts);
+        productTargets = Arrays.copyOf(targets, nProducts);
+
+        scaleTerms = new int[order][order][];
+        for (int k = 0; k < order; k++) {
+            for(int i = 0; i < order; i++) {
+                int[] terms = new int[2 * order];
+                int nTerms = 0;
+                for (int j = 0; j < order; j++) {
+                    int multiplier = multiplicationTensor[i][j][k];
+                    if(multiplier != 0) {
+                        terms[nTerms++] = j;
+                        terms[nTerms++] = multiplier;
+                    }
+                }
+                scaleTerms[k][i] = Arrays.copyOf(terms, nTerms);
+            }
+        }
+    }
+
     protected void initializeNormalizer() 
     {
-        normalizer = ParameterizedField::doNothing;
+        normalizer = DO_NOTHING;
     }
 
     // It seems that the 3D multiplier array should be called multiplicationTensor or multiplicationHolor
@@ -75,27 +136,61 @@ public abstract class ParameterizedField extends AbstractAlgebraicField {
     {
         int order = getOrder();
         BigRational[] result = new BigRational[order];
+        BigRational zero = numberFactory.zero();
         for(int i = 0; i < order; i++) {
-            result[i] = numberFactory.zero();
-            for (int j = 0; j < order; j++) {
-                for (int k = 0; k < order; k++) {
-                    int multiplier = multiplicationTensor[i][j][k];
-                    // We would get the same result if we do the long math even when multiplier is 0 or 1
-                    // but the checks for the two special cases (0 and 1) are quicker than the overhead of BigRational math
-                    // so they are included here as performance optimizations.
-                    if(multiplier != 0) {
-                        BigRational product = v1[j]. times( v2[k] );
-                        if(multiplier != 1) {
-                            product = product. timesInt( multiplier );
-                        }
-                        result[i] = result[i].plus(product);
-                    }
-                }
+            result[i] = zero;
+        }
+        for(int p = 0; p < productTargets.length; p++) {
+            BigRational f1 = v1[productJ[p]];
+            BigRational f2 = v2[productK[p]];
+            // Zero terms are common, and skipping them is much quicker than the BigRational math.
+            if(f1.isZero() || f2.isZero()) {
+                continue;
+            }
+            // each product is computed once, no matter how many result terms it contributes to
+            BigRational product = f1.times( f2 );
+            int[] targets = productTargets[p];
+            for(int t = 0; t < targets.length; t += 2) {
+                int i = targets[t];
+                int multiplier = targets[t+1];
+                result[i] = result[i].plus( multiplier == 1 ? product : product.timesInt( multiplier ) );
             }
         }
         return result;
     }
 
+    @Override
+    long[] multiply( long[] v1, long[] v2 )
+    {
+        if( normalizer != DO_NOTHING ) {
+            // the long kernel can't apply a normalizer, so let the BigRational path handle it
+            return null;
+        }
+        int order = getOrder();
+        boolean[] overflow = { false };
+        long[] result = new long[order + 1];
+        for(int p = 0; p < productTargets.length; p++) {
+            long f1 = v1[productJ[p]];
+            long f2 = v2[productK[p]];
+            if(f1 == 0 || f2 == 0) {
+                continue;
+            }
+            long product = BigRationalImpl.multiplyAndCheck( f1, f2, overflow );
+            int[] targets = productTargets[p];
+            for(int t = 0; t < targets.length; t += 2) {
+                int i = targets[t];
+                int multiplier = targets[t+1];
+                long term = multiplier == 1 ? product : BigRationalImpl.multiplyAndCheck( product, multiplier, overflow );
+                result[i] = BigRationalImpl.addAndCheck( result[i], term, overflow );
+            }
+            if(overflow[0]) {
+                return null;
+            }
+        }
+        result[order] = BigRationalImpl.multiplyAndCheck( v1[order], v2[order], overflow );
+        return overflow[0] ? null : result;
+    }
+
     @Override
     BigRational[] scaleBy(BigRational[] factors, int whichIrrational)
     {
@@ -103,22 +198,17 @@ public abstract class ParameterizedField extends AbstractAlgebraicField {
             return factors;
         }
         int order = getOrder();
+        int[][] terms = scaleTerms[whichIrrational];
         BigRational[] result = new BigRational[order];
         for(int i = 0; i < order; i++) {
-            result[i] = numberFactory.zero();
-            for (int j = 0; j < order; j++) {
-                int multiplier = multiplicationTensor[i][j][whichIrrational];
-                // We would get the same result if we do the long math even when multiplier is 0 or 1
-                // but the check for the two special case (0 and 1) is lots quicker than the overhead of BigRational math
-                // so they are included here as performance optimizations.
-                if(multiplier != 0) {
-                    if (multiplier == 1) {
-                        result[i] = result[i].plus(factors[j]);
-                    } else {
-                        result[i] = result[i].plus(factors[j].timesInt( multiplier ));
-                    }
-                }
+            BigRational sum = numberFactory.zero();
+            int[] termsI = terms[i];
+            for (int t = 0; t < termsI.length; t += 2) {
+                BigRational factor = factors[termsI[t]];
+                int multiplier = termsI[t+1];
+                sum = sum.plus( multiplier == 1 ? factor : factor.timesInt( multiplier ) );
             }
+            result[i] = sum;
         }
         normalize( result );
         return result;
@@ -72,6 +72,20 @@ public final class PentagonField extends AbstractAlgebraicField
         return new BigRational[]{ ones, phis };
     }
 
+    @Override
+    final long[] multiply( long[] v1, long[] v2 )
+    {
+        boolean[] overflow = { false };
+        long onesXones = BigRationalImpl.multiplyAndCheck( v1[ONES_PLACE], v2[ONES_PLACE], overflow );
+        long onesXphis = BigRationalImpl.multiplyAndCheck( v1[ONES_PLACE], v2[PHIS_PLACE], overflow );
+        long phisXones = BigRationalImpl.multiplyAndCheck( v1[PHIS_PLACE], v2[ONES_PLACE], overflow );
+        long phisXphis = BigRationalImpl.multiplyAndCheck( v1[PHIS_PLACE], v2[PHIS_PLACE], overflow );
+        long ones = BigRationalImpl.addAndCheck( onesXones, phisXphis, overflow );
+        long phis = BigRationalImpl.addAndCheck( BigRationalImpl.addAndCheck( phisXones, onesXphis, overflow ), phisXphis, overflow );
+        long divisor = BigRationalImpl.multiplyAndCheck( v1[2], v2[2], overflow );
+        return overflow[0] ? null : new long[]{ ones, phis, divisor };
+    }
+
     @Override
     protected BigRational[] reciprocal( BigRational[] v2 )
     {
@@ -38,6 +38,20 @@ public class RootThreeField extends AbstractAlgebraicField
         return new BigRational[]{ ones, sqrt3s };
     }
 
+    @Override
+    final long[] multiply( long[] first, long[] second )
+    {
+        boolean[] overflow = { false };
+        long onesXones = BigRationalImpl.multiplyAndCheck( first[ ONES_PLACE ], second[ ONES_PLACE ], overflow );
+        long sqrt3sXsqrt3s = BigRationalImpl.multiplyAndCheck( first[ SQRT3_PLACE ], second[ SQRT3_PLACE ], overflow );
+        long sqrt3sXones = BigRationalImpl.multiplyAndCheck( first[ SQRT3_PLACE ], second[ ONES_PLACE ], overflow );
+        long onesXsqrt3s = BigRationalImpl.multiplyAndCheck( first[ ONES_PLACE ], second[ SQRT3_PLACE ], overflow );
+        long ones = BigRationalImpl.addAndCheck( onesXones, BigRationalImpl.multiplyAndCheck( sqrt3sXsqrt3s, 3, overflow ), overflow );
+        long sqrt3s = BigRationalImpl.addAndCheck( sqrt3sXones, onesXsqrt3s, overflow );
+        long divisor = BigRationalImpl.multiplyAndCheck( first[ 2 ], second[ 2 ], overflow );
+        return overflow[0] ? null : new long[]{ ones, sqrt3s, divisor };
+    }
+
     private static final int ONES_PLACE = 0, SQRT3_PLACE = 1;
 
     @Override
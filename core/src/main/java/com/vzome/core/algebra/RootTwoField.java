@@ -46,6 +46,20 @@ public class RootTwoField extends AbstractAlgebraicField
         return new BigRational[]{ ones, sqrt2s };
     }
 
+    @Override
+    final long[] multiply( long[] first, long[] second )
+    {
+        boolean[] overflow = { false };
+        long onesXones = BigRationalImpl.multiplyAndCheck( first[ ONES_PLACE ], second[ ONES_PLACE ], overflow );
+        long sqrt2sXsqrt2s = BigRationalImpl.multiplyAndCheck( first[ SQRT2_PLACE ], second[ SQRT2_PLACE ], overflow );
+        long sqrt2sXones = BigRationalImpl.multiplyAndCheck( first[ SQRT2_PLACE ], second[ ONES_PLACE ], overflow );
+        long onesXsqrt2s = BigRationalImpl.multiplyAndCheck( first[ ONES_PLACE ], second[ SQRT2_PLACE ], overflow );
+        long ones = BigRationalImpl.addAndCheck( onesXones, BigRationalImpl.multiplyAndCheck( sqrt2sXsqrt2s, 2, overflow ), overflow );
+        long sqrt2s = BigRationalImpl.addAndCheck( sqrt2sXones, onesXsqrt2s, overflow );
+        long divisor = BigRationalImpl.multiplyAndCheck( first[ 2 ], second[ 2 ], overflow );
+        return overflow[0] ? null : new long[]{ ones, sqrt2s, divisor };
+    }
+
     private static final String[][] IRRATIONAL_LABELS = new String[][] {
         {" ", " "},
         {"\u221A2", "sqrt(2)"}
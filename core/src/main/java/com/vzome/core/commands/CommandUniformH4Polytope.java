@@ -24,6 +24,7 @@ import com.vzome.core.construction.Segment;
 import com.vzome.core.construction.SegmentJoiningPoints;
 import com.vzome.core.math.Projection;
 import com.vzome.core.math.QuaternionProjection;
+import com.vzome.core.math.symmetry.ParallelOrbit;
 import com.vzome.core.math.symmetry.QuaternionicSymmetry;
 import com.vzome.core.math.symmetry.WythoffConstruction;
 import com.vzome.xml.DomUtils;
@@ -384,7 +385,7 @@ public class CommandUniformH4Polytope extends CommandTransform
 
     public void generate( int index, int renderEdges, AlgebraicNumber[] edgeScales, WythoffConstruction.Listener listener )
     {   
-        AlgebraicVector[] reflections = new AlgebraicVector[4];
+        final AlgebraicVector[] reflections = new AlgebraicVector[4];
         AlgebraicVector prototype = symm .getPrototype( index );
 
         if ( edgeScales != null )  // ignore the prebuilt prototype
@@ -404,40 +405,43 @@ public class CommandUniformH4Polytope extends CommandTransform
             if ( ( renderEdges & ( 1 << mirror ) ) != 0 )
                 reflections[ mirror ] = symm .reflect( mirror, prototype );
 
-        for (Quaternion outerRoot : mRoots) { 
-            for (Quaternion innerRoot : mRoots) {
-                AlgebraicVector vertex = outerRoot.rightMultiply(prototype);
-                vertex = innerRoot.leftMultiply(vertex);
-
-                Object p1 = listener .addVertex( vertex );
+        final AlgebraicVector vertexPrototype = prototype;
+        final int numRoots = mRoots .length;
+        ParallelOrbit .construct( numRoots * numRoots, new ParallelOrbit.Images()
+        {
+            @Override
+            public AlgebraicVector[] getImages( int element )
+            {
+                Quaternion outerRoot = mRoots[ element / numRoots ];
+                Quaternion innerRoot = mRoots[ element % numRoots ];
+                AlgebraicVector[] images = new AlgebraicVector[ 5 ];
+                AlgebraicVector vertex = outerRoot.rightMultiply( vertexPrototype );
+                vertex = innerRoot.leftMultiply( vertex );
+                images[ 0 ] = vertex;
 
                 for (int mirror = 0; mirror < 4; mirror++) {
                     if (reflections[ mirror ] != null) {
                         AlgebraicVector other = outerRoot.rightMultiply(reflections[ mirror ]);
                         other = innerRoot.leftMultiply( other );
                         if ( ! other .equals( vertex ) )
-                        {
-                            Object p2 = listener .addVertex( other );
-
-                            listener .addEdge( p1, p2 );
-                        }
+                            images[ mirror + 1 ] = other;
                     }
                 }
+                return images;
             }
-            //        try {
-            //            String wythoff = Integer .toBinaryString( index );
-            //            wythoff = "0000" .substring( wythoff .length() ) + wythoff;
-            //            PrintWriter out = new PrintWriter( new FileWriter( new File( "H4_" + wythoff + ".vef" ) ) );
-            //            out .println( vertices .size() );
-            //            out .println( vefVertices .toString() );
-            //            out .println( edges .size() );
-            //            out .println( vefEdges .toString() );
-            //            out .close();
-            //        } catch ( IOException e ) {
-            //            e.printStackTrace();
-            //        }
-        }
-            
+        }, listener );
+        //        try {
+        //            String wythoff = Integer .toBinaryString( index );
+        //            wythoff = "0000" .substring( wythoff .length() ) + wythoff;
+        //            PrintWriter out = new PrintWriter( new FileWriter( new File( "H4_" + wythoff + ".vef" ) ) );
+        //            out .println( vertices .size() );
+        //            out .println( vefVertices .toString() );
+        //            out .println( edges .size() );
+        //            out .println( vefEdges .toString() );
+        //            out .close();
+        //        } catch ( IOException e ) {
+        //            e.printStackTrace();
+        //        }
     }
     
     private static class Edge
@@ -109,6 +109,25 @@ public class XmlSaveFormat
         
         FORMATS .put( version, this );
     }
+
+    /**
+     * An unregistered copy of a registered format, to be initialized for one document.
+     * The registered formats are shared by all documents, so they must not be initialized
+     * when more than one document may be loading at a time.
+     * @param prototype
+     */
+    protected XmlSaveFormat( XmlSaveFormat prototype )
+    {
+        super();
+
+        this .version = prototype .version;
+        this .capabilities .addAll( prototype .capabilities );
+
+        mProject4d = prototype .mProject4d;
+        mSelectionNotSaved = prototype .mSelectionNotSaved;
+        mRationalVectors = prototype .mRationalVectors;
+        mGroupingInSelection = prototype .mGroupingInSelection;
+    }
     
     protected String getVersion()
     {
@@ -45,6 +45,18 @@ public class XmlSymmetryFormat extends XmlSaveFormat
         return (XmlSymmetryFormat) FORMATS .get( namespace );
     }
 
+    /**
+     * @return a new format for the namespace, for a single document to initialize,
+     *  or null if the namespace is not a known format
+     */
+    public static XmlSymmetryFormat newFormat( String namespace )
+    {
+        XmlSymmetryFormat prototype = getFormat( namespace );
+        if ( prototype == null )
+            return null;
+        return new XmlSymmetryFormat( prototype );
+    }
+
     public void initialize( AlgebraicField field, OrbitSet.Field symms, int scale,
             String writerVersion, Properties props )
     {
@@ -57,6 +69,11 @@ public class XmlSymmetryFormat extends XmlSaveFormat
         super( version, capabilities );
     }
 
+    private XmlSymmetryFormat( XmlSymmetryFormat prototype )
+    {
+        super( prototype );
+    }
+
     public Object parseAlgebraicObject( String valName, Element val )
     {
         if ( valName .equals( "Symmetry" ) ) {
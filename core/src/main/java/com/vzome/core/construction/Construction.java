@@ -135,4 +135,12 @@ public abstract class Construction
     {
         return "";
     }
+
+    /**
+     * @return a key that is equal for two constructions exactly when their signatures are equal
+     */
+    public SignatureKey getSignatureKey()
+    {
+        return SignatureKey.EMPTY;
+    }
 }
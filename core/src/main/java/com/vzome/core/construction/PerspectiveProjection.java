@@ -48,6 +48,12 @@ public class PerspectiveProjection extends Transformation
         return point .getLocation();
     }
 
+    @Override
+    public boolean isPointwise()
+    {
+        return false;
+    }
+
     @Override
     public Construction transform( Construction c )
     {
@@ -52,6 +52,12 @@ public class PlaneProjection extends Transformation
         return point .getLocation();
     }
 
+    @Override
+    public boolean isPointwise()
+    {
+        return false;
+    }
+
     @Override
     public Construction transform( Construction c )
     {
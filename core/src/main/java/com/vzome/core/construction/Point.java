@@ -24,6 +24,12 @@ public abstract class Point extends Construction
         return this .mLocation .projectTo3d( true ) .toString();
     }
 
+    @Override
+    public SignatureKey getSignatureKey()
+    {
+        return SignatureKey .point( this .mLocation );
+    }
+
     @Override
     public boolean is3d()
     {
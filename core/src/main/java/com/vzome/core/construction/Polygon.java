@@ -37,6 +37,12 @@ public abstract class Polygon extends Construction
         return Arrays.toString( strArray );
     }
 
+    @Override
+    public SignatureKey getSignatureKey()
+    {
+        return SignatureKey .polygon( this .mVertices );
+    }
+
     protected boolean setStateVariable( AlgebraicVector[] vertices, boolean impossible )
     {
         if ( impossible ) {
@@ -35,6 +35,12 @@ public abstract class Segment extends Construction
     		return end + "," + start;
     }
 
+    @Override
+    public SignatureKey getSignatureKey()
+    {
+        return SignatureKey .segment( this .mStart, this .getEnd() );
+    }
+
     @Override
     public boolean is3d()
     {
@@ -0,0 +1,109 @@
+package com.vzome.core.construction;
+
+import com.vzome.core.algebra.AlgebraicVector;
+
+/**
+ * A hash key equivalent to the String returned by {@link Construction#getSignature()},
+ * but built directly from the projected vectors, so that no strings are generated.
+ * Two keys are equal exactly when the corresponding signatures are equal:
+ * the same kind of construction, with the same vertices in any order.
+ * RealizedModelImpl uses these as its keys; the String signatures are only for display and serialization.
+ */
+public final class SignatureKey
+{
+    private static final char POINT = 'P', SEGMENT = 'S', POLYGON = 'G', NONE = ' ';
+
+    public static final SignatureKey EMPTY = new SignatureKey( NONE, new AlgebraicVector[0] );
+
+    private final char kind;
+    private final AlgebraicVector[] vertices;
+    private final int hashCode;
+
+    private SignatureKey( char kind, AlgebraicVector[] vertices )
+    {
+        this .kind = kind;
+        this .vertices = vertices;
+        // a sum, so the hash doesn't depend on the order of the vertices
+        int hash = kind;
+        for ( AlgebraicVector vertex : vertices ) {
+            hash += vertex .hashCode();
+        }
+        this .hashCode = hash;
+    }
+
+    public static SignatureKey point( AlgebraicVector location )
+    {
+        return new SignatureKey( POINT, new AlgebraicVector[]{ location .projectTo3d( true ) } );
+    }
+
+    public static SignatureKey segment( AlgebraicVector start, AlgebraicVector end )
+    {
+        return new SignatureKey( SEGMENT, new AlgebraicVector[]{ start .projectTo3d( true ), end .projectTo3d( true ) } );
+    }
+
+    public static SignatureKey polygon( AlgebraicVector[] vertices )
+    {
+        AlgebraicVector[] projected = new AlgebraicVector[ vertices .length ];
+        for ( int i = 0; i < vertices .length; i++ ) {
+            projected[ i ] = vertices[ i ] .projectTo3d( true );
+        }
+        return new SignatureKey( POLYGON, projected );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return this .hashCode;
+    }
+
+    @Override
+    public boolean equals( Object obj )
+    {
+        if ( this == obj )
+            return true;
+        if ( ! ( obj instanceof SignatureKey ) )
+            return false;
+        SignatureKey that = (SignatureKey) obj;
+        if ( this .hashCode != that .hashCode || this .kind != that .kind || this .vertices .length != that .vertices .length )
+            return false;
+        switch ( this .vertices .length ) {
+        case 0:
+            return true;
+
+        case 1:
+            return this .vertices[ 0 ] .equals( that .vertices[ 0 ] );
+
+        case 2:
+            return ( this .vertices[ 0 ] .equals( that .vertices[ 0 ] ) && this .vertices[ 1 ] .equals( that .vertices[ 1 ] ) )
+                || ( this .vertices[ 0 ] .equals( that .vertices[ 1 ] ) && this .vertices[ 1 ] .equals( that .vertices[ 0 ] ) );
+
+        default:
+            // Polygons are compared as multisets of vertices, just as their sorted signatures are.
+            boolean[] matched = new boolean[ that .vertices .length ];
+            for ( AlgebraicVector vertex : this .vertices ) {
+                boolean found = false;
+                for ( int j = 0; j < matched .length; j++ ) {
+                    if ( ! matched[ j ] && vertex .equals( that .vertices[ j ] ) ) {
+                        matched[ j ] = true;
+                        found = true;
+                        break;
+                    }
+                }
+                if ( ! found )
+                    return false;
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder buf = new StringBuilder();
+        buf .append( this .kind );
+        for ( AlgebraicVector vertex : this .vertices ) {
+            buf .append( " " ) .append( vertex );
+        }
+        return buf .toString();
+    }
+}
@@ -109,6 +109,15 @@ public abstract class Transformation extends Construction
         return arg;
     }
     
+    /**
+     * @return true if transform( Construction ) only maps every vertex through transform( AlgebraicVector ),
+     * so that the transformed vertices of different constructions can be shared
+     */
+    public boolean isPointwise()
+    {
+        return true;
+    }
+
     public Construction transform( Construction c )
     {
         if ( c instanceof Point ) {
@@ -3,11 +3,16 @@ package com.vzome.core.editor;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.w3c.dom.Element;
@@ -72,12 +77,16 @@ import com.vzome.core.render.Colors;
 import com.vzome.core.viewing.Lights;
 import com.vzome.fields.sqrtphi.SqrtPhiField;
 import com.vzome.fields.sqrtphi.SqrtPhiFieldApplication;
-import com.vzome.xml.DomParser;
+import com.vzome.xml.StreamingParser;
 
 public class Application implements AlgebraicField.Registry
 {
     private final Map<String, Supplier<FieldApplication> > fieldAppSuppliers = new HashMap<>();
 
+    // Each FieldApplication is built once, on first use, and shared by all the documents of its kind,
+    //  since its field, symmetries, orbits and shapes are costly to build, and are not changed by documents.
+    private final Map<String, FieldApplication> fieldApps = new ConcurrentHashMap<>();
+
     private final Colors mColors;
 
     private final Command.FailureChannel failures;
@@ -92,6 +101,8 @@ public class Application implements AlgebraicField.Registry
 
     private static final Logger LOGGER = Logger.getLogger( "com.vzome.core.editor" );
 
+    private static final List<String> HISTORY_ELEMENTS = Arrays .asList( "EditHistory", "editHistory" );
+
     public Application( boolean enableCommands, Command.FailureChannel failures, Properties overrides )
     {
         // This is executed on the EDT.  Should it be?
@@ -197,7 +208,14 @@ public class Application implements AlgebraicField.Registry
         String noLineNums = this .properties .getProperty( "no.line.numbers" );
         boolean captureLineNumbers = noLineNums == null || noLineNums .equals( "false" );
 
-        Element element = DomParser .parseXml( bytes, captureLineNumbers );
+        // The edits are streamed out of the DOM, so each one is only a small detached fragment
+        //  with its line number, rather than a node in a full document that is copied once more
+        //  to capture line numbers.
+        List<Element> edits = new ArrayList<>();
+        long start = System.nanoTime();
+        Element element = StreamingParser .parseXml( bytes, HISTORY_ELEMENTS, captureLineNumbers, edits::add );
+        if ( LOGGER .isLoggable( Level.FINE ) )
+            LOGGER .fine( "streamed " + edits .size() + " edits in " + ( System.nanoTime() - start ) / 1000000 + " ms" );
         String tns = element .getNamespaceURI();
         XmlSymmetryFormat format = XmlSymmetryFormat .getFormat( tns );
 
@@ -224,7 +242,7 @@ public class Application implements AlgebraicField.Registry
             fieldName = "golden";
         FieldApplication kind = this .getDocumentKind( fieldName );
 
-        return new DocumentModel( kind, failures, element, this );
+        return new DocumentModel( kind, failures, element, edits, this );
     }
 
     public DocumentModel createDocument( String fieldName )
@@ -251,8 +269,26 @@ public class Application implements AlgebraicField.Registry
         return this .getDocumentKind( name ) .getField();
     }
 
+    /**
+     * @param name
+     * @return the FieldApplication for the named field, shared by every document using that field
+     */
     public FieldApplication getDocumentKind( String name )
     {
+        FieldApplication kind = this .fieldApps .get( name );
+        if ( kind != null )
+            return kind;
+        // Built outside the map's lock, since this can be slow; if another thread
+        //  got there first, its instance wins and this one is dropped.
+        kind = this .createDocumentKind( name );
+        FieldApplication winner = this .fieldApps .putIfAbsent( name, kind );
+        return ( winner != null )? winner : kind;
+    }
+
+    private FieldApplication createDocumentKind( String name )
+    {
+        if ( LOGGER .isLoggable( Level.FINE ) )
+            LOGGER .fine( "creating FieldApplication: " + name );
         Supplier<FieldApplication> supplier = fieldAppSuppliers.get(name);
         if( supplier != null ) {
             return supplier.get();
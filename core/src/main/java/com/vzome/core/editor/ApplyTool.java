@@ -11,8 +11,13 @@ import org.w3c.dom.Element;
 import com.vzome.core.commands.Command.Failure;
 import com.vzome.core.commands.XmlSaveFormat;
 import com.vzome.core.construction.Construction;
+import com.vzome.core.construction.Point;
+import com.vzome.core.construction.Polygon;
+import com.vzome.core.construction.Segment;
 import com.vzome.core.editor.api.ChangeManifestations;
 import com.vzome.core.model.Manifestation;
+import com.vzome.core.tools.ParallelTransforms;
+import com.vzome.core.tools.TransformationTool;
 
 public class ApplyTool extends ChangeManifestations
 {
@@ -58,7 +63,29 @@ public class ApplyTool extends ChangeManifestations
         tool. prepare( this );
 
         // now, any manifested constructions are outputs
-        if ( tool .needsInput() )
+        if ( tool .needsInput() && tool instanceof TransformationTool )
+        {
+            // The transforms are pure, so they are all computed first, in parallel if a TaskRunner allows.
+            //  Only manifesting the results must happen here, in input order, as before.
+            TransformationTool transformer = (TransformationTool) tool;
+            List<Construction> constructions = new ArrayList<>();
+            for (Manifestation man : inputs) {
+                constructions .add( man .toConstruction() );
+            }
+            Construction[][] transformed = ParallelTransforms .transform( transformer, constructions );
+            for ( int i = 0; i < inputs .size(); i++ ) {
+                Manifestation man = inputs .get( i );
+                Construction c = man .toConstruction();
+                Construction[] results = transformed[ i ];
+                if ( ! isSameInput( c, constructions .get( i ) ) )
+                    // earlier outputs have changed this input's construction, so transform it again
+                    results = transformer .transformInput( c );
+                c .setColor( copyColors? man .getColor() : null );
+
+                transformer .manifestTransformed( c, results, this );
+            }
+        }
+        else if ( tool .needsInput() )
         {
             for (Manifestation man : inputs) {
                 Construction c = man .toConstruction();
@@ -80,6 +107,30 @@ public class ApplyTool extends ChangeManifestations
         super.perform();
     }
 
+    static boolean isSameInput( Construction c, Construction transformed )
+    {
+        if ( c == transformed )
+            return true;
+        // A manifestation without a 3d construction makes a new one every time, with the same vertices.
+        //  The transforms depend only on those, so the results computed for the other one will do.
+        if ( c instanceof Point && transformed instanceof Point )
+            return ((Point) c) .getLocation() .equals( ((Point) transformed) .getLocation() );
+        if ( c instanceof Segment && transformed instanceof Segment ) {
+            Segment segment = (Segment) c, other = (Segment) transformed;
+            return segment .getStart() .equals( other .getStart() ) && segment .getEnd() .equals( other .getEnd() );
+        }
+        if ( c instanceof Polygon && transformed instanceof Polygon ) {
+            Polygon polygon = (Polygon) c, other = (Polygon) transformed;
+            if ( polygon .getVertexCount() != other .getVertexCount() )
+                return false;
+            for ( int i = 0; i < polygon .getVertexCount(); i++ )
+                if ( ! polygon .getVertex( i ) .equals( other .getVertex( i ) ) )
+                    return false;
+            return true;
+        }
+        return false;
+    }
+
     private Tool tool;
 
     private boolean selectInputs, deselectOutputs, justSelect, hideInputs, deleteInputs, redundantOutputs, copyColors;
@@ -5,6 +5,7 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.StringWriter;
 import java.util.ArrayList;
@@ -92,6 +93,15 @@ public class DocumentModel implements Snapshot .Recorder, Context, DocumentIntf
 
     private final Element mXML;
 
+    // the edits streamed out of mXML by Application.loadDocument(), until they are loaded
+    private List<Element> streamedEdits;
+
+    // the state before loadModelCache() replaced it, until the history is loaded
+    private ModelCheckpoint uncachedState = null;
+
+    // true once the lesson is read from mXML by loadLesson(), before the history
+    private boolean lessonLoaded = false;
+
     private RenderedModel renderedModel;
 
     private Camera defaultCamera;
@@ -101,6 +111,11 @@ public class DocumentModel implements Snapshot .Recorder, Context, DocumentIntf
     // The factories are here just for deserialization, not for use by controllers
     private final Map<String,Tool.Factory> toolFactories = new HashMap<>();
 
+    /**
+     * Appended to the name of a document file to name the model cache saved beside it
+     */
+    public static final String MODEL_CACHE_SUFFIX = ".cache";
+
     private static final Logger logger = Logger .getLogger( "com.vzome.core.editor" );
     private static final Logger thumbnailLogger = Logger.getLogger( "com.vzome.core.thumbnails" );
 
@@ -141,6 +156,14 @@ public class DocumentModel implements Snapshot .Recorder, Context, DocumentIntf
     }
 
     public DocumentModel( final FieldApplication kind, Command.FailureChannel failures, Element xml, final Application app )
+    {
+        this( kind, failures, xml, null, app );
+    }
+
+    /**
+     * @param edits the children of the edit history, if they were streamed rather than left in the xml
+     */
+    public DocumentModel( final FieldApplication kind, Command.FailureChannel failures, Element xml, List<Element> edits, final Application app )
     {
         super();
         this .kind = kind;
@@ -149,6 +172,7 @@ public class DocumentModel implements Snapshot .Recorder, Context, DocumentIntf
         this .originPoint = new FreePoint( origin );
         this .failures = failures;
         this .mXML = xml;
+        this .streamedEdits = edits;
         this .sceneLighting = new Lights( app .getLights() );
         if ( this .mXML != null ) {
             Element lightsXml = (Element) this .mXML .getElementsByTagName( "sceneModel" ) .item( 0 );
@@ -264,6 +288,9 @@ public class DocumentModel implements Snapshot .Recorder, Context, DocumentIntf
                 return DomSerializer .getXmlString( xmlElement );
             }
         });
+        if ( this .mXML == null )
+            // nothing to load, so nothing to replay
+            this .enableCheckpoints();
         mHistory .setListener( new EditHistory.Listener() {
 
             @Override
@@ -410,6 +437,13 @@ public class DocumentModel implements Snapshot .Recorder, Context, DocumentIntf
     @Override
     public boolean doEdit( String action, Map<String,Object> props )
     {
+        if ( this .uncachedState != null ) {
+            this .loadHistory();
+            // the picked manifestation may be one from the cache, replaced by loading the history
+            Object picked = props .get( "picked" );
+            if ( picked instanceof Manifestation )
+                props .put( "picked", this .mRealizedModel .getManifestation( ((Manifestation) picked) .toConstruction() ) );
+        }
         if ( this .editorModel .mSelection .isEmpty() && action .equals( "hideball" ) ) {
             action = "ShowHidden";
         }
@@ -458,6 +492,7 @@ public class DocumentModel implements Snapshot .Recorder, Context, DocumentIntf
     {
         if ( edit == null )
             return;
+        this .loadHistory();
 
         try {
             synchronized ( this .mHistory ) {
@@ -527,6 +562,14 @@ public class DocumentModel implements Snapshot .Recorder, Context, DocumentIntf
         try {
             if ( mXML == null )
                 return;
+            if ( this .uncachedState != null ) {
+                // the history starts from the state before the cache was loaded
+                this .uncachedState .restore();
+                this .uncachedState = null;
+                // replaying the history records the snapshots again
+                this .snapshots = new RenderedModel[ 8 ];
+                this .numSnapshots = 0;
+            }
 
             // TODO: record the edition, version, and revision on the format, so we can report a nice
             //   error if we fail to understand some command in the history.  If the revision is
@@ -537,7 +580,7 @@ public class DocumentModel implements Snapshot .Recorder, Context, DocumentIntf
             //   (Adjust that if $Version.edition == $file.edition, to avoid confusion.)
 
             String tns = mXML .getNamespaceURI();
-            XmlSymmetryFormat format = XmlSymmetryFormat.getFormat( tns );
+            XmlSymmetryFormat format = XmlSymmetryFormat.newFormat( tns );
             if ( format == null )
                 return; // already checked and reported version compatibility,
             // up in the constructor
@@ -600,7 +643,7 @@ public class DocumentModel implements Snapshot .Recorder, Context, DocumentIntf
                 }
 
                 Element notesXml = (Element) mXML .getElementsByTagName( "notes" ) .item( 0 );
-                if ( notesXml != null ) 
+                if ( notesXml != null && ! this .lessonLoaded )
                     lesson .setXml( notesXml, editNum, this .defaultCamera );
 
                 // add migrated views to the end of the lesson
@@ -643,12 +686,19 @@ public class DocumentModel implements Snapshot .Recorder, Context, DocumentIntf
                 int lastDoneEdit = openUndone? 0 : Integer.parseInt( hist .getAttribute( "editNumber" ) );
                 String lseStr = hist .getAttribute( "lastStickyEdit" );
                 int lastStickyEdit = ( ( lseStr == null ) || lseStr .isEmpty() )? -1 : Integer .parseInt( lseStr );
-                NodeList nodes = hist .getChildNodes();
-                for ( int i = 0; i < nodes .getLength(); i++ ) {
-                    Node kid = nodes .item( i );
-                    if ( kid instanceof Element ) {
-                        Element editElem = (Element) kid;
+                if ( this .streamedEdits != null ) {
+                    for ( Element editElem : this .streamedEdits )
                         mHistory .loadEdit( format, editElem, this );
+                    this .streamedEdits = null; // the history holds them now
+                }
+                else {
+                    NodeList nodes = hist .getChildNodes();
+                    for ( int i = 0; i < nodes .getLength(); i++ ) {
+                        Node kid = nodes .item( i );
+                        if ( kid instanceof Element ) {
+                            Element editElem = (Element) kid;
+                            mHistory .loadEdit( format, editElem, this );
+                        }
                     }
                 }
                 mHistory .synchronize( lastDoneEdit, lastStickyEdit, explicitSnapshots );
@@ -665,6 +715,7 @@ public class DocumentModel implements Snapshot .Recorder, Context, DocumentIntf
             }
 
             this .migrated = openUndone || format.isMigration() || ! implicitSnapshots .isEmpty();
+            this .enableCheckpoints();
         } 
         finally {
             if(logger.isLoggable(Level.FINE)) {
@@ -678,6 +729,110 @@ public class DocumentModel implements Snapshot .Recorder, Context, DocumentIntf
     
     private final long startTime = System.nanoTime();
 
+    /**
+     * Let the history capture checkpoints as edits are redone, for faster navigation.
+     * This waits until the history is loaded, so that loading and replaying it capture nothing.
+     */
+    private void enableCheckpoints()
+    {
+        mHistory .setCheckpointer( new EditHistory.Checkpointer()
+        {
+            @Override
+            public int prepare()
+            {
+                return mRealizedModel .prepareCheckpoint() + editorModel .getSelection() .size();
+            }
+
+            @Override
+            public EditHistory.Checkpoint capture()
+            {
+                return new ModelCheckpoint( mRealizedModel, (SelectionImpl) editorModel .getSelection() );
+            }
+        }, EditHistory.DEFAULT_CHECKPOINT_INTERVAL, EditHistory.DEFAULT_CHECKPOINT_BUDGET );
+    }
+
+    /**
+     * An alternative to finishLoading( false, false ) for viewing and exporting: show the realized model
+     * and selection saved in a model cache, written by serialize( out, props, cache ), without replaying
+     * the edit history.  The cache also has the lesson's snapshots, and the lesson is read without the history
+     * when it needs no migration, so the history and tools are loaded only when something needs them,
+     * such as the first edit, or an explicit call to finishLoading().
+     * @param cache
+     * @return false, leaving the document unfinished, if the cache was not written for this document
+     * as it was saved
+     */
+    public boolean loadModelCache( InputStream cache ) throws IOException
+    {
+        if ( this .mXML == null || this .uncachedState != null || this .mHistory .iterator() .hasNext() )
+            return false; // nothing to load, or already loaded
+        long start = System.nanoTime();
+        SelectionImpl selection = (SelectionImpl) this .editorModel .getSelection();
+        ModelCheckpoint uncached = new ModelCheckpoint( this .mRealizedModel, selection );
+        List<RenderedModel> cachedSnapshots = new ArrayList<>();
+        if ( ! RealizedModelCache .read( cache, RealizedModelCache .digest( this .mXML, this .streamedEdits ), this .mRealizedModel, selection,
+                this .renderedModel, cachedSnapshots ) ) {
+            logger .fine( "model cache does not match the document" );
+            return false;
+        }
+        this .uncachedState = uncached;
+        this .numSnapshots = cachedSnapshots .size();
+        this .snapshots = cachedSnapshots .toArray( new RenderedModel[ Math .max( 8, this .numSnapshots ) ] );
+        if ( logger .isLoggable( Level.FINE ) )
+            logger .fine( "Document @ " + System.identityHashCode(this) + " loaded " + this .mRealizedModel .size()
+                    + " manifestations from a model cache in " + ( System.nanoTime() - start ) / 1000000 + " ms" );
+        return true;
+    }
+
+    /**
+     * With a model cache loaded, read the lesson straight from mXML, without loading the history.
+     * Saved views and pages without snapshots must be migrated by finishLoading(), so then the history is loaded.
+     */
+    private void loadLesson()
+    {
+        if ( this .uncachedState == null || this .lessonLoaded )
+            return;
+        boolean migrate = false;
+        Element views = (Element) mXML .getElementsByTagName( "Viewing" ) .item( 0 );
+        if ( views != null ) {
+            NodeList nodes = views .getChildNodes();
+            for ( int i = 0; i < nodes .getLength(); i++ ) {
+                Node node = nodes .item( i );
+                if ( node instanceof Element ) {
+                    String name = ((Element) node) .getAttribute( "name" );
+                    if ( name != null && ! name .isEmpty() && ! "default" .equals( name ) )
+                        migrate = true;
+                }
+            }
+        }
+        Element notesXml = (Element) mXML .getElementsByTagName( "notes" ) .item( 0 );
+        if ( notesXml != null ) {
+            NodeList nodes = notesXml .getChildNodes();
+            for ( int i = 0; i < nodes .getLength(); i++ ) {
+                Node node = nodes .item( i );
+                if ( node instanceof Element && ((Element) node) .getAttribute( "snapshot" ) .isEmpty() )
+                    migrate = true;
+            }
+        }
+        if ( migrate ) {
+            this .loadHistory();
+            return;
+        }
+        if ( notesXml != null )
+            lesson .setXml( notesXml, 0, this .defaultCamera );
+        this .lessonLoaded = true;
+    }
+
+    private void loadHistory()
+    {
+        if ( this .uncachedState == null )
+            return;
+        try {
+            this .finishLoading( false, false );
+        } catch ( Command.Failure failure ) {
+            this .failures .reportFailure( failure );
+        }
+    }
+
     boolean fileIsTooNew( String fileVersion )
     {
         if ( fileVersion == null || "" .equals( fileVersion ) )
@@ -700,6 +855,7 @@ public class DocumentModel implements Snapshot .Recorder, Context, DocumentIntf
     @Override
     public Element getDetailsXml( Document doc, boolean includeSymmetriesAndTools )
     {
+        this .loadHistory();
         Element vZomeRoot = doc .createElementNS( XmlSaveFormat.CURRENT_FORMAT, "vzome:vZome" );
         vZomeRoot .setAttribute( "xmlns:vzome", XmlSaveFormat.CURRENT_FORMAT );
         vZomeRoot .setAttribute( "field", field.getName() );
@@ -753,6 +909,15 @@ public class DocumentModel implements Snapshot .Recorder, Context, DocumentIntf
 
     public void serialize( OutputStream out, Properties editorProps ) throws Exception
     {
+        this .serialize( out, editorProps, null );
+    }
+
+    /**
+     * @param cache if not null, where to write a model cache for the document as saved, for loadModelCache()
+     */
+    public void serialize( OutputStream out, Properties editorProps, OutputStream cache ) throws Exception
+    {
+        this .loadHistory();
         DocumentBuilderFactory factory = DocumentBuilderFactory .newInstance();
         factory .setNamespaceAware( true );
         DocumentBuilder builder = factory .newDocumentBuilder();
@@ -800,6 +965,10 @@ public class DocumentModel implements Snapshot .Recorder, Context, DocumentIntf
         this .serializeSymmetriesAndTools( vZomeRoot );
 
         DomSerializer .serialize( doc, out );
+
+        if ( cache != null )
+            RealizedModelCache .write( cache, RealizedModelCache .digest( vZomeRoot ), this .mRealizedModel, (SelectionImpl) this .editorModel .getSelection(),
+                    this .snapshots, this .numSnapshots );
     }
 
     public AlgebraicField getField()
@@ -816,12 +985,17 @@ public class DocumentModel implements Snapshot .Recorder, Context, DocumentIntf
 
     public void undoToManifestation( Manifestation man )
     {
+        if ( this .uncachedState != null ) {
+            this .loadHistory();
+            man = this .mRealizedModel .getManifestation( man .toConstruction() );
+        }
         mHistory .undoToManifestation( man );
         this .editorModel .notifyListeners();
     }
 
     public LessonModel getLesson()
     {
+        this .loadLesson();
         return lesson;
     }
 
@@ -910,6 +1084,7 @@ public class DocumentModel implements Snapshot .Recorder, Context, DocumentIntf
 
     public EditHistory getHistoryModel()
     {
+        this .loadHistory();
         return this .mHistory;
     }
 
@@ -938,6 +1113,9 @@ public class DocumentModel implements Snapshot .Recorder, Context, DocumentIntf
         }
     }
 
+    /**
+     * @return the snapshots shown by the lesson, which come from the model cache if one is loaded
+     */
     public RenderedModel[] getSnapshots()
     {
         return snapshots;
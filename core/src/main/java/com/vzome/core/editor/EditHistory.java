@@ -5,6 +5,7 @@ package com.vzome.core.editor;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -19,6 +20,7 @@ import com.vzome.core.commands.Command.Failure;
 import com.vzome.core.editor.api.ChangeManifestations;
 import com.vzome.core.editor.api.ChangeSelection;
 import com.vzome.core.editor.api.Context;
+import com.vzome.core.editor.api.SideEffects;
 import com.vzome.core.editor.api.UndoableEdit;
 import com.vzome.core.commands.XmlSaveFormat;
 import com.vzome.core.model.Manifestation;
@@ -67,8 +69,199 @@ public class EditHistory implements Iterable<UndoableEdit>
         this .serializer = serializer;
     }
 
+    /**
+     * The model state after some edit, which can be restored instead of
+     * undoing or redoing every edit between the current edit and that one.
+     */
+    public interface Checkpoint
+    {
+        /**
+         * @return false if the checkpoint can no longer be restored, and nothing was changed
+         */
+        boolean restore();
+
+        /**
+         * @return an estimate of the memory held, in manifestation records
+         */
+        int getSize();
+
+        /**
+         * Called when the checkpoint is dropped, and will not be restored.
+         */
+        void discard();
+    }
+
+    public interface Checkpointer
+    {
+        /**
+         * @return the getSize() of a Checkpoint captured now, without capturing it
+         */
+        int prepare();
+
+        Checkpoint capture();
+    }
+
+    private Checkpointer checkpointer = null;
+
+    private int checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+
+    private int checkpointBudget = DEFAULT_CHECKPOINT_BUDGET;
+
+    // After restoring a checkpoint, at most this many edits remain to be redone.
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 50;
+
+    // Roughly 40 bytes per manifestation record, so about 20 MB
+    public static final int DEFAULT_CHECKPOINT_BUDGET = 500000;
+
+    private static final class CheckpointEntry
+    {
+        final Checkpoint checkpoint;
+        long lastUsed;
+
+        CheckpointEntry( Checkpoint checkpoint, long lastUsed )
+        {
+            this .checkpoint = checkpoint;
+            this .lastUsed = lastUsed;
+        }
+    }
+
+    // keyed by edit number; the checkpoint holds the state after that many edits
+    private final Map<Integer, CheckpointEntry> checkpoints = new HashMap<>();
+
+    private int checkpointsSize = 0;
+
+    private long checkpointClock = 0;
+
+    /**
+     * Enable checkpoints, so that goToEdit() can restore the nearest one rather than
+     * replaying every edit.  Checkpoints are captured as edits are redone, every interval edits,
+     * and the least recently used are discarded to keep the total size within budget.
+     * @param checkpointer null to disable checkpoints
+     * @param interval
+     * @param budget the total of Checkpoint.getSize() to retain
+     */
+    public void setCheckpointer( Checkpointer checkpointer, int interval, int budget )
+    {
+        for ( CheckpointEntry entry : this .checkpoints .values() )
+            entry .checkpoint .discard();
+        this .checkpointer = checkpointer;
+        this .checkpointInterval = interval;
+        this .checkpointBudget = budget;
+        this .checkpoints .clear();
+        this .checkpointsSize = 0;
+    }
+
+    public int getCheckpointCount()
+    {
+        return this .checkpoints .size();
+    }
+
+    private void captureCheckpoint()
+    {
+        if ( this .checkpointer == null || mEditNumber == 0 || mEditNumber % this .checkpointInterval != 0 )
+            return;
+        Integer key = mEditNumber;
+        if ( this .checkpoints .containsKey( key ) )
+            return;
+        // a checkpoint that could never fit in the budget would only evict the others, and itself
+        if ( this .checkpointer .prepare() > this .checkpointBudget )
+            return;
+        Checkpoint checkpoint = this .checkpointer .capture();
+        this .checkpoints .put( key, new CheckpointEntry( checkpoint, ++this .checkpointClock ) );
+        this .checkpointsSize += checkpoint .getSize();
+        while ( this .checkpointsSize > this .checkpointBudget && ! this .checkpoints .isEmpty() ) {
+            Integer lru = null;
+            long oldest = Long .MAX_VALUE;
+            for ( Map.Entry<Integer, CheckpointEntry> entry : this .checkpoints .entrySet() )
+                if ( entry .getValue() .lastUsed < oldest ) {
+                    oldest = entry .getValue() .lastUsed;
+                    lru = entry .getKey();
+                }
+            this .discardCheckpoint( lru );
+        }
+    }
+
+    private void discardCheckpoint( Integer key )
+    {
+        CheckpointEntry entry = this .checkpoints .remove( key );
+        this .checkpointsSize -= entry .checkpoint .getSize();
+        entry .checkpoint .discard();
+    }
+
+    /**
+     * Discard the checkpoints after editNumber, since the edits beyond it are changing.
+     */
+    private void invalidateCheckpoints( int editNumber )
+    {
+        for ( Iterator<Map.Entry<Integer, CheckpointEntry>> entries = this .checkpoints .entrySet() .iterator(); entries .hasNext(); ) {
+            Map.Entry<Integer, CheckpointEntry> entry = entries .next();
+            if ( entry .getKey() > editNumber ) {
+                this .checkpointsSize -= entry .getValue() .checkpoint .getSize();
+                entry .getValue() .checkpoint .discard();
+                entries .remove();
+            }
+        }
+    }
+
+    /**
+     * True for edits whose undo() and redo() affect nothing but the manifestations
+     * and the selection, or nothing at all, so that a Checkpoint captures all their effects.
+     */
+    private static boolean isCheckpointable( UndoableEdit edit )
+    {
+        return edit instanceof SideEffects
+                || edit instanceof BeginBlock
+                || edit instanceof EndBlock
+                || edit instanceof Snapshot
+                || edit instanceof Branch
+                || edit instanceof Breakpoint;
+    }
+
+    /**
+     * Restore the checkpoint nearest to editNum, if it is cheaper than undoing or redoing
+     * to get there, leaving only the remaining edits to be redone.
+     */
+    private void restoreCheckpoint( int editNum )
+    {
+        if ( this .checkpoints .isEmpty() )
+            return;
+        int best = -1;
+        for ( Integer key : this .checkpoints .keySet() )
+            if ( key <= editNum && key > best )
+                best = key;
+        if ( best < 0 )
+            return;
+        // compare the edits to redo from the checkpoint with the edits to traverse otherwise
+        if ( editNum - best >= Math .abs( editNum - mEditNumber ) )
+            return;
+        // every edit skipped over must be checkpointable
+        int from = Math .min( best, mEditNumber ), to = Math .max( best, mEditNumber );
+        for ( int i = from; i < to; i++ )
+            if ( ! isCheckpointable( mEdits .get( i ) ) )
+                return;
+
+        long start = System .nanoTime();
+        CheckpointEntry entry = this .checkpoints .get( best );
+        if ( ! entry .checkpoint .restore() ) {
+            this .discardCheckpoint( best );
+            return;
+        }
+        entry .lastUsed = ++this .checkpointClock;
+        // edits after the checkpoint that were done are now undone
+        for ( int i = best; i < mEditNumber; i++ ) {
+            UndoableEdit edit = mEdits .get( i );
+            if ( edit instanceof SideEffects )
+                ((SideEffects) edit) .resetRedo();
+        }
+        if ( logger .isLoggable( Level .FINE ) )
+            logger .fine( "restored checkpoint at edit " + best + " on the way from " + mEditNumber + " to " + editNum
+                    + ", in " + ( System .nanoTime() - start ) / 1000000 + " ms" );
+        mEditNumber = best;
+    }
+
     public void addEdit( UndoableEdit edit, Context context )
     {
+        this .invalidateCheckpoints( mEditNumber );
         if ( ! edit .isDestructive() )
         {
             // just insert at the current point, don't invalidate the redoable edits
@@ -230,6 +423,7 @@ public class EditHistory implements Iterable<UndoableEdit>
             editNum = mEdits .size();
         if ( editNum == mEditNumber )
             return;
+        this .restoreCheckpoint( editNum );
         // undo() and redo() inlined here to avoid isVisible() and block limitations
         while ( mEditNumber < editNum )
         {
@@ -237,6 +431,7 @@ public class EditHistory implements Iterable<UndoableEdit>
                 break;
             UndoableEdit undoable = mEdits .get( mEditNumber++ );
             undoable .redo();
+            this .captureCheckpoint();
         }
         while ( mEditNumber > editNum )
         {
@@ -322,6 +517,7 @@ public class EditHistory implements Iterable<UndoableEdit>
                 logger .warning( "edit number that failed is " + (mEditNumber-1) );
             throw e;
         }
+        this .captureCheckpoint();
 
         if ( undoable instanceof EndBlock )
             return undoable;
@@ -411,6 +607,7 @@ public class EditHistory implements Iterable<UndoableEdit>
         if ( below instanceof ChangeSelection )
         {
             // two in a row, wrap with begin/end pair
+            this .invalidateCheckpoints( cursor );
             UndoableEdit bracket = new BeginBlock( null );
             mEdits .add( cursor, bracket );
             bracket = new EndBlock( null );
@@ -432,6 +629,7 @@ public class EditHistory implements Iterable<UndoableEdit>
                 else if ( next instanceof BeginBlock )
                 {
                     // merge new selection change into block by swapping with EndBlock
+                    this .invalidateCheckpoints( cursor );
                     mEdits .remove( above );
                     mEdits .add( cursor, above );
                     return;
@@ -444,7 +642,9 @@ public class EditHistory implements Iterable<UndoableEdit>
 
     public void replaceEdit( UndoableEdit oldEdit, UndoableEdit newEdit )
     {
-        mEdits .set( mEdits .indexOf( oldEdit ), newEdit );
+        int index = mEdits .indexOf( oldEdit );
+        this .invalidateCheckpoints( index );
+        mEdits .set( index, newEdit );
     }
 
     /**
@@ -454,6 +654,7 @@ public class EditHistory implements Iterable<UndoableEdit>
      */
     public void insert( UndoableEdit edit )
     {
+        this .invalidateCheckpoints( mEditNumber );
         mEdits .add( mEditNumber++, edit );
     }
 
@@ -615,6 +816,7 @@ public class EditHistory implements Iterable<UndoableEdit>
              */
             int num = this .getLineNumber();
             mEdits .remove( --mEditNumber );
+            invalidateCheckpoints( mEditNumber );
 
             if ( logger.isLoggable( Level.FINE ) ) // see the logger declaration to enable FINE
                 logger.fine( "%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%% " + num + ": " + serializer .serialize( xml ) );
@@ -760,6 +962,7 @@ public class EditHistory implements Iterable<UndoableEdit>
                     // a snapshot editNum of 3 means a snapshot *before* edit #3 is redone,
                     //  so we do this snapshot migration first
                     UndoableEdit snapshot = explicitSnapshots[ oldIndex ];
+                    invalidateCheckpoints( mEditNumber );
                     mEdits .add( mEditNumber, snapshot );
                     // keep lastDoneEdit in alignment
                     if ( mEditNumber <= lastDoneEdit )
@@ -771,6 +974,7 @@ public class EditHistory implements Iterable<UndoableEdit>
                 ++ mEditNumber;  //match the preconditions like this.redo()
                 edit .redo();
                 // now the edit is realized
+                this .captureCheckpoint();
 
                 // lastDoneEdit is in terms of the edits in the file, and we need
                 //  to translate it to match the actual edit numbers, after migration
@@ -797,6 +1001,7 @@ public class EditHistory implements Iterable<UndoableEdit>
             // a snapshot editNum of 3 means a snapshot *before* edit #3 is redone,
             //  so we do this snapshot migration first
             UndoableEdit snapshot = explicitSnapshots[ redoThreshold ];
+            invalidateCheckpoints( mEditNumber );
             mEdits .add( mEditNumber, snapshot );
             ++ mEditNumber;
             snapshot .perform();
@@ -0,0 +1,85 @@
+package com.vzome.core.editor;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.vzome.core.model.Group;
+import com.vzome.core.model.Manifestation;
+import com.vzome.core.model.RealizedModelImpl;
+
+/**
+ * The realized model and selection state after some edit, captured by EditHistory
+ * so that it can jump back to that edit without replaying the whole history.
+ */
+final class ModelCheckpoint implements EditHistory.Checkpoint
+{
+    private final RealizedModelImpl model;
+
+    private final SelectionImpl selection;
+
+    private final RealizedModelImpl.Checkpoint modelState;
+
+    private final Manifestation[] selected;
+
+    private final Group selectedGroup;
+
+    ModelCheckpoint( RealizedModelImpl model, SelectionImpl selection )
+    {
+        this .model = model;
+        this .selection = selection;
+        this .modelState = model .checkpoint();
+        List<Manifestation> list = new ArrayList<>( selection .size() );
+        selection .copy( list );
+        this .selected = list .toArray( new Manifestation[ list .size() ] );
+        this .selectedGroup = selection .getLastSelectedGroup();
+    }
+
+    @Override
+    public int getSize()
+    {
+        return this .modelState .size() + this .selected .length;
+    }
+
+    @Override
+    public void discard()
+    {
+        this .model .discard( this .modelState );
+    }
+
+    @Override
+    public boolean restore()
+    {
+        if ( ! this .model .isRestorable( this .modelState ) )
+            return false;
+        Map<Manifestation, Boolean> target = new IdentityHashMap<>( this .selected .length * 2 );
+        for ( Manifestation m : this .selected )
+            target .put( m, Boolean.TRUE );
+        List<Manifestation> current = new ArrayList<>( this .selection .size() );
+        this .selection .copy( current );
+
+        // Selection order is significant, so the manifestations that stay selected
+        //  must already be in the target order, or they are all deselected and selected again.
+        List<Manifestation> kept = new ArrayList<>();
+        for ( Manifestation m : current )
+            if ( target .containsKey( m ) )
+                kept .add( m );
+        boolean inOrder = true;
+        for ( int i = 0; i < kept .size(); i++ )
+            if ( kept .get( i ) != this .selected[ i ] ) {
+                inOrder = false;
+                break;
+            }
+
+        // deselect before the model hides anything, and select after it shows, as the edits would
+        for ( Manifestation m : current )
+            if ( ! inOrder || ! target .containsKey( m ) )
+                this .selection .unselect( m );
+        this .model .restore( this .modelState );
+        for ( int i = inOrder? kept .size() : 0; i < this .selected .length; i++ )
+            this .selection .select( this .selected[ i ] );
+        this .selection .setLastSelectedGroup( this .selectedGroup );
+        return true;
+    }
+}
@@ -0,0 +1,470 @@
+package com.vzome.core.editor;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UTFDataFormatException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.construction.Color;
+import com.vzome.core.model.Connector;
+import com.vzome.core.model.ConnectorImpl;
+import com.vzome.core.model.Manifestation;
+import com.vzome.core.model.ManifestationImpl;
+import com.vzome.core.model.Panel;
+import com.vzome.core.model.PanelImpl;
+import com.vzome.core.model.RealizedModelImpl;
+import com.vzome.core.model.Strut;
+import com.vzome.core.model.StrutImpl;
+import com.vzome.core.render.RenderedManifestation;
+import com.vzome.core.render.RenderedModel;
+
+/**
+ * Reads and writes the realized model and selection of a document at its saved edit,
+ * so that the model can be shown without replaying the edit history.
+ *
+ * A cache is only valid for the document it was written with, so it begins with a digest of the
+ * parts of the document that determine the model: the field, the edit history (including the
+ * saved edit number), the symmetry systems and the tools.  The lesson, lighting and views
+ * are not included, since they do not change the model.
+ *
+ * After the header come the distinct vertices, as parsable vector strings, then the manifestations
+ * in model order, each as its kind, its vertex indices, and its visibility, color and label,
+ * then the indices of the selected manifestations, in selection order.
+ * Last come the snapshots that the lesson shows, each as the manifestations rendered in it,
+ * with their rendered color, label, glow and transparency, so the lesson needs no replay either.
+ */
+final class RealizedModelCache
+{
+    private static final int MAGIC = 0x765a4d43; // "vZMC"
+
+    private static final int VERSION = 2;
+
+    private static final byte BALL = 0, STRUT = 1, PANEL = 2;
+
+    private static final byte HIDDEN = 1, COLORED = 2, LABELED = 4;
+
+    private static final String[] DIGESTED = { "EditHistory", "editHistory", "SymmetrySystem", "OtherSymmetries", "Tools" };
+
+    private RealizedModelCache() {}
+
+    /**
+     * @param vZomeRoot the root element of a document, as saved or as parsed
+     * @return a digest of the parts of the document that determine its realized model
+     */
+    static byte[] digest( Element vZomeRoot )
+    {
+        return digest( vZomeRoot, null );
+    }
+
+    /**
+     * @param vZomeRoot the root element of a document, as saved or as parsed
+     * @param historyEdits the children of the edit history, if they were streamed out of vZomeRoot, or null
+     * @return a digest of the parts of the document that determine its realized model, the same whether
+     * or not the edits were streamed
+     */
+    static byte[] digest( Element vZomeRoot, List<Element> historyEdits )
+    {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest .getInstance( "SHA-256" );
+        } catch ( NoSuchAlgorithmException e ) {
+            throw new IllegalStateException( e );
+        }
+        update( digest, vZomeRoot .getAttribute( "field" ) );
+        List<String> digested = Arrays .asList( DIGESTED );
+        NodeList kids = vZomeRoot .getChildNodes();
+        for ( int i = 0; i < kids .getLength(); i++ ) {
+            Node kid = kids .item( i );
+            if ( kid instanceof Element && digested .contains( ((Element) kid) .getTagName() ) ) {
+                Element element = (Element) kid;
+                boolean history = element .getTagName() .equalsIgnoreCase( "EditHistory" );
+                update( digest, element, history? historyEdits : null );
+            }
+        }
+        return digest .digest();
+    }
+
+    // Only what survives a save and parse is digested: no namespace declarations, no attribute order,
+    //  and no whitespace around text, since the serializer indents.
+    private static void update( MessageDigest digest, Element element )
+    {
+        update( digest, element, null );
+    }
+
+    private static void update( MessageDigest digest, Element element, List<Element> streamedKids )
+    {
+        update( digest, "<" + element .getTagName() );
+        NamedNodeMap attributes = element .getAttributes();
+        List<String> names = new ArrayList<>();
+        for ( int i = 0; i < attributes .getLength(); i++ ) {
+            String name = ((Attr) attributes .item( i )) .getName();
+            if ( ! name .equals( "xmlns" ) && ! name .startsWith( "xmlns:" ) )
+                names .add( name );
+        }
+        names .sort( null );
+        for ( String name : names )
+            update( digest, " " + name + "=" + element .getAttribute( name ) );
+        update( digest, ">" );
+        if ( streamedKids != null ) {
+            for ( Element kid : streamedKids )
+                update( digest, kid );
+            update( digest, "</>" );
+            return;
+        }
+        NodeList kids = element .getChildNodes();
+        for ( int i = 0; i < kids .getLength(); i++ ) {
+            Node kid = kids .item( i );
+            if ( kid instanceof Element )
+                update( digest, (Element) kid );
+            else if ( kid .getNodeType() == Node.TEXT_NODE || kid .getNodeType() == Node.CDATA_SECTION_NODE ) {
+                String text = kid .getNodeValue() .trim();
+                if ( ! text .isEmpty() )
+                    update( digest, text );
+            }
+        }
+        update( digest, "</>" );
+    }
+
+    private static void update( MessageDigest digest, String text )
+    {
+        byte[] bytes = text .getBytes( StandardCharsets.UTF_8 );
+        digest .update( (byte) ( bytes.length >>> 24 ) );
+        digest .update( (byte) ( bytes.length >>> 16 ) );
+        digest .update( (byte) ( bytes.length >>> 8 ) );
+        digest .update( (byte) bytes.length );
+        digest .update( bytes );
+    }
+
+    /**
+     * @param snapshots as recorded by the document, with null for any that is missing
+     * @param numSnapshots how many of snapshots are in use
+     */
+    static void write( OutputStream out, byte[] digest, RealizedModelImpl model, SelectionImpl selection, RenderedModel[] snapshots, int numSnapshots ) throws IOException
+    {
+        Map<AlgebraicVector, Integer> vertexIndices = new HashMap<>();
+        List<AlgebraicVector> vertices = new ArrayList<>();
+        Map<Manifestation, Integer> indices = new IdentityHashMap<>();
+        List<Manifestation> manifestations = new ArrayList<>( model .size() );
+        for ( Manifestation m : model ) {
+            indices .put( m, manifestations .size() );
+            manifestations .add( m );
+            addVertices( m, vertexIndices, vertices );
+        }
+        List<List<RenderedManifestation>> snapshotContents = new ArrayList<>( numSnapshots );
+        for ( int i = 0; i < numSnapshots; i++ ) {
+            List<RenderedManifestation> contents = null;
+            if ( snapshots[ i ] != null ) {
+                contents = new ArrayList<>();
+                for ( RenderedManifestation rm : snapshots[ i ] )
+                    if ( rm .getCopiedFrom() != null ) {
+                        contents .add( rm );
+                        addVertices( rm .getCopiedFrom(), vertexIndices, vertices );
+                    }
+            }
+            snapshotContents .add( contents );
+        }
+
+        DataOutputStream data = new DataOutputStream( out );
+        data .writeInt( MAGIC );
+        data .writeInt( VERSION );
+        data .writeShort( digest.length );
+        data .write( digest );
+
+        data .writeInt( vertices .size() );
+        for ( AlgebraicVector v : vertices )
+            data .writeUTF( v .toParsableString() );
+
+        data .writeInt( manifestations .size() );
+        for ( Manifestation m : manifestations ) {
+            writeGeometry( data, m, vertexIndices );
+            writeAttributes( data, m .isHidden(), m .getColor(), m .getLabel() );
+        }
+
+        List<Manifestation> selected = new ArrayList<>( selection .size() );
+        selection .copy( selected );
+        data .writeInt( selected .size() );
+        for ( Manifestation m : selected )
+            data .writeInt( indices .get( m ) );
+
+        data .writeInt( snapshotContents .size() );
+        for ( List<RenderedManifestation> contents : snapshotContents ) {
+            if ( contents == null ) {
+                data .writeInt( -1 );
+                continue;
+            }
+            data .writeInt( contents .size() );
+            for ( RenderedManifestation rm : contents ) {
+                writeGeometry( data, rm .getCopiedFrom(), vertexIndices );
+                writeAttributes( data, false, rm .getColor(), rm .getLabel() );
+                data .writeFloat( rm .getGlow() );
+                data .writeFloat( rm .getTransparency() );
+            }
+        }
+        data .flush();
+    }
+
+    private static void addVertices( Manifestation m, Map<AlgebraicVector, Integer> vertexIndices, List<AlgebraicVector> vertices )
+    {
+        for ( AlgebraicVector v : getVertices( m ) )
+            if ( ! vertexIndices .containsKey( v ) ) {
+                vertexIndices .put( v, vertices .size() );
+                vertices .add( v );
+            }
+    }
+
+    private static void writeGeometry( DataOutputStream data, Manifestation m, Map<AlgebraicVector, Integer> vertexIndices ) throws IOException
+    {
+        List<AlgebraicVector> mVertices = getVertices( m );
+        if ( m instanceof Connector )
+            data .writeByte( BALL );
+        else if ( m instanceof Strut )
+            data .writeByte( STRUT );
+        else {
+            data .writeByte( PANEL );
+            data .writeInt( mVertices .size() );
+        }
+        for ( AlgebraicVector v : mVertices )
+            data .writeInt( vertexIndices .get( v ) );
+    }
+
+    private static void writeAttributes( DataOutputStream data, boolean hidden, Color color, String label ) throws IOException
+    {
+        data .writeByte( ( hidden? HIDDEN : 0 ) | ( color != null? COLORED : 0 ) | ( label != null? LABELED : 0 ) );
+        if ( color != null )
+            data .writeInt( color .getRGBA() );
+        if ( label != null )
+            data .writeUTF( label );
+    }
+
+    private static final class SnapshotEntries
+    {
+        final ManifestationImpl[] manifestations;
+        final Color[] colors;
+        final String[] labels;
+        final float[] glows, transparencies;
+
+        SnapshotEntries( int count )
+        {
+            this .manifestations = new ManifestationImpl[ count ];
+            this .colors = new Color[ count ];
+            this .labels = new String[ count ];
+            this .glows = new float[ count ];
+            this .transparencies = new float[ count ];
+        }
+    }
+
+    /**
+     * Replace the realized model and selection with those in the cache, if the cache was written
+     * for a document with the given digest.  Manifestations already in the model are kept where
+     * the cache has them, and hidden and removed otherwise.
+     * @param rendering the document's RenderedModel, whose orbit source renders the snapshots, or null
+     * @param snapshots receives the snapshots, with null for any that is missing
+     * @return false, with the model and selection untouched, if the cache is for another document,
+     *  or is truncated or corrupt
+     */
+    static boolean read( InputStream in, byte[] digest, RealizedModelImpl model, SelectionImpl selection,
+            RenderedModel rendering, List<RenderedModel> snapshots ) throws IOException
+    {
+        DataInputStream data = new DataInputStream( in );
+        ManifestationImpl[] manifestations;
+        byte[] flags;
+        Color[] colors;
+        String[] labels;
+        int[] selected;
+        SnapshotEntries[] snapshotEntries;
+        try {
+            if ( data .readInt() != MAGIC || data .readInt() != VERSION )
+                return false;
+            byte[] cached = new byte[ data .readUnsignedShort() ];
+            data .readFully( cached );
+            if ( ! Arrays .equals( digest, cached ) )
+                return false;
+
+            AlgebraicField field = model .getField();
+            AlgebraicVector[] vertices = new AlgebraicVector[ data .readInt() ];
+            for ( int i = 0; i < vertices.length; i++ )
+                vertices[ i ] = field .parseVector( data .readUTF() );
+
+            manifestations = new ManifestationImpl[ data .readInt() ];
+            flags = new byte[ manifestations.length ];
+            colors = new Color[ manifestations.length ];
+            labels = new String[ manifestations.length ];
+            for ( int i = 0; i < manifestations.length; i++ ) {
+                manifestations[ i ] = readGeometry( data, vertices );
+                if ( manifestations[ i ] == null )
+                    return false;
+                flags[ i ] = data .readByte();
+                colors[ i ] = readColor( data, flags[ i ] );
+                labels[ i ] = readLabel( data, flags[ i ] );
+            }
+            selected = new int[ data .readInt() ];
+            for ( int i = 0; i < selected.length; i++ ) {
+                selected[ i ] = data .readInt();
+                if ( selected[ i ] < 0 || selected[ i ] >= manifestations.length )
+                    return false;
+            }
+
+            snapshotEntries = new SnapshotEntries[ data .readInt() ];
+            for ( int i = 0; i < snapshotEntries.length; i++ ) {
+                int count = data .readInt();
+                if ( count < 0 )
+                    continue; // a missing snapshot
+                SnapshotEntries entries = snapshotEntries[ i ] = new SnapshotEntries( count );
+                for ( int j = 0; j < count; j++ ) {
+                    entries .manifestations[ j ] = readGeometry( data, vertices );
+                    if ( entries .manifestations[ j ] == null )
+                        return false;
+                    byte entryFlags = data .readByte();
+                    entries .colors[ j ] = readColor( data, entryFlags );
+                    entries .labels[ j ] = readLabel( data, entryFlags );
+                    entries .glows[ j ] = data .readFloat();
+                    entries .transparencies[ j ] = data .readFloat();
+                }
+            }
+        }
+        catch ( EOFException | UTFDataFormatException e ) {
+            return false; // truncated
+        }
+        catch ( RuntimeException e ) {
+            return false; // a bad index or count, or a vector the field cannot parse
+        }
+
+        // The whole cache has been read, so now it can be applied.
+        List<Manifestation> current = new ArrayList<>( selection .size() );
+        selection .copy( current );
+        for ( Manifestation m : current )
+            selection .unselect( m );
+        Manifestation[] result = new Manifestation[ manifestations.length ];
+        Map<Manifestation, Boolean> kept = new IdentityHashMap<>();
+        for ( int i = 0; i < manifestations.length; i++ ) {
+            Manifestation m = model .getManifestation( manifestations[ i ] .toConstruction() );
+            if ( m != null )
+                kept .put( m, Boolean.TRUE );
+            result[ i ] = m;
+        }
+        List<Manifestation> removed = new ArrayList<>();
+        for ( Manifestation m : model )
+            if ( ! kept .containsKey( m ) )
+                removed .add( m );
+        for ( Manifestation m : removed ) {
+            model .hide( m );
+            model .remove( m );
+        }
+        for ( int i = 0; i < manifestations.length; i++ ) {
+            Manifestation m = result[ i ];
+            boolean hidden = ( flags[ i ] & HIDDEN ) != 0;
+            if ( m == null ) {
+                ManifestationImpl created = manifestations[ i ];
+                created .addConstruction( created .toConstruction() );
+                created .setColor( colors[ i ] );
+                created .setLabel( labels[ i ] );
+                model .add( created );
+                m = result[ i ] = created;
+            }
+            else {
+                if ( colors[ i ] != null && ! colors[ i ] .equals( m .getColor() ) )
+                    model .setColor( m, colors[ i ] );
+                if ( labels[ i ] == null? m .getLabel() != null : ! labels[ i ] .equals( m .getLabel() ) )
+                    model .setLabel( m, labels[ i ] );
+            }
+            if ( hidden )
+                model .hide( m );
+            m .setHidden( hidden );
+            if ( ! hidden )
+                model .show( m );
+        }
+        for ( int index : selected )
+            selection .select( result[ index ] );
+
+        for ( SnapshotEntries entries : snapshotEntries )
+            snapshots .add( ( entries == null || rendering == null )? null : render( entries, rendering ) );
+        return true;
+    }
+
+    /**
+     * @return a snapshot like those the document records, as copies of what rendering would show
+     */
+    private static RenderedModel render( SnapshotEntries entries, RenderedModel rendering )
+    {
+        RenderedModel scratch = new RenderedModel( rendering .getField(), rendering .getOrbitSource() );
+        for ( int i = 0; i < entries .manifestations.length; i++ ) {
+            ManifestationImpl m = entries .manifestations[ i ];
+            scratch .manifestationAdded( m );
+            RenderedManifestation rm = (RenderedManifestation) m .getRenderedObject();
+            if ( rm == null )
+                continue; // no shape, just as when it was recorded
+            rm .setColor( entries .colors[ i ] );
+            rm .setLabel( entries .labels[ i ] );
+            rm .setGlow( entries .glows[ i ] );
+            rm .setTransparency( entries .transparencies[ i ] );
+        }
+        return scratch .snapshot();
+    }
+
+    /**
+     * @return the manifestation, or null if its kind is unknown
+     */
+    private static ManifestationImpl readGeometry( DataInputStream data, AlgebraicVector[] vertices ) throws IOException
+    {
+        byte kind = data .readByte();
+        if ( kind == BALL )
+            return new ConnectorImpl( vertices[ data .readInt() ] );
+        else if ( kind == STRUT )
+            return new StrutImpl( vertices[ data .readInt() ], vertices[ data .readInt() ] );
+        else if ( kind == PANEL ) {
+            List<AlgebraicVector> panel = new ArrayList<>();
+            for ( int j = data .readInt(); j > 0; j-- )
+                panel .add( vertices[ data .readInt() ] );
+            return new PanelImpl( panel );
+        }
+        return null;
+    }
+
+    private static Color readColor( DataInputStream data, byte flags ) throws IOException
+    {
+        if ( ( flags & COLORED ) == 0 )
+            return null;
+        int rgba = data .readInt();
+        return new Color( ( rgba >>> 24 ) & 0xFF, ( rgba >>> 16 ) & 0xFF, ( rgba >>> 8 ) & 0xFF, rgba & 0xFF );
+    }
+
+    private static String readLabel( DataInputStream data, byte flags ) throws IOException
+    {
+        return ( ( flags & LABELED ) == 0 )? null : data .readUTF();
+    }
+
+    private static List<AlgebraicVector> getVertices( Manifestation m )
+    {
+        List<AlgebraicVector> vertices = new ArrayList<>();
+        if ( m instanceof Connector )
+            vertices .add( ((Connector) m) .getLocation() );
+        else if ( m instanceof Strut ) {
+            vertices .add( ((Strut) m) .getLocation() );
+            vertices .add( ((Strut) m) .getEnd() );
+        }
+        else if ( m instanceof Panel )
+            for ( AlgebraicVector v : (Panel) m )
+                vertices .add( v );
+        return vertices;
+    }
+}
@@ -125,6 +125,17 @@ public class SelectionImpl implements Selection
         }
     }
     
+    // for ModelCheckpoint, which must restore this exactly
+    Group getLastSelectedGroup()
+    {
+        return mSelectedGroup;
+    }
+
+    void setLastSelectedGroup( Group group )
+    {
+        mSelectedGroup = group;
+    }
+
     private void add( Manifestation m )
     {
         mManifestations .add( m );
@@ -391,7 +391,11 @@ public class SymmetrySystem implements OrbitSource
 
             AlgebraicNumber len = axis .getLength( offset );
 
-            return shapes .getStrutShape( orbit, len );
+            Polyhedron shape = shapes .getStrutShape( orbit, len );
+            // nothing here keeps the shape, so it should not keep the shape from being evicted
+            if ( shape != null )
+                shapes .releaseShape( shape );
+            return shape;
         }
     }
 
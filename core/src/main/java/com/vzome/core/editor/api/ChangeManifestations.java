@@ -1,7 +1,6 @@
 
 package com.vzome.core.editor.api;
 
-import java.util.Iterator;
 import java.util.function.Predicate;
 
 import org.w3c.dom.Document;
@@ -9,6 +8,7 @@ import org.w3c.dom.Element;
 
 import com.vzome.core.construction.Color;
 import com.vzome.core.construction.Construction;
+import com.vzome.core.construction.SignatureKey;
 import com.vzome.core.model.Connector;
 import com.vzome.core.model.Manifestation;
 import com.vzome.core.model.Panel;
@@ -20,6 +20,9 @@ public abstract class ChangeManifestations extends ChangeSelection
 {
     protected final RealizedModel mManifestations;
 
+    // ManifestConstruction side-effects have the Construction as argument
+    protected static final byte MSHOW_EFFECT = 4, MHIDE_EFFECT = 5, SHOW_EFFECT = 6, HIDE_EFFECT = 7, DELETE_EFFECT = 8;
+
     public ChangeManifestations( EditorModel editorModel )
     {
         super( editorModel .getSelection() );
@@ -53,7 +56,7 @@ public abstract class ChangeManifestations extends ChangeSelection
         //        if ( realizer != null )
         //            return realizeConstruction( c );
         //        
-    	String sig = c .getSignature();
+    	SignatureKey sig = c .getSignatureKey();
     	Manifestation m = mManifestations .findConstruction( c );
         if ( m == null )
             return null;
@@ -63,12 +66,12 @@ public abstract class ChangeManifestations extends ChangeSelection
         if ( m .isUnnecessary() )  { // just manifested, not added yet
             // TODO: DJH: Can this be replaced by a HashSet since the key is always equal to the value.
             mManifestations .addPerEditManifestation( sig, m );
-            plan( new ManifestConstruction( c, m, true ) );
+            planEffect( MSHOW_EFFECT, m, c );
         }
         else {
             // already manifested, just make sure it shows
             if ( ! m .isRendered() )
-                plan( new RenderManifestation( m, true ) );
+                planEffect( SHOW_EFFECT, m, null );
         }
         return m;
     }
@@ -97,23 +100,23 @@ public abstract class ChangeManifestations extends ChangeSelection
         Manifestation m = mManifestations .removeConstruction( c );
         if ( m == null )
             return null;
-        plan( new ManifestConstruction( c, m, false ) );
+        planEffect( MHIDE_EFFECT, m, c );
         return m;
     }
 
     protected void deleteManifestation( Manifestation man )
     {
-        plan( new DeleteManifestation( man ) );
+        planEffect( DELETE_EFFECT, man, null );
     }
 
     protected void showManifestation( Manifestation m )
     {
-        plan( new RenderManifestation( m, true ) );
+        planEffect( SHOW_EFFECT, m, null );
     }
 
     protected void hideManifestation( Manifestation m )
     {
-        plan( new RenderManifestation( m, false ) );
+        planEffect( HIDE_EFFECT, m, null );
     }
 
     public void colorManifestation( Manifestation m, Color color )
@@ -164,171 +167,126 @@ public abstract class ChangeManifestations extends ChangeSelection
 
     public boolean showsManifestation( Manifestation man )
     {
-        for (Iterator<SideEffect> iterator = this .getEffects(); iterator.hasNext();) {
-            SideEffect effect = iterator.next();
-            if ( effect instanceof ManifestConstruction ) {
-                ManifestConstruction show = (ManifestConstruction) effect;
-                if ( show .showsManifestation( man ) )
-                    return true;
-            }
-            else if ( effect instanceof RenderManifestation ) {
-                RenderManifestation show = (RenderManifestation) effect;
-                if ( show .showsManifestation( man ) )
-                    return true;
-            }
+        for ( int i = 0; i < this .getEffectCount(); i++ ) {
+            byte op = this .getEffectOp( i );
+            if ( ( op == MSHOW_EFFECT || op == SHOW_EFFECT ) && this .getEffectTarget( i ) .equals( man ) )
+                return true;
         }
         return false;
     }    
 
-    private class ManifestConstruction implements SideEffect
+    @Override
+    protected void redoEffect( byte op, Object target, Object argument )
     {
-        private final Manifestation mManifestation;
-
-        private final Construction mConstruction;
-
-        private final boolean mShowing;
-
-        public ManifestConstruction( Construction construction, Manifestation manifestation, boolean showing )
-        {
-            mConstruction = construction;
-            mManifestation = manifestation;
-            mShowing = showing;
-        }
+        Manifestation manifestation = ( target instanceof Manifestation )? (Manifestation) target : null;
+        switch ( op ) {
 
-        @Override
-        public void redo()
-        {
-            if ( mShowing ) {
-                if ( mManifestation .isUnnecessary() ) {
-                    mManifestation .addConstruction( mConstruction );
-                    mManifestations .add(  mManifestation );
-                }
-                // note the asymmetry... we want to unhide when adding
-                mManifestations .show( mManifestation ); // TODO make this more immediate, call renderer here
-            }
-            else {
-                mManifestation .removeConstruction( mConstruction );
-                if ( mManifestation .isUnnecessary() ) {
-                    mManifestations .hide( mManifestation ); // TODO make this more immediate, call renderer here
-                    mManifestations .remove( mManifestation );
-                }
-            }
-        }
-
-        @Override
-        public void undo()
-        {
-            if ( mShowing ) {
-                mManifestation .removeConstruction( mConstruction );
-                if ( mManifestation .isUnnecessary() ) {
-                    mManifestations .hide( mManifestation ); // TODO make this more immediate, call renderer here
-                    mManifestations .remove(  mManifestation );
-                }
+        case MSHOW_EFFECT:
+            if ( manifestation .isUnnecessary() ) {
+                manifestation .addConstruction( (Construction) argument );
+                mManifestations .add( manifestation );
             }
-            else {
-                if ( mManifestation .isUnnecessary() )
-                    mManifestations .add(  mManifestation );
-                // note the asymmetry... we want to unhide when adding
-                mManifestations .show( mManifestation ); // TODO make this more immediate, call renderer here
-                mManifestation .addConstruction( mConstruction );
+            // note the asymmetry... we want to unhide when adding
+            mManifestations .show( manifestation ); // TODO make this more immediate, call renderer here
+            break;
+
+        case MHIDE_EFFECT:
+            manifestation .removeConstruction( (Construction) argument );
+            if ( manifestation .isUnnecessary() ) {
+                mManifestations .hide( manifestation ); // TODO make this more immediate, call renderer here
+                mManifestations .remove( manifestation );
             }
-        }
+            break;
 
-        @Override
-        public Element getXml( Document doc )
-        {
-            Element result = this .mShowing ? doc .createElement( "mshow" ) : doc .createElement( "mhide" );
-            Element man = mConstruction .getXml( doc );
-            result .appendChild( man );
-            return result;
-        }
-
-        public boolean showsManifestation( Manifestation man )
-        {
-            return this .mShowing && this .mManifestation .equals( man );
+        case SHOW_EFFECT:
+        case HIDE_EFFECT:
+            manifestation .setHidden( op == HIDE_EFFECT );
+            if ( op == SHOW_EFFECT )
+                mManifestations .show( manifestation ); // TODO make this more immediate, call renderer here
+            else
+                mManifestations .hide( manifestation );
+            break;
+
+        case DELETE_EFFECT:
+            manifestation .setHidden( true );
+            mManifestations .hide( manifestation );
+            mManifestations .remove( manifestation );
+            break;
+
+        default:
+            super .redoEffect( op, target, argument );
+            break;
         }
     }
 
-    private class RenderManifestation implements SideEffect
+    @Override
+    protected void undoEffect( byte op, Object target, Object argument )
     {
-        private final Manifestation mManifestation;
-
-        private final boolean mShowing;
-
-        public RenderManifestation( Manifestation manifestation, boolean showing )
-        {
-            mManifestation = manifestation;
-            mShowing = showing;
-        }
-
-        @Override
-        public void redo()
-        {
-            mManifestation .setHidden( ! mShowing );
-            if ( mShowing )
-                mManifestations .show( mManifestation ); // TODO make this more immediate, call renderer here
-            else
-                mManifestations .hide( mManifestation );
-        }
-
-        @Override
-        public void undo()
-        {
-            mManifestation .setHidden( mShowing );
-            if ( mShowing )
-                mManifestations .hide( mManifestation );
+        Manifestation manifestation = ( target instanceof Manifestation )? (Manifestation) target : null;
+        switch ( op ) {
+
+        case MSHOW_EFFECT:
+            manifestation .removeConstruction( (Construction) argument );
+            if ( manifestation .isUnnecessary() ) {
+                mManifestations .hide( manifestation ); // TODO make this more immediate, call renderer here
+                mManifestations .remove( manifestation );
+            }
+            break;
+
+        case MHIDE_EFFECT:
+            if ( manifestation .isUnnecessary() )
+                mManifestations .add( manifestation );
+            // note the asymmetry... we want to unhide when adding
+            mManifestations .show( manifestation ); // TODO make this more immediate, call renderer here
+            manifestation .addConstruction( (Construction) argument );
+            break;
+
+        case SHOW_EFFECT:
+        case HIDE_EFFECT:
+            manifestation .setHidden( op == SHOW_EFFECT );
+            if ( op == SHOW_EFFECT )
+                mManifestations .hide( manifestation );
             else
-                mManifestations .show( mManifestation );
+                mManifestations .show( manifestation );
+            break;
+
+        case DELETE_EFFECT:
+            mManifestations .add( manifestation );
+            mManifestations .show( manifestation );
+            manifestation .setHidden( false );
+            break;
+
+        default:
+            super .undoEffect( op, target, argument );
+            break;
         }
-
-        @Override
-        public Element getXml( Document doc )
-        {
-            Element result = this .mShowing ? doc .createElement( "show" ) : doc .createElement( "hide" );
-            Element man = mManifestation .getXml( doc );
-            result .appendChild( man );
-            return result;
-        }
-
-        public boolean showsManifestation( Manifestation man )
-        {
-            return this .mShowing && this .mManifestation .equals( man );
-        }
-
     }
 
-    private class DeleteManifestation implements SideEffect
+    @Override
+    protected Element getEffectXml( byte op, Object target, Object argument, Document doc )
     {
-        private final Manifestation mManifestation;
+        Element result;
+        switch ( op ) {
 
-        public DeleteManifestation( Manifestation manifestation )
-        {
-            mManifestation = manifestation;
-        }
-
-        @Override
-        public void redo()
-        {
-            mManifestation .setHidden( true );
-            mManifestations .hide( mManifestation );
-            mManifestations .remove( mManifestation );
-        }
+        case MSHOW_EFFECT:
+        case MHIDE_EFFECT:
+            result = ( op == MSHOW_EFFECT )? doc .createElement( "mshow" ) : doc .createElement( "mhide" );
+            result .appendChild( ((Construction) argument) .getXml( doc ) );
+            return result;
 
-        @Override
-        public void undo()
-        {
-            mManifestations .add( mManifestation );
-            mManifestations .show( mManifestation );
-            mManifestation .setHidden( false );
-        }
+        case SHOW_EFFECT:
+        case HIDE_EFFECT:
+            result = ( op == SHOW_EFFECT )? doc .createElement( "show" ) : doc .createElement( "hide" );
+            result .appendChild( ((Manifestation) target) .getXml( doc ) );
+            return result;
 
-        @Override
-        public Element getXml( Document doc )
-        {
-            Element result = doc .createElement( "delete" );
-            Element man = mManifestation .getXml( doc );
-            result .appendChild( man );
+        case DELETE_EFFECT:
+            result = doc .createElement( "delete" );
+            result .appendChild( ((Manifestation) target) .getXml( doc ) );
             return result;
+
+        default:
+            return super .getEffectXml( op, target, argument, doc );
         }
     }
 
@@ -26,7 +26,10 @@ public abstract class ChangeSelection extends SideEffects
 
     private boolean orderedSelection = false;
 
-    private transient Deque<SideEffect> selectionEffects = null;
+    // the manifestations to select at the end of an ordered undo()
+    private transient Deque<Manifestation> selectionEffects = null;
+
+    protected static final byte SELECT_EFFECT = 1, DESELECT_EFFECT = 2, RECORD_SELECTED_EFFECT = 3;
 
     protected static final Logger logger = Logger.getLogger( "com.vzome.core.editor.ChangeSelection" );
 
@@ -46,7 +49,7 @@ public abstract class ChangeSelection extends SideEffects
 	{
 		if ( this .orderedSelection ) {
 
-			Deque<SideEffect> stack = new ArrayDeque<SideEffect>();
+			Deque<Manifestation> stack = new ArrayDeque<Manifestation>();
 			this .selectionEffects = stack;
 			// selectionEffects must be set, so that selection-affecting side effects get pushed
 			super.undo();
@@ -66,10 +69,8 @@ public abstract class ChangeSelection extends SideEffects
 			
 			// to let the SideEffects undo correctly, selectionEffects must be cleared
 			this .selectionEffects = null;
-			while ( ! stack .isEmpty() ) {
-				SideEffect se = stack .pop();
-				se .undo();
-			}
+			while ( ! stack .isEmpty() )
+				mSelection .select( stack .pop() );
 		}
 		else
 			super.undo();
@@ -141,7 +142,7 @@ public abstract class ChangeSelection extends SideEffects
     {
         if ( groupingDoneInSelection )  // the legacy form, pre 2.1.2
         {
-            plan( new SelectManifestation( man, false ) );
+            planEffect( DESELECT_EFFECT, man, null );
             return;
         }
         if ( man == null )
@@ -170,7 +171,7 @@ public abstract class ChangeSelection extends SideEffects
             return;
         Group group = ignoreGroups? null : Selection .biggestGroup( man );
         if ( group == null )
-            plan( new SelectManifestation( man, false ) );
+            planEffect( DESELECT_EFFECT, man, null );
         else
             unselectGroup( group );
     }
@@ -184,14 +185,14 @@ public abstract class ChangeSelection extends SideEffects
     {
         if ( ! mSelection .manifestationSelected( man ) )
             return;
-        plan( new RecordSelectedManifestation( man ) );
+        planEffect( RECORD_SELECTED_EFFECT, man, null );
     }
 
     public void select( Manifestation man, boolean ignoreGroups )
     {
         if ( groupingDoneInSelection )  // the legacy form, pre 2.1.2
         {
-            plan( new SelectManifestation( man, true ) );
+            planEffect( SELECT_EFFECT, man, null );
             return;
         }
         if ( man == null )
@@ -204,7 +205,7 @@ public abstract class ChangeSelection extends SideEffects
             return;
         Group group = ignoreGroups? null : Selection .biggestGroup( man );
         if ( group == null )
-            plan( new SelectManifestation( man, true ) );
+            planEffect( SELECT_EFFECT, man, null );
         else
             selectGroup( group );
     }
@@ -215,7 +216,7 @@ public abstract class ChangeSelection extends SideEffects
             if ( next instanceof Group )
                 selectGroup( (Group) next );
             else
-                plan( new SelectManifestation( (Manifestation) next, true ) );
+                planEffect( SELECT_EFFECT, next, null );
         }
     }
 
@@ -225,108 +226,101 @@ public abstract class ChangeSelection extends SideEffects
             if ( next instanceof Group )
                 unselectGroup( (Group) next );
             else
-                plan( new SelectManifestation( (Manifestation) next, false ) );
+                planEffect( DESELECT_EFFECT, next, null );
         }
     }
 
-    private class SelectManifestation implements SideEffect
+    @Override
+    protected void redoEffect( byte op, Object target, Object argument )
     {
-        private final Manifestation mMan;
-
-        private final boolean mOn;
-
-        public SelectManifestation( Manifestation man, boolean value )
-        {
-            mMan = man;
-            mOn = value;
-            logger .finest( "constructing SelectManifestation" );
-        }
+        Manifestation man = ( target instanceof Manifestation )? (Manifestation) target : null;
+        switch ( op ) {
 
-        @Override
-        public void redo()
-        {
-            if ( groupingDoneInSelection ) {
-                if ( mOn )
-                    mSelection .selectWithGrouping( mMan );
-                else
-                    mSelection .unselectWithGrouping( mMan );
-            }
+        case SELECT_EFFECT:
+            if ( groupingDoneInSelection )
+                mSelection .selectWithGrouping( man );
             else
-                if ( mOn )
-                    mSelection .select( mMan );
-                else
-                    mSelection .unselect( mMan );
-        }
+                mSelection .select( man );
+            break;
 
-        @Override
-        public void undo()
-        {
-            if ( groupingDoneInSelection ) {
-                if ( mOn )
-                    mSelection .unselectWithGrouping( mMan );
-                else
-                    mSelection .selectWithGrouping( mMan );
-            }
+        case DESELECT_EFFECT:
+            if ( groupingDoneInSelection )
+                mSelection .unselectWithGrouping( man );
             else
-                if ( mOn )
-                    mSelection .unselect( mMan );
-                else if ( selectionEffects != null ) {
-                    // undoing a deselect in an orderedSelection edit;
-                    //  the actual selects will happen at the end, with pops
-                    selectionEffects .push( this );
-                }
-                else
-                    mSelection .select( mMan );
-        }
+                mSelection .unselect( man );
+            break;
 
-        @Override
-        public Element getXml( Document doc )
-        {
-            Element result = this .mOn ? doc .createElement( "select" ) : doc .createElement( "deselect" );
-            if ( mMan != null ) {
-                Element man = mMan .getXml( doc );
-                result .appendChild( man );
-            }
-            return result;
+        case RECORD_SELECTED_EFFECT:
+            logger .finest( "redoing RecordSelectedManifestation" );
+            break;
+
+        default:
+            super .redoEffect( op, target, argument );
+            break;
         }
     }
 
-    ////////////////////////
-    /// Support for correctly undoing commands that care about selection order.
-    ////////////////////////
-
-    // for an orderedSelection edit
-    private class RecordSelectedManifestation implements SideEffect
+    @Override
+    protected void undoEffect( byte op, Object target, Object argument )
     {
-        private final Manifestation mMan;
+        Manifestation man = ( target instanceof Manifestation )? (Manifestation) target : null;
+        switch ( op ) {
 
-        public RecordSelectedManifestation( Manifestation man )
-        {
-            mMan = man;
-            logger .finest( "constructing RecordSelectedManifestation" );
-        }
+        case SELECT_EFFECT:
+            if ( groupingDoneInSelection )
+                mSelection .unselectWithGrouping( man );
+            else
+                mSelection .unselect( man );
+            break;
 
-        @Override
-        public void redo()
-        {
-            logger .finest( "redoing RecordSelectedManifestation" );
-        }
+        case DESELECT_EFFECT:
+            if ( groupingDoneInSelection )
+                mSelection .selectWithGrouping( man );
+            else if ( selectionEffects != null )
+                // undoing a deselect in an orderedSelection edit;
+                //  the actual selects will happen at the end, with pops
+                selectionEffects .push( man );
+            else
+                mSelection .select( man );
+            break;
 
-        @Override
-        public void undo()
-        {
+        ////////////////////////
+        /// Support for correctly undoing commands that care about selection order.
+        ////////////////////////
+
+        case RECORD_SELECTED_EFFECT:
+            // for an orderedSelection edit
             logger .finest( "undoing RecordSelectedManifestation" );
             if ( selectionEffects == null )
-                // in the pop phase in CS.undo()
-                mSelection .select( mMan );
+                mSelection .select( man );
             else
-                selectionEffects .push( this );
+                selectionEffects .push( man );
+            break;
+
+        default:
+            super .undoEffect( op, target, argument );
+            break;
         }
+    }
 
-        @Override
-        public Element getXml(Document doc)
-        {
+    @Override
+    protected Element getEffectXml( byte op, Object target, Object argument, Document doc )
+    {
+        Manifestation man = ( target instanceof Manifestation )? (Manifestation) target : null;
+        switch ( op ) {
+
+        case SELECT_EFFECT:
+        case DESELECT_EFFECT:
+            Element result = ( op == SELECT_EFFECT )? doc .createElement( "select" ) : doc .createElement( "deselect" );
+            if ( man != null )
+                result .appendChild( man .getXml( doc ) );
+            return result;
+
+        case RECORD_SELECTED_EFFECT:
             return doc .createElement( "recordSelected" );
+
+        default:
+            return super .getEffectXml( op, target, argument, doc );
         }
     }
 
@@ -20,6 +20,12 @@ public interface Shapes
 
     Polyhedron getPanelShape( int vertexCount, AlgebraicNumber quadrea, Axis zone, Iterable<AlgebraicVector> vertices, boolean oneSidedPanels );
 
+    /**
+     * Ends one use of a shape returned by getStrutShape() or getPanelShape(),
+     * so that it may be evicted from the cache once it has no other users.
+     */
+    void releaseShape( Polyhedron shape );
+
     Symmetry getSymmetry();
 
     String getPackage();
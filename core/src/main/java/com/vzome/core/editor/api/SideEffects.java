@@ -1,9 +1,7 @@
 
 package com.vzome.core.editor.api;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -21,17 +19,14 @@ public abstract class SideEffects extends UndoableEdit
         Element result = this .getXml( doc );
         Element effects = doc .createElement( "effects" );
         
-        for (SideEffect se : mItems) {
-            if ( se != null )
-            {
-                Element effect = se .getXml( doc );
-                if ( effect != null ) {
-//                    if ( BUG_ACCOMMODATION_LOGGER .isLoggable( Level.FINEST ) )
-//                        BUG_ACCOMMODATION_LOGGER .finest( "side-effect: " + DomSerializer .getXmlString( effect ) );
-                    effects .appendChild( effect );
-                }
-                // else effect was ChangeConstructions.AttachConstruction, which we don't need to serialize
+        for ( int i = 0; i < mSize; i++ ) {
+            Element effect = getEffectXml( mOps[ i ], mTargets[ i ], mArguments[ i ], doc );
+            if ( effect != null ) {
+//                if ( BUG_ACCOMMODATION_LOGGER .isLoggable( Level.FINEST ) )
+//                    BUG_ACCOMMODATION_LOGGER .finest( "side-effect: " + DomSerializer .getXmlString( effect ) );
+                effects .appendChild( effect );
             }
+            // else effect was ChangeConstructions.AttachConstruction, which we don't need to serialize
         }
         result .appendChild( effects );
         return result;
@@ -43,7 +38,20 @@ public abstract class SideEffects extends UndoableEdit
         return false;
     }
 
-    private List<SideEffect> mItems = new ArrayList<>();
+    /**
+     * An opcode for a SideEffect object, held as the target, with no argument.
+     * Subclasses define other opcodes for their own common side-effects, which are interpreted
+     * by redoEffect(), undoEffect(), and getEffectXml(), so that they need no object of their own.
+     */
+    protected static final byte GENERIC_EFFECT = 0;
+
+    // The planned side-effects, as columns rather than an object each, since an edit on a large model
+    //  can plan hundreds of thousands of them.  Each is an opcode, a target (usually a Manifestation),
+    //  and an argument, which is usually null.
+    private byte[] mOps = new byte[ 0 ];
+    private Object[] mTargets = new Object[ 0 ];
+    private Object[] mArguments = new Object[ 0 ];
+    private int mSize = 0;
     
     /**
      * This lets us use this pattern:
@@ -79,7 +87,56 @@ public abstract class SideEffects extends UndoableEdit
 
     protected void plan( SideEffect se )
     {
-        mItems .add( se );
+        planEffect( GENERIC_EFFECT, se, null );
+    }
+
+    protected void planEffect( byte op, Object target, Object argument )
+    {
+        if ( mSize == mOps .length ) {
+            int capacity = Math .max( 10, mSize + ( mSize >> 1 ) );
+            mOps = Arrays .copyOf( mOps, capacity );
+            mTargets = Arrays .copyOf( mTargets, capacity );
+            mArguments = Arrays .copyOf( mArguments, capacity );
+        }
+        mOps[ mSize ] = op;
+        mTargets[ mSize ] = target;
+        mArguments[ mSize ] = argument;
+        ++ mSize;
+    }
+
+    /**
+     * Subclasses that define opcodes must override this, and call super for any other opcode.
+     */
+    protected void redoEffect( byte op, Object target, Object argument )
+    {
+        if ( op != GENERIC_EFFECT )
+            throw new IllegalStateException( "unknown side-effect opcode: " + op );
+        if ( target != null )
+            ((SideEffect) target) .redo();
+    }
+
+    /**
+     * Subclasses that define opcodes must override this, and call super for any other opcode.
+     */
+    protected void undoEffect( byte op, Object target, Object argument )
+    {
+        if ( op != GENERIC_EFFECT )
+            throw new IllegalStateException( "unknown side-effect opcode: " + op );
+        if ( target != null )
+            ((SideEffect) target) .undo();
+    }
+
+    /**
+     * Subclasses that define opcodes must override this, and call super for any other opcode.
+     * @return null if the side-effect need not be serialized
+     */
+    protected Element getEffectXml( byte op, Object target, Object argument, Document doc )
+    {
+        if ( op != GENERIC_EFFECT )
+            throw new IllegalStateException( "unknown side-effect opcode: " + op );
+        if ( target == null )
+            return null;
+        return ((SideEffect) target) .getXml( doc );
     }
     
     @Override
@@ -103,35 +160,49 @@ public abstract class SideEffects extends UndoableEdit
     @Override
     public boolean isNoOp()
     {
-        return this.mItems.size() == 0;
+        return this.mSize == 0;
     }
 
     @Override
     public void redo()
     {
-        for ( int i = redone; i < mItems .size(); i++ )
-        {
-            SideEffect se = mItems .get( i );
-            if ( se != null )
-                se .redo();
-        }
-        redone = mItems .size();
+        for ( int i = redone; i < mSize; i++ )
+            redoEffect( mOps[ i ], mTargets[ i ], mArguments[ i ] );
+        redone = mSize;
     }
 
     @Override
     public void undo()
     {
-        for ( int i = mItems .size(); i > 0; i-- )
-        {
-            SideEffect se = mItems .get( i-1 );
-            if ( se != null )
-                se .undo();
-        }
+        for ( int i = mSize; i > 0; i-- )
+            undoEffect( mOps[ i-1 ], mTargets[ i-1 ], mArguments[ i-1 ] );
+        redone = 0;
+    }
+
+    /**
+     * Forget any redo() progress, as undo() would, but without touching the model.
+     * EditHistory needs this when it restores a checkpoint taken before this edit was redone.
+     */
+    public void resetRedo()
+    {
         redone = 0;
     }
 
-	protected Iterator<SideEffect> getEffects()
-	{
-		return this .mItems .iterator();
-	}
+    /**
+     * @return the number of side-effects planned so far
+     */
+    protected int getEffectCount()
+    {
+        return this .mSize;
+    }
+
+    protected byte getEffectOp( int i )
+    {
+        return this .mOps[ i ];
+    }
+
+    protected Object getEffectTarget( int i )
+    {
+        return this .mTargets[ i ];
+    }
 }
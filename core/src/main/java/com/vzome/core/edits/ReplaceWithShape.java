@@ -131,6 +131,7 @@ public class ReplaceWithShape extends ChangeManifestations
                 redo();
                 RenderedManifestation rm = model .render( this .ballOrStrut );
                 this .replace( this .ballOrStrut, rm, rm .getShape() );
+                rm .releaseShape(); // the model is only for this edit
             }
             else
                 // selection-based
@@ -138,6 +139,7 @@ public class ReplaceWithShape extends ChangeManifestations
                     unselect( man );
                     RenderedManifestation rm = model .render( man );
                     this .replace( man, rm, rm .getShape() );
+                    rm .releaseShape();
                 }
         } else {
             // legacy pick-based
@@ -1,5 +1,8 @@
 package com.vzome.core.edits;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import com.vzome.core.algebra.AlgebraicVector;
 import com.vzome.core.commands.Command;
 import com.vzome.core.commands.Command.Failure;
@@ -54,7 +57,12 @@ public abstract class SelectByBoundary extends ChangeManifestations {
         redo(); // commit any selects
     }
     
+    // Most locations are shared by a ball, several struts and perhaps panels,
+    // so each location is tested against the boundary just once.
+    private Map<AlgebraicVector, Boolean> tested = null; // only used during selectBoundedManifestations()
+
     protected void selectBoundedManifestations() {
+        tested = new HashMap<>();
         for(Connector connector : this.getConnectors()) {
             if( boundaryContains(connector) ) {
                 select(connector);
@@ -70,24 +78,34 @@ public abstract class SelectByBoundary extends ChangeManifestations {
                 select(panel);
             }
         }
+        tested = null;
     }
     
     private boolean boundaryContains(Connector connector) {
-        return boundaryContains( connector.getLocation() );
+        return testedBoundaryContains( connector.getLocation() );
     }
 
     private boolean boundaryContains(Strut strut) {
-        return boundaryContains( strut.getLocation() ) && boundaryContains( strut.getEnd() );
+        return testedBoundaryContains( strut.getLocation() ) && testedBoundaryContains( strut.getEnd() );
     }
 
     private boolean boundaryContains(Panel panel) {
         for(AlgebraicVector vertex : panel) {
-            if(! boundaryContains( vertex )) {
+            if(! testedBoundaryContains( vertex )) {
                 return false;
             }
         }
         return true;
     }
 
+    private boolean testedBoundaryContains(AlgebraicVector v) {
+        Boolean result = tested.get(v);
+        if(result == null) {
+            result = boundaryContains(v);
+            tested.put(v, result);
+        }
+        return result;
+    }
+
     protected abstract boolean boundaryContains(AlgebraicVector v);
 }
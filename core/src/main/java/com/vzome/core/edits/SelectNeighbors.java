@@ -43,50 +43,31 @@ public class SelectNeighbors extends ChangeSelection
         }
         for (Connector ball : balls) {
             AlgebraicVector loc = ball .getLocation();
-            for (Manifestation man : model) {
+            for (Manifestation man : model .getIncidentManifestations( new AlgebraicVector[]{ loc } )) {
                 if ( ! man .isRendered() )
                     continue;  // hidden!
-                if ( man instanceof Strut && ! struts .contains( man ) ) {
-                    Strut strut = (Strut) man;
-                    if ( loc .equals( strut .getLocation() ) 
-                            || loc .equals( strut .getEnd() ) )
-                        select( strut );
-                }
-                else if ( withPanels && ( man instanceof Panel ) && ! panels .contains( man ) ) {
-                    Panel panel = (Panel) man;
-                    for (AlgebraicVector vertex : panel) {
-                        if ( loc .equals( vertex ) ) {
-                            select( panel );
-                            // no need to continue the loop since we have already selected this panel.
-                            break;
-                        }
-                    }
-                }
+                if ( man instanceof Strut && ! struts .contains( man ) )
+                    select( man );
+                else if ( withPanels && ( man instanceof Panel ) && ! panels .contains( man ) )
+                    select( man );
             }
         }
         for (Strut strut : struts) {
-            AlgebraicVector loc = strut .getLocation();
-            AlgebraicVector end = strut .getEnd();
-            for (Manifestation man : model) {
+            AlgebraicVector[] ends = new AlgebraicVector[]{ strut .getLocation(), strut .getEnd() };
+            for (Manifestation man : model .getIncidentManifestations( ends )) {
                 if ( ! man .isRendered() )
                     continue;  // hidden!
-                if ( man instanceof Connector && ! balls .contains( man ) ) {
-                    AlgebraicVector bloc = man .getLocation();
-                    if ( bloc .equals( loc ) || bloc .equals( end ) )
-                        select( man );
-                }
+                if ( man instanceof Connector && ! balls .contains( man ) )
+                    select( man );
             }
         }
         if ( withPanels ) {
-                for (Panel panel : panels) {
+            for (Panel panel : panels) {
                 for (AlgebraicVector loc : panel) {
-                    for (Manifestation man : model) {
+                    for (Manifestation man : model .getIncidentManifestations( new AlgebraicVector[]{ loc } )) {
                         if ( man .isRendered() ) {// if not hidden!
                             if ( man instanceof Connector && ! balls .contains( man ) ) {
-                                AlgebraicVector bloc = man .getLocation();
-                                if ( bloc .equals( loc ) ) {
-                                    select( man );
-                                }
+                                select( man );
                             }
                         }
                     }
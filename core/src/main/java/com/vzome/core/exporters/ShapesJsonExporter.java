@@ -4,11 +4,10 @@ import java.io.File;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.List;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.vzome.core.algebra.AlgebraicField;
 import com.vzome.core.editor.DocumentModel;
 import com.vzome.core.editor.PageModel;
@@ -30,6 +29,12 @@ public class ShapesJsonExporter extends DocumentExporter
         this.justTriangles = justTriangles;
     }
 
+    /**
+     * Streams the JSON straight to the writer, as it iterates over the rendered models,
+     * so the memory needed does not grow with the model size.
+     * The shapes come before the instances in the output, so each model is iterated twice,
+     * once for its new shapes and once for its instances.
+     */
     public void exportDocument( DocumentIntf doc, File file, Writer writer, int height, int width ) throws Exception
     {
         mapper = new JsonMapper( JsonMapper.RealTrianglesView.class, false, this.justTriangles );
@@ -37,9 +42,6 @@ public class ShapesJsonExporter extends DocumentExporter
         mModel = doc .getRenderedModel();
         mLights = doc .getSceneLighting();
 
-        ArrayList<JsonNode> shapes = new ArrayList<>();
-        
-        ArrayList<JsonNode> instances = exportRenderedModel( mModel, shapes );
         OrbitSource orbitSource = mModel .getOrbitSource();
         AlgebraicField field = mModel .getField();
         
@@ -55,15 +57,14 @@ public class ShapesJsonExporter extends DocumentExporter
         
         // Include only the snapshots that are used in live scenes, but DON'T change indices
         RenderedModel[] snapshots = ((DocumentModel) doc) .getSnapshots();
-        ArrayList<ArrayList<JsonNode>> usedSnapshots = new ArrayList<>();
-        for (int i = 0; i < ((DocumentModel) doc) .getSnapshots() .length; i++) {
-          usedSnapshots .add( new ArrayList<>() ); // any or all of these may turn out to be index placeholders
-        }
+        boolean[] usedSnapshots = new boolean[ snapshots .length ]; // any or all of these may turn out to be index placeholders
+        List<RenderedModel> models = new ArrayList<>();
+        models .add( mModel );
         for ( PageModel scene : ((DocumentModel) doc) .getLesson() ) {
           int snapshot = scene .getSnapshot();
-          if ( usedSnapshots .get( snapshot) .size() == 0 ) {
-            // replace the placeholder with the actual snapshot
-            usedSnapshots .set( snapshot, exportRenderedModel( snapshots[ snapshot ], shapes ) );
+          if ( ! usedSnapshots[ snapshot ] ) {
+            usedSnapshots[ snapshot ] = true;
+            models .add( snapshots[ snapshot ] );
           }
         }
 
@@ -81,10 +82,24 @@ public class ShapesJsonExporter extends DocumentExporter
         generator .writeObjectField( "lights", this .mLights );
         generator .writeObjectField( "camera", this .mScene );
         generator .writeObjectField( "embedding", embeddingRows );
-        generator .writeObjectField( "shapes", shapes );
-        generator .writeObjectField( "instances", instances );
+        generator .writeArrayFieldStart( "shapes" );
+        for ( RenderedModel model : models )
+            for ( RenderedManifestation rm : model )
+                mapper .writeShape( rm .getShape(), generator ); // writes only the shapes not reported yet
+        generator .writeEndArray();
+        generator .writeFieldName( "instances" );
+        exportRenderedModel( mModel, generator );
         generator .writeObjectField( "scenes", ((DocumentModel) doc) .getLesson() .iterator() );
-        generator .writeObjectField( "snapshots", usedSnapshots );
+        generator .writeArrayFieldStart( "snapshots" );
+        for ( int i = 0; i < snapshots .length; i++ ) {
+            if ( usedSnapshots[ i ] )
+                exportRenderedModel( snapshots[ i ], generator );
+            else {
+                generator .writeStartArray();
+                generator .writeEndArray();
+            }
+        }
+        generator .writeEndArray();
         generator .writeEndObject();
         generator.close();
         mScene = null;
@@ -92,21 +107,13 @@ public class ShapesJsonExporter extends DocumentExporter
         mLights = null;
     }
 
-    private ArrayList<JsonNode> exportRenderedModel( RenderedModel model, ArrayList<JsonNode> shapes )
+    private void exportRenderedModel( RenderedModel model, JsonGenerator generator ) throws IOException
     {
-        ArrayList<JsonNode> instances = new ArrayList<>();
+        generator .writeStartArray();
         for ( RenderedManifestation rm : model ) {
-            ObjectNode instanceNode = mapper .getObjectNode( rm, true );
-            if ( instanceNode != null ) {
-                ObjectNode shapeNode = mapper .getShapeNode( rm .getShape() );
-                if ( shapeNode != null )
-                {
-                    shapes .add( shapeNode ); // a shape not reported yet
-                }
-                instances .add( instanceNode );
-            }
+            mapper .writeInstance( rm, true, generator );
         }
-        return instances;
+        generator .writeEndArray();
     }
 
     @Override
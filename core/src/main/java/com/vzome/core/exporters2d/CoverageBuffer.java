@@ -0,0 +1,207 @@
+package com.vzome.core.exporters2d;
+
+import java.awt.geom.PathIterator;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A hidden-surface pass for the polygons of a depth-sorted Java2dSnapshot.
+ *
+ * The polygons are visited in reverse painting order, recording which sample points of the
+ * snapshot rectangle are covered by the polygons painted later.  A polygon is dropped when
+ * every sample near it, including the reach of its outline, is already covered, since
+ * nothing of it could show in the painted result.  A polygon that reaches outside the
+ * rectangle is always kept.
+ *
+ * Coverage is only as exact as the sampling: a gap between front polygons that is narrower
+ * than the sample spacing may go unnoticed, so the spacing should stay well below a pixel.
+ * Nor is it conservative for antialiased rendering, which blends whatever is behind into the
+ * seams between front polygons, so dropping a polygon can change a few pixels along those seams.
+ */
+public class CoverageBuffer
+{
+    /**
+     * Samples per pixel, in each direction.
+     */
+    public static final int DEFAULT_SAMPLES = 4;
+
+    private static final Logger logger = Logger .getLogger( "com.vzome.core.exporters2d" );
+
+    private final boolean[] covered;
+
+    private final int columns, rows, samples;
+
+    private final double left, top;
+
+    public static class Report
+    {
+        private final int kept, dropped;
+
+        Report( int kept, int dropped )
+        {
+            this .kept = kept;
+            this .dropped = dropped;
+        }
+
+        public int getKept()
+        {
+            return this .kept;
+        }
+
+        public int getDropped()
+        {
+            return this .dropped;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "kept " + this .kept + " polygons, dropped " + this .dropped + " occluded";
+        }
+    }
+
+    public CoverageBuffer( Rectangle2D rect, int samples )
+    {
+        this .samples = samples;
+        this .left = rect .getX();
+        this .top = rect .getY();
+        this .columns = (int) Math .ceil( rect .getWidth() * samples );
+        this .rows = (int) Math .ceil( rect .getHeight() * samples );
+        this .covered = new boolean[ this .columns * this .rows ];
+    }
+
+    /**
+     * @param polygons in painting order
+     * @param margin how far the outline of a polygon reaches beyond its edges
+     * @param kept receives the polygons that are not occluded, in painting order
+     * @return a report of the polygons kept and dropped
+     */
+    public Report removeOccluded( List<Java2dSnapshot.Polygon> polygons, float margin, List<Java2dSnapshot.Polygon> kept )
+    {
+        long startTime = System .nanoTime();
+        List<Java2dSnapshot.Polygon> reversed = new ArrayList<>();
+        float[] coords = new float[6];
+        float[] xs = new float[8];
+        float[] ys = new float[8];
+        for ( int i = polygons .size() - 1; i >= 0; i-- ) {
+            Java2dSnapshot.Polygon polygon = polygons .get( i );
+            int n = 0;
+            for ( PathIterator segments = polygon .getPath() .getPathIterator( null ); ! segments .isDone(); segments .next() ) {
+                int step = segments .currentSegment( coords );
+                if ( step == PathIterator.SEG_MOVETO || step == PathIterator.SEG_LINETO ) {
+                    if ( n == xs .length ) {
+                        xs = Arrays .copyOf( xs, 2 * n );
+                        ys = Arrays .copyOf( ys, 2 * n );
+                    }
+                    xs[ n ] = (float) ( ( coords[0] - this .left ) * this .samples );
+                    ys[ n ] = (float) ( ( coords[1] - this .top ) * this .samples );
+                    ++ n;
+                }
+            }
+            if ( n == 0 )
+                continue;
+            // half the sample spacing is enough to reach the nearest samples around any part of the polygon
+            if ( ! isOccluded( xs, ys, n, margin * this .samples + 0.5f ) ) {
+                reversed .add( polygon );
+                cover( xs, ys, n );
+            }
+        }
+        Collections .reverse( reversed );
+        kept .addAll( reversed );
+        Report report = new Report( reversed .size(), polygons .size() - reversed .size() );
+        if ( logger .isLoggable( Level .FINE ) )
+            logger .fine( "coverage buffer " + this .columns + "x" + this .rows + ": " + report + ", in "
+                    + ( System .nanoTime() - startTime ) / 1000000 + " ms" );
+        return report;
+    }
+
+    /**
+     * Checks every sample within reach of the polygon, conservatively taking the x-extent of
+     * the polygon over a band of rows around each sample row.
+     */
+    private boolean isOccluded( float[] xs, float[] ys, int n, float reach )
+    {
+        float minY = ys[0], maxY = ys[0];
+        for ( int k = 1; k < n; k++ ) {
+            minY = Math .min( minY, ys[ k ] );
+            maxY = Math .max( maxY, ys[ k ] );
+        }
+        int firstRow = (int) Math .floor( minY - reach - 0.5f );
+        int lastRow = (int) Math .ceil( maxY + reach - 0.5f );
+        if ( firstRow < 0 || lastRow >= this .rows )
+            return false;
+        for ( int row = firstRow; row <= lastRow; row++ ) {
+            float center = row + 0.5f;
+            float bandTop = center - reach, bandBottom = center + reach;
+            float minX = Float .POSITIVE_INFINITY, maxX = Float .NEGATIVE_INFINITY;
+            for ( int k = 0; k < n; k++ ) {
+                int next = ( k + 1 ) % n;
+                float x1 = xs[ k ], y1 = ys[ k ], x2 = xs[ next ], y2 = ys[ next ];
+                if ( Math .max( y1, y2 ) < bandTop || Math .min( y1, y2 ) > bandBottom )
+                    continue;
+                // clip the edge to the band
+                if ( y1 != y2 ) {
+                    float t1 = Math .max( 0f, Math .min( 1f, ( bandTop - y1 ) / ( y2 - y1 ) ) );
+                    float t2 = Math .max( 0f, Math .min( 1f, ( bandBottom - y1 ) / ( y2 - y1 ) ) );
+                    float xa = x1 + t1 * ( x2 - x1 ), xb = x1 + t2 * ( x2 - x1 );
+                    minX = Math .min( minX, Math .min( xa, xb ) );
+                    maxX = Math .max( maxX, Math .max( xa, xb ) );
+                }
+                else {
+                    minX = Math .min( minX, Math .min( x1, x2 ) );
+                    maxX = Math .max( maxX, Math .max( x1, x2 ) );
+                }
+            }
+            if ( minX > maxX )
+                continue;
+            int firstColumn = (int) Math .floor( minX - reach - 0.5f );
+            int lastColumn = (int) Math .ceil( maxX + reach - 0.5f );
+            if ( firstColumn < 0 || lastColumn >= this .columns )
+                return false;
+            int offset = row * this .columns;
+            for ( int column = firstColumn; column <= lastColumn; column++ )
+                if ( ! this .covered[ offset + column ] )
+                    return false;
+        }
+        return true;
+    }
+
+    /**
+     * Marks the samples inside the polygon, by the even-odd rule, one row of samples at a time.
+     */
+    private void cover( float[] xs, float[] ys, int n )
+    {
+        float minY = ys[0], maxY = ys[0];
+        for ( int k = 1; k < n; k++ ) {
+            minY = Math .min( minY, ys[ k ] );
+            maxY = Math .max( maxY, ys[ k ] );
+        }
+        int firstRow = Math .max( 0, (int) Math .ceil( minY - 0.5f ) );
+        int lastRow = Math .min( this .rows - 1, (int) Math .floor( maxY - 0.5f ) );
+        float[] crossings = new float[ n ];
+        for ( int row = firstRow; row <= lastRow; row++ ) {
+            float center = row + 0.5f;
+            int count = 0;
+            for ( int k = 0; k < n; k++ ) {
+                int next = ( k + 1 ) % n;
+                float y1 = ys[ k ], y2 = ys[ next ];
+                // half-open, so a vertex on the row is crossed once
+                if ( ( y1 <= center ) != ( y2 <= center ) )
+                    crossings[ count++ ] = xs[ k ] + ( center - y1 ) / ( y2 - y1 ) * ( xs[ next ] - xs[ k ] );
+            }
+            Arrays .sort( crossings, 0, count );
+            int offset = row * this .columns;
+            for ( int c = 0; c + 1 < count; c += 2 ) {
+                int firstColumn = Math .max( 0, (int) Math .ceil( crossings[ c ] - 0.5f ) );
+                int lastColumn = Math .min( this .columns - 1, (int) Math .floor( crossings[ c + 1 ] - 0.5f ) );
+                for ( int column = firstColumn; column <= lastColumn; column++ )
+                    this .covered[ offset + column ] = true;
+            }
+        }
+    }
+}
@@ -3,10 +3,14 @@ package com.vzome.core.exporters2d;
 import java.awt.Color;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.vzome.core.algebra.AlgebraicMatrix;
 import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.generic.ChunkedLoop;
 import com.vzome.core.math.Polyhedron;
 import com.vzome.core.math.Polyhedron.Face;
 import com.vzome.core.math.RealMatrix4;
@@ -21,11 +25,17 @@ import com.vzome.core.viewing.Lights;
 /**
  * Builds a Java2dSnapshot, for use in rendering to a Snapshot2dPanel
  * or exporting via a SnapshotExporter.
+ *
+ * The oriented vertices and face normals are computed once for each distinct shape and
+ * orientation, and then the parts are projected in ChunkedLoop chunks, with float arithmetic only.
+ * The polygons are collected in model order, so the snapshot does not depend on the TaskRunner.
  * @author vorth
  */
 public class Java2dExporter
 {
 	private transient RealMatrix4 viewTransform, eyeTrans;
+
+    private static final int MIN_CHUNK = 64;
         
     public Java2dSnapshot render2d( RenderedModel model, RealMatrix4 viewTransform, RealMatrix4 eyeTransform, Lights lights, int height, int width, boolean drawLines, boolean doLighting ) throws Exception
     {
@@ -53,91 +63,163 @@ public class Java2dExporter
         
         snapshot .setBackgroundColor( background );
 
-        List<RealVector> mappedVertices = new ArrayList<>( 60 );
-        for (RenderedManifestation rm : model) {
-            Polyhedron shape = rm .getShape();
-            com.vzome.core.construction.Color c = rm .getColor();
-            Color color = (c == null)? Color.WHITE : new Color( c .getRGB() );
-            
-            if ( drawLines ) {
-                Manifestation m = rm .getManifestation();
-                if ( m instanceof Strut ) {
-                    AlgebraicVector start = ((Strut) m) .getLocation();
-                    AlgebraicVector end = ((Strut) m) .getEnd();
-                    RealVector v0 = mapCoordinates( model .renderVector( start ), height, width );
-                    RealVector v1 = mapCoordinates( model .renderVector( end ), height, width );
-                    snapshot .addLineSegment( color, v0, v1 );
-                }
-                continue;
-            }
-            
-            List<AlgebraicVector> vertices = shape .getVertexList();
-            AlgebraicMatrix partOrientation = rm .getOrientation();
-            RealVector location = rm .getLocation();  // should *2?
-            
-            if ( location == null )
-                // avoid NPE reported by Antonio Montero
-                continue;
-            
-            mappedVertices .clear();
-            for ( int i = 0; i < vertices .size(); i++ )
-            {
-                AlgebraicVector gv = vertices .get( i );
-                gv = partOrientation .timesColumn( gv );
-                RealVector rv = location .plus( model .renderVector( gv ) );
-                RealVector v = mapCoordinates( rv, height, width );
-                mappedVertices .add( v );
-            }
-            
-            for (Face face : shape .getFaceSet()) {
-                int arity = face .size();
-                Java2dSnapshot.Polygon path = new Java2dSnapshot.Polygon( color );
-                boolean backFacing = false;
-                RealVector v1 = null, v2 = null;
-                for ( int j = 0; j < arity; j++ ){
-                    Integer index = face .get( j );
-                    RealVector v = mappedVertices .get( index );
-                    path .addVertex( v );
-                    switch ( path .size() ) {
-                        case 1 :
-                            v1 = (RealVector) v.clone();
-                            break;
-
-                        case 2:
-                            v2 = (RealVector) v.clone();
-                            break;
-                            
-                        case 3:
-                            RealVector v3 = (RealVector) v.clone();
-                            v3 = v3 .minus( v2 );
-                            v2 = v2 .minus( v1 );
-                            RealVector normal = v2 .cross( v3 );
-                            backFacing = normal .z > 0;
-                            break;
-                            
-                        default :
-                            break;
-                    }
+        List<RenderedManifestation> parts = new ArrayList<>();
+        for ( RenderedManifestation rm : model )
+            parts .add( rm );
+
+        if ( drawLines ) {
+            Java2dSnapshot.LineSegment[] segments = new Java2dSnapshot.LineSegment[ parts .size() ];
+            ChunkedLoop .run( parts .size(), MIN_CHUNK, ( start, end ) -> () -> {
+                for ( int i = start; i < end; i++ )
+                    segments[ i ] = projectStrut( parts .get( i ), model, height, width );
+            } );
+            for ( Java2dSnapshot.LineSegment segment : segments )
+                if ( segment != null )
+                    snapshot .addLineSegment( segment );
+        }
+        else {
+            // The exact arithmetic is done here, once for each distinct shape and orientation,
+            //  so the parts can be projected in chunks with only float arithmetic.
+            Map<Polyhedron, Map<AlgebraicMatrix, OrientedShape>> orientedShapes = new IdentityHashMap<>();
+            List<OrientedShape> partShapes = new ArrayList<>( parts .size() );
+            for ( RenderedManifestation rm : parts ) {
+                Map<AlgebraicMatrix, OrientedShape> orientations = orientedShapes .get( rm .getShape() );
+                if ( orientations == null ) {
+                    orientations = new HashMap<>();
+                    orientedShapes .put( rm .getShape(), orientations );
                 }
-                path .close();
-                if ( ! backFacing )
-                {
-                    if ( doLighting ) {
-                        AlgebraicVector faceNormal = partOrientation .timesColumn( face .getNormal( vertices ) );
-                        RealVector normal = model .renderVector( faceNormal ) .normalize();
-                        RealVector normalV = new RealVector( normal.x, normal.y, normal.z );
-                        normalV = this .viewTransform .transform3dVec( normalV );
-                        
-                        path .applyLighting( normalV, lightDirs, lightColors, ambientLight );
-                    }
-                    snapshot .addPolygon( path );
+                OrientedShape oriented = orientations .get( rm .getOrientation() );
+                if ( oriented == null ) {
+                    oriented = new OrientedShape( rm .getShape(), rm .getOrientation(), model, doLighting? this .viewTransform : null );
+                    orientations .put( rm .getOrientation(), oriented );
                 }
-            }        
+                partShapes .add( oriented );
+            }
+
+            // each chunk sets only its own range of elements
+            List<List<Java2dSnapshot.Polygon>> polygons = new ArrayList<>( parts .size() );
+            for ( int i = 0; i < parts .size(); i++ )
+                polygons .add( null );
+            ChunkedLoop .run( parts .size(), MIN_CHUNK, ( start, end ) -> () -> {
+                for ( int i = start; i < end; i++ )
+                    polygons .set( i, projectPart( parts .get( i ), partShapes .get( i ), height, width, lightDirs, lightColors, ambientLight ) );
+            } );
+            for ( List<Java2dSnapshot.Polygon> partPolygons : polygons )
+                for ( Java2dSnapshot.Polygon polygon : partPolygons )
+                    snapshot .addPolygon( polygon );
         }
 
         snapshot .depthSort();  // TODO could do more here than just "painter's algorithm"
         return snapshot;
     }
+
+    /**
+     * The vertices of a shape in one orientation, and the normals of its faces,
+     * in render coordinates as floats.
+     */
+    private static class OrientedShape
+    {
+        private final RealVector[] vertices;
+        private final List<Face> faces;
+        private final RealVector[] normals;  // in view coordinates, or null without lighting
+
+        OrientedShape( Polyhedron shape, AlgebraicMatrix orientation, RenderedModel model, RealMatrix4 viewTransform )
+        {
+            List<AlgebraicVector> shapeVertices = shape .getVertexList();
+            this .vertices = new RealVector[ shapeVertices .size() ];
+            for ( int i = 0; i < this .vertices .length; i++ )
+                this .vertices[ i ] = model .renderVector( orientation .timesColumn( shapeVertices .get( i ) ) );
+            this .faces = new ArrayList<>( shape .getFaceSet() );
+            if ( viewTransform == null )
+                this .normals = null;
+            else {
+                this .normals = new RealVector[ this .faces .size() ];
+                for ( int i = 0; i < this .normals .length; i++ ) {
+                    AlgebraicVector faceNormal = orientation .timesColumn( this .faces .get( i ) .getNormal( shapeVertices ) );
+                    RealVector normal = model .renderVector( faceNormal ) .normalize();
+                    this .normals[ i ] = viewTransform .transform3dVec( new RealVector( normal.x, normal.y, normal.z ) );
+                }
+            }
+        }
+    }
+
+    private Java2dSnapshot.LineSegment projectStrut( RenderedManifestation rm, RenderedModel model, int height, int width )
+    {
+        Manifestation m = rm .getManifestation();
+        if ( ! ( m instanceof Strut ) )
+            return null;
+        AlgebraicVector start = ((Strut) m) .getLocation();
+        AlgebraicVector end = ((Strut) m) .getEnd();
+        RealVector v0 = mapCoordinates( model .renderVector( start ), height, width );
+        RealVector v1 = mapCoordinates( model .renderVector( end ), height, width );
+        return new Java2dSnapshot.LineSegment( getColor( rm ), v0, v1 );
+    }
+
+    private static Color getColor( RenderedManifestation rm )
+    {
+        com.vzome.core.construction.Color c = rm .getColor();
+        return (c == null)? Color.WHITE : new Color( c .getRGB() );
+    }
+
+    private List<Java2dSnapshot.Polygon> projectPart( RenderedManifestation rm, OrientedShape shape, int height, int width,
+            RealVector[] lightDirs, Color[] lightColors, Color ambientLight )
+    {
+        List<Java2dSnapshot.Polygon> polygons = new ArrayList<>( shape .faces .size() );
+        RealVector location = rm .getLocation();  // should *2?
+        
+        if ( location == null )
+            // avoid NPE reported by Antonio Montero
+            return polygons;
+        Color color = getColor( rm );
+
+        RealVector[] mappedVertices = new RealVector[ shape .vertices .length ];
+        for ( int i = 0; i < mappedVertices .length; i++ )
+        {
+            RealVector rv = location .plus( shape .vertices[ i ] );
+            mappedVertices[ i ] = mapCoordinates( rv, height, width );
+        }
+
+        for ( int f = 0; f < shape .faces .size(); f++ ) {
+            Face face = shape .faces .get( f );
+            int arity = face .size();
+            Java2dSnapshot.Polygon path = new Java2dSnapshot.Polygon( color );
+            boolean backFacing = false;
+            RealVector v1 = null, v2 = null;
+            for ( int j = 0; j < arity; j++ ){
+                Integer index = face .get( j );
+                RealVector v = mappedVertices[ index ];
+                path .addVertex( v );
+                switch ( path .size() ) {
+                    case 1 :
+                        v1 = (RealVector) v.clone();
+                        break;
+
+                    case 2:
+                        v2 = (RealVector) v.clone();
+                        break;
+                        
+                    case 3:
+                        RealVector v3 = (RealVector) v.clone();
+                        v3 = v3 .minus( v2 );
+                        v2 = v2 .minus( v1 );
+                        RealVector normal = v2 .cross( v3 );
+                        backFacing = normal .z > 0;
+                        break;
+                        
+                    default :
+                        break;
+                }
+            }
+            path .close();
+            if ( ! backFacing )
+            {
+                if ( shape .normals != null )
+                    path .applyLighting( shape .normals[ f ], lightDirs, lightColors, ambientLight );
+                polygons .add( path );
+            }
+        }
+        return polygons;
+    }
     
     private RealVector mapCoordinates( RealVector rv, int height, int width )
     {
@@ -33,6 +33,20 @@ public class Java2dSnapshot
         return ! this .lines .isEmpty();
     }
 
+    /**
+     * @return a snapshot of the same parts, in lists that can change without changing this one's
+     */
+    public Java2dSnapshot copy()
+    {
+        Java2dSnapshot copy = new Java2dSnapshot();
+        copy .polygons .addAll( this .polygons );
+        copy .lines .addAll( this .lines );
+        copy .mRect = this .mRect;
+        copy .strokeWidth = this .strokeWidth;
+        copy .backgroundColor = this .backgroundColor;
+        return copy;
+    }
+
     public void addPolygon( Polygon polygon )
     {
         this .polygons .add( polygon );
@@ -42,7 +56,15 @@ public class Java2dSnapshot
     {
         this .lines .add( new LineSegment( color, start, end ) );
     }
+
+    public void addLineSegment( LineSegment segment )
+    {
+        this .lines .add( segment );
+    }
     
+    /**
+     * Collections.sort is stable, so parts at equal depths stay in model order.
+     */
     public void depthSort()
     {
         if ( this .isLineDrawing() )
@@ -52,6 +74,27 @@ public class Java2dSnapshot
             Collections .sort( this .polygons );
     }
     
+    /**
+     * An optional hidden-surface pass, after depthSort(), dropping the polygons that would be
+     * completely painted over, as far as CoverageBuffer can tell.  This can make the exported file
+     * of a dense model much smaller, but it is not exact: an antialiasing renderer blends a trace of
+     * the dropped polygons into the seams between the polygons in front of them, and a gap narrower
+     * than the sample spacing can go unnoticed, so a few pixels along those seams and gaps may change.
+     * @param doOutlines whether the polygons will be outlined, so their outlines must stay hidden too
+     * @return a report of the polygons kept and dropped
+     */
+    public CoverageBuffer.Report removeOccludedPolygons( boolean doOutlines )
+    {
+        if ( this .isLineDrawing() )
+            return new CoverageBuffer.Report( 0, 0 );
+        float margin = doOutlines? this .strokeWidth / 2f : 0f;
+        List<Polygon> kept = new ArrayList<>();
+        CoverageBuffer.Report report = new CoverageBuffer( this .mRect, CoverageBuffer.DEFAULT_SAMPLES )
+                .removeOccluded( this .polygons, margin, kept );
+        this .polygons = kept;
+        return report;
+    }
+    
     public void setRect( Rectangle2D rect )
     {
         this .mRect = rect;
@@ -0,0 +1,77 @@
+package com.vzome.core.generic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Divides a loop over a range of indices into contiguous chunks, and runs them on the installed TaskRunner.
+ *
+ * Core has to stay portable to JSweet and Android, so the default TaskRunner just runs the chunks one
+ * after another on the calling thread.  An application on a full JVM can install a parallel one
+ * with setTaskRunner(), and then the chunks must not modify any shared state.
+ */
+public class ChunkedLoop
+{
+    public interface ChunkFactory<C extends Runnable>
+    {
+        C create( int start, int end );
+    }
+
+    private static final TaskRunner SERIAL = new TaskRunner()
+    {
+        @Override
+        public int getParallelism()
+        {
+            return 1;
+        }
+
+        @Override
+        public void runAll( List<? extends Runnable> tasks )
+        {
+            for ( Runnable task : tasks )
+                task .run();
+        }
+    };
+
+    private static TaskRunner taskRunner = SERIAL;
+
+    /**
+     * @param runner the TaskRunner for all loops, or null to restore the serial default
+     */
+    public static void setTaskRunner( TaskRunner runner )
+    {
+        taskRunner = ( runner == null )? SERIAL : runner;
+    }
+
+    public static TaskRunner getTaskRunner()
+    {
+        return taskRunner;
+    }
+
+    /**
+     * @param count the number of indices
+     * @param minChunk the smallest chunk worth a task of its own
+     * @param factory creates the chunk for each range of indices
+     * @return all the chunks, in index order, after they have run
+     */
+    public static <C extends Runnable> List<C> run( int count, int minChunk, ChunkFactory<C> factory )
+    {
+        TaskRunner runner = taskRunner;
+        int parallelism = Math .max( 1, runner .getParallelism() );
+        // A serial runner gains nothing from chunks, and the chunks would not share any caches they fill.
+        int chunkSize = ( parallelism == 1 )? Math .max( 1, count )
+                : Math .max( Math .max( 1, minChunk ), ( count + 4 * parallelism - 1 ) / ( 4 * parallelism ) );
+        List<C> chunks = new ArrayList<>();
+        for ( int start = 0; start < count; start += chunkSize )
+            chunks .add( factory .create( start, Math .min( count, start + chunkSize ) ) );
+        if ( chunks .isEmpty() )
+            return chunks;
+
+        // The first chunk runs here before any others, so any caches that the chunks fill
+        //  on first use, like AlgebraicField.createPower(), are filled before there is any concurrency.
+        chunks .get( 0 ) .run();
+        if ( chunks .size() > 1 )
+            runner .runAll( chunks .subList( 1, chunks .size() ) );
+        return chunks;
+    }
+}
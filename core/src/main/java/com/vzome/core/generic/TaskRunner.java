@@ -0,0 +1,21 @@
+package com.vzome.core.generic;
+
+import java.util.List;
+
+/**
+ * Runs a batch of independent tasks, such as the chunks of a ChunkedLoop.
+ */
+public interface TaskRunner
+{
+    /**
+     * @return how many tasks can usefully run at once
+     */
+    int getParallelism();
+
+    /**
+     * Runs all the tasks, in any order or concurrently, and returns when they are all done.
+     * A RuntimeException thrown by any task is rethrown.
+     * @param tasks
+     */
+    void runAll( List<? extends Runnable> tasks );
+}
@@ -97,16 +97,22 @@ public class DefaultFieldApplication implements FieldApplication
 		switch ( symmName ) {
 	
 		case "octahedral":
-			if ( this .octahedralPerspective == null ) {
-				this .octahedralPerspective = new OctahedralSymmetryPerspective( this .field );
-			}
-			return this .octahedralPerspective;
+			return this .getOctahedralPerspective();
 	
 		default:
 			return null;
 		}
 	}
 
+	// The Application shares one instance among its documents, so lazy initialization is synchronized.
+	private synchronized SymmetryPerspective getOctahedralPerspective()
+	{
+		if ( this .octahedralPerspective == null ) {
+			this .octahedralPerspective = new OctahedralSymmetryPerspective( this .field );
+		}
+		return this .octahedralPerspective;
+	}
+
 	@Override
 	public QuaternionicSymmetry getQuaternionSymmetry( String name )
 	{
@@ -141,6 +147,12 @@ public class DefaultFieldApplication implements FieldApplication
 	@Override
 	public void constructPolytope( String groupName, int index, int edgesToRender, AlgebraicNumber[] edgeScales, WythoffConstruction.Listener listener )
 	{
+        CoxeterGroup group = this .getGroup4d( groupName );
+        WythoffConstruction .constructPolytope( group, index, edgesToRender, edgeScales, group, listener );
+	}
+
+    private synchronized CoxeterGroup getGroup4d( String groupName )
+    {
         CoxeterGroup group = this .groups4d .get( groupName );
         if ( group == null )
         {
@@ -165,8 +177,8 @@ public class DefaultFieldApplication implements FieldApplication
             }
             this .groups4d .put( groupName, group );
         }
-        WythoffConstruction .constructPolytope( group, index, edgesToRender, edgeScales, group, listener );
-	}
+        return group;
+    }
 
 	@Override
 	public Command getLegacyCommand( String action )
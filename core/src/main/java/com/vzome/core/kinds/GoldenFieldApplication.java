@@ -127,6 +127,15 @@ public class GoldenFieldApplication extends DefaultFieldApplication
     }
 
     private CommandUniformH4Polytope h4Builder = null;
+
+    private synchronized CommandUniformH4Polytope getH4Builder()
+    {
+        if ( this .h4Builder == null ) {
+            QuaternionicSymmetry qsymm = new QuaternionicSymmetry( "H_4", "com/vzome/core/math/symmetry/H4roots.vef", this .getField() );
+            this .h4Builder = new CommandUniformH4Polytope( this .getField(), qsymm, 0 );
+        }
+        return this .h4Builder;
+    }
     
     @Override
     public void constructPolytope( String groupName, int index, int edgesToRender, AlgebraicNumber[] edgeScales, WythoffConstruction.Listener listener )
@@ -134,11 +143,7 @@ public class GoldenFieldApplication extends DefaultFieldApplication
         switch ( groupName ) {
 
         case "H4":
-            if ( this .h4Builder == null ) {
-                QuaternionicSymmetry qsymm = new QuaternionicSymmetry( "H_4", "com/vzome/core/math/symmetry/H4roots.vef", this .getField() );
-                this .h4Builder = new CommandUniformH4Polytope( this .getField(), qsymm, 0 );
-            }
-            this .h4Builder .generate( index, edgesToRender, edgeScales, listener );
+            this .getH4Builder() .generate( index, edgesToRender, edgeScales, listener );
             break;
 
         default:
@@ -25,6 +25,11 @@ class Face {
     double area;
     private AlgebraicVector centroid;
     AlgebraicNumber planeOffset;
+    // approximations of normal, centroid and planeOffset, for filteredDistanceToPlane()
+    private RealApproximation normalApprox;
+    private RealApproximation centroidApprox;
+    private double offsetApprox;
+    private double offsetError;
     int index;
     int numVerts;
 
@@ -114,6 +119,7 @@ class Face {
         normal = computeNormal();
         centroid = computeCentroid();
         planeOffset = normal.dot(centroid);
+        computeApproximations();
         int numv = 0;
         HalfEdge he = he0;
         do {
@@ -129,6 +135,16 @@ class Face {
         normal = computeNormal(); // ignoring minArea
         centroid = computeCentroid();
         planeOffset = normal.dot(centroid);
+        computeApproximations();
+    }
+
+    private void computeApproximations() {
+        double[] unitTerms = he0.head().unitTerms;
+        normalApprox = new RealApproximation(normal, unitTerms);
+        centroidApprox = new RealApproximation(centroid, unitTerms);
+        double[] offset = RealApproximation.approximate(planeOffset, unitTerms);
+        offsetApprox = offset[0];
+        offsetError = offset[1];
     }
 
     public static Face createTriangle(Vertex v0, Vertex v1, Vertex v2) {
@@ -248,6 +264,36 @@ class Face {
         return normal.dot(p).minus(planeOffset);
     }
 
+    /**
+     * Computes the distance from a point p to the plane of this face, in doubles
+     * when that is accurate enough. The result always has the same sign as
+     * {@link #distanceToPlane(AlgebraicVector) distanceToPlane(p)}, since
+     * the exact distance is computed whenever the error bound of the double
+     * result includes zero.
+     *
+     * @param p
+     *            the point
+     * @param approx
+     *            the double approximation of p
+     * @return approximate distance from the point to the plane
+     */
+    public double filteredDistanceToPlane(AlgebraicVector p, RealApproximation approx) {
+        RealApproximation n = normalApprox;
+        double dx = n.x * approx.x;
+        double dy = n.y * approx.y;
+        double dz = n.z * approx.z;
+        double dist = dx + dy + dz - offsetApprox;
+        double bound = n.error * (Math.abs(approx.x) + Math.abs(approx.y) + Math.abs(approx.z) + 3 * approx.error)
+                + approx.error * (Math.abs(n.x) + Math.abs(n.y) + Math.abs(n.z))
+                + offsetError
+                + RealApproximation.ROUNDING_ERROR * (Math.abs(dx) + Math.abs(dy) + Math.abs(dz) + Math.abs(offsetApprox));
+        // an infinite or NaN bound, for a field with no known error bound, never passes
+        if (Math.abs(dist) > bound) {
+            return dist;
+        }
+        return distanceToPlane(p).evaluate();
+    }
+
     /**
      * Returns the normal of the plane associated with this face.
      *
@@ -261,6 +307,10 @@ class Face {
         return centroid;
     }
 
+    RealApproximation getCentroidApproximation() {
+        return centroidApprox;
+    }
+
     public int numVertices() {
         return numVerts;
     }
@@ -360,7 +410,7 @@ class Face {
             } else if (oppFace.mark == DELETED) {
                 fail("face " + getVertexString() + ": " + "opposite face " + oppFace.getVertexString() + " not on hull");
             }
-            double d = Math.abs(distanceToPlane(hedge.head().pnt).evaluate());
+            double d = Math.abs(filteredDistanceToPlane(hedge.head().pnt, hedge.head().approx));
             if (d > maxd) {
                 maxd = d;
             }
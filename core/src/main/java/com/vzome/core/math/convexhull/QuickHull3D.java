@@ -23,6 +23,10 @@ import com.vzome.core.commands.Command.Failure;
  * Floating point math has been replaced with AlgebraicNumbers 
  * and AlgebraicVectors, so the associated floating point error 
  * and tolerance considerations have been omitted. 
+ * Plane distances are still computed in doubles where possible,
+ * but only when a rigorous error bound shows that the sign is correct,
+ * which requires a known bound on the error of the field's unit terms.
+ * See {@link Face#filteredDistanceToPlane(AlgebraicVector, RealApproximation)}.
  */
 
 /**
@@ -481,8 +485,9 @@ public class QuickHull3D {
 
     protected void setPoints(AlgebraicVector[] pnts, int nump) {
         pointBuffer = new Vertex[nump];
+        double[] unitTerms = RealApproximation.unitTerms(pnts[0].getField());
         for (int i = 0; i < nump; i++) {
-            pointBuffer[i] = new Vertex(pnts[i], i);
+            pointBuffer[i] = new Vertex(pnts[i], i, unitTerms);
         }
     }
 
@@ -490,20 +495,20 @@ public class QuickHull3D {
         for (int i = 0; i < 3; i++) {
             maxVtxs[i] = minVtxs[i] = pointBuffer[0];
         }
-        AlgebraicVector max = pointBuffer[0].pnt;
-        double maxx = max.getComponent(X).evaluate();
-        double maxy = max.getComponent(Y).evaluate();
-        double maxz = max.getComponent(Z).evaluate();
+        RealApproximation max = pointBuffer[0].approx;
+        double maxx = max.x;
+        double maxy = max.y;
+        double maxz = max.z;
 
         double minx = maxx;
         double miny = maxy;
         double minz = maxz;
 
         for (int i = 1; i < numPoints; i++) {
-            AlgebraicVector pnt = pointBuffer[i].pnt;
-            double pntx = pnt.getComponent(X).evaluate();
-            double pnty = pnt.getComponent(Y).evaluate();
-            double pntz = pnt.getComponent(Z).evaluate();
+            RealApproximation pnt = pointBuffer[i].approx;
+            double pntx = pnt.x;
+            double pnty = pnt.y;
+            double pntz = pnt.z;
             
             if (pntx > maxx) {
                 maxx = pntx;
@@ -665,7 +670,7 @@ public class QuickHull3D {
             maxDist = 0d;
             Face maxFace = null;
             for (int k = 0; k < 4; k++) {
-                double dist = tris[k].distanceToPlane(v.pnt).evaluate(); // TODO: get rid of evaluate()
+                double dist = tris[k].filteredDistanceToPlane(v.pnt, v.approx);
                 if (dist > maxDist) {
                     maxFace = tris[k];
                     maxDist = dist;
@@ -898,7 +903,7 @@ public class QuickHull3D {
             Face maxFace = null;
             for (Face newFace : newFaces) {
                 if (newFace.mark == Face.VISIBLE) {
-                    double dist = newFace.distanceToPlane(vtx.pnt).evaluate();
+                    double dist = newFace.filteredDistanceToPlane(vtx.pnt, vtx.approx);
                     if (dist > maxDist) {
                         maxDist = dist;
                         maxFace = newFace;
@@ -930,7 +935,7 @@ public class QuickHull3D {
                 Vertex vtxNext = faceVtxs;
                 for (Vertex vtx = vtxNext; vtx != null; vtx = vtxNext) {
                     vtxNext = vtx.next;
-                    double dist = absorbingFace.distanceToPlane(vtx.pnt).evaluate();
+                    double dist = absorbingFace.filteredDistanceToPlane(vtx.pnt, vtx.approx);
                     if (dist > 0) { // tolerance) {
                         addPointToFace(vtx, absorbingFace);
                     } else {
@@ -949,6 +954,11 @@ public class QuickHull3D {
         return he.face.distanceToPlane(he.opposite.face.getCentroid());
     }
 
+    protected double filteredOppFaceDistance(HalfEdge he) {
+        Face oppFace = he.opposite.face;
+        return he.face.filteredDistanceToPlane(oppFace.getCentroid(), oppFace.getCentroidApproximation());
+    }
+
     private boolean doAdjacentMerge(Face face, int mergeType) throws Failure {
         HalfEdge hedge = face.he0;
 
@@ -959,7 +969,7 @@ public class QuickHull3D {
 
             double tolerance = 0; // TODO: Get rid of this variable and use isPositive(), isNegative() and isZero(), or else signum() 
             if (mergeType == NONCONVEX) { // then merge faces if they are definitively non-convex
-                if (oppFaceDistance(hedge).evaluate() > -tolerance || oppFaceDistance(hedge.opposite).evaluate() > -tolerance) {
+                if (filteredOppFaceDistance(hedge) > -tolerance || filteredOppFaceDistance(hedge.opposite) > -tolerance) {
                     merge = true;
                 }
             } else // mergeType == NONCONVEX_WRT_LARGER_FACE
@@ -967,16 +977,16 @@ public class QuickHull3D {
               // wrt to the larger face; otherwise, just mark
               // the face non-convex for the second pass.
                 if (face.area > oppFace.area) {
-                    if (oppFaceDistance(hedge).evaluate() > -tolerance) {
+                    if (filteredOppFaceDistance(hedge) > -tolerance) {
                         merge = true;
-                    } else if (oppFaceDistance(hedge.opposite).evaluate() > -tolerance) {
+                    } else if (filteredOppFaceDistance(hedge.opposite) > -tolerance) {
                         convex = false;
                     }
                 } else {
                     // Replacing the original > with >= makes coplanar faces merge correctly
-                    if (oppFaceDistance(hedge.opposite).evaluate() >= -tolerance) {
+                    if (filteredOppFaceDistance(hedge.opposite) >= -tolerance) {
                         merge = true;
-                    } else if (oppFaceDistance(hedge).evaluate() >= -tolerance) { // Ditto > changed to >=
+                    } else if (filteredOppFaceDistance(hedge) >= -tolerance) { // Ditto > changed to >=
                         convex = false;
                     }
                 }
@@ -1004,7 +1014,7 @@ public class QuickHull3D {
         return false;
     }
 
-    protected void calculateHorizon(AlgebraicVector eyePnt, HalfEdge edge0, Face face, Vector<HalfEdge> horizon) {
+    protected void calculateHorizon(Vertex eyeVtx, HalfEdge edge0, Face face, Vector<HalfEdge> horizon) {
         deleteFacePoints(face, null);
         face.mark = Face.DELETED;
         if (debug) {
@@ -1021,8 +1031,8 @@ public class QuickHull3D {
         do {
             Face oppFace = edge.oppositeFace();
             if (oppFace.mark == Face.VISIBLE) {
-                if (oppFace.distanceToPlane(eyePnt).evaluate() > tolerance) {
-                    calculateHorizon(eyePnt, edge.getOpposite(), oppFace, horizon);
+                if (oppFace.filteredDistanceToPlane(eyeVtx.pnt, eyeVtx.approx) > tolerance) {
+                    calculateHorizon(eyeVtx, edge.getOpposite(), oppFace, horizon);
                 } else {
                     horizon.add(edge);
                     if (debug) {
@@ -1069,7 +1079,7 @@ public class QuickHull3D {
             Vertex eyeVtx = null;
             double maxDist = 0;
             for (Vertex vtx = eyeFace.outside; vtx != null && vtx.face == eyeFace; vtx = vtx.next) {
-                double dist = eyeFace.distanceToPlane(vtx.pnt).evaluate();
+                double dist = eyeFace.filteredDistanceToPlane(vtx.pnt, vtx.approx);
                 if (dist > maxDist) {
                     maxDist = dist;
                     eyeVtx = vtx;
@@ -1091,7 +1101,7 @@ public class QuickHull3D {
                     + eyeVtx.face.getVertexString());
         }
         removePointFromFace(eyeVtx, eyeVtx.face);
-        calculateHorizon(eyeVtx.pnt, null, eyeVtx.face, horizon);
+        calculateHorizon(eyeVtx, null, eyeVtx.face, horizon);
         newFaces.clear();
         addNewFaces(newFaces, eyeVtx, horizon);
 
@@ -0,0 +1,130 @@
+package com.vzome.core.math.convexhull;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicNumber;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.algebra.RootThreeField;
+import com.vzome.core.algebra.RootTwoField;
+import com.vzome.core.algebra.SnubDodecField;
+
+/**
+ * A double approximation of a 3D AlgebraicVector, with a bound on the error of each coordinate.
+ *
+ * QuickHull3D uses these to filter its plane distance predicates:
+ * a distance is computed in doubles, and the exact AlgebraicNumber distance is only needed
+ * when its error bound does not exclude zero, so that the sign is uncertain.
+ *
+ * The approximations are computed here from the trailing divisor form, rather than by
+ * AlgebraicNumber.evaluate(), so that the bounds follow from a standard rounding error analysis,
+ * given a bound on the error of the field's unit terms as doubles.
+ * Only a few fields have such a bound, in unitTermError(); for any other field
+ * the bounds are infinite, and every distance is computed exactly.
+ */
+final class RealApproximation
+{
+    // Math.ulp( 1d ), which JSweet does not support
+    private static final double DOUBLE_EPSILON = 2.220446049250313E-16;
+
+    // the unit roundoff: a correctly rounded operation has at most this relative error
+    private static final double UNIT_ROUNDOFF = DOUBLE_EPSILON / 2;
+
+    // bounds the rounding error of the dot product and subtraction in a plane distance, with room to spare
+    static final double ROUNDING_ERROR = 16 * DOUBLE_EPSILON;
+
+    final double x, y, z;
+
+    /**
+     * bounds the error of each of x, y, and z
+     */
+    final double error;
+
+    /**
+     * @param v a 3D vector
+     * @param unitTerms as returned by unitTerms( v.getField() )
+     */
+    RealApproximation( AlgebraicVector v, double[] unitTerms )
+    {
+        double[] vx = approximate( v .getComponent( AlgebraicVector.X ), unitTerms );
+        double[] vy = approximate( v .getComponent( AlgebraicVector.Y ), unitTerms );
+        double[] vz = approximate( v .getComponent( AlgebraicVector.Z ), unitTerms );
+        this .x = vx[ 0 ];
+        this .y = vy[ 0 ];
+        this .z = vz[ 0 ];
+        this .error = Math .max( vx[ 1 ], Math .max( vy[ 1 ], vz[ 1 ] ) );
+    }
+
+    /**
+     * @return the value of each unit term of the field as a double, followed by a bound
+     * on the relative error of approximate(), like a trailing divisor
+     */
+    static double[] unitTerms( AlgebraicField field )
+    {
+        int order = field .getOrder();
+        double[] result = new double[ order + 1 ];
+        for ( int i = 0; i < order; i++ ) {
+            result[ i ] = field .getUnitTerm( i ) .evaluate();
+        }
+        // approximate() rounds each numerator, each product and sum, the divisor and the quotient,
+        //  so its error is at most ( unitTermError + ( order + 4 ) * UNIT_ROUNDOFF ) times the sum of the
+        //  absolute terms, to first order.  Doubling that covers the higher order terms, the two extra
+        //  roundings of a numerator with a denominator, and the rounding of the bounds themselves.
+        result[ order ] = 2 * ( unitTermError( field ) + ( order + 6 ) * UNIT_ROUNDOFF );
+        return result;
+    }
+
+    /**
+     * @return a bound on the relative error of each field .getUnitTerm( i ) .evaluate(),
+     * or infinity if none is known
+     */
+    static double unitTermError( AlgebraicField field )
+    {
+        if ( field instanceof RootTwoField || field instanceof RootThreeField )
+            // Math.sqrt() is correctly rounded
+            return UNIT_ROUNDOFF;
+        if ( field instanceof PentagonField )
+            // ( 1 + sqrt(5) ) / 2 is rounded twice, for less than 1.7 ulps
+            return 2 * UNIT_ROUNDOFF;
+        if ( field instanceof SnubDodecField )
+            // XI_VALUE is within 3e-18 of xi before it is rounded, and the largest term,
+            //  xi * xi * phi, adds two roundings to those of xi, xi, and phi, for less than 5.8 ulps
+            return 6 * UNIT_ROUNDOFF;
+        // the constants of other fields, such as those computed with Math.cos(),
+        //  have no bound that holds everywhere, in particular once transpiled by JSweet
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @param unitTerms as returned by unitTerms( n.getField() )
+     * @return an approximation of n, followed by a bound on its error,
+     * which is infinite when no bound could be established
+     */
+    static double[] approximate( AlgebraicNumber n, double[] unitTerms )
+    {
+        if ( n .isZero() )
+            return new double[]{ 0d, 0d };
+        String[] td = n .toTrailingDivisor();
+        int order = td .length - 1;
+        double sum = 0d;
+        double magnitude = 0d;
+        for ( int i = 0; i < order; i++ ) {
+            double term = parse( td[ i ] ) * unitTerms[ i ];
+            sum += term;
+            magnitude += Math .abs( term );
+        }
+        double divisor = parse( td[ order ] );
+        double error = unitTerms[ order ] * magnitude / Math .abs( divisor );
+        if ( ! ( error < Double.POSITIVE_INFINITY ) )
+            // an overflow, or an unknown field, so the filter will never decide
+            return new double[]{ n .evaluate(), Double.POSITIVE_INFINITY };
+        return new double[]{ sum / divisor, error };
+    }
+
+    private static double parse( String integer )
+    {
+        int slash = integer .indexOf( '/' );
+        if ( slash >= 0 )
+            return parse( integer .substring( 0, slash ) ) / parse( integer .substring( slash + 1 ) );
+        return Double .parseDouble( integer );
+    }
+}
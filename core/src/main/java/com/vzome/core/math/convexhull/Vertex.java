@@ -14,6 +14,16 @@ class Vertex {
      */
     final AlgebraicVector pnt;
 
+    /**
+     * Double approximation of pnt, for the filtered distance predicates.
+     */
+    final RealApproximation approx;
+
+    /**
+     * The unit terms of the field and their error bound, shared by all the vertices.
+     */
+    final double[] unitTerms;
+
     /**
      * Back index into an array.
      */
@@ -37,9 +47,11 @@ class Vertex {
     /**
      * Constructs a vertex with the specified coordinates and index.
      */
-    public Vertex(AlgebraicVector v, int idx) {
+    public Vertex(AlgebraicVector v, int idx, double[] unitTerms) {
         pnt = v;
         index = idx;
+        this.unitTerms = unitTerms;
+        approx = new RealApproximation(v, unitTerms);
     }
 
 }
@@ -197,10 +197,16 @@ public abstract class AbstractSymmetry implements Symmetry
     public Direction createNewZoneOrbit( String name, int prototype, int rotatedPrototype, AlgebraicVector norm )
     {
         Direction orbit = new Direction( name, this, prototype, rotatedPrototype, norm, false ) .withCorrection();
+        this .getDotLocator() .locateOrbitDot( orbit );
+        return orbit;
+    }
+
+    // synchronized, since documents share the symmetry, and create their own new orbits
+    private synchronized OrbitDotLocator getDotLocator()
+    {
         if ( this .dotLocator == null )
             this.dotLocator = new OrbitDotLocator( this, this .getOrbitTriangle() );
-        this .dotLocator .locateOrbitDot( orbit );
-        return orbit;
+        return this .dotLocator;
     }
 
 
@@ -525,8 +531,7 @@ public abstract class AbstractSymmetry implements Symmetry
     @Override
     public String computeOrbitDots()
     {
-        if ( this .dotLocator == null )
-            this.dotLocator = new OrbitDotLocator( this, this .getOrbitTriangle() );
+        OrbitDotLocator dotLocator = this .getDotLocator();
         for ( Direction orbit : mDirectionList ) {
             dotLocator .locateOrbitDot( orbit );
         }
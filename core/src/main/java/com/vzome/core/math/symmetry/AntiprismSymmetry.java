@@ -172,7 +172,7 @@ public class AntiprismSymmetry extends AbstractSymmetry {
     }
 
     private AlgebraicMatrix rotationMatrix = null;  
-    public AlgebraicMatrix getRotationMatrix() {
+    public synchronized AlgebraicMatrix getRotationMatrix() {
         if(rotationMatrix == null) {
             final PolygonField field = getField();
             final int diagCount = field.diagonalCount();
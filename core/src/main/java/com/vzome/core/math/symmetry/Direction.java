@@ -150,7 +150,9 @@ public class Direction implements Comparable<Direction>, Iterable<Axis>
         zoneNames = new Axis[ 2 ][ 2 ][ order ];
     }
     
-    private final Map<String, Axis> getZoneVectors()
+    // synchronized, like the other lazy initialization here, since a symmetry and its orbits
+    //  are shared by all the documents in an Application
+    private final synchronized Map<String, Axis> getZoneVectors()
     {
         if ( this.zoneVectors .isEmpty() ) {
             if ( logger .isLoggable( Level.FINER ) )
@@ -345,7 +347,7 @@ public class Direction implements Comparable<Direction>, Iterable<Axis>
         return zoneNames[ outbound? 1 : 0 ][ sense ][ index ];
     }
     
-    public Direction withCorrection()
+    public synchronized Direction withCorrection()
     {
         this .needsCanonicalization = true;
         return this;
@@ -360,6 +362,19 @@ public class Direction implements Comparable<Direction>, Iterable<Axis>
      * @return
      */
     public Axis getCanonicalAxis( int sense, int index )
+    {
+        int canonicalize = this .getCanonicalization();
+        if ( canonicalize != 0 )
+        {
+            if ( canonicalize < 0 )
+                sense = ( sense + 1 ) % 2;
+            Permutation target = this .mSymmetryGroup .getPermutation( index );
+            index = target .mapIndex( Math.abs( canonicalize ) );
+        }
+        return this .getAxis( sense, index );
+    }
+
+    private synchronized int getCanonicalization()
     {
         if ( this .needsCanonicalization ) {
             // making this lazy so that Direction init doesn't have to compute all zones
@@ -369,14 +384,7 @@ public class Direction implements Comparable<Direction>, Iterable<Axis>
                 this .canonicalize *= -1;
             this .needsCanonicalization = false;
         }
-        if ( this.canonicalize != 0 )
-        {
-            if ( this .canonicalize < 0 )
-                sense = ( sense + 1 ) % 2;
-            Permutation target = this .mSymmetryGroup .getPermutation( index );
-            index = target .mapIndex( Math.abs( this .canonicalize ) );
-        }
-        return this .getAxis( sense, index );
+        return this .canonicalize;
     }
 
     public void createAxis( int orientation, int rotation, int[][] norm )
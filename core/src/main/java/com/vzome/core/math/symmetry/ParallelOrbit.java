@@ -0,0 +1,104 @@
+package com.vzome.core.math.symmetry;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.generic.ChunkedLoop;
+
+/**
+ * Expands the orbit of a Wythoff construction under a symmetry group, computing the images
+ * for each group element in a ChunkedLoop, so in parallel when a parallel TaskRunner is installed.
+ *
+ * The group elements are divided into contiguous chunks, one task each.
+ * Each task keeps its own table of the distinct vectors it has computed, so that equal images
+ * share one instance, and these tables are merged in element order when the tasks are done.
+ * The listener is then called on the calling thread, in element order, exactly as it would be
+ * by a simple loop over the group, so the output is the same however the work was divided.
+ * Since every image is then one of the merged instances, and AlgebraicVector.equals() checks
+ * identity first, the listener's own vertex deduplication is cheap.
+ */
+public class ParallelOrbit
+{
+    public interface Images
+    {
+        /**
+         * May be called concurrently, so implementations must not modify any shared state.
+         * @param element
+         * @return the images under the group element of the vertex, first, and then of the
+         *  far end of each edge from it, with null for any edge to skip
+         */
+        AlgebraicVector[] getImages( int element );
+    }
+
+    // below this, a chunk is not worth a task
+    private static final int MIN_CHUNK = 32;
+
+    private static final Logger logger = Logger .getLogger( "com.vzome.core.math.symmetry.orbit" );
+
+    private static class Chunk implements Runnable
+    {
+        private final Images images;
+        private final int start, end;
+        private final AlgebraicVector[][] results;
+        private final Map<AlgebraicVector, AlgebraicVector> distinct = new HashMap<>();
+
+        Chunk( Images images, int start, int end )
+        {
+            this .images = images;
+            this .start = start;
+            this .end = end;
+            this .results = new AlgebraicVector[ end - start ][];
+        }
+
+        @Override
+        public void run()
+        {
+            for ( int i = start; i < end; i++ ) {
+                AlgebraicVector[] result = images .getImages( i );
+                for ( int j = 0; j < result .length; j++ )
+                    result[ j ] = intern( this .distinct, result[ j ] );
+                results[ i - start ] = result;
+            }
+        }
+    }
+
+    private static AlgebraicVector intern( Map<AlgebraicVector, AlgebraicVector> distinct, AlgebraicVector v )
+    {
+        if ( v == null )
+            return null;
+        AlgebraicVector existing = distinct .putIfAbsent( v, v );
+        return ( existing == null )? v : existing;
+    }
+
+    public static void construct( int order, Images images, WythoffConstruction.Listener listener )
+    {
+        if ( order == 0 )
+            return;
+        long startTime = System .nanoTime();
+        List<Chunk> chunks = ChunkedLoop .run( order, MIN_CHUNK, ( start, end ) -> new Chunk( images, start, end ) );
+
+        Map<AlgebraicVector, AlgebraicVector> distinct = new HashMap<>();
+        for ( Chunk chunk : chunks ) {
+            for ( AlgebraicVector v : chunk .distinct .values() )
+                intern( distinct, v );
+        }
+        for ( Chunk chunk : chunks ) {
+            for ( AlgebraicVector[] result : chunk .results ) {
+                Object p = listener .addVertex( intern( distinct, result[ 0 ] ) );
+                for ( int e = 1; e < result .length; e++ ) {
+                    if ( result[ e ] == null )
+                        continue;
+                    Object p2 = listener .addVertex( intern( distinct, result[ e ] ) );
+                    listener .addEdge( p, p2 );
+                }
+            }
+        }
+        if ( logger .isLoggable( Level .FINE ) )
+            logger .fine( "orbit of " + order + " elements, " + distinct .size() + " distinct vectors, in "
+                    + chunks .size() + " chunks: " + ( System .nanoTime() - startTime ) / 1000000 + " ms" );
+    }
+}
@@ -18,9 +18,9 @@ public class WythoffConstruction
         Object addFace( Object[] vertices );
     }
     
-    public static void constructPolytope( CoxeterGroup group, int index, int edgesToRender, AlgebraicNumber[] edgeScales, CoxeterGroup renderingGroup, Listener listener )
+    public static void constructPolytope( CoxeterGroup group, int index, int edgesToRender, AlgebraicNumber[] edgeScales, final CoxeterGroup renderingGroup, Listener listener )
     {
-        AlgebraicVector[] neighbors = new AlgebraicVector[4];
+        final AlgebraicVector[] neighbors = new AlgebraicVector[4];
         
         // TODO remove; TEMPORARY hack to see chiral stuff
         boolean chiral = false;
@@ -29,7 +29,7 @@ public class WythoffConstruction
             index = edgesToRender = 0xF;
         }
 
-        AlgebraicVector origin = group .getOrigin();
+        final AlgebraicVector origin = group .getOrigin();
         AlgebraicVector model = origin;
         int bits = index;
         // We always use all the weights indicated by the bits of index, so we create vertices based on that.
@@ -71,21 +71,28 @@ public class WythoffConstruction
             }
         }
         else
-            for ( int i = 0; i < order; i++ )
+        {
+            final AlgebraicVector vertexModel = model;
+            ParallelOrbit .construct( order, new ParallelOrbit.Images()
             {
-                AlgebraicVector vector = renderingGroup .groupAction( model, i );
-                Object p = listener .addVertex( vector );
-                for ( int e = 0; e < 4; e++ )
+                @Override
+                public AlgebraicVector[] getImages( int i )
                 {
-                    if ( neighbors[ e ] .equals( origin ) )
-                        continue;
-                    AlgebraicVector other = renderingGroup .groupAction( neighbors[ e ], i );
-                    if ( ! other .equals( vector ) ) {
-                        Object p2 = listener .addVertex( other );
-                        listener .addEdge( p, p2 );
+                    AlgebraicVector[] images = new AlgebraicVector[ 5 ];
+                    AlgebraicVector vector = renderingGroup .groupAction( vertexModel, i );
+                    images[ 0 ] = vector;
+                    for ( int e = 0; e < 4; e++ )
+                    {
+                        if ( neighbors[ e ] .equals( origin ) )
+                            continue;
+                        AlgebraicVector other = renderingGroup .groupAction( neighbors[ e ], i );
+                        if ( ! other .equals( vector ) )
+                            images[ e + 1 ] = other;
                     }
+                    return images;
                 }
-            }
+            }, listener );
+        }
     }
 
     public static class VefPrinter implements Listener
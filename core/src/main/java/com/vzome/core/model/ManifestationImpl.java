@@ -33,6 +33,11 @@ public abstract class ManifestationImpl implements Manifestation, HasRenderedObj
 
     private static int NEXT_ID = 0;
 
+    // For RealizedModelImpl: the number of checkpoints it had taken when it forgot this removed manifestation
+    private int mRetired = NOT_RETIRED;
+
+    static final int NOT_RETIRED = -1;
+
     void resetId()
     {
         NEXT_ID = 0;
@@ -46,6 +51,16 @@ public abstract class ManifestationImpl implements Manifestation, HasRenderedObj
         return mId;
     }
 
+    int getRetired()
+    {
+        return mRetired;
+    }
+
+    void setRetired( int retired )
+    {
+        mRetired = retired;
+    }
+
     public void addConstruction( Construction c )
     {
         mManifests .add( c );
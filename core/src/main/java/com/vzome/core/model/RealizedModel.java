@@ -1,8 +1,12 @@
 package com.vzome.core.model;
 
+import java.util.List;
+
 import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
 import com.vzome.core.construction.Color;
 import com.vzome.core.construction.Construction;
+import com.vzome.core.construction.SignatureKey;
 
 public interface RealizedModel extends Iterable<Manifestation>
 {
@@ -15,6 +19,14 @@ public interface RealizedModel extends Iterable<Manifestation>
     // only for SelectManifestation
     Manifestation getManifestation( Construction c );
 
+    /**
+     * @param locations
+     * @return the manifestations with a vertex at any of the locations: balls there,
+     *  struts with either end there, and panels with a vertex there.
+     *  Each is listed once, in the same order as iteration over the model.
+     */
+    List<Manifestation> getIncidentManifestations( AlgebraicVector[] locations );
+
     int size();
 
     void show( Manifestation mManifestation );
@@ -31,9 +43,9 @@ public interface RealizedModel extends Iterable<Manifestation>
 
     // new for better performance in Javascript
 
-    Manifestation findPerEditManifestation( String signature );
+    Manifestation findPerEditManifestation( SignatureKey signature );
 
-    void addPerEditManifestation( String signature, Manifestation m );
+    void addPerEditManifestation( SignatureKey signature, Manifestation m );
 
     void clearPerEditManifestations();
 }
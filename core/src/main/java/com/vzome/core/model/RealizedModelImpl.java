@@ -5,6 +5,7 @@ package com.vzome.core.model;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -20,6 +21,7 @@ import com.vzome.core.construction.Construction;
 import com.vzome.core.construction.Point;
 import com.vzome.core.construction.Polygon;
 import com.vzome.core.construction.Segment;
+import com.vzome.core.construction.SignatureKey;
 import com.vzome.core.math.Projection;
 
 /**
@@ -29,7 +31,30 @@ public class RealizedModelImpl implements RealizedModel
 {
     private final List<ManifestationChanges> mListeners = new ArrayList<>( 1 );
 
-    private final HashMap<String, Manifestation> mManifestations = new LinkedHashMap<>( 1000 );
+    private final HashMap<SignatureKey, Manifestation> mManifestations = new LinkedHashMap<>( 1000 );
+
+    // Every Manifestation added and not retired, including those since removed, so that a Checkpoint
+    //  can record the state of the removed ones too.  Edits still refer to those, and may add them back.
+    //  The value is the number of checkpoints taken before it was added.
+    //  A retired manifestation is dropped from here, and remembers the number of checkpoints taken
+    //  before then itself, so that the model holds nothing for it.  Every live checkpoint taken earlier
+    //  records it, and the edits can only change it again by adding it back, so the checkpoints taken
+    //  since then need not record it.
+    private final Map<Manifestation, Integer> mKnown = new IdentityHashMap<>( 1000 );
+
+    private final List<Checkpoint> mLiveCheckpoints = new ArrayList<>();
+
+    private int mCheckpointCount = 0;
+
+    // The present manifestations at each location: balls there, struts with either end there,
+    //  and panels with a vertex there.  Each list is in model order.
+    private final Map<AlgebraicVector, List<Manifestation>> mIncidence = new HashMap<>( 1000 );
+
+    // The position of each present manifestation in model order, for merging incidence lists.
+    //  These only increase as manifestations are added, so they need not be contiguous.
+    private final Map<Manifestation, Integer> mOrder = new IdentityHashMap<>( 1000 );
+
+    private int mNextOrder = 0;
     
     private Projection mProjection;
 
@@ -48,7 +73,7 @@ public class RealizedModelImpl implements RealizedModel
         for (Manifestation man : mManifestations .values()) {
             if ( man .isHidden() )
                 continue;
-            Manifestation doppel = other .mManifestations .get( man .toConstruction() .getSignature() );
+            Manifestation doppel = other .mManifestations .get( man .toConstruction() .getSignatureKey() );
             if ( doppel == null || doppel .isHidden() )
                 result .add( man );
         }
@@ -106,8 +131,20 @@ public class RealizedModelImpl implements RealizedModel
     @Override
     public void add( Manifestation m )
     {
-        String key = m .toConstruction() .getSignature();
-        mManifestations .put( key, m );
+        SignatureKey key = m .toConstruction() .getSignatureKey();
+        Manifestation previous = mManifestations .put( key, m );
+        if ( ! mKnown .containsKey( m ) )
+            addKnown( m );
+        if ( previous != m ) {
+            if ( previous == null )
+                mOrder .put( m, mNextOrder++ );
+            else {
+                // the map keeps its position for the key, so m takes the place of previous
+                mOrder .put( m, mOrder .remove( previous ) );
+                unindex( previous );
+            }
+            index( m );
+        }
         if ( logger .isLoggable( Level .FINER ) )
             logger .finer( "add manifestation: " + m .toString() );
     }
@@ -115,11 +152,101 @@ public class RealizedModelImpl implements RealizedModel
     @Override
     public void remove( Manifestation m )
     {
-        String key = m .toConstruction() .getSignature();
-        mManifestations .remove( key );
+        SignatureKey key = m .toConstruction() .getSignatureKey();
+        Manifestation removed = mManifestations .remove( key );
+        if ( removed != null ) {
+            mOrder .remove( removed );
+            unindex( removed );
+            if ( mLiveCheckpoints .isEmpty() )
+                // no checkpoint can need it, so it need not be known until it comes back
+                retire( removed );
+        }
         if ( logger .isLoggable( Level .FINER ) )
             logger .finer( "remove manifestation: " + m .toString() );
     }
+
+    private static List<AlgebraicVector> getVertices( Manifestation m )
+    {
+        List<AlgebraicVector> vertices = new ArrayList<>( 2 );
+        if ( m instanceof Strut ) {
+            vertices .add( ((Strut) m) .getLocation() );
+            vertices .add( ((Strut) m) .getEnd() );
+        }
+        else if ( m instanceof Panel ) {
+            for ( AlgebraicVector vertex : (Panel) m ) {
+                if ( ! vertices .contains( vertex ) )
+                    vertices .add( vertex );
+            }
+        }
+        else
+            vertices .add( m .getLocation() );
+        return vertices;
+    }
+
+    private void index( Manifestation m )
+    {
+        Integer order = mOrder .get( m );
+        for ( AlgebraicVector vertex : getVertices( m ) ) {
+            List<Manifestation> incident = mIncidence .get( vertex );
+            if ( incident == null ) {
+                incident = new ArrayList<>( 4 );
+                mIncidence .put( vertex, incident );
+            }
+            // usually m is last in model order, unless it replaced an earlier manifestation
+            int i = incident .size();
+            while ( i > 0 && mOrder .get( incident .get( i - 1 ) ) > order )
+                --i;
+            incident .add( i, m );
+        }
+    }
+
+    private void unindex( Manifestation m )
+    {
+        for ( AlgebraicVector vertex : getVertices( m ) ) {
+            List<Manifestation> incident = mIncidence .get( vertex );
+            if ( incident == null )
+                continue;
+            for ( int i = 0; i < incident .size(); i++ ) {
+                if ( incident .get( i ) == m ) {
+                    incident .remove( i );
+                    break;
+                }
+            }
+            if ( incident .isEmpty() )
+                mIncidence .remove( vertex );
+        }
+    }
+
+    private void reindex()
+    {
+        mIncidence .clear();
+        mOrder .clear();
+        mNextOrder = 0;
+        for ( Manifestation m : mManifestations .values() ) {
+            mOrder .put( m, mNextOrder++ );
+            index( m );
+        }
+    }
+
+    @Override
+    public List<Manifestation> getIncidentManifestations( AlgebraicVector[] locations )
+    {
+        if ( locations .length == 1 ) {
+            List<Manifestation> incident = mIncidence .get( locations[ 0 ] );
+            return ( incident == null )? new ArrayList<>() : new ArrayList<>( incident );
+        }
+        final Map<Manifestation, Integer> found = new IdentityHashMap<>();
+        for ( AlgebraicVector location : locations ) {
+            List<Manifestation> incident = mIncidence .get( location );
+            if ( incident != null ) {
+                for ( Manifestation m : incident )
+                    found .put( m, mOrder .get( m ) );
+            }
+        }
+        List<Manifestation> result = new ArrayList<>( found .keySet() );
+        result .sort( ( m1, m2 ) -> Integer .compare( found .get( m1 ), found .get( m2 ) ) );
+        return result;
+    }
     
     public void refresh( boolean on, RealizedModelImpl unused )
     {
@@ -213,7 +340,7 @@ public class RealizedModelImpl implements RealizedModel
     @Override
     public Manifestation findConstruction( Construction c )
     {
-        Manifestation actualMan = mManifestations .get( c .getSignature() );
+        Manifestation actualMan = mManifestations .get( c .getSignatureKey() );
         if ( actualMan == null )
             actualMan = manifest( c );
         
@@ -223,7 +350,7 @@ public class RealizedModelImpl implements RealizedModel
     @Override
     public Manifestation removeConstruction( Construction c )
     {
-        Manifestation actualMan = mManifestations .get( c .getSignature() );
+        Manifestation actualMan = mManifestations .get( c .getSignatureKey() );
         if ( actualMan == null )
             return null;
         // This is just bizarre, but it matches the old logic!
@@ -237,7 +364,7 @@ public class RealizedModelImpl implements RealizedModel
     @Override
     public Manifestation getManifestation( Construction c )
     {
-        return mManifestations .get( c .getSignature() );
+        return mManifestations .get( c .getSignatureKey() );
     }
 
 	@Override
@@ -312,16 +439,16 @@ public class RealizedModelImpl implements RealizedModel
      * This records the NEW manifestations produced by manifestConstruction for this edit,
      * to avoid creating colliding manifestations.
      */
-    private transient Map<String, Manifestation> mManifestedNow;  // used only while calling manifest
+    private transient Map<SignatureKey, Manifestation> mManifestedNow;  // used only while calling manifest
 
     @Override
-    public Manifestation findPerEditManifestation( String signature )
+    public Manifestation findPerEditManifestation( SignatureKey signature )
     {
         return this .mManifestedNow .get( signature );
     }
 
     @Override
-    public void addPerEditManifestation( String signature, Manifestation m )
+    public void addPerEditManifestation( SignatureKey signature, Manifestation m )
     {
         this .mManifestedNow .put( signature, m );
     }
@@ -331,4 +458,230 @@ public class RealizedModelImpl implements RealizedModel
     {
         mManifestedNow = new HashMap<>();
     }
+
+    private static final byte HIDDEN = 1, RENDERED = 2;
+
+    /**
+     * The state of a RealizedModelImpl after some edit: the order of the manifestations in the model,
+     * and the constructions, visibility, color and label of every manifestation the model still knows.
+     * EditHistory uses these to jump to an edit without replaying every edit in between.
+     */
+    public static final class Checkpoint
+    {
+        private final int number;
+        private final Manifestation[] present;
+        private final Manifestation[] known;
+        private final Construction[][] constructions;
+        private final Color[] colors;
+        private final String[] labels;
+        private final byte[] flags;
+        private boolean stale = false;
+
+        private Checkpoint( int number, Manifestation[] present, Manifestation[] known )
+        {
+            this .number = number;
+            this .present = present;
+            this .known = known;
+            this .constructions = new Construction[ known .length ][];
+            this .colors = new Color[ known .length ];
+            this .labels = new String[ known .length ];
+            this .flags = new byte[ known .length ];
+            List<Construction> list = new ArrayList<>();
+            for ( int i = 0; i < known .length; i++ ) {
+                Manifestation m = known[ i ];
+                list .clear();
+                for ( Iterator<Construction> cs = m .getConstructions(); cs .hasNext(); )
+                    list .add( cs .next() );
+                this .constructions[ i ] = list .toArray( new Construction[ list .size() ] );
+                this .colors[ i ] = m .getColor();
+                this .labels[ i ] = m .getLabel();
+                this .flags[ i ] = (byte) ( ( m .isHidden()? HIDDEN : 0 ) | ( m .isRendered()? RENDERED : 0 ) );
+            }
+        }
+
+        /**
+         * @return the number of manifestation records held, a proxy for the memory used
+         */
+        public int size()
+        {
+            return this .present .length + this .known .length;
+        }
+    }
+
+    private void addKnown( Manifestation m )
+    {
+        ManifestationImpl impl = (ManifestationImpl) m;
+        int retired = impl .getRetired();
+        if ( retired != ManifestationImpl.NOT_RETIRED ) {
+            impl .setRetired( ManifestationImpl.NOT_RETIRED );
+            // Checkpoints taken since m was retired assumed it would not change, but it has come back,
+            //  so they no longer know all they must.
+            for ( Iterator<Checkpoint> live = mLiveCheckpoints .iterator(); live .hasNext(); ) {
+                Checkpoint checkpoint = live .next();
+                if ( checkpoint .number >= retired ) {
+                    checkpoint .stale = true;
+                    live .remove();
+                }
+            }
+        }
+        mKnown .put( m, mCheckpointCount );
+    }
+
+    /**
+     * Drop the removed manifestations that every live checkpoint already records,
+     * so that the checkpoints to come need not.
+     */
+    private void retire()
+    {
+        int oldest = mCheckpointCount;
+        for ( Checkpoint checkpoint : mLiveCheckpoints )
+            oldest = Math .min( oldest, checkpoint .number );
+        for ( Iterator<Map.Entry<Manifestation, Integer>> entries = mKnown .entrySet() .iterator(); entries .hasNext(); ) {
+            Map.Entry<Manifestation, Integer> entry = entries .next();
+            if ( entry .getValue() <= oldest && ! mOrder .containsKey( entry .getKey() ) ) {
+                ( (ManifestationImpl) entry .getKey() ) .setRetired( mCheckpointCount );
+                entries .remove();
+            }
+        }
+    }
+
+    private void retire( Manifestation m )
+    {
+        if ( mKnown .remove( m ) != null )
+            ( (ManifestationImpl) m ) .setRetired( mCheckpointCount );
+    }
+
+    /**
+     * Forget what no live checkpoint needs.
+     * @return the size of a checkpoint taken now
+     */
+    public int prepareCheckpoint()
+    {
+        retire();
+        return mManifestations .size() + mKnown .size();
+    }
+
+    public Checkpoint checkpoint()
+    {
+        retire();
+        Manifestation[] present = mManifestations .values() .toArray( new Manifestation[ mManifestations .size() ] );
+        Manifestation[] known = mKnown .keySet() .toArray( new Manifestation[ mKnown .size() ] );
+        Checkpoint checkpoint = new Checkpoint( mCheckpointCount++, present, known );
+        mLiveCheckpoints .add( checkpoint );
+        return checkpoint;
+    }
+
+    /**
+     * Note that a checkpoint will not be restored, so that the manifestations it records
+     * can be forgotten.
+     * @param checkpoint
+     */
+    public void discard( Checkpoint checkpoint )
+    {
+        if ( mLiveCheckpoints .remove( checkpoint ) )
+            retire();
+    }
+
+    /**
+     * @param checkpoint
+     * @return false if a manifestation the checkpoint does not record has changed since it was taken
+     */
+    public boolean isRestorable( Checkpoint checkpoint )
+    {
+        return ! checkpoint .stale;
+    }
+
+    /**
+     * Return every known manifestation to its state when the checkpoint was taken,
+     * notifying listeners of the manifestations shown, hidden, colored and labeled along the way.
+     * Manifestations added since the checkpoint revert to their initial, unrealized state.
+     * @param checkpoint must be restorable
+     */
+    public void restore( Checkpoint checkpoint )
+    {
+        Map<Manifestation, Integer> index = new IdentityHashMap<>( checkpoint .known .length * 2 );
+        for ( int i = 0; i < checkpoint .known .length; i++ ) {
+            Manifestation m = checkpoint .known[ i ];
+            index .put( m, i );
+            if ( ! mKnown .containsKey( m ) )
+                addKnown( m );
+        }
+
+        List<Manifestation> toShow = new ArrayList<>();
+        for ( Manifestation m : mKnown .keySet() ) {
+            Integer i = index .get( m );
+            Construction[] constructions = ( i == null )? new Construction[ 0 ] : checkpoint .constructions[ i ];
+            Color color = ( i == null )? null : checkpoint .colors[ i ];
+            String label = ( i == null )? null : checkpoint .labels[ i ];
+            byte flags = ( i == null )? 0 : checkpoint .flags[ i ];
+            boolean rendered = ( flags & RENDERED ) != 0;
+
+            if ( m .isRendered() && ! rendered )
+                privateHide( m );
+
+            m .setHidden( ( flags & HIDDEN ) != 0 );
+            if ( ! sameConstructions( m, constructions ) ) {
+                List<Construction> old = new ArrayList<>();
+                for ( Iterator<Construction> cs = m .getConstructions(); cs .hasNext(); )
+                    old .add( cs .next() );
+                for ( Construction c : old )
+                    m .removeConstruction( c );
+                for ( Construction c : constructions )
+                    m .addConstruction( c );
+            }
+            if ( m .isRendered() ) {
+                // still rendered, so listeners must hear about any changes
+                if ( color != null && ! color .equals( m .getColor() ) )
+                    setColor( m, color );
+                if ( label == null? m .getLabel() != null : ! label .equals( m .getLabel() ) )
+                    setLabel( m, label );
+            }
+            else {
+                m .setColor( color );
+                m .setLabel( label );
+                if ( rendered )
+                    toShow .add( m );
+            }
+        }
+
+        if ( ! sameOrder( checkpoint .present ) ) {
+            // reuse the keys where possible, since computing them is not free
+            Map<Manifestation, SignatureKey> keys = new IdentityHashMap<>( mManifestations .size() * 2 );
+            for ( Map.Entry<SignatureKey, Manifestation> entry : mManifestations .entrySet() )
+                keys .put( entry .getValue(), entry .getKey() );
+            mManifestations .clear();
+            for ( Manifestation m : checkpoint .present ) {
+                SignatureKey key = keys .get( m );
+                if ( key == null )
+                    key = m .toConstruction() .getSignatureKey();
+                mManifestations .put( key, m );
+            }
+            reindex();
+        }
+
+        for ( Manifestation m : toShow )
+            privateShow( m );
+    }
+
+    private static boolean sameConstructions( Manifestation m, Construction[] constructions )
+    {
+        int i = 0;
+        for ( Iterator<Construction> cs = m .getConstructions(); cs .hasNext(); ) {
+            if ( i == constructions .length || cs .next() != constructions[ i++ ] )
+                return false;
+        }
+        return i == constructions .length;
+    }
+
+    private boolean sameOrder( Manifestation[] present )
+    {
+        if ( present .length != mManifestations .size() )
+            return false;
+        int i = 0;
+        for ( Manifestation m : mManifestations .values() ) {
+            if ( m != present[ i++ ] )
+                return false;
+        }
+        return true;
+    }
 }
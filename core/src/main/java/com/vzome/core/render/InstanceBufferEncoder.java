@@ -0,0 +1,154 @@
+package com.vzome.core.render;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.construction.Color;
+import com.vzome.core.editor.api.OrbitSource;
+import com.vzome.core.math.Polyhedron;
+import com.vzome.core.math.RealVector;
+import com.vzome.core.math.symmetry.Symmetry;
+
+/**
+ * Encodes instance changes as compact binary frames, an alternative to the JSON instance events
+ * for one client session.
+ *
+ * The client learns the shapes and orientations once, as JSON: each shape is numbered by shapeIndex(),
+ * and the orientation table comes from getOrientations(), as row-major 4x4 matrices.  After that,
+ * every frame is a sequence of little-endian 32-bit words, so the client can read it through typed
+ * array views without parsing:
+ *
+ *   header:  VERSION, removed count, added count, changed count, first added id
+ *   removed: id
+ *   added:   shape index, x, y, z (float), orientation index | GLOWING, RGBA (one byte each)
+ *   changed: id, RGBA
+ *
+ * Instance ids are small integers assigned by this encoder when an instance is added, and retired
+ * when it is removed.  The instances added in a frame get consecutive ids, so only the first is sent.
+ * RenderedModel only ever uses one glow, for the selection, so the glow is just a flag, and the
+ * client picks the glow to show.  Labels are not encoded.
+ */
+public class InstanceBufferEncoder
+{
+    public static final int VERSION = 2;
+
+    public static final int HEADER_WORDS = 5, REMOVED_WORDS = 1, ADDED_WORDS = 6, CHANGED_WORDS = 2;
+
+    /**
+     * Set in the orientation word of an added instance that glows
+     */
+    public static final int GLOWING = 0x80000000;
+
+    private final Map<UUID, Integer> shapeIndices = new HashMap<>();
+
+    private final Map<UUID, Integer> ids = new HashMap<>();
+
+    private int nextId = 0;
+
+    private Symmetry symmetry = null;
+
+    /**
+     * @return the index of the shape in the client's shape table, assigning one if the shape is new
+     */
+    public int shapeIndex( Polyhedron shape )
+    {
+        Integer index = this .shapeIndices .get( shape .getGuid() );
+        if ( index == null ) {
+            index = this .shapeIndices .size();
+            this .shapeIndices .put( shape .getGuid(), index );
+        }
+        return index;
+    }
+
+    /**
+     * @return the orientation table for the symmetry of the orbit source, or null if the client
+     *     already has the table for that symmetry
+     */
+    public float[][] getOrientations( OrbitSource orbitSource )
+    {
+        if ( orbitSource .getSymmetry() == this .symmetry )
+            return null;
+        this .symmetry = orbitSource .getSymmetry();
+        return orbitSource .getOrientations( true );
+    }
+
+    /**
+     * @return the id assigned to the instance, or -1 if it has none
+     */
+    public int getId( RenderedManifestation rm )
+    {
+        Integer id = this .ids .get( rm .getGuid() );
+        return ( id == null )? -1 : id;
+    }
+
+    /**
+     * Encodes one frame, retiring the ids of the removed instances before assigning ids to the
+     * added ones, so an instance that is both removed and added gets a new id.
+     * Removed or changed instances that have no id are skipped.
+     * @param removed the GUIDs of the removed instances
+     * @return a frame ready to read
+     */
+    public ByteBuffer encode( Collection<UUID> removed, Collection<RenderedManifestation> added, Collection<RenderedManifestation> changed )
+    {
+        int words = HEADER_WORDS + REMOVED_WORDS * removed .size() + ADDED_WORDS * added .size() + CHANGED_WORDS * changed .size();
+        ByteBuffer frame = ByteBuffer .allocate( 4 * words ) .order( ByteOrder.LITTLE_ENDIAN );
+        frame .position( 4 * HEADER_WORDS );
+
+        int removedCount = 0;
+        for ( UUID guid : removed ) {
+            Integer id = this .ids .remove( guid );
+            if ( id == null )
+                continue;
+            frame .putInt( id );
+            ++ removedCount;
+        }
+
+        int firstId = this .nextId;
+        for ( RenderedManifestation rm : added ) {
+            this .ids .put( rm .getGuid(), this .nextId ++ );
+            frame .putInt( this .shapeIndex( rm .getShape() ) );
+            AlgebraicVector location = rm .getLocationAV();
+            RealVector position = ( location == null )? new RealVector( 0f, 0f, 0f ) : location .toRealVector(); // DON'T embed!
+            frame .putFloat( position .x );
+            frame .putFloat( position .y );
+            frame .putFloat( position .z );
+            int orientation = Math .max( 0, rm .getStrutZone() );
+            frame .putInt( ( rm .getGlow() != 0f )? orientation | GLOWING : orientation );
+            putColor( rm, frame );
+        }
+
+        int changedCount = 0;
+        for ( RenderedManifestation rm : changed ) {
+            Integer id = this .ids .get( rm .getGuid() );
+            if ( id == null )
+                continue;
+            frame .putInt( id );
+            putColor( rm, frame );
+            ++ changedCount;
+        }
+
+        frame .flip();
+        frame .putInt( 0, VERSION );
+        frame .putInt( 4, removedCount );
+        frame .putInt( 8, added .size() );
+        frame .putInt( 12, changedCount );
+        frame .putInt( 16, firstId );
+        return frame;
+    }
+
+    private static void putColor( RenderedManifestation rm, ByteBuffer frame )
+    {
+        Color color = rm .getColor();
+        if ( color == null )
+            color = Color.WHITE;
+        frame .put( (byte) color .getRed() );
+        frame .put( (byte) color .getGreen() );
+        frame .put( (byte) color .getBlue() );
+        frame .put( (byte) color .getAlpha() );
+    }
+}
@@ -9,6 +9,7 @@ import java.util.Set;
 import javax.vecmath.Matrix4d;
 import javax.vecmath.Quat4f;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
@@ -247,6 +248,149 @@ public class JsonMapper
         }
     }
     
+    /**
+     * Writes the same JSON as getShapeNode(), straight to the generator, without building a tree.
+     * @return false if the shape was returned or written earlier, so nothing was written
+     */
+    public boolean writeShape( Polyhedron shape, JsonGenerator generator ) throws IOException
+    {
+        if ( this .forUnity ) {
+            ObjectNode node = this .getShapeNode( shape );
+            if ( node == null )
+                return false;
+            generator .writeTree( node );
+            return true;
+        }
+        String shapeId = shape .getGuid() .toString();
+        if ( ! this .shapeIds .add( shapeId ) )
+            return false;
+        generator .writeStartObject();
+        generator .writeStringField( "id", shapeId );
+        String name = shape .getName();
+        if ( name == "ball" )
+            generator .writeStringField( "name", name );
+        else if ( name != null ) {
+            // a strut
+            Direction orbit = shape .getOrbit();
+            generator .writeStringField( "orbit", orbit .getName() );
+            generator .writeStringField( "orbitC", orbit .getCanonicalName() );
+            AlgebraicNumber length = shape .getLength();
+            generator .writeStringField( "length", this .objectMapper .valueToTree( length.toTrailingDivisor() ) .toString() );
+            name = orbit .getLengthName( length );
+            if ( name == "" ) {
+                StringBuffer buf = new StringBuffer();
+                orbit .getLengthExpression( buf, length );
+                name = buf .toString();
+            }
+            generator .writeStringField( "name", name );
+        }
+
+        generator .writeArrayFieldStart( "vertices" );
+        for ( AlgebraicVector vector : shape .getVertexList() ) {
+            this .writeVector( vector .toRealVector(), generator );
+        }
+        generator .writeEndArray();
+
+        generator .writeArrayFieldStart( "faces" );
+        if ( this .justTriangles ) {
+            for ( Polyhedron.Face.Triangle triangle : shape .getTriangleFaces() ) {
+                generator .writeStartObject();
+                generator .writeFieldName( "vertices" );
+                generator .writeArray( triangle .vertices, 0, triangle .vertices .length );
+                generator .writeEndObject();
+            }
+        } else {
+            for ( Polyhedron.Face face : shape .getFaceSet() ) {
+                generator .writeStartObject();
+                generator .writeArrayFieldStart( "vertices" );
+                for ( Integer vertex : face )
+                    generator .writeNumber( vertex );
+                generator .writeEndArray();
+                generator .writeEndObject();
+            }
+        }
+        generator .writeEndArray();
+        generator .writeEndObject();
+        return true;
+    }
+
+    /**
+     * Writes the same JSON as getObjectNode(), straight to the generator, without building a tree.
+     */
+    public void writeInstance( RenderedManifestation rm, boolean sharedOrientations, JsonGenerator generator ) throws IOException
+    {
+        Manifestation man = rm .getManifestation();
+        generator .writeStartObject();
+        generator .writeStringField( "shape", rm .getShape() .getGuid() .toString() );
+        if ( man instanceof Strut )
+        {
+            generator .writeStringField( "color", rm .getColor() .toWebString() );
+            this .writeLocation( rm, generator );
+            String label = rm .getLabel();
+            if ( label != null )
+                generator .writeStringField( "label", label );
+            this .writeGlow( rm, generator );
+
+            if ( sharedOrientations )
+                generator .writeNumberField( "orientation", rm .getStrutZone() );
+            else {
+                generator .writeFieldName( "rotation" );
+                generator .writeTree( getQuaternionNode( rm .getOrientation() ) );
+            }
+        }
+        else
+        {
+            String label = rm .getLabel();
+            if ( label != null )
+                generator .writeStringField( "label", label );
+            Color color = rm .getColor();
+            if ( color == null )
+                color = Color.WHITE;
+            generator .writeStringField( "color", color .toWebString() );
+            this .writeLocation( rm, generator );
+            this .writeGlow( rm, generator );
+
+            if ( man instanceof Panel )
+                generator .writeNumberField( "orientation", rm .getStrutZone() );
+            else if ( ! ( man instanceof Connector ) ) {
+                if ( sharedOrientations ) {
+                    int orientation = rm .getStrutZone();
+                    generator .writeNumberField( "orientation", (orientation<0)? 0 : orientation );
+                }
+                else {
+                    generator .writeFieldName( "rotation" );
+                    generator .writeTree( getQuaternionNode( rm .getOrientation() ) );
+                }
+            }
+        }
+        generator .writeEndObject();
+    }
+
+    private void writeGlow( RenderedManifestation rm, JsonGenerator generator ) throws IOException
+    {
+        float glow = rm .getGlow();
+        if ( glow != 0f )
+            generator .writeNumberField( "glow", glow );
+    }
+
+    private void writeVector( RealVector vector, JsonGenerator generator ) throws IOException
+    {
+        generator .writeStartObject();
+        generator .writeNumberField( "x", vector .x );
+        generator .writeNumberField( "y", vector .y );
+        generator .writeNumberField( "z", vector .z );
+        generator .writeEndObject();
+    }
+
+    private void writeLocation( RenderedManifestation rm, JsonGenerator generator ) throws IOException
+    {
+        AlgebraicVector location = rm .getLocationAV();
+        if ( location == null )
+            location = rm .getShape() .getField() .origin( 3 );
+        generator .writeFieldName( "position" );
+        this .writeVector( location .toRealVector(), generator ); // DON'T embed!
+    }
+
     private ObjectNode getVectorNode( RealVector vector )
     {
         ObjectNode node = this .objectMapper .createObjectNode();
@@ -35,8 +35,16 @@ public class RenderedManifestation implements RenderedObject
 {
     private final Manifestation mManifestation;
 
+    // for a copy in a snapshot, which has no manifestation, the one it was copied from
+    private Manifestation copiedFrom = null;
+
     private Polyhedron mShape;
 
+    // the shape as acquired from the Shapes, to be released when no longer used
+    private Polyhedron acquiredShape;
+
+    private Shapes acquiredFrom;
+
     private Color color = null;
 
     private AlgebraicMatrix mOrientation;
@@ -266,6 +274,23 @@ public class RenderedManifestation implements RenderedObject
         return true;
     }
 
+    /**
+     * A hash code consistent with equals(), unlike hashCode(), which distinguishes every instance,
+     * so that RenderedModel.renderChange can match equal RenderedManifestations by hashing.
+     * The shape is not included, since Polyhedron.hashCode() is expensive, and it is usually
+     * determined by the orientation and location anyway.
+     */
+    int geometryHashCode()
+    {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + ((fixedLocation == null) ? 0 : fixedLocation.hashCode());
+        result = prime * result + (isOffset ? 1231 : 1237);
+        result = prime * result + ((mOrientation == null) ? 0 : mOrientation.hashCode());
+        result = prime * result + strutSense;
+        return result;
+    }
+
     public RenderedManifestation copy()
     {
         RenderedManifestation copy = new RenderedManifestation( null, this .orbitSource );
@@ -279,9 +304,19 @@ public class RenderedManifestation implements RenderedObject
         copy .strutLength = this .strutLength;
         copy .strutZone = this .strutZone;
         copy .label = this .label;
+        copy .copiedFrom = this .mManifestation;
         return copy;
     }
 
+    /**
+     * @return the manifestation that this copy was rendered from, or null if this is not a copy
+     */
+    @JsonIgnore
+    public Manifestation getCopiedFrom()
+    {
+        return this .copiedFrom;
+    }
+
     public void setStrut( Direction orbit, int zone, int sense, AlgebraicNumber length )
     {
         this .strutOrbit = orbit;
@@ -337,8 +372,22 @@ public class RenderedManifestation implements RenderedObject
         return this .orbitSource .getName() + ":" + this .orbitSource .getShapes() .getName();
     }
 
+    /**
+     * Releases the strut or panel shape back to the Shapes that provided it,
+     * so it may be evicted if nothing else uses it.
+     */
+    public void releaseShape()
+    {
+        if ( this .acquiredShape != null ) {
+            this .acquiredFrom .releaseShape( this .acquiredShape );
+            this .acquiredShape = null;
+            this .acquiredFrom = null;
+        }
+    }
+
     public void resetAttributes( boolean oneSidedPanels, boolean colorPanels )
     {
+        this .releaseShape();
         String label = this.mManifestation .getLabel();
         if ( null != label ) {
             this .setLabel( label );
@@ -380,6 +429,8 @@ public class RenderedManifestation implements RenderedObject
         if ( shape == null )
             return;
         this .mShape = shape;  
+        this .acquiredShape = shape;
+        this .acquiredFrom = shapes;
 
         if ( zone == null ) {
             this .setColor( Color.WHITE );
@@ -437,6 +488,8 @@ public class RenderedManifestation implements RenderedObject
         if ( prototypeLengthShape == null )
             return; // This happens for very short struts, when the shape would be inside-out
         this .mShape = prototypeLengthShape;
+        this .acquiredShape = prototypeLengthShape;
+        this .acquiredFrom = shapes;
 
         int orn = axis .getOrientation();
         AlgebraicMatrix orientation = shapes .getSymmetry() .getMatrix( orn );
@@ -5,6 +5,8 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.annotation.JsonValue;
@@ -50,6 +52,11 @@ public class RenderedModel implements ManifestationChanges, Iterable<RenderedMan
 	private boolean enabled = true;
 
     private boolean colorPanels = true;
+
+    private SpatialIndex spatialIndex = null; // initialized on first use
+
+    // A few ball diameters at the default strut scale, so each cell holds a handful of balls
+    private static final double SPATIAL_INDEX_CELL_SIZE = 4d;
     
     private static final class SymmetryOrbitSource implements OrbitSource
     {
@@ -169,6 +176,8 @@ public class RenderedModel implements ManifestationChanges, Iterable<RenderedMan
         
 	    mRendered .add( rm );
 	    this .byID .put( rm .getGuid() .toString(), rm );
+	    if ( this .spatialIndex != null )
+	        this .spatialIndex .add( rm );
 	    if ( mainListener != null )
 	        mainListener .manifestationAdded( rm );
         for (RenderingChanges listener : mListeners) {
@@ -195,6 +204,9 @@ public class RenderedModel implements ManifestationChanges, Iterable<RenderedMan
             mainListener .manifestationRemoved( rendered );
 	    if ( ! mRendered .remove( rendered ) )
 	        throw new IllegalStateException( "unable to remove RenderedManifestation" );
+	    rendered .releaseShape();
+	    if ( this .spatialIndex != null )
+	        this .spatialIndex .remove( rendered );
 	    
         this .byID .remove( rendered .getGuid() .toString() );
         m .setRenderedObject( null );
@@ -296,8 +308,10 @@ public class RenderedModel implements ManifestationChanges, Iterable<RenderedMan
                 RenderedManifestation rendered = rms .next();
                 rms .remove();
                 Manifestation m = rendered .getManifestation();
-                if ( m .isHidden() )
+                if ( m .isHidden() ) {
+                    rendered .releaseShape();
                     continue;
+                }
                 if ( rendered .getShape() != null )
                 {
                     if ( mainListener != null ) {
@@ -332,6 +346,7 @@ public class RenderedModel implements ManifestationChanges, Iterable<RenderedMan
             for ( RenderedManifestation rm : newSet ) {
                 this .byID .put( rm .getGuid() .toString(), rm );
             }
+            this .spatialIndex = null; // the embedding may have changed, so the locations must be recomputed
         }
 	    
 	}
@@ -372,28 +387,37 @@ public class RenderedModel implements ManifestationChanges, Iterable<RenderedMan
      */
     public static void renderChange( RenderedModel from, RenderedModel to, RenderingChanges changes )
     {
-        // TODO: Does clone() perform any better than new HashSet(), or is there any other reason to keep it?
-//        Set<RenderedManifestation> toRemove = (Set<RenderedManifestation>) from .mRendered .clone();
-        HashSet<RenderedManifestation> toRemove = new HashSet<>(from.mRendered);
-        toRemove .removeAll( to .mRendered );
-        for ( RenderedManifestation rm : toRemove ) {
-            changes .manifestationRemoved( rm );
+        long startTime = System.nanoTime();
+        int removed = 0, added = 0, switched = 0;
+
+        // Index the "to" RenderedManifestations by geometry, so that each "from" RenderedManifestation
+        //   can find its equals() matches directly, rather than by comparing against every one.
+        HashMap<Integer, List<RenderedManifestation>> toByGeometry = new HashMap<>( to .mRendered .size() * 2 );
+        for ( RenderedManifestation fromRm : from .mRendered ) {
+            if ( ! to .mRendered .contains( fromRm ) ) {
+                changes .manifestationRemoved( fromRm );
+                ++ removed;
+            }
         }
-        // TODO: Does clone() perform any better than new HashSet(), or is there any other reason to keep it?
-//        Set<RenderedManifestation> toAdd = (Set<RenderedManifestation>) to .mRendered .clone();
-        HashSet<RenderedManifestation> toAdd = new HashSet<>(to.mRendered);
-        toAdd .removeAll( from .mRendered );
-        for ( RenderedManifestation rm : toAdd ) {
-            changes .manifestationAdded( rm );
+        for ( RenderedManifestation toRm : to .mRendered ) {
+            if ( ! from .mRendered .contains( toRm ) ) {
+                changes .manifestationAdded( toRm );
+                ++ added;
+            }
+            toByGeometry .computeIfAbsent( toRm .geometryHashCode(), k -> new ArrayList<>( 1 ) ) .add( toRm );
         }
         for ( RenderedManifestation fromRm : from .mRendered ) {
-            for ( RenderedManifestation toRm : to .mRendered ) {
+            List<RenderedManifestation> candidates = toByGeometry .get( fromRm .geometryHashCode() );
+            if ( candidates == null )
+                continue;
+            for ( RenderedManifestation toRm : candidates ) {
                 if ( fromRm .equals( toRm ) )
                 {
                     // This part is fragile.  The next call relies on the fact that "changes"
                     //   is the only sticky RenderingChanges that ever touches these RMs,
                     //   or picking will break.
                     changes .manifestationSwitched( fromRm, toRm );
+                    ++ switched;
                     if ( Float.floatToIntBits( fromRm .getGlow() ) != Float .floatToIntBits( toRm .getGlow() ) )
                         changes .glowChanged( toRm );
                     Color fromColor = fromRm .getColor();
@@ -407,8 +431,33 @@ public class RenderedModel implements ManifestationChanges, Iterable<RenderedMan
                 }
             }
         }
+
+        long duration = System.nanoTime() - startTime;
+        RenderChangeMetrics metrics = renderChangeMetrics;
+        if ( metrics != null )
+            metrics .renderChanged( removed, added, switched, duration );
+        if ( logger .isLoggable( Level.FINE ) )
+            logger .fine( "renderChange: " + removed + " removed, " + added + " added, " + switched + " switched in "
+                    + ( duration / 1000000D ) + " ms" );
+    }
+
+    /**
+     * Receives the size and duration of every renderChange, for performance monitoring.
+     */
+    public interface RenderChangeMetrics
+    {
+        void renderChanged( int removed, int added, int switched, long nanoseconds );
     }
 
+    private static volatile RenderChangeMetrics renderChangeMetrics = null;
+
+    public static void setRenderChangeMetrics( RenderChangeMetrics metrics )
+    {
+        renderChangeMetrics = metrics;
+    }
+
+    private static final Logger logger = Logger .getLogger( "com.vzome.core.render.RenderedModel" );
+
 	public RealVector renderVector( AlgebraicVector av )
 	{
 		if ( av != null )
@@ -487,17 +536,26 @@ vZome VEF 6 field heptagon
         return Math.acos( cosine );
     }
 
-    public RenderedManifestation getNearbyBall( RealVector location, double tolerance )
+    private SpatialIndex getSpatialIndex()
     {
-        for ( RenderedManifestation rm : this .mRendered ) {
-            if ( rm .getManifestation() instanceof Connector ) {
-                RealVector ballLoc = rm .getLocation();
-                double distance = ballLoc .minus( location ) .length();
-                if ( distance < tolerance )
-                    return rm;
-            }
+        if ( this .spatialIndex == null ) {
+            long start = System .nanoTime();
+            this .spatialIndex = new SpatialIndex( SPATIAL_INDEX_CELL_SIZE );
+            for ( RenderedManifestation rm : this .mRendered )
+                this .spatialIndex .add( rm );
+            if ( logger .isLoggable( Level .FINE ) )
+                logger .fine( "spatial index of " + this .spatialIndex .size() + " balls built in "
+                        + ( System .nanoTime() - start ) / 1000000 + " ms" );
         }
-        return null;
+        return this .spatialIndex;
+    }
+
+    /**
+     * @return the ball nearest to location, if its center is closer than tolerance, else null
+     */
+    public RenderedManifestation getNearbyBall( RealVector location, double tolerance )
+    {
+        return this .getSpatialIndex() .nearestBall( location, tolerance );
     }
 
     public Iterable<Manifestation> getManifestations()
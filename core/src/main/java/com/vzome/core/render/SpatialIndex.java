@@ -0,0 +1,127 @@
+package com.vzome.core.render;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.vzome.core.math.RealVector;
+import com.vzome.core.model.Connector;
+
+/**
+ * A uniform hash grid over the locations of the balls of a RenderedModel, so that
+ * nearestBall() only visits the cells near the query, rather than the whole model.
+ * Each ball is recorded in the one cell containing its center.
+ */
+final class SpatialIndex
+{
+    private static final class Entry
+    {
+        final RenderedManifestation rm;
+        final double x, y, z;
+        final Long key;
+
+        Entry( RenderedManifestation rm, RealVector center, double cellSize )
+        {
+            this .rm = rm;
+            this .x = center .x;
+            this .y = center .y;
+            this .z = center .z;
+            this .key = key( cell( x, cellSize ), cell( y, cellSize ), cell( z, cellSize ) );
+        }
+
+        double distanceSquared( double px, double py, double pz )
+        {
+            double dx = x - px, dy = y - py, dz = z - pz;
+            return dx*dx + dy*dy + dz*dz;
+        }
+    }
+
+    private final double cellSize;
+
+    private final Map<Long, List<Entry>> cells = new HashMap<>();
+
+    // RenderedManifestation.equals() compares geometry while hashCode() uses the guid, so only identity will do
+    private final Map<RenderedManifestation, Entry> entries = new IdentityHashMap<>();
+
+    SpatialIndex( double cellSize )
+    {
+        this .cellSize = cellSize;
+    }
+
+    private static int cell( double coordinate, double cellSize )
+    {
+        return (int) Math .floor( coordinate / cellSize );
+    }
+
+    private static Long key( int x, int y, int z )
+    {
+        // 21 bits per coordinate is plenty for any model
+        return Long .valueOf( ( ( (long) x & 0x1FFFFF ) << 42 ) | ( ( (long) y & 0x1FFFFF ) << 21 ) | ( (long) z & 0x1FFFFF ) );
+    }
+
+    int size()
+    {
+        return this .entries .size();
+    }
+
+    void add( RenderedManifestation rm )
+    {
+        if ( ! ( rm .getManifestation() instanceof Connector ) || this .entries .containsKey( rm ) )
+            return;
+        Entry entry = new Entry( rm, rm .getLocation(), this .cellSize );
+        this .entries .put( rm, entry );
+        this .cells .computeIfAbsent( entry .key, c -> new ArrayList<>( 2 ) ) .add( entry );
+    }
+
+    void remove( RenderedManifestation rm )
+    {
+        Entry entry = this .entries .remove( rm );
+        if ( entry == null )
+            return;
+        List<Entry> list = this .cells .get( entry .key );
+        list .remove( entry );
+        if ( list .isEmpty() )
+            this .cells .remove( entry .key );
+    }
+
+    /**
+     * @return the ball whose center is nearest to location, if it is closer than tolerance, else null
+     */
+    RenderedManifestation nearestBall( RealVector location, double tolerance )
+    {
+        double x = location .x, y = location .y, z = location .z;
+        int minX = cell( x - tolerance, cellSize ), maxX = cell( x + tolerance, cellSize );
+        int minY = cell( y - tolerance, cellSize ), maxY = cell( y + tolerance, cellSize );
+        int minZ = cell( z - tolerance, cellSize ), maxZ = cell( z + tolerance, cellSize );
+        RenderedManifestation nearest = null;
+        double best = tolerance * tolerance;
+        if ( (long) ( maxX - minX + 1 ) * ( maxY - minY + 1 ) * ( maxZ - minZ + 1 ) > this .entries .size() ) {
+            // a huge tolerance; visiting every ball is cheaper than visiting every cell
+            for ( Entry entry : this .entries .values() ) {
+                double distance = entry .distanceSquared( x, y, z );
+                if ( distance < best ) {
+                    best = distance;
+                    nearest = entry .rm;
+                }
+            }
+            return nearest;
+        }
+        for ( int i = minX; i <= maxX; i++ )
+            for ( int j = minY; j <= maxY; j++ )
+                for ( int k = minZ; k <= maxZ; k++ ) {
+                    List<Entry> list = this .cells .get( key( i, j, k ) );
+                    if ( list == null )
+                        continue;
+                    for ( Entry entry : list ) {
+                        double distance = entry .distanceSquared( x, y, z );
+                        if ( distance < best ) {
+                            best = distance;
+                            nearest = entry .rm;
+                        }
+                    }
+                }
+        return nearest;
+    }
+}
@@ -1,7 +1,8 @@
 package com.vzome.core.render;
 
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import com.vzome.core.editor.api.OrbitSource;
@@ -58,22 +59,21 @@ public class SymmetryRendering implements RenderingChanges
     @Override
     public boolean shapesChanged( Shapes shapes )
     {
-        for ( InstancedGeometry geometry : this .geometries .values() ) {
+        // the new groups go into the same map, so iterate over a copy
+        for ( InstancedGeometry geometry : new ArrayList<>( this .geometries .values() ) ) {
             ShapeAndInstances shapesAndInstances = ((ShapeAndInstances) geometry);
             if ( shapesAndInstances .getShape() .isPanel() )
                 continue; // no change necessary
-            Collection<RenderedManifestation> instances = shapesAndInstances .getInstances();
-            Polyhedron shape = null;
+            // copied before the reset, which changes each hash code
+            List<RenderedManifestation> instances = new ArrayList<>( shapesAndInstances .getInstances() );
+            shapesAndInstances .removeInstances();
+            this .geometries .remove( shapesAndInstances .getShape() );
             for ( RenderedManifestation rm : instances ) {
+                // releases the shape from the old Shapes; the RenderedModel releases the new one when rm is removed
                 rm .resetAttributes( false, true );
-                shape = rm .getShape(); // they are all the same shape!
+                if ( rm .getShape() != null )
+                    this .getShapeAndInstances( rm .getShape() ) .addInstance( rm );
             }
-            ShapeAndInstances newShapesAndInstances = this .getShapeAndInstances( shape );
-            for ( RenderedManifestation rm : instances ) {
-                newShapesAndInstances .addInstance( rm );
-            }
-            shapesAndInstances .removeInstances();
-            shapesAndInstances = newShapesAndInstances;
         }
         return true;
     }
@@ -0,0 +1,79 @@
+package com.vzome.core.tools;
+
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.vzome.core.construction.Construction;
+import com.vzome.core.generic.ChunkedLoop;
+
+/**
+ * Computes TransformationTool.transformInput() for many inputs in a ChunkedLoop, so in parallel
+ * when a parallel TaskRunner is installed, and ApplyTool only has to manifest the results.
+ *
+ * The inputs are divided into contiguous chunks, one task each, and the results are returned
+ * in input order, so the caller can manifest them exactly as a simple loop would have.
+ * Each chunk shares transformed points among its own inputs, through its own TransformedPoints.
+ * With the default serial TaskRunner there is just one chunk, so all the inputs share them.
+ */
+public class ParallelTransforms
+{
+    // below this many transformed constructions, a chunk is not worth a task
+    private static final int MIN_CHUNK_WORK = 256;
+
+    private static final Logger logger = Logger .getLogger( "com.vzome.core.tools.transforms" );
+
+    private static class Chunk implements Runnable
+    {
+        private final TransformationTool tool;
+        private final List<Construction> inputs;
+        private final Construction[][] results;
+        private final int start, end;
+        private final TransformedPoints points;
+
+        Chunk( TransformationTool tool, List<Construction> inputs, Construction[][] results, int start, int end )
+        {
+            this .tool = tool;
+            this .inputs = inputs;
+            this .results = results;
+            this .start = start;
+            this .end = end;
+            this .points = new TransformedPoints( tool );
+        }
+
+        @Override
+        public void run()
+        {
+            for ( int i = start; i < end; i++ )
+                results[ i ] = tool .transformInput( inputs .get( i ), this .points );
+        }
+    }
+
+    /**
+     * @param tool
+     * @param inputs
+     * @return the results of tool.transformInput() for each input, in input order
+     */
+    public static Construction[][] transform( TransformationTool tool, List<Construction> inputs )
+    {
+        int count = inputs .size();
+        Construction[][] results = new Construction[ count ][];
+        if ( count == 0 )
+            return results;
+        long startTime = System .nanoTime();
+        int transforms = Math .max( 1, tool .transforms.length );
+        int minChunk = ( MIN_CHUNK_WORK + transforms - 1 ) / transforms;
+        List<Chunk> chunks = ChunkedLoop .run( count, minChunk, ( start, end ) -> new Chunk( tool, inputs, results, start, end ) );
+        if ( logger .isLoggable( Level .FINE ) ) {
+            int hits = 0, misses = 0;
+            for ( Chunk chunk : chunks ) {
+                hits += chunk .points .getHits();
+                misses += chunk .points .getMisses();
+            }
+            logger .fine( "transformed " + count + " inputs by " + tool .transforms.length + " transforms, in " + chunks .size()
+                    + " chunks, in " + ( System .nanoTime() - startTime ) / 1000000 + " ms; shared points hit "
+                    + hits + " times, missed " + misses );
+        }
+        return results;
+    }
+}
@@ -66,8 +66,40 @@ public abstract class TransformationTool extends Tool
     @Override
     public void performEdit( Construction c, ChangeManifestations applyTool )
     {
-        for (Transformation transform : transforms) {
-            Construction result = transform .transform( c );
+        this .manifestTransformed( c, this .transformInput( c ), applyTool );
+    }
+
+    /**
+     * The pure part of performEdit, applying every transform to one input.
+     * ApplyTool calls this concurrently for many inputs, so it must not modify any shared state.
+     * @param c
+     * @return the transformed constructions, in the order of the transforms, with null for any
+     * construction a transform does not handle
+     */
+    public Construction[] transformInput( Construction c )
+    {
+        return this .transformInput( c, null );
+    }
+
+    /**
+     * Like transformInput( c ), but sharing the transformed points with other inputs.
+     * @param c
+     * @param points the points transformed so far, or null to share nothing
+     */
+    public Construction[] transformInput( Construction c, TransformedPoints points )
+    {
+        Construction[] results = new Construction[ transforms.length ];
+        for ( int i = 0; i < transforms.length; i++ )
+            results[ i ] = ( points == null )? transforms[ i ] .transform( c ) : points .transform( i, c );
+        return results;
+    }
+
+    /**
+     * The rest of performEdit, manifesting the results of transformInput( c ), in order.
+     */
+    public void manifestTransformed( Construction c, Construction[] results, ChangeManifestations applyTool )
+    {
+        for (Construction result : results) {
             if ( result == null )
                 continue;
             Color color = c .getColor();
@@ -0,0 +1,108 @@
+package com.vzome.core.tools;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.construction.Construction;
+import com.vzome.core.construction.FreePoint;
+import com.vzome.core.construction.Point;
+import com.vzome.core.construction.Polygon;
+import com.vzome.core.construction.PolygonFromVertices;
+import com.vzome.core.construction.Segment;
+import com.vzome.core.construction.SegmentJoiningPoints;
+import com.vzome.core.construction.Transformation;
+
+/**
+ * Memoizes the points transformed during one application of a TransformationTool, keyed by
+ * transform and vertex, so that a vertex shared by balls, struts and panels is transformed
+ * only once per transform, much as Duplicator shares its vertexData.
+ *
+ * The transformed constructions are built from the shared points, and have the same vertices
+ * as those from Transformation.transform( Construction ).  Transforms that are not pointwise,
+ * and anything impossible, are simply passed through to Transformation.transform( Construction ).
+ *
+ * This is not thread-safe; ParallelTransforms uses one instance per chunk.
+ */
+public class TransformedPoints
+{
+    private final Transformation[] transforms;
+
+    private final List<Map<AlgebraicVector, Point>> points;
+
+    private int hits = 0, misses = 0;
+
+    public TransformedPoints( TransformationTool tool )
+    {
+        this .transforms = tool .transforms;
+        this .points = new ArrayList<>( this .transforms.length );
+        for ( int i = 0; i < this .transforms.length; i++ )
+            this .points .add( new HashMap<>() );
+    }
+
+    /**
+     * @param i the index of the transform in the tool
+     * @param c
+     * @return the same result as Transformation.transform( c ), sharing transformed points where possible
+     */
+    public Construction transform( int i, Construction c )
+    {
+        Transformation transform = this .transforms[ i ];
+        if ( ! transform .isPointwise() || transform .isImpossible() || c .isImpossible() )
+            return transform .transform( c );
+        if ( c instanceof Point ) {
+            Point result = getPoint( i, ((Point) c) .getLocation() );
+            if ( result != null )
+                return result;
+        } else if ( c instanceof Segment ) {
+            Segment segment = (Segment) c;
+            Point start = getPoint( i, segment .getStart() .projectTo3d( true ) );
+            Point end = getPoint( i, segment .getEnd() .projectTo3d( true ) );
+            if ( start != null && end != null )
+                return new SegmentJoiningPoints( start, end );
+        } else if ( c instanceof Polygon ) {
+            Polygon polygon = (Polygon) c;
+            Point[] vertices = new Point[ polygon .getVertexCount() ];
+            boolean possible = true;
+            for ( int j = 0; j < vertices.length && possible; j++ ) {
+                vertices[ j ] = getPoint( i, polygon .getVertex( j ) );
+                possible = vertices[ j ] != null;
+            }
+            if ( possible )
+                return new PolygonFromVertices( vertices );
+        }
+        return transform .transform( c );
+    }
+
+    /**
+     * @return the shared point for the vertex transformed by transforms[ i ], or null if the transform does not map it
+     */
+    private Point getPoint( int i, AlgebraicVector vertex )
+    {
+        Map<AlgebraicVector, Point> map = this .points .get( i );
+        Point result = map .get( vertex );
+        if ( result != null ) {
+            ++ this .hits;
+            return result;
+        }
+        ++ this .misses;
+        AlgebraicVector location = this .transforms[ i ] .transform( vertex );
+        if ( location == null )
+            return null;
+        result = new FreePoint( location );
+        map .put( vertex, result );
+        return result;
+    }
+
+    public int getHits()
+    {
+        return this .hits;
+    }
+
+    public int getMisses()
+    {
+        return this .misses;
+    }
+}
@@ -29,11 +29,25 @@ import com.vzome.core.render.RealZomeScaling;
 
 public abstract class AbstractShapes implements Shapes
 {
-    private final Map<Direction, Map<AlgebraicNumber, Polyhedron> > strutShapesByLengthAndOrbit = new HashMap<>();
+    /**
+     * The most vertices kept in unused shapes, in each cache.
+     */
+    private static final int MAX_UNUSED_WEIGHT = 1 << 14;
+
+    // keyed by orbit and length
+    private final ShapeCache<List<Object>> strutShapes = new ShapeCache<>( "strut", MAX_UNUSED_WEIGHT );
+
+    // the number of strut shapes ever built for each orbit, for naming them
+    private final Map<Direction, Integer> strutShapeCounts = new HashMap<>();
 
+    // Automatic orbits belong to one document, while these shapes are shared by all the documents
+    //  in an Application, so automatic orbits are never keyed in these maps, lest they be kept forever.
     private final Map<Direction, StrutGeometry> strutGeometriesByOrbit = new HashMap<>();
+
+    private int automaticShapeCount = 0;
     
-    private final Map<Integer, Map<AlgebraicNumber, Map<Direction, HashMap<List<AlgebraicVector>, Polyhedron>>>> panelShapes = new HashMap<>();
+    // keyed by vertex count, quadrea, orbit, and canonical vertices
+    private final ShapeCache<List<Object>> panelShapes = new ShapeCache<>( "panel", MAX_UNUSED_WEIGHT );
 
     protected final String mPkgName;
 
@@ -80,8 +94,10 @@ public abstract class AbstractShapes implements Shapes
         return new FastDefaultStrutGeometry( dir );
     }
     
-    private StrutGeometry getStrutGeometry( Direction orbit )
+    private synchronized StrutGeometry getStrutGeometry( Direction orbit )
     {
+        if ( orbit .isAutomatic() )
+            return createStrutGeometry( orbit );
         StrutGeometry orbitStrutGeometry = strutGeometriesByOrbit.get( orbit );
 
         if ( orbitStrutGeometry == null ) {
@@ -120,7 +136,7 @@ public abstract class AbstractShapes implements Shapes
     }
 
     @Override
-    public Polyhedron getConnectorShape()
+    public synchronized Polyhedron getConnectorShape()
     {
         if ( mConnectorGeometry == null ) {
             mConnectorGeometry = buildConnectorShape( mPkgName );
@@ -161,25 +177,48 @@ public abstract class AbstractShapes implements Shapes
     @Override
     public Polyhedron getStrutShape( Direction orbit, AlgebraicNumber length )
     {
-        Map<AlgebraicNumber, Polyhedron> strutShapesByLength = strutShapesByLengthAndOrbit.get( orbit );
-        if ( strutShapesByLength == null ) {
-            strutShapesByLength = new HashMap<>();
-            strutShapesByLengthAndOrbit.put( orbit, strutShapesByLength );
-        }
         //        int[] normSquared = mSymmetry .getField() .dot( offset, offset );
-        Polyhedron lengthShape = strutShapesByLength.get( length );
-        if ( lengthShape == null ) {
+        return this .strutShapes .acquire( Arrays .asList( orbit, length ), key -> {
             StrutGeometry orbitStrutGeometry = getStrutGeometry( orbit ); // may lazy-create the geometry
-            lengthShape = orbitStrutGeometry .getStrutPolyhedron( length );
-            strutShapesByLength.put( length, lengthShape );
+            Polyhedron lengthShape = orbitStrutGeometry .getStrutPolyhedron( length );
+            // the cache is locked while this builds, so the counts are safe
+            int count;
+            if ( orbit .isAutomatic() )
+                count = ++ this .automaticShapeCount;
+            else {
+                Integer previous = strutShapeCounts .get( orbit );
+                count = ( previous == null )? 1 : previous + 1;
+                strutShapeCounts .put( orbit, count );
+            }
             if ( lengthShape != null ) {
-                lengthShape .setName( orbit .getName() + strutShapesByLength .size() );
+                lengthShape .setName( orbit .getName() + count );
                 lengthShape .setOrbit( orbit );
                 // reproduce the calculation in LengthModel .setActualLength()                
                 lengthShape .setLength( orbit .getLengthInUnits( length ) );
             }
-        }
-        return lengthShape;
+            return lengthShape;
+        } );
+    }
+
+    @Override
+    public void releaseShape( Polyhedron shape )
+    {
+        if ( shape .isPanel() )
+            this .panelShapes .release( shape );
+        else
+            this .strutShapes .release( shape );
+    }
+
+    @JsonIgnore
+    public ShapeCache<List<Object>> getStrutShapeCache()
+    {
+        return this .strutShapes;
+    }
+
+    @JsonIgnore
+    public ShapeCache<List<Object>> getPanelShapeCache()
+    {
+        return this .panelShapes;
     }
 
     // no changes are ever generated
@@ -218,22 +257,7 @@ public abstract class AbstractShapes implements Shapes
     @Override
     public Polyhedron getPanelShape( int vertexCount, AlgebraicNumber quadrea, Axis zone, Iterable<AlgebraicVector> vertices, boolean oneSidedPanels )
     {
-        Map<AlgebraicNumber, Map<Direction, HashMap<List<AlgebraicVector>, Polyhedron>>> map1 = this .panelShapes .get( vertexCount );
-        if ( map1 == null ) {
-            map1 = new HashMap<>();
-            this .panelShapes .put( vertexCount, map1 );
-        }
-        Map<Direction, HashMap<List<AlgebraicVector>, Polyhedron>> map2 = map1 .get( quadrea );
-        if ( map2 == null ) {
-            map2 = new HashMap<>();
-            map1 .put( quadrea, map2 );
-        }
         Direction orbit = zone .getDirection();
-        HashMap<List<AlgebraicVector>, Polyhedron> map3 = map2 .get( orbit );
-        if ( map3 == null ) {
-            map3 = new HashMap<>();
-            map2 .put( orbit, map3 );
-        }
         
         // now map normal to the canonical zone for orbit
         int orientation = zone .getOrientation();
@@ -246,12 +270,8 @@ public abstract class AbstractShapes implements Shapes
         for (AlgebraicVector vertex : vertices ) {
             canonicalVertices .add( inverseTrans .timesColumn( vertex ) );
         }
-        Polyhedron shape = map3 .get( canonicalVertices );
-        if ( shape == null ) {
-            shape = makePanelPolyhedron( canonicalVertices, oneSidedPanels );
-            map3 .put( canonicalVertices, shape );
-        }
-        return shape;
+        return this .panelShapes .acquire( Arrays .asList( vertexCount, quadrea, orbit, canonicalVertices ),
+                key -> makePanelPolyhedron( canonicalVertices, oneSidedPanels ) );
     }
 
     @Override
@@ -0,0 +1,176 @@
+package com.vzome.core.viewing;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.vzome.core.math.Polyhedron;
+
+/**
+ * A cache of shapes that counts the users of each shape, so that it only grows with the
+ * shapes actually in use.
+ *
+ * Every acquire() counts as one user of the shape returned, until a matching release().
+ * A shape with no users stays cached, so it can be reused cheaply, but the unused shapes
+ * are bounded by their total weight (their vertex count), and the least recently used
+ * are evicted first.  A shape that is never released is never evicted.
+ *
+ * The methods are synchronized, since the Shapes that own these caches are shared by
+ * all the documents in an Application.
+ */
+public class ShapeCache<K>
+{
+    private static final Logger logger = Logger .getLogger( "com.vzome.core.viewing.shapes" );
+
+    private static class Entry<K>
+    {
+        private final K key;
+        private final Polyhedron shape;
+        private final int weight;
+        private int users = 0;
+
+        Entry( K key, Polyhedron shape )
+        {
+            this .key = key;
+            this .shape = shape;
+            this .weight = ( shape == null )? 1 : Math .max( 1, shape .getVertexList() .size() );
+        }
+    }
+
+    private final String name;
+
+    private final int maxUnusedWeight;
+
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+
+    private final Map<UUID, Entry<K>> entriesByGuid = new HashMap<>();
+
+    // in order of release, so the first is the least recently used
+    private final Map<K, Entry<K>> unused = new LinkedHashMap<>();
+
+    private int unusedWeight = 0;
+
+    private long hits = 0, misses = 0, evictions = 0;
+
+    public ShapeCache( String name, int maxUnusedWeight )
+    {
+        this .name = name;
+        this .maxUnusedWeight = maxUnusedWeight;
+    }
+
+    /**
+     * @param key
+     * @param builder called on a miss; may return null, which is cached like any shape
+     * @return the cached or newly built shape for the key
+     */
+    public synchronized Polyhedron acquire( K key, Function<K, Polyhedron> builder )
+    {
+        Entry<K> entry = this .entries .get( key );
+        if ( entry == null ) {
+            ++ this .misses;
+            entry = new Entry<>( key, builder .apply( key ) );
+            this .entries .put( key, entry );
+            if ( entry .shape == null ) {
+                // nobody can release a null shape, so it is unused from the start
+                this .unused .put( key, entry );
+                this .unusedWeight += entry .weight;
+                this .evict();
+                return null;
+            }
+            this .entriesByGuid .put( entry .shape .getGuid(), entry );
+        }
+        else {
+            ++ this .hits;
+            if ( entry .shape == null )
+                return null;
+            if ( entry .users == 0 ) {
+                this .unused .remove( key );
+                this .unusedWeight -= entry .weight;
+            }
+        }
+        ++ entry .users;
+        return entry .shape;
+    }
+
+    /**
+     * Ends one use of a shape returned by acquire().  Shapes not from this cache are ignored.
+     */
+    public synchronized void release( Polyhedron shape )
+    {
+        Entry<K> entry = this .entriesByGuid .get( shape .getGuid() );
+        if ( entry == null || entry .shape != shape || entry .users == 0 )
+            return;
+        -- entry .users;
+        if ( entry .users == 0 ) {
+            this .unused .put( entry .key, entry );
+            this .unusedWeight += entry .weight;
+            this .evict();
+        }
+    }
+
+    private void evict()
+    {
+        int evicted = 0;
+        for ( Iterator<Entry<K>> oldest = this .unused .values() .iterator(); this .unusedWeight > this .maxUnusedWeight && oldest .hasNext(); ) {
+            Entry<K> entry = oldest .next();
+            oldest .remove();
+            this .unusedWeight -= entry .weight;
+            this .entries .remove( entry .key );
+            if ( entry .shape != null )
+                this .entriesByGuid .remove( entry .shape .getGuid() );
+            ++ evicted;
+        }
+        this .evictions += evicted;
+        if ( evicted > 0 && logger .isLoggable( Level .FINE ) )
+            logger .fine( "evicted " + evicted + " shapes: " + this );
+    }
+
+    public synchronized long getHits()
+    {
+        return this .hits;
+    }
+
+    public synchronized long getMisses()
+    {
+        return this .misses;
+    }
+
+    public synchronized long getEvictions()
+    {
+        return this .evictions;
+    }
+
+    /**
+     * @return the number of shapes cached, used or not
+     */
+    public synchronized int getSize()
+    {
+        return this .entries .size();
+    }
+
+    /**
+     * @return the number of cached shapes with no users
+     */
+    public synchronized int getUnusedSize()
+    {
+        return this .unused .size();
+    }
+
+    public synchronized int getUnusedWeight()
+    {
+        return this .unusedWeight;
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return this .name + " shapes: " + this .entries .size() + " cached, " + this .unused .size() + " unused (weight "
+                + this .unusedWeight + " of " + this .maxUnusedWeight + "), "
+                + this .hits + " hits, " + this .misses + " misses, " + this .evictions + " evictions";
+    }
+}
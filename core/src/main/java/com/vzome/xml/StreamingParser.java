@@ -0,0 +1,170 @@
+package com.vzome.xml;
+
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.Text;
+
+/**
+ * A single-pass alternative to DomParser, built on StAX.
+ *
+ * The children of the "streamed" elements, such as the edits in an edit history, are not attached
+ * to the DOM.  Each one is built on its own, annotated with its LocationData, and handed to a consumer
+ * as soon as its end tag is read, so that the consumer can keep or discard it.  Everything else becomes
+ * a DOM much as DomParser would build it, but without the identity transform that DomParser needs to
+ * capture line numbers.
+ */
+public class StreamingParser
+{
+    /**
+     * @param bytes
+     * @param streamed the local names of the elements whose children are streamed
+     * @param captureLineNumbers whether to annotate the streamed elements with LocationData
+     * @param consumer receives each streamed element, in document order
+     * @return the document element, without the streamed elements
+     */
+    public static Element parseXml( InputStream bytes, Collection<String> streamed, boolean captureLineNumbers, Consumer<Element> consumer ) throws Exception
+    {
+        XMLInputFactory factory = XMLInputFactory .newInstance();
+        factory .setProperty( XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE );
+        factory .setProperty( XMLInputFactory.SUPPORT_DTD, Boolean.FALSE );
+        DocumentBuilderFactory builderFactory = DocumentBuilderFactory .newInstance();
+        builderFactory .setNamespaceAware( true );
+        Document doc = builderFactory .newDocumentBuilder() .newDocument();
+
+        XMLStreamReader reader = factory .createXMLStreamReader( bytes );
+        try {
+            // the open elements, innermost first
+            Deque<Element> open = new ArrayDeque<>();
+            // the streamed element being built, and its start
+            Element fragment = null;
+            Location start = null;
+            while ( reader .hasNext() ) {
+                Node parent = open .isEmpty()? doc : open .peek();
+                switch ( reader .next() ) {
+
+                case XMLStreamConstants.START_ELEMENT:
+                    Element element = createElement( doc, reader );
+                    if ( fragment == null && parent != doc && streamed .contains( parent .getLocalName() ) ) {
+                        fragment = element;
+                        start = captureLineNumbers? copy( reader .getLocation() ) : null;
+                    }
+                    else
+                        parent .appendChild( element );
+                    open .push( element );
+                    break;
+
+                case XMLStreamConstants.END_ELEMENT:
+                    Element ended = open .pop();
+                    if ( ended == fragment ) {
+                        if ( start != null ) {
+                            Location end = reader .getLocation();
+                            fragment .setUserData( LocationData.LOCATION_DATA_KEY, new LocationData( start .getSystemId(),
+                                    start .getLineNumber(), start .getColumnNumber(), end .getLineNumber(), end .getColumnNumber() ), null );
+                        }
+                        consumer .accept( fragment );
+                        fragment = null;
+                    }
+                    break;
+
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                    // text directly inside a streamed element would only be indentation
+                    if ( parent != doc && ( fragment != null || ! streamed .contains( parent .getLocalName() ) ) ) {
+                        // StAX may split text at entity references, where DOM has a single node
+                        Node last = parent .getLastChild();
+                        if ( last != null && last .getNodeType() == Node.TEXT_NODE )
+                            ((Text) last) .appendData( reader .getText() );
+                        else
+                            parent .appendChild( doc .createTextNode( reader .getText() ) );
+                    }
+                    break;
+
+                case XMLStreamConstants.CDATA:
+                    if ( parent != doc )
+                        parent .appendChild( doc .createCDATASection( reader .getText() ) );
+                    break;
+
+                case XMLStreamConstants.COMMENT:
+                    if ( fragment != null || ! streamed .contains( parent .getLocalName() ) )
+                        parent .appendChild( doc .createComment( reader .getText() ) );
+                    break;
+
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    parent .appendChild( doc .createProcessingInstruction( reader .getPITarget(), reader .getPIData() ) );
+                    break;
+
+                default:
+                    break;
+                }
+            }
+        }
+        finally {
+            reader .close();
+            bytes .close();
+        }
+        return doc .getDocumentElement();
+    }
+
+    private static Element createElement( Document doc, XMLStreamReader reader )
+    {
+        Element element = doc .createElementNS( emptyToNull( reader .getNamespaceURI() ), qualify( reader .getPrefix(), reader .getLocalName() ) );
+        for ( int i = 0; i < reader .getNamespaceCount(); i++ ) {
+            String prefix = reader .getNamespacePrefix( i );
+            String name = ( prefix == null || prefix .isEmpty() )? XMLConstants.XMLNS_ATTRIBUTE : XMLConstants.XMLNS_ATTRIBUTE + ":" + prefix;
+            element .setAttributeNS( XMLConstants.XMLNS_ATTRIBUTE_NS_URI, name, reader .getNamespaceURI( i ) );
+        }
+        for ( int i = 0; i < reader .getAttributeCount(); i++ )
+            element .setAttributeNS( emptyToNull( reader .getAttributeNamespace( i ) ),
+                    qualify( reader .getAttributePrefix( i ), reader .getAttributeLocalName( i ) ), reader .getAttributeValue( i ) );
+        return element;
+    }
+
+    private static String qualify( String prefix, String localName )
+    {
+        return ( prefix == null || prefix .isEmpty() )? localName : prefix + ":" + localName;
+    }
+
+    private static String emptyToNull( String uri )
+    {
+        return ( uri == null || uri .isEmpty() )? null : uri;
+    }
+
+    // some implementations reuse the Location object as they read
+    private static Location copy( final Location location )
+    {
+        final String systemId = location .getSystemId();
+        final String publicId = location .getPublicId();
+        final int line = location .getLineNumber(), column = location .getColumnNumber(), offset = location .getCharacterOffset();
+        return new Location()
+        {
+            @Override
+            public int getLineNumber() { return line; }
+
+            @Override
+            public int getColumnNumber() { return column; }
+
+            @Override
+            public int getCharacterOffset() { return offset; }
+
+            @Override
+            public String getPublicId() { return publicId; }
+
+            @Override
+            public String getSystemId() { return systemId; }
+        };
+    }
+}
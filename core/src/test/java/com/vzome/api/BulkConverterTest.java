@@ -0,0 +1,59 @@
+package com.vzome.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import com.vzome.core.editor.DocumentModel;
+
+public class BulkConverterTest
+{
+    @Test
+    public void testReportsOnlyTheLatestRun() throws Exception
+    {
+        File folder = Files .createTempDirectory( "bulk" ) .toFile();
+        try {
+            DocumentModel doc = new com.vzome.core.editor.Application( false, null, new Properties() ) .createDocument( "golden" );
+            Map<String,Object> params = new HashMap<>();
+            params .put( "vef", "vZome VEF 6 field golden\n"
+                    + "2\n"
+                    + "(0,0) (0,0) (0,0) (0,0)\n"
+                    + "(0,0) (0,2) (0,0) (0,0)\n"
+                    + "1\n"
+                    + "0 1\n"
+                    + "0\n"
+                    + "2\n"
+                    + "0\n1\n" );
+            params .put( "scale", doc .getField() .one() );
+            doc .doEdit( "LoadVEF/quaternion", params );
+            try ( OutputStream out = new FileOutputStream( new File( folder, "strut.vZome" ) ) ) {
+                doc .serialize( out );
+            }
+
+            BulkConverter.Actor actor = new BulkConverter.Actor( folder .getPath(), new String[]{ "vef" }, new String[]{ "vef" }, 1 );
+            for ( int run = 0; run < 2; run++ ) {
+                actor .convertAll();
+                List<BulkConverter.FileReport> reports = actor .getReports();
+                assertEquals( 1, reports .size() );
+                assertEquals( "strut.vZome", reports .get( 0 ) .getPath() );
+                assertNull( reports .get( 0 ) .getFailure() );
+                assertTrue( reports .get( 0 ) .getExportMillis() .containsKey( "vef" ) );
+            }
+        } finally {
+            for ( File file : folder .listFiles() )
+                file .delete();
+            folder .delete();
+        }
+    }
+}
@@ -212,6 +212,55 @@ public class AlgebraicMatrixTest {
 ////        }
 //    }
    
+    @Test
+    public void testBareissMatchesLaplace()
+    {
+        AlgebraicField[] fields = {
+                new PentagonField(),
+                new HeptagonField(),
+                new SnubDodecField( AlgebraicNumberImpl.FACTORY ),
+        };
+        java.util.Random random = new java.util.Random( 1234 );
+        for ( AlgebraicField field : fields ) {
+            for ( int dim = 4; dim <= 6; dim++ ) {
+                AlgebraicNumber[][] elements = new AlgebraicNumber[ dim ][ dim ];
+                for ( int i = 0; i < dim; i++ ) {
+                    for ( int j = 0; j < dim; j++ ) {
+                        // plenty of zeroes, including on the diagonal, to exercise the row swaps
+                        int[] terms = new int[ field .getOrder() ];
+                        terms[ 0 ] = ( random .nextInt( 3 ) == 0 )? 0 : random .nextInt( 11 ) - 5;
+                        terms[ terms.length - 1 ] = random .nextInt( 5 ) - 2;
+                        elements[ i ][ j ] = field .createAlgebraicNumber( terms, 1 + random .nextInt( 3 ) );
+                    }
+                }
+                elements[ 0 ][ 0 ] = field .zero();
+                AlgebraicMatrix m = new AlgebraicMatrix( field, dim );
+                for ( int i = 0; i < dim; i++ ) {
+                    for ( int j = 0; j < dim; j++ ) {
+                        m .setElement( i, j, elements[ i ][ j ] );
+                    }
+                }
+                // call Fields directly, since AlgebraicMatrix doesn't use Bareiss for every field
+                AlgebraicNumber d = Fields .bareissDeterminant( elements );
+                assertEquals( field.getName() + " " + dim + "D", AlgebraicMatrix.laplaceDeterminant( elements ), d );
+                assertEquals( field.getName() + " " + dim + "D", d, m .determinant() );
+                if ( ! d .isZero() ) {
+                    AlgebraicMatrix identity = new AlgebraicMatrix( field, dim );
+                    AlgebraicMatrix inverse = new AlgebraicMatrix( field, dim );
+                    assertEquals( dim, Fields .bareissInverse( elements, inverse .getMatrix() ) );
+                    assertEquals( field.getName() + " " + dim + "D", identity, m .times( inverse ) );
+                    assertEquals( field.getName() + " " + dim + "D", identity, inverse .times( m ) );
+                    assertEquals( field.getName() + " " + dim + "D", inverse, m .inverse() );
+                }
+
+                // make it singular by repeating a row
+                elements[ dim - 1 ] = elements[ 1 ] .clone();
+                assertTrue( Fields .bareissDeterminant( elements ) .isZero() );
+                assertTrue( Fields .bareissInverse( elements, new AlgebraicMatrix( field, dim ) .getMatrix() ) < dim );
+            }
+        }
+    }
+
     // This test was moved from AlgebraicNumberTest to AlgebraicMatrixTest 
     @Test
     public void testChangeOfBasis()
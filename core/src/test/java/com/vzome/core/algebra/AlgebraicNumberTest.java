@@ -581,6 +581,70 @@ public class AlgebraicNumberTest
         assertEquals( BigInteger.ONE, n.getDivisor() );
     }
 
+    @Test
+    public void testLongArithmeticMatchesBigRationals()
+    {
+        final AbstractAlgebraicField[] fields = {
+            new PentagonField(),
+            new RootTwoField(),
+            new RootThreeField(),
+            new HeptagonField(),
+            new SnubCubeField( AlgebraicNumberImpl.FACTORY ),
+            new PolygonField( 9, AlgebraicNumberImpl.FACTORY )
+        };
+        for(AbstractAlgebraicField field : fields ) {
+            int order = field.getOrder();
+            int[] numerators1 = new int[order];
+            int[] numerators2 = new int[order];
+            for(int i = 0; i < order; i++) {
+                numerators1[i] = 3 - 2*i;
+                numerators2[i] = i*i - 5;
+            }
+            AlgebraicNumberImpl a = (AlgebraicNumberImpl) field.createAlgebraicNumber( numerators1, 6 );
+            AlgebraicNumberImpl b = (AlgebraicNumberImpl) field.createAlgebraicNumber( numerators2, 10 );
+            AlgebraicNumber product = new AlgebraicNumberImpl( field, field.multiply( a.getFactors(), b.getFactors() ) );
+            assertEquals( field.getName(), product, a.times( b ) );
+            assertEquals( field.getName(), product.hashCode(), a.times( b ).hashCode() );
+            assertArrayEquals( field.getName(), product.toTrailingDivisor(), a.times( b ).toTrailingDivisor() );
+            BigRational[] sum = new BigRational[order];
+            for(int i = 0; i < order; i++) {
+                sum[i] = a.getFactors()[i].plus( b.getFactors()[i] );
+            }
+            assertEquals( field.getName(), new AlgebraicNumberImpl( field, sum ), a.plus( b ) );
+            assertEquals( field.getName(), a.plus( b ).hashCode(), new AlgebraicNumberImpl( field, sum ).hashCode() );
+            assertTrue( field.getName(), a.minus( a ).isZero() );
+            assertTrue( field.getName(), a.dividedBy( a ).isOne() );
+        }
+    }
+
+    @Test
+    public void testLongArithmeticOverflow()
+    {
+        AlgebraicField field = new PentagonField();
+        long big = 1L << 40;
+        AlgebraicNumber x = AlgebraicNumberImpl.FACTORY.createAlgebraicNumberFromPairs( field, new long[] { big, 3, big, 1 } );
+        // x*x overflows a long, so the BigRational path must take over
+        AlgebraicNumber square = x.times( x );
+        BigInteger bigSquared = BigInteger.valueOf( big ).pow( 2 );
+        BigRational ones = new BigRationalImpl( bigSquared.multiply( BigInteger.valueOf( 10 ) ), BigInteger.valueOf( 9 ) );
+        BigRational phis = new BigRationalImpl( bigSquared.multiply( BigInteger.valueOf( 5 ) ), BigInteger.valueOf( 3 ) );
+        assertEquals( new AlgebraicNumberImpl( field, new BigRational[] { ones, phis } ), square );
+        // and the small results of big operands still work
+        assertEquals( field.one(), square.dividedBy( square ) );
+        assertEquals( x, square.minus( square ).plus( x ) );
+    }
+
+    @Test
+    public void testLongMinValueNumerator()
+    {
+        AlgebraicField field = new PentagonField();
+        // -2^62 + phi/2 has the trailing divisor numerator -2^63, which can't be negated in a long
+        AlgebraicNumber x = new AlgebraicNumberImpl( field, new BigRational[] { new BigRationalImpl( -(1L << 62) ), new BigRationalImpl( 1, 2 ) } );
+        assertTrue( x.plus( x.negate() ).isZero() );
+        assertEquals( x, x.negate().negate() );
+        assertEquals( new AlgebraicNumberImpl( field, new BigRational[] { new BigRationalImpl( 1L << 62 ), new BigRationalImpl( -1, 2 ) } ), x.negate() );
+    }
+
     @Test
     public void testConstructorException()
     {
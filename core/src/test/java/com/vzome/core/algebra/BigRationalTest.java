@@ -331,6 +331,23 @@ public class BigRationalTest {
         assertEquals(200 - 2, qty);
     }
 
+    @Test
+    public void testHashCodeMatchesString() {
+        // hashCode() avoids generating the String, but must still match its hashCode
+        long[] values = { 0, 1, -1, 9, 10, -10, 99, 100, 12345, -987654321, Long.MAX_VALUE, -Long.MAX_VALUE };
+        for(long n : values) {
+            for(long d : values) {
+                if(d != 0) {
+                    BigRationalImpl r = new BigRationalImpl(n, d);
+                    assertEquals(r.toString(), r.toString().hashCode(), r.hashCode());
+                }
+            }
+        }
+        BigRationalImpl big = new BigRationalImpl(Long.MIN_VALUE, 7);
+        assertTrue(big.isBig());
+        assertEquals(big.toString().hashCode(), big.hashCode());
+    }
+
     @Test
     public void testEvaluate() {
         double delta = 0.0D;
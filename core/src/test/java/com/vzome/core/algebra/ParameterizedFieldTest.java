@@ -89,6 +89,55 @@ public class ParameterizedFieldTest {
         }
     }
     
+    @Test
+    public void testSparseMultiplyMatchesTensor() {
+        for(AlgebraicField field : TEST_FIELDS) {
+            if(field instanceof ParameterizedField) {
+                testSparseMultiplyMatchesTensor( (ParameterizedField) field );
+            }
+        }
+    }
+
+    private static void testSparseMultiplyMatchesTensor(ParameterizedField field) {
+        int order = field.getOrder();
+        BigRational[] v1 = new BigRational[order];
+        BigRational[] v2 = new BigRational[order];
+        for (int i = 0; i < order; i++) {
+            // include some zero terms, since the sparse kernel skips them
+            v1[i] = new BigRationalImpl( (i % 3 == 1) ? 0 : i + 2, 3 );
+            v2[i] = new BigRationalImpl( 5 - 2 * i, (i % 2) + 1 );
+        }
+        // the dense triple loop is the definition of the tensor
+        BigRational[] expected = new BigRational[order];
+        for (int i = 0; i < order; i++) {
+            expected[i] = BigRationalImpl.ZERO;
+            for (int j = 0; j < order; j++) {
+                for (int k = 0; k < order; k++) {
+                    expected[i] = expected[i].plus( v1[j].times( v2[k] ).timesInt( field.multiplicationTensor[i][j][k] ) );
+                }
+            }
+        }
+        BigRational[] product = field.multiply( v1, v2 );
+        for (int i = 0; i < order; i++) {
+            assertEquals( field.getName() + " term " + i, expected[i], product[i] );
+        }
+
+        for (int k = 1; k < order; k++) {
+            expected = new BigRational[order];
+            for (int i = 0; i < order; i++) {
+                expected[i] = BigRationalImpl.ZERO;
+                for (int j = 0; j < order; j++) {
+                    expected[i] = expected[i].plus( v1[j].timesInt( field.multiplicationTensor[i][j][k] ) );
+                }
+            }
+            field.normalize( expected );
+            BigRational[] scaled = field.scaleBy( v1, k );
+            for (int i = 0; i < order; i++) {
+                assertEquals( field.getName() + " scaleBy " + k + " term " + i, expected[i], scaled[i] );
+            }
+        }
+    }
+
     @Test
     public void printMathTables() {
         System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
@@ -0,0 +1,67 @@
+package com.vzome.core.construction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+
+public class SignatureKeyTest
+{
+    private final AlgebraicField field = new PentagonField();
+
+    private Point point( int x, int y, int z )
+    {
+        return new FreePoint( field .createVector( new int[][]{ { x, 1, 0, 1 }, { y, 1, 1, 1 }, { z, 2, 0, 1 } } ) );
+    }
+
+    private static void assertSameKeys( Construction c1, Construction c2 )
+    {
+        assertEquals( c1 .getSignature(), c2 .getSignature() );
+        assertEquals( c1 .getSignatureKey(), c2 .getSignatureKey() );
+        assertEquals( c1 .getSignatureKey() .hashCode(), c2 .getSignatureKey() .hashCode() );
+    }
+
+    private static void assertDifferentKeys( Construction c1, Construction c2 )
+    {
+        assertNotEquals( c1 .getSignature(), c2 .getSignature() );
+        assertNotEquals( c1 .getSignatureKey(), c2 .getSignatureKey() );
+    }
+
+    @Test
+    public void testPoints()
+    {
+        assertSameKeys( point( 1, 2, 3 ), point( 1, 2, 3 ) );
+        assertDifferentKeys( point( 1, 2, 3 ), point( 3, 2, 1 ) );
+
+        // 4D locations are keyed by their 3D projection, ignoring W
+        AlgebraicVector v3 = point( 1, 2, 3 ) .getLocation();
+        AlgebraicVector w1 = new AlgebraicVector( field .one(), v3 .getComponent( 0 ), v3 .getComponent( 1 ), v3 .getComponent( 2 ) );
+        AlgebraicVector w2 = new AlgebraicVector( field .zero(), v3 .getComponent( 0 ), v3 .getComponent( 1 ), v3 .getComponent( 2 ) );
+        assertSameKeys( new FreePoint( w1 ), new FreePoint( w2 ) );
+        assertSameKeys( new FreePoint( w1 ), point( 1, 2, 3 ) );
+    }
+
+    @Test
+    public void testSegmentsIgnoreDirection()
+    {
+        Point a = point( 1, 2, 3 ), b = point( 4, 5, 6 ), c = point( 7, 8, 9 );
+        assertSameKeys( new SegmentJoiningPoints( a, b ), new SegmentJoiningPoints( b, a ) );
+        assertDifferentKeys( new SegmentJoiningPoints( a, b ), new SegmentJoiningPoints( a, c ) );
+        assertDifferentKeys( new SegmentJoiningPoints( a, b ), a );
+    }
+
+    @Test
+    public void testPolygonsIgnoreVertexOrder()
+    {
+        Point a = point( 1, 2, 3 ), b = point( 4, 5, 6 ), c = point( 7, 8, 9 ), d = point( 0, 0, 1 );
+        assertSameKeys( new PolygonFromVertices( new Point[]{ a, b, c, d } ), new PolygonFromVertices( new Point[]{ c, d, a, b } ) );
+        assertSameKeys( new PolygonFromVertices( new Point[]{ a, b, c, d } ), new PolygonFromVertices( new Point[]{ d, c, b, a } ) );
+        assertDifferentKeys( new PolygonFromVertices( new Point[]{ a, b, c } ), new PolygonFromVertices( new Point[]{ a, b, d } ) );
+        // the same vertices, but with different multiplicities
+        assertDifferentKeys( new PolygonFromVertices( new Point[]{ a, a, b, c } ), new PolygonFromVertices( new Point[]{ a, b, b, c } ) );
+    }
+}
@@ -1,9 +1,23 @@
 package com.vzome.core.editor;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.After;
 import org.junit.AfterClass;
@@ -17,6 +31,7 @@ import com.vzome.core.construction.Construction;
 import com.vzome.core.construction.ConstructionChanges;
 import com.vzome.core.math.Projection;
 import com.vzome.core.model.ColoredMeshJson;
+import com.vzome.core.render.RenderedManifestation;
 
 public class ApplicationTest {
 
@@ -96,4 +111,68 @@ public class ApplicationTest {
         }
     }
 
+    @Test
+    public void testDocumentKindShared()
+    {
+        Application application = new Application( false, null, new Properties() );
+        FieldApplication golden = application .getDocumentKind( "golden" );
+        assertSame( golden, application .getDocumentKind( "golden" ) );
+        assertSame( golden .getField(), application .getField( "golden" ) );
+        assertSame( golden, application .createDocument( "golden" ) .getFieldApplication() );
+        assertSame( golden .getField(), application .createDocument( "golden" ) .getField() );
+    }
+
+    @Test
+    public void testConcurrentLoads() throws Exception
+    {
+        DocumentModel original = new Application( false, null, new Properties() ) .createDocument( "golden" );
+        Map<String,Object> params = new HashMap<>();
+        params .put( "vef", "vZome VEF 6 field golden\n"
+                + "4\n"
+                + "(0,0) (0,0) (0,0) (0,0)\n"
+                + "(0,0) (0,2) (0,0) (0,0)\n"
+                + "(0,0) (1,1) (0,3) (0,0)\n"
+                + "(0,0) (2,1) (1,0) (-1,2)\n"
+                + "5\n"
+                + "0 1\n0 2\n0 3\n1 2\n2 3\n"
+                + "1\n"
+                + "3 0 1 2\n"
+                + "4\n"
+                + "0\n1\n2\n3\n" );
+        params .put( "scale", original .getField() .one() );
+        original .doEdit( "LoadVEF/quaternion", params );
+        original .doEdit( "SelectAll" );
+        original .doEdit( "pointsymm" );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        original .serialize( out, new Properties() );
+        final byte[] bytes = out .toByteArray();
+
+        // the expected result comes from its own Application, so the concurrent loads start with cold caches
+        String expected = load( new Application( false, null, new Properties() ), bytes );
+        Application application = new Application( false, null, new Properties() );
+        Callable<String> load = () -> load( application, bytes );
+        ExecutorService threads = Executors .newFixedThreadPool( 4 );
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for ( int i = 0; i < 8; i++ )
+                results .add( threads .submit( load ) );
+            for ( Future<String> result : results )
+                assertEquals( expected, result .get() );
+        } finally {
+            threads .shutdown();
+        }
+    }
+
+    private static String load( Application application, byte[] bytes ) throws Exception
+    {
+        DocumentModel doc = application .loadDocument( new ByteArrayInputStream( bytes ) );
+        doc .finishLoading( false, false );
+        List<String> lines = new ArrayList<>();
+        for ( RenderedManifestation rm : doc .getRenderedModel() ) {
+            assertNotNull( rm .getShape() );
+            lines .add( rm .getManifestation() .toString() + " " + rm .getShape() .getVertexList() .size() );
+        }
+        Collections .sort( lines );
+        return String .join( "\n", lines );
+    }
 }
@@ -0,0 +1,43 @@
+package com.vzome.core.editor;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.model.ConnectorImpl;
+import com.vzome.core.model.Manifestation;
+import com.vzome.core.model.PanelImpl;
+import com.vzome.core.model.StrutImpl;
+
+public class ApplyToolTest
+{
+    @Test
+    public void testFreshConstructionsAreSameInput()
+    {
+        // 4d manifestations have no 3d construction, so each toConstruction() is a new one
+        AlgebraicField field = new PentagonField();
+        AlgebraicVector w = field .basisVector( 4, AlgebraicVector.W4 );
+        AlgebraicVector x = field .basisVector( 4, AlgebraicVector.X4 );
+        AlgebraicVector y = field .basisVector( 4, AlgebraicVector.Y4 );
+        Manifestation[] inputs = {
+                new ConnectorImpl( x ),
+                new StrutImpl( x, y ),
+                new PanelImpl( Arrays .asList( w, x, y ) )
+        };
+        for ( Manifestation man : inputs ) {
+            assertNotSame( man .toConstruction(), man .toConstruction() );
+            assertTrue( ApplyTool .isSameInput( man .toConstruction(), man .toConstruction() ) );
+        }
+        assertFalse( ApplyTool .isSameInput( new StrutImpl( x, y ) .toConstruction(), new StrutImpl( y, x ) .toConstruction() ) );
+        assertFalse( ApplyTool .isSameInput( new PanelImpl( Arrays .asList( w, x, y ) ) .toConstruction(),
+                new PanelImpl( Arrays .asList( w, y, x ) ) .toConstruction() ) );
+        assertFalse( ApplyTool .isSameInput( new ConnectorImpl( x ) .toConstruction(), new StrutImpl( x, y ) .toConstruction() ) );
+    }
+}
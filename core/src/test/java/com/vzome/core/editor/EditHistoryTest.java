@@ -0,0 +1,183 @@
+package com.vzome.core.editor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.vzome.core.commands.Command;
+import com.vzome.core.construction.Color;
+import com.vzome.core.editor.api.EditorModel;
+import com.vzome.core.model.Manifestation;
+import com.vzome.core.model.RealizedModelImpl;
+import com.vzome.core.render.RenderedManifestation;
+
+public class EditHistoryTest
+{
+    private static final String VEF = "vZome VEF 6 field golden\n"
+            + "6\n"
+            + "(0,0) (0,0) (0,0) (0,0)\n"
+            + "(0,0) (0,2) (0,0) (0,0)\n"
+            + "(0,0) (0,0) (0,2) (0,0)\n"
+            + "(0,0) (0,0) (0,0) (0,2)\n"
+            + "(0,0) (0,2) (0,2) (0,0)\n"
+            + "(0,0) (1,1) (0,0) (0,2)\n"
+            + "5\n"
+            + "0 1\n"
+            + "0 2\n"
+            + "0 3\n"
+            + "1 4\n"
+            + "2 4\n"
+            + "1\n"
+            + "4 0 1 4 2\n"
+            + "6\n"
+            + "0\n1\n2\n3\n4\n5\n";
+
+    /**
+     * The order of the manifestations in the model and the selection depends on the path
+     * taken through the history, even without checkpoints, so this sorts them.
+     */
+    private static String fingerprint( DocumentModel doc )
+    {
+        EditorModel editor = doc .getEditorModel();
+        List<String> lines = new ArrayList<>();
+        for ( Manifestation m : editor .getRealizedModel() ) {
+            int constructions = 0;
+            for ( Iterator<?> cs = m .getConstructions(); cs .hasNext(); cs .next() )
+                ++ constructions;
+            lines .add( m + " " + m .isHidden() + " " + m .isRendered() + " " + m .getColor() + " " + constructions );
+        }
+        for ( Manifestation m : editor .getSelection() )
+            lines .add( "selected " + m );
+        int rendered = 0;
+        for ( RenderedManifestation rm : doc .getRenderedModel() )
+            if ( rm .getManifestation() .isRendered() )
+                ++ rendered;
+        lines .add( "rendered " + rendered );
+        Collections .sort( lines );
+        return String .join( "\n", lines );
+    }
+
+    private static EditHistory.Checkpointer checkpointer( final DocumentModel doc )
+    {
+        final RealizedModelImpl model = (RealizedModelImpl) doc .getEditorModel() .getRealizedModel();
+        final SelectionImpl selection = (SelectionImpl) doc .getEditorModel() .getSelection();
+        return new EditHistory.Checkpointer()
+        {
+            @Override
+            public int prepare()
+            {
+                return model .prepareCheckpoint() + selection .size();
+            }
+
+            @Override
+            public EditHistory.Checkpoint capture()
+            {
+                return new ModelCheckpoint( model, selection );
+            }
+        };
+    }
+
+    @Test
+    public void testCheckpointedNavigation()
+    {
+        Application app = new Application( true, new Command.FailureChannel()
+        {
+            @Override
+            public void reportFailure( Command.Failure f ) {} // some random edits are bound to be invalid
+        }, new Properties() );
+        DocumentModel doc = app .createDocument( "golden" );
+        EditHistory history = doc .getHistoryModel();
+
+        Random random = new Random( 42 );
+        String[] actions = { "vef", "pick", "pick", "pick", "SelectAll", "DeselectAll", "InvertSelection",
+                "hideball", "ShowHidden", "Delete", "pointsymm", "JoinPoints", "color" };
+        for ( int i = 0; i < 300; i++ ) {
+            String action = ( i == 0 )? "vef" : actions[ random .nextInt( actions .length ) ];
+            if ( action .equals( "vef" ) ) {
+                Map<String,Object> params = new HashMap<>();
+                params .put( "vef", VEF );
+                params .put( "scale", doc .getField() .createPower( random .nextInt( 3 ) ) );
+                doc .doEdit( "LoadVEF/quaternion", params );
+            }
+            else if ( action .equals( "pick" ) ) {
+                List<Manifestation> all = new ArrayList<>();
+                for ( Manifestation m : doc .getEditorModel() .getRealizedModel() )
+                    if ( m .isRendered() )
+                        all .add( m );
+                if ( ! all .isEmpty() )
+                    doc .doPickEdit( all .get( random .nextInt( all .size() ) ), "SelectManifestation" );
+            }
+            else if ( action .equals( "color" ) ) {
+                Map<String,Object> props = new HashMap<>();
+                props .put( "color", new Color( random .nextInt( 256 ), random .nextInt( 256 ), random .nextInt( 256 ) ) );
+                doc .doEdit( "ColorManifestations", props );
+            }
+            else
+                doc .doEdit( action );
+        }
+        int last = history .getEditNumber();
+        assertTrue( last > 100 );
+
+        // the reference states, by plain undo and redo
+        history .setCheckpointer( null, 0, 0 );
+        String[] expected = new String[ last + 1 ];
+        try {
+            history .goToEdit( 0 );
+            expected[ 0 ] = fingerprint( doc );
+            for ( int i = 1; i <= last; i++ ) {
+                history .goToEdit( i );
+                expected[ i ] = fingerprint( doc );
+            }
+
+            history .goToEdit( 0 );
+            history .setCheckpointer( checkpointer( doc ), 10, EditHistory.DEFAULT_CHECKPOINT_BUDGET );
+            history .goToEdit( last );
+            assertEquals( expected[ last ], fingerprint( doc ) );
+            assertEquals( last / 10, history .getCheckpointCount() );
+
+            for ( int i = 0; i < 300; i++ ) {
+                int target = random .nextInt( last + 1 );
+                history .goToEdit( target );
+                assertEquals( "at edit " + target, expected[ target ], fingerprint( doc ) );
+            }
+
+            // with a small budget, old checkpoints are evicted, and the removed manifestations
+            //  that only they recorded are forgotten
+            history .setCheckpointer( checkpointer( doc ), 10, 500 );
+            history .goToEdit( 0 );
+            history .goToEdit( last );
+            assertTrue( history .getCheckpointCount() < last / 10 );
+            for ( int i = 0; i < 300; i++ ) {
+                int target = random .nextInt( last + 1 );
+                history .goToEdit( target );
+                assertEquals( "at edit " + target, expected[ target ], fingerprint( doc ) );
+            }
+
+            // a checkpoint larger than the whole budget is never captured
+            history .setCheckpointer( checkpointer( doc ), 10, 1 );
+            history .goToEdit( 0 );
+            history .goToEdit( last );
+            assertEquals( 0, history .getCheckpointCount() );
+            // with no checkpoints, only the present manifestations are known
+            RealizedModelImpl model = (RealizedModelImpl) doc .getEditorModel() .getRealizedModel();
+            assertEquals( 2 * model .size(), model .prepareCheckpoint() );
+            for ( int i = 0; i < 20; i++ ) {
+                int target = random .nextInt( last + 1 );
+                history .goToEdit( target );
+                assertEquals( "at edit " + target, expected[ target ], fingerprint( doc ) );
+            }
+        } catch ( Command.Failure e ) {
+            throw new RuntimeException( e );
+        }
+    }
+}
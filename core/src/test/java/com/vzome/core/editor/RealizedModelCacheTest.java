@@ -0,0 +1,285 @@
+package com.vzome.core.editor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.vzome.core.commands.Command;
+import com.vzome.core.construction.Color;
+import com.vzome.core.editor.api.EditorModel;
+import com.vzome.core.model.Manifestation;
+import com.vzome.core.render.RenderedManifestation;
+import com.vzome.core.render.RenderedModel;
+
+public class RealizedModelCacheTest
+{
+    private static final String VEF = "vZome VEF 6 field golden\n"
+            + "5\n"
+            + "(0,0) (0,0) (0,0) (0,0)\n"
+            + "(0,0) (0,2) (0,0) (0,0)\n"
+            + "(0,0) (0,0) (0,2) (0,0)\n"
+            + "(0,0) (0,0) (0,0) (0,2)\n"
+            + "(0,0) (1,1) (0,0) (0,2)\n"
+            + "4\n"
+            + "0 1\n"
+            + "0 2\n"
+            + "1 4\n"
+            + "3 4\n"
+            + "1\n"
+            + "3 1 2 3\n"
+            + "5\n"
+            + "0\n1\n2\n3\n4\n";
+
+    private static Application createApplication()
+    {
+        return new Application( true, new Command.FailureChannel()
+        {
+            @Override
+            public void reportFailure( Command.Failure f ) {} // some random edits are bound to be invalid
+        }, new Properties() );
+    }
+
+    private static String fingerprint( DocumentModel doc )
+    {
+        EditorModel editor = doc .getEditorModel();
+        List<String> lines = new ArrayList<>();
+        for ( Manifestation m : editor .getRealizedModel() )
+            lines .add( m + " " + m .isHidden() + " " + m .isRendered() + " " + m .getColor() + " " + m .getLabel() );
+        Collections .sort( lines );
+        for ( Manifestation m : editor .getSelection() )
+            lines .add( "selected " + m );
+        return String .join( "\n", lines );
+    }
+
+    private static void edit( DocumentModel doc, Random random, int count )
+    {
+        String[] actions = { "vef", "pick", "pick", "SelectAll", "DeselectAll", "InvertSelection",
+                "hideball", "ShowHidden", "Delete", "pointsymm", "JoinPoints", "color" };
+        for ( int i = 0; i < count; i++ ) {
+            String action = ( i == 0 )? "vef" : actions[ random .nextInt( actions .length ) ];
+            if ( action .equals( "vef" ) ) {
+                Map<String,Object> params = new HashMap<>();
+                params .put( "vef", VEF );
+                params .put( "scale", doc .getField() .createPower( random .nextInt( 3 ) ) );
+                doc .doEdit( "LoadVEF/quaternion", params );
+            }
+            else if ( action .equals( "pick" ) ) {
+                Manifestation m = pick( doc, random );
+                if ( m != null )
+                    doc .doPickEdit( m, "SelectManifestation" );
+            }
+            else if ( action .equals( "color" ) ) {
+                Color color = new Color( random .nextInt( 256 ), random .nextInt( 256 ), random .nextInt( 256 ) );
+                doc .doEdit( "ColorManifestations/" + Integer .toHexString( color .getRGBA() ) );
+            }
+            else
+                doc .doEdit( action );
+        }
+    }
+
+    private static Manifestation pick( DocumentModel doc, Random random )
+    {
+        List<Manifestation> all = new ArrayList<>();
+        for ( Manifestation m : doc .getEditorModel() .getRealizedModel() )
+            if ( m .isRendered() )
+                all .add( m );
+        return all .isEmpty()? null : all .get( random .nextInt( all .size() ) );
+    }
+
+    @Test
+    public void testCachedMatchesReplayed() throws Exception
+    {
+        Application app = createApplication();
+        DocumentModel original = app .createDocument( "golden" );
+        Random random = new Random( 7 );
+        edit( original, random, 80 );
+        // make sure the saved state has colors, hidden manifestations and a selection
+        original .doEdit( "DeselectAll" );
+        original .doPickEdit( pick( original, random ), "SelectManifestation" );
+        original .doEdit( "ColorManifestations/0a141eff" );
+        original .doEdit( "DeselectAll" );
+        original .doPickEdit( pick( original, random ), "SelectManifestation" );
+        original .doEdit( "hideball" );
+        original .doPickEdit( pick( original, random ), "SelectManifestation" );
+        original .doPickEdit( pick( original, random ), "SelectManifestation" );
+        // undo an edit, so the saved edit is not the last
+        original .doEdit( "SelectAll" );
+        EditHistory history = original .getHistoryModel();
+        history .goToEdit( history .getEditNumber() - 1 );
+        ByteArrayOutputStream xml = new ByteArrayOutputStream();
+        ByteArrayOutputStream cache = new ByteArrayOutputStream();
+        original .serialize( xml, new Properties(), cache );
+
+        DocumentModel replayed = app .loadDocument( new ByteArrayInputStream( xml .toByteArray() ) );
+        replayed .finishLoading( false, false );
+        DocumentModel cached = app .loadDocument( new ByteArrayInputStream( xml .toByteArray() ) );
+        assertTrue( cached .loadModelCache( new ByteArrayInputStream( cache .toByteArray() ) ) );
+        String expected = fingerprint( replayed );
+        assertTrue( expected .contains( " true false " ) ); // hidden
+        assertTrue( expected .contains( "10,20,30" ) );
+        assertTrue( expected .contains( "selected" ) );
+        assertEquals( expected, fingerprint( cached ) );
+
+        // the first edit loads the history, so both continue alike, even from a cached pick
+        random = new Random( 11 );
+        Manifestation picked = pick( cached, random );
+        cached .doPickEdit( picked, "SelectManifestation" );
+        replayed .doPickEdit( replayed .getEditorModel() .getRealizedModel() .getManifestation( picked .toConstruction() ), "SelectManifestation" );
+        assertEquals( fingerprint( replayed ), fingerprint( cached ) );
+        assertEquals( replayed .getHistoryModel() .getEditNumber(), cached .getHistoryModel() .getEditNumber() );
+        edit( cached, new Random( 13 ), 20 );
+        edit( replayed, new Random( 13 ), 20 );
+        assertEquals( fingerprint( replayed ), fingerprint( cached ) );
+        cached .getHistoryModel() .goToEdit( 0 );
+        replayed .getHistoryModel() .goToEdit( 0 );
+        assertEquals( fingerprint( replayed ), fingerprint( cached ) );
+    }
+
+    private static List<String> describe( RenderedModel snapshot )
+    {
+        List<String> lines = new ArrayList<>();
+        if ( snapshot == null )
+            return lines;
+        for ( RenderedManifestation rm : snapshot )
+            lines .add( rm .getLocationAV() + " " + rm .getStrutZone() + " " + rm .getShape() .getVertexList() .size() + " "
+                    + rm .getColor() + " " + rm .getLabel() + " " + rm .getGlow() + " " + rm .getTransparency() );
+        Collections .sort( lines );
+        return lines;
+    }
+
+    @Test
+    public void testCachedLesson() throws Exception
+    {
+        Application app = createApplication();
+        DocumentModel original = app .createDocument( "golden" );
+        Random random = new Random( 5 );
+        for ( int i = 0; i < 4; i++ ) {
+            edit( original, random, 10 );
+            original .addSnapshotPage( original .getCamera() );
+        }
+        ByteArrayOutputStream xml = new ByteArrayOutputStream();
+        ByteArrayOutputStream cache = new ByteArrayOutputStream();
+        original .serialize( xml, new Properties(), cache );
+
+        DocumentModel replayed = app .loadDocument( new ByteArrayInputStream( xml .toByteArray() ) );
+        replayed .finishLoading( false, false );
+        DocumentModel cached = app .loadDocument( new ByteArrayInputStream( xml .toByteArray() ) );
+        assertTrue( cached .loadModelCache( new ByteArrayInputStream( cache .toByteArray() ) ) );
+        Set<Manifestation> fromCache = Collections .newSetFromMap( new IdentityHashMap<>() );
+        for ( Manifestation m : cached .getEditorModel() .getRealizedModel() )
+            fromCache .add( m );
+
+        List<Integer> expected = new ArrayList<>();
+        for ( PageModel page : replayed .getLesson() )
+            expected .add( page .getSnapshot() );
+        List<Integer> actual = new ArrayList<>();
+        for ( PageModel page : cached .getLesson() )
+            actual .add( page .getSnapshot() );
+        assertEquals( 4, expected .size() );
+        assertEquals( expected, actual );
+        RenderedModel[] replayedSnapshots = replayed .getSnapshots();
+        RenderedModel[] cachedSnapshots = cached .getSnapshots();
+        for ( int id : expected ) {
+            assertFalse( describe( replayedSnapshots[ id ] ) .isEmpty() );
+            assertEquals( describe( replayedSnapshots[ id ] ), describe( cachedSnapshots[ id ] ) );
+        }
+
+        // neither replayed the history
+        for ( Manifestation m : cached .getEditorModel() .getRealizedModel() )
+            assertTrue( fromCache .contains( m ) );
+
+        // and loading it later records the same snapshots, and keeps the lesson
+        cached .finishLoading( false, false );
+        assertEquals( 4, cached .getLesson() .size() );
+        for ( int id : expected )
+            assertEquals( describe( replayedSnapshots[ id ] ), describe( cached .getSnapshots()[ id ] ) );
+    }
+
+    @Test
+    public void testStaleCacheIgnored() throws Exception
+    {
+        Application app = createApplication();
+        DocumentModel original = app .createDocument( "golden" );
+        edit( original, new Random( 7 ), 30 );
+        ByteArrayOutputStream staleCache = new ByteArrayOutputStream();
+        original .serialize( new ByteArrayOutputStream(), new Properties(), staleCache );
+        original .doEdit( "SelectAll" );
+        original .doEdit( "hideball" );
+        ByteArrayOutputStream xml = new ByteArrayOutputStream();
+        original .serialize( xml, new Properties() );
+
+        DocumentModel doc = app .loadDocument( new ByteArrayInputStream( xml .toByteArray() ) );
+        String before = fingerprint( doc );
+        assertFalse( doc .loadModelCache( new ByteArrayInputStream( staleCache .toByteArray() ) ) );
+        assertEquals( before, fingerprint( doc ) );
+    }
+
+    @Test
+    public void testCorruptCacheIgnored() throws Exception
+    {
+        Application app = createApplication();
+        DocumentModel original = app .createDocument( "golden" );
+        edit( original, new Random( 7 ), 30 );
+        ByteArrayOutputStream xml = new ByteArrayOutputStream();
+        ByteArrayOutputStream cache = new ByteArrayOutputStream();
+        original .serialize( xml, new Properties(), cache );
+        byte[] bytes = cache .toByteArray();
+
+        DocumentModel doc = app .loadDocument( new ByteArrayInputStream( xml .toByteArray() ) );
+        String before = fingerprint( doc );
+
+        // truncated at every length, including within the header and the last selection index
+        for ( int length = 0; length < bytes.length; length++ ) {
+            assertFalse( doc .loadModelCache( new ByteArrayInputStream( Arrays .copyOf( bytes, length ) ) ) );
+            assertEquals( before, fingerprint( doc ) );
+        }
+
+        // a vertex index out of range, in the first manifestation after the header and vertices
+        byte[] corrupt = bytes .clone();
+        int index = firstManifestationOffset( corrupt ) + 1;
+        corrupt[ index ] = (byte) 0x7f;
+        assertFalse( doc .loadModelCache( new ByteArrayInputStream( corrupt ) ) );
+        assertEquals( before, fingerprint( doc ) );
+
+        // a vertex the field cannot parse, its last character being just before the manifestation count
+        corrupt = bytes .clone();
+        int vertex = firstManifestationOffset( corrupt ) - 5;
+        corrupt[ vertex ] = (byte) 'x';
+        assertFalse( doc .loadModelCache( new ByteArrayInputStream( corrupt ) ) );
+        assertEquals( before, fingerprint( doc ) );
+        assertTrue( doc .loadModelCache( new ByteArrayInputStream( bytes ) ) );
+    }
+
+    // the offset of the kind byte of the first manifestation
+    private static int firstManifestationOffset( byte[] cache ) throws Exception
+    {
+        DataInputStream data = new DataInputStream( new ByteArrayInputStream( cache ) );
+        int offset = 4 + 4;
+        data .skipBytes( offset );
+        int digestLength = data .readUnsignedShort();
+        data .skipBytes( digestLength );
+        offset += 2 + digestLength;
+        int vertices = data .readInt();
+        offset += 4;
+        for ( int i = 0; i < vertices; i++ )
+            offset += 2 + data .readUTF() .getBytes( StandardCharsets.UTF_8 ) .length;
+        return offset + 4;
+    }
+}
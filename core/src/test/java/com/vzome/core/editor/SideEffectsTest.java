@@ -0,0 +1,158 @@
+package com.vzome.core.editor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.construction.Color;
+import com.vzome.core.construction.FreePoint;
+import com.vzome.core.construction.Point;
+import com.vzome.core.construction.SegmentJoiningPoints;
+import com.vzome.core.editor.SelectionSummary.Listener;
+import com.vzome.core.editor.api.ChangeManifestations;
+import com.vzome.core.editor.api.EditorModel;
+import com.vzome.core.editor.api.OrbitSource;
+import com.vzome.core.editor.api.Selection;
+import com.vzome.core.math.Projection;
+import com.vzome.core.math.symmetry.Symmetries4D;
+import com.vzome.core.model.Manifestation;
+import com.vzome.core.model.RealizedModel;
+import com.vzome.core.model.RealizedModelImpl;
+import com.vzome.xml.DomSerializer;
+
+public class SideEffectsTest
+{
+    private static abstract class TestEdit extends ChangeManifestations
+    {
+        TestEdit( EditorModel editorModel )
+        {
+            super( editorModel );
+        }
+
+        @Override
+        protected String getXmlElementName()
+        {
+            return "TestEdit";
+        }
+
+        // expose the protected planning methods
+        void hide( Manifestation m )
+        {
+            hideManifestation( m );
+        }
+
+        void delete( Manifestation m )
+        {
+            deleteManifestation( m );
+        }
+
+        void unmanifest( Point p )
+        {
+            unmanifestConstruction( p );
+        }
+    }
+
+    private static String fingerprint( RealizedModel model, Selection selection )
+    {
+        List<String> lines = new ArrayList<>();
+        for ( Manifestation m : model )
+            lines .add( m + " " + m .isHidden() + " " + m .getColor() + " " + m .getLabel() );
+        // undo and redo may change the model order, but not the selection order
+        Collections .sort( lines );
+        for ( Manifestation m : selection )
+            lines .add( "selected " + m );
+        return String .join( "\n", lines );
+    }
+
+    @Test
+    public void testRedoUndoAndXml() throws ParserConfigurationException
+    {
+        AlgebraicField field = new PentagonField();
+        Selection selection = new SelectionImpl();
+        RealizedModel realized = new RealizedModelImpl( field, new Projection .Default( field ) );
+        EditorModel editorModel = new EditorModel()
+        {
+            @Override
+            public RealizedModel getRealizedModel() { return realized; }
+
+            @Override
+            public Selection getSelection() { return selection; }
+
+            @Override
+            public OrbitSource getSymmetrySystem() { return null; }
+
+            @Override
+            public OrbitSource getSymmetrySystem( String name ) { return null; }
+
+            @Override
+            public Symmetries4D get4dSymmetries() { return null; }
+
+            @Override
+            public void addSelectionSummaryListener( Listener listener ) {}
+        };
+
+        Point a = new FreePoint( field .basisVector( 3, 0 ) );
+        Point b = new FreePoint( field .basisVector( 3, 1 ) );
+        Point c = new FreePoint( field .basisVector( 3, 2 ) );
+        TestEdit setup = new TestEdit( editorModel ) {};
+        Manifestation ballA = setup .manifestConstruction( a );
+        Manifestation ballB = setup .manifestConstruction( b );
+        Manifestation ballC = setup .manifestConstruction( c );
+        Manifestation strut = setup .manifestConstruction( new SegmentJoiningPoints( a, b ) );
+        setup .select( ballA );
+        setup .select( ballC );
+        setup .redo();
+        String initial = fingerprint( realized, selection );
+
+        TestEdit edit = new TestEdit( editorModel ) {};
+        edit .setOrderedSelection( true );
+        edit .recordSelected( ballA );
+        edit .recordSelected( ballC );
+        edit .unselectAll();
+        edit .select( strut );
+        edit .select( ballB );
+        edit .colorManifestation( ballB, new Color( 10, 20, 30 ) );
+        edit .labelManifestation( ballB, "bee" );
+        edit .hide( strut );
+        edit .redo();
+        edit .delete( ballA );
+        edit .unmanifest( c );
+        edit .redo();
+        assertFalse( edit .isNoOp() );
+        assertFalse( edit .showsManifestation( ballB ) );
+        String done = fingerprint( realized, selection );
+
+        edit .undo();
+        assertEquals( initial, fingerprint( realized, selection ) );
+        edit .redo();
+        assertEquals( done, fingerprint( realized, selection ) );
+        edit .undo();
+        assertEquals( initial, fingerprint( realized, selection ) );
+
+        assertTrue( setup .showsManifestation( ballB ) );
+        assertTrue( setup .showsManifestation( strut ) );
+
+        Document doc = DocumentBuilderFactory .newInstance() .newDocumentBuilder() .newDocument();
+        String xml = DomSerializer .getXmlString( edit .getDetailXml( doc ) );
+        assertEquals( "<TestEdit><effects>"
+                + "<recordSelected/><recordSelected/>"
+                + "<deselect><point at=\"1 0 0 0 0 0\"/></deselect><deselect><point at=\"0 0 0 0 1 0\"/></deselect>"
+                + "<select><segment end=\"0 0 1 0 0 0\" start=\"1 0 0 0 0 0\"/></select><select><point at=\"0 0 1 0 0 0\"/></select>"
+                + "<color rgb=\"10,20,30\"><point at=\"0 0 1 0 0 0\"/></color><label text=\"bee\"><point at=\"0 0 1 0 0 0\"/></label>"
+                + "<hide><segment end=\"0 0 1 0 0 0\" start=\"1 0 0 0 0 0\"/></hide>"
+                + "<delete><point at=\"1 0 0 0 0 0\"/></delete><mhide><point at=\"0 0 0 0 1 0\"/></mhide>"
+                + "</effects></TestEdit>", xml );
+    }
+}
@@ -0,0 +1,114 @@
+package com.vzome.core.exporters2d;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.Color;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vzome.core.math.RealVector;
+
+public class CoverageBufferTest
+{
+    // an axis-aligned rectangle, with depth given by its painting order
+    private static Java2dSnapshot.Polygon rectangle( float x0, float y0, float x1, float y1, float depth )
+    {
+        Java2dSnapshot.Polygon polygon = new Java2dSnapshot.Polygon( Color.GRAY );
+        polygon .addVertex( new RealVector( x0, y0, depth ) );
+        polygon .addVertex( new RealVector( x1, y0, depth ) );
+        polygon .addVertex( new RealVector( x1, y1, depth ) );
+        polygon .addVertex( new RealVector( x0, y1, depth ) );
+        polygon .close();
+        return polygon;
+    }
+
+    private static Java2dSnapshot snapshot( Java2dSnapshot.Polygon... polygons )
+    {
+        Java2dSnapshot snapshot = new Java2dSnapshot();
+        snapshot .setRect( new Rectangle2D.Float( 0f, 0f, 100f, 100f ) );
+        snapshot .setStrokeWidth( 2f );
+        for ( Java2dSnapshot.Polygon polygon : polygons )
+            snapshot .addPolygon( polygon );
+        snapshot .depthSort();
+        return snapshot;
+    }
+
+    @Test
+    public void testHiddenBehindOne()
+    {
+        Java2dSnapshot.Polygon hidden = rectangle( 20f, 20f, 30f, 30f, 0f );
+        Java2dSnapshot.Polygon partly = rectangle( 35f, 35f, 60f, 45f, 1f );
+        Java2dSnapshot.Polygon front = rectangle( 10f, 10f, 50f, 50f, 2f );
+        Java2dSnapshot snapshot = snapshot( front, partly, hidden );
+        CoverageBuffer.Report report = snapshot .removeOccludedPolygons( false );
+        assertEquals( 2, report .getKept() );
+        assertEquals( 1, report .getDropped() );
+        assertEquals( Arrays .asList( partly, front ), snapshot .getPolygons() );
+    }
+
+    @Test
+    public void testCopyIsCulledAlone()
+    {
+        Java2dSnapshot.Polygon hidden = rectangle( 20f, 20f, 30f, 30f, 0f );
+        Java2dSnapshot.Polygon front = rectangle( 10f, 10f, 50f, 50f, 1f );
+        Java2dSnapshot snapshot = snapshot( hidden, front );
+        Java2dSnapshot copy = snapshot .copy();
+        assertEquals( 1, copy .removeOccludedPolygons( false ) .getDropped() );
+        assertEquals( Arrays .asList( front ), copy .getPolygons() );
+        assertEquals( Arrays .asList( hidden, front ), snapshot .getPolygons() );
+        assertEquals( snapshot .getRect(), copy .getRect() );
+        assertEquals( snapshot .getStrokeWidth(), copy .getStrokeWidth(), 0f );
+    }
+
+    @Test
+    public void testHiddenBehindSeveral()
+    {
+        // the front rectangles share an edge, running through the middle of the one behind them
+        Java2dSnapshot.Polygon hidden = rectangle( 20f, 20f, 30f, 30f, 0f );
+        Java2dSnapshot.Polygon left = rectangle( 10f, 10f, 25.3f, 50f, 1f );
+        Java2dSnapshot.Polygon right = rectangle( 25.3f, 10f, 50f, 50f, 1f );
+        Java2dSnapshot snapshot = snapshot( hidden, left, right );
+        assertEquals( 1, snapshot .removeOccludedPolygons( false ) .getDropped() );
+
+        // with a gap between them, nothing is hidden
+        Java2dSnapshot.Polygon apart = rectangle( 26f, 10f, 50f, 50f, 1f );
+        snapshot = snapshot( hidden, left, apart );
+        assertEquals( 0, snapshot .removeOccludedPolygons( false ) .getDropped() );
+    }
+
+    @Test
+    public void testOutlines()
+    {
+        // the outline of the one behind would show around the edges of the front one
+        Java2dSnapshot.Polygon behind = rectangle( 20f, 20f, 30f, 30f, 0f );
+        Java2dSnapshot.Polygon front = rectangle( 19.8f, 19.8f, 30.2f, 30.2f, 1f );
+        assertEquals( 1, snapshot( behind, front ) .removeOccludedPolygons( false ) .getDropped() );
+        assertEquals( 0, snapshot( behind, front ) .removeOccludedPolygons( true ) .getDropped() );
+
+        front = rectangle( 18f, 18f, 32f, 32f, 1f );
+        assertEquals( 1, snapshot( behind, front ) .removeOccludedPolygons( true ) .getDropped() );
+    }
+
+    @Test
+    public void testOutsideAndTiny()
+    {
+        // anything reaching outside the rectangle is kept, even behind something bigger
+        Java2dSnapshot.Polygon outside = rectangle( -5f, 20f, 10f, 30f, 0f );
+        Java2dSnapshot.Polygon tiny = rectangle( 70.01f, 70.01f, 70.02f, 70.02f, 0f );
+        Java2dSnapshot.Polygon front = rectangle( -10f, 0f, 40f, 50f, 1f );
+        Java2dSnapshot snapshot = snapshot( outside, tiny, front );
+        assertEquals( 0, snapshot .removeOccludedPolygons( false ) .getDropped() );
+
+        // a polygon too small to contain any sample is still kept, when it is in front
+        List<Java2dSnapshot.Polygon> kept = snapshot .getPolygons();
+        assertEquals( 3, kept .size() );
+        Java2dSnapshot.Polygon back = rectangle( 69f, 69f, 71f, 71f, -1f );
+        snapshot = snapshot( back, tiny );
+        assertEquals( 0, snapshot .removeOccludedPolygons( false ) .getDropped() );
+        snapshot = snapshot( tiny, rectangle( 69f, 69f, 71f, 71f, 1f ) );
+        assertEquals( 1, snapshot .removeOccludedPolygons( false ) .getDropped() );
+    }
+}
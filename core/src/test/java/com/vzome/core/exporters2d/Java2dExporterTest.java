@@ -0,0 +1,143 @@
+package com.vzome.core.exporters2d;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.geom.PathIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.vzome.api.ForkJoinTaskRunner;
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.editor.SymmetrySystem;
+import com.vzome.core.generic.ChunkedLoop;
+import com.vzome.core.generic.TaskRunner;
+import com.vzome.core.kinds.GoldenFieldApplication;
+import com.vzome.core.math.RealVector;
+import com.vzome.core.model.ConnectorImpl;
+import com.vzome.core.model.StrutImpl;
+import com.vzome.core.render.Colors;
+import com.vzome.core.render.RenderedModel;
+import com.vzome.core.viewing.Camera;
+import com.vzome.core.viewing.Lights;
+
+public class Java2dExporterTest
+{
+    @After
+    public void tearDown()
+    {
+        ChunkedLoop .setTaskRunner( null );
+    }
+
+    private static RenderedModel model()
+    {
+        GoldenFieldApplication app = new GoldenFieldApplication( new PentagonField() );
+        AlgebraicField field = app .getField();
+        SymmetrySystem sys = new SymmetrySystem( null, app .getDefaultSymmetryPerspective(), null, new Colors( new Properties() ), true );
+        RenderedModel model = new RenderedModel( field, sys );
+        // a grid of balls joined by struts, so that many parts share a shape and orientation, and a depth
+        AlgebraicVector[][] grid = new AlgebraicVector[ 12 ][ 12 ];
+        for ( int i = 0; i < grid.length; i++ )
+            for ( int j = 0; j < grid[ i ].length; j++ ) {
+                grid[ i ][ j ] = field .basisVector( 3, 0 ) .scale( field .createRational( 2 * i ) )
+                        .plus( field .basisVector( 3, 1 ) .scale( field .createRational( 2 * j ) ) );
+                model .manifestationAdded( new ConnectorImpl( grid[ i ][ j ] ) );
+                if ( i > 0 )
+                    model .manifestationAdded( new StrutImpl( grid[ i - 1 ][ j ], grid[ i ][ j ] ) );
+                if ( j > 0 )
+                    model .manifestationAdded( new StrutImpl( grid[ i ][ j - 1 ], grid[ i ][ j ] ) );
+            }
+        return model;
+    }
+
+    private static List<String> render( RenderedModel model, boolean drawLines ) throws Exception
+    {
+        Lights lights = new Lights();
+        lights .setAmbientColor( new com.vzome.core.construction.Color( 40, 40, 40 ) );
+        lights .setBackgroundColor( new com.vzome.core.construction.Color( 0, 0, 0 ) );
+        lights .addDirectionLight( new com.vzome.core.construction.Color( 200, 200, 200 ), new RealVector( 1f, -1f, -1f ) );
+        Camera camera = new Camera();
+        Java2dSnapshot snapshot = new Java2dExporter() .render2d( model, camera .getViewMatrix(), camera .getEyeMatrix(), lights, 300, 400, drawLines, true );
+        List<String> paths = new ArrayList<>();
+        if ( drawLines )
+            for ( Java2dSnapshot.LineSegment line : snapshot .getLines() )
+                paths .add( describe( line .getColor(), line .getPath() .getPathIterator( null ) ) );
+        else
+            for ( Java2dSnapshot.Polygon polygon : snapshot .getPolygons() )
+                paths .add( describe( polygon .getColor(), polygon .getPath() .getPathIterator( null ) ) );
+        return paths;
+    }
+
+    private static String describe( Color color, PathIterator path )
+    {
+        StringBuilder buf = new StringBuilder( color .toString() );
+        float[] coords = new float[ 6 ];
+        for ( ; ! path .isDone(); path .next() )
+            buf .append( path .currentSegment( coords ) ) .append( Arrays .toString( coords ) );
+        return buf .toString();
+    }
+
+    // many small chunks, run last to first, whatever the machine
+    private static final TaskRunner REVERSED = new TaskRunner()
+    {
+        @Override
+        public int getParallelism()
+        {
+            return 64;
+        }
+
+        @Override
+        public void runAll( List<? extends Runnable> tasks )
+        {
+            for ( int i = tasks .size() - 1; i >= 0; i-- )
+                tasks .get( i ) .run();
+        }
+    };
+
+    @Test
+    public void testSameOrderWithAnyRunner() throws Exception
+    {
+        RenderedModel model = model();
+        for ( boolean drawLines : new boolean[]{ false, true } ) {
+            List<String> serial = render( model, drawLines );
+            assertTrue( serial .size() > 100 );
+            for ( TaskRunner runner : new TaskRunner[]{ REVERSED, new ForkJoinTaskRunner() } ) {
+                ChunkedLoop .setTaskRunner( runner );
+                assertEquals( serial, render( model, drawLines ) );
+                ChunkedLoop .setTaskRunner( null );
+            }
+        }
+    }
+
+    @Test
+    public void testEqualDepthsKeepModelOrder()
+    {
+        List<Java2dSnapshot.Polygon> polygons = new ArrayList<>();
+        Java2dSnapshot snapshot = new Java2dSnapshot();
+        for ( int i = 0; i < 50; i++ ) {
+            Java2dSnapshot.Polygon polygon = new Java2dSnapshot.Polygon( Color.GRAY );
+            float depth = i % 3;
+            polygon .addVertex( new RealVector( i, 0f, depth ) );
+            polygon .addVertex( new RealVector( i + 1, 0f, depth ) );
+            polygon .addVertex( new RealVector( i, 1f, depth ) );
+            polygon .close();
+            polygons .add( polygon );
+            snapshot .addPolygon( polygon );
+        }
+        snapshot .depthSort();
+        List<Java2dSnapshot.Polygon> expected = new ArrayList<>();
+        for ( int depth = 0; depth < 3; depth++ )
+            for ( Java2dSnapshot.Polygon polygon : polygons )
+                if ( polygon .compareTo( polygons .get( depth ) ) == 0 )
+                    expected .add( polygon );
+        assertEquals( expected, snapshot .getPolygons() );
+    }
+}
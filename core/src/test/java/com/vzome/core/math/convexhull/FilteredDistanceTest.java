@@ -0,0 +1,142 @@
+package com.vzome.core.math.convexhull;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicNumber;
+import com.vzome.core.algebra.AlgebraicNumberImpl;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.algebra.PolygonField;
+import com.vzome.core.algebra.RootThreeField;
+import com.vzome.core.algebra.RootTwoField;
+import com.vzome.core.algebra.SnubDodecField;
+
+public class FilteredDistanceTest
+{
+    private static AlgebraicNumber randomNumber( AlgebraicField field, Random random, int range )
+    {
+        int[] factors = new int[ field .getOrder() ];
+        for ( int i = 0; i < factors .length; i++ ) {
+            factors[ i ] = random .nextInt( 2 * range + 1 ) - range;
+        }
+        return field .createAlgebraicNumber( factors ) .dividedByInt( random .nextInt( 5 ) + 1 );
+    }
+
+    private static AlgebraicVector randomVector( AlgebraicField field, Random random, int range )
+    {
+        return new AlgebraicVector( randomNumber( field, random, range ), randomNumber( field, random, range ), randomNumber( field, random, range ) );
+    }
+
+    private static int checkSigns( AlgebraicField field )
+    {
+        Random random = new Random( 17 );
+        double[] unitTerms = RealApproximation.unitTerms( field );
+        // 89 - 55phi is tiny, and loses many bits to cancellation when evaluated
+        AlgebraicNumber tiny = field .createAlgebraicNumber( new int[]{ 89, -55 } );
+        int filtered = 0;
+        for ( int i = 0; i < 2000; i++ ) {
+            Vertex v0 = new Vertex( randomVector( field, random, 20 ), 0, unitTerms );
+            Vertex v1 = new Vertex( randomVector( field, random, 20 ), 1, unitTerms );
+            Vertex v2 = new Vertex( randomVector( field, random, 20 ), 2, unitTerms );
+            Face face = Face.createTriangle( v0, v1, v2 );
+
+            AlgebraicVector p;
+            switch ( i % 3 ) {
+            case 0: // anywhere
+                p = randomVector( field, random, 20 );
+                break;
+
+            case 1: // exactly on the plane
+                p = v0.pnt .plus( v1.pnt .minus( v0.pnt ) .scale( randomNumber( field, random, 3 ) ) )
+                        .plus( v2.pnt .minus( v0.pnt ) .scale( randomNumber( field, random, 3 ) ) );
+                break;
+
+            default: // just off the plane
+                p = v0.pnt .plus( v1.pnt .minus( v0.pnt ) .scale( randomNumber( field, random, 3 ) ) )
+                        .plus( face .getNormal() .scale( random .nextBoolean()? tiny : tiny .negate() ) );
+                break;
+            }
+            AlgebraicNumber exact = face .distanceToPlane( p );
+            int expected = exact .isZero()? 0 : exact .signum();
+            double approx = face .filteredDistanceToPlane( p, new RealApproximation( p, unitTerms ) );
+            assertEquals( "point " + i, expected, (int) Math .signum( approx ) );
+            if ( approx != exact .evaluate() )
+                ++ filtered;
+        }
+        return filtered;
+    }
+
+    @Test
+    public void testGoldenSigns()
+    {
+        // the points off the plane, at least, should mostly be decided without exact arithmetic
+        assertTrue( checkSigns( new PentagonField() ) > 600 );
+    }
+
+    @Test
+    public void testSnubDodecSigns()
+    {
+        assertTrue( checkSigns( new SnubDodecField( AlgebraicNumberImpl.FACTORY ) ) > 600 );
+    }
+
+    @Test
+    public void testUnknownFieldNeverFilters()
+    {
+        AlgebraicField field = new PolygonField( 10, AlgebraicNumberImpl.FACTORY );
+        assertEquals( Double.POSITIVE_INFINITY, RealApproximation.unitTermError( field ), 0d );
+        assertEquals( 0, checkSigns( field ) );
+    }
+
+    // a root of x^3 - 2x - phi, from Newton's method
+    private static BigDecimal xi( BigDecimal phi, MathContext mc )
+    {
+        BigDecimal x = new BigDecimal( "1.7" );
+        BigDecimal two = new BigDecimal( 2 ), three = new BigDecimal( 3 );
+        for ( int i = 0; i < 10; i++ ) {
+            BigDecimal f = x .pow( 3 ) .subtract( two .multiply( x ) ) .subtract( phi );
+            BigDecimal df = three .multiply( x .pow( 2 ) ) .subtract( two );
+            x = x .subtract( f .divide( df, mc ), mc );
+        }
+        return x;
+    }
+
+    private static void checkUnitTerms( AlgebraicField field, BigDecimal[] exact )
+    {
+        double[] unitTerms = RealApproximation.unitTerms( field );
+        double bound = RealApproximation.unitTermError( field );
+        for ( int i = 0; i < exact .length; i++ ) {
+            BigDecimal error = new BigDecimal( unitTerms[ i ] ) .subtract( exact[ i ] ) .abs();
+            assertTrue( field .getName() + " " + i, error .doubleValue() <= bound * exact[ i ] .doubleValue() );
+        }
+    }
+
+    @Test
+    public void testUnitTermErrors()
+    {
+        MathContext mc = new MathContext( 40 );
+        BigDecimal two = new BigDecimal( 2 );
+        BigDecimal root2 = two .sqrt( mc ), root3 = new BigDecimal( 3 ) .sqrt( mc );
+        BigDecimal phi = BigDecimal.ONE .add( new BigDecimal( 5 ) .sqrt( mc ) ) .divide( two, mc );
+        BigDecimal xi = xi( phi, mc );
+        checkUnitTerms( new RootTwoField(), new BigDecimal[]{ BigDecimal.ONE, root2 } );
+        checkUnitTerms( new RootThreeField(), new BigDecimal[]{ BigDecimal.ONE, root3 } );
+        checkUnitTerms( new PentagonField(), new BigDecimal[]{ BigDecimal.ONE, phi } );
+        checkUnitTerms( new SnubDodecField( AlgebraicNumberImpl.FACTORY ), new BigDecimal[]{
+                BigDecimal.ONE, phi, xi, phi .multiply( xi ), xi .multiply( xi ), xi .multiply( xi ) .multiply( phi ) } );
+    }
+
+    @Test
+    public void testRoundingErrorConstant()
+    {
+        // spelled out without Math.ulp, for JSweet
+        assertEquals( 16 * Math.ulp( 1d ), RealApproximation.ROUNDING_ERROR, 0d );
+    }
+}
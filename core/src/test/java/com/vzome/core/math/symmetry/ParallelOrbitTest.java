@@ -0,0 +1,145 @@
+package com.vzome.core.math.symmetry;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.vzome.api.ForkJoinTaskRunner;
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicNumber;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.algebra.Quaternion;
+import com.vzome.core.commands.CommandUniformH4Polytope;
+import com.vzome.core.generic.ChunkedLoop;
+import com.vzome.core.generic.TaskRunner;
+
+public class ParallelOrbitTest
+{
+    /**
+     * Records every call, numbering vertices like VefPrinter, so any change in the order
+     * or number of calls shows up.
+     */
+    private static class Recorder implements WythoffConstruction.Listener
+    {
+        private final List<String> calls = new ArrayList<>();
+
+        @Override
+        public Object addVertex( AlgebraicVector v )
+        {
+            calls .add( v .toString() );
+            return calls .size();
+        }
+
+        @Override
+        public Object addEdge( Object p1, Object p2 )
+        {
+            calls .add( p1 + "-" + p2 );
+            return null;
+        }
+
+        @Override
+        public Object addFace( Object[] vertices )
+        {
+            return null;
+        }
+    }
+
+    // the serial loop from WythoffConstruction
+    private static List<String> serialWythoff( CoxeterGroup group, int index, AlgebraicNumber[] edgeScales )
+    {
+        Recorder listener = new Recorder();
+        AlgebraicVector origin = group .getOrigin();
+        AlgebraicVector model = origin;
+        AlgebraicVector[] neighbors = new AlgebraicVector[4];
+        for ( int i = 0; i < 4; i++ )
+            if ( ( index & ( 1 << i ) ) != 0 )
+                model = model .plus( group .getWeight( i ) .scale( edgeScales[ i ] ) );
+        for ( int i = 0; i < 4; i++ )
+            neighbors[ i ] = ( ( index & ( 1 << i ) ) != 0 )? model .minus( group .getSimpleRoot( i ) .scale( edgeScales[ i ] ) ) : origin;
+        for ( int i = 0; i < group .getOrder(); i++ ) {
+            AlgebraicVector vector = group .groupAction( model, i );
+            Object p = listener .addVertex( vector );
+            for ( int e = 0; e < 4; e++ ) {
+                if ( neighbors[ e ] .equals( origin ) )
+                    continue;
+                AlgebraicVector other = group .groupAction( neighbors[ e ], i );
+                if ( ! other .equals( vector ) )
+                    listener .addEdge( p, listener .addVertex( other ) );
+            }
+        }
+        return listener .calls;
+    }
+
+    // the serial loop from CommandUniformH4Polytope
+    private static List<String> serialH4( AlgebraicField field, Quaternion[] roots, int index )
+    {
+        Recorder listener = new Recorder();
+        CommandUniformH4Polytope.H4Symmetry symm = new CommandUniformH4Polytope.H4Symmetry( field );
+        AlgebraicVector prototype = symm .getPrototype( index );
+        AlgebraicVector[] reflections = new AlgebraicVector[4];
+        for ( int mirror = 0; mirror < 4; mirror++ )
+            if ( ( index & ( 1 << mirror ) ) != 0 )
+                reflections[ mirror ] = symm .reflect( mirror, prototype );
+        for ( Quaternion outerRoot : roots ) {
+            for ( Quaternion innerRoot : roots ) {
+                AlgebraicVector vertex = innerRoot .leftMultiply( outerRoot .rightMultiply( prototype ) );
+                Object p1 = listener .addVertex( vertex );
+                for ( int mirror = 0; mirror < 4; mirror++ ) {
+                    if ( reflections[ mirror ] != null ) {
+                        AlgebraicVector other = innerRoot .leftMultiply( outerRoot .rightMultiply( reflections[ mirror ] ) );
+                        if ( ! other .equals( vertex ) )
+                            listener .addEdge( p1, listener .addVertex( other ) );
+                    }
+                }
+            }
+        }
+        return listener .calls;
+    }
+
+    // the serial default, and a parallel runner even on a single processor
+    private static final TaskRunner[] RUNNERS = new TaskRunner[]{ null, new ForkJoinTaskRunner() };
+
+    @After
+    public void restoreSerial()
+    {
+        ChunkedLoop .setTaskRunner( null );
+    }
+
+    @Test
+    public void testWythoffOrder()
+    {
+        AlgebraicField field = new PentagonField();
+        AlgebraicNumber[] edgeScales = new AlgebraicNumber[]{ field .one(), field .one(), field .createPower( 1 ), field .one() };
+        CoxeterGroup[] groups = new CoxeterGroup[]{ new A4Group( field ), new B4Group( field ), new D4Group( field ), new F4Group( field ) };
+        for ( TaskRunner runner : RUNNERS ) {
+            ChunkedLoop .setTaskRunner( runner );
+            for ( CoxeterGroup group : groups ) {
+                for ( int index : new int[]{ 0x1, 0x6, 0xF } ) {
+                    Recorder listener = new Recorder();
+                    WythoffConstruction .constructPolytope( group, index, index, edgeScales, group, listener );
+                    assertEquals( group .getClass() .getSimpleName() + " " + index, serialWythoff( group, index, edgeScales ), listener .calls );
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testH4Order()
+    {
+        AlgebraicField field = new PentagonField();
+        QuaternionicSymmetry h4 = new QuaternionicSymmetry( "H_4", "com/vzome/core/math/symmetry/H4roots.vef", field );
+        for ( TaskRunner runner : RUNNERS ) {
+            ChunkedLoop .setTaskRunner( runner );
+            for ( int index : new int[]{ 0x1, 0x9 } ) {
+                Recorder listener = new Recorder();
+                new CommandUniformH4Polytope( field, h4, index ) .generate( index, index, null, listener );
+                assertEquals( "H4 " + index, serialH4( field, h4 .getRoots(), index ), listener .calls );
+            }
+        }
+    }
+}
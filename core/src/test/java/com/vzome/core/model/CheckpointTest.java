@@ -0,0 +1,45 @@
+package com.vzome.core.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.math.Projection;
+
+public class CheckpointTest
+{
+    @Test
+    public void testRemovedManifestationsAreForgotten()
+    {
+        AlgebraicField field = new PentagonField();
+        RealizedModelImpl model = new RealizedModelImpl( field, new Projection .Default( field ) );
+        Manifestation a = new ConnectorImpl( field .basisVector( 3, AlgebraicVector.X ) );
+        Manifestation b = new ConnectorImpl( field .basisVector( 3, AlgebraicVector.Y ) );
+        Manifestation c = new ConnectorImpl( field .basisVector( 3, AlgebraicVector.Z ) );
+
+        // with no live checkpoint, a removed manifestation is not known at all
+        model .add( a );
+        model .add( b );
+        model .remove( a );
+        assertEquals( 2, model .prepareCheckpoint() );
+
+        // but a checkpoint taken since then knows that it must not be restored once a comes back
+        RealizedModelImpl.Checkpoint checkpoint = model .checkpoint();
+        assertTrue( model .isRestorable( checkpoint ) );
+        model .add( a );
+        assertFalse( model .isRestorable( checkpoint ) );
+
+        // a live checkpoint keeps the manifestations added since known, until it is discarded
+        checkpoint = model .checkpoint();
+        model .add( c );
+        model .remove( c );
+        assertEquals( 2 + 3, model .prepareCheckpoint() );
+        model .discard( checkpoint );
+        assertEquals( 2 + 2, model .prepareCheckpoint() );
+    }
+}
@@ -0,0 +1,102 @@
+package com.vzome.core.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.math.Projection;
+
+public class IncidenceIndexTest
+{
+    private static boolean isIncident( Manifestation m, AlgebraicVector loc )
+    {
+        if ( m instanceof Strut )
+            return loc .equals( m .getLocation() ) || loc .equals( ((Strut) m) .getEnd() );
+        if ( m instanceof Panel ) {
+            for ( AlgebraicVector vertex : (Panel) m )
+                if ( loc .equals( vertex ) )
+                    return true;
+            return false;
+        }
+        return loc .equals( m .getLocation() );
+    }
+
+    // the full scan that the index replaces
+    private static List<Manifestation> scan( RealizedModel model, AlgebraicVector[] locations )
+    {
+        List<Manifestation> result = new ArrayList<>();
+        for ( Manifestation m : model ) {
+            for ( AlgebraicVector loc : locations ) {
+                if ( isIncident( m, loc ) ) {
+                    result .add( m );
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void checkAll( RealizedModel model, AlgebraicVector[] grid, Random random )
+    {
+        for ( AlgebraicVector loc : grid ) {
+            AlgebraicVector[] locations = new AlgebraicVector[]{ loc };
+            assertEquals( scan( model, locations ), model .getIncidentManifestations( locations ) );
+            locations = new AlgebraicVector[]{ loc, grid[ random .nextInt( grid .length ) ] };
+            assertEquals( scan( model, locations ), model .getIncidentManifestations( locations ) );
+        }
+    }
+
+    @Test
+    public void testIndexMatchesScan()
+    {
+        AlgebraicField field = new PentagonField();
+        RealizedModelImpl model = new RealizedModelImpl( field, new Projection .Default( field ) );
+        Random random = new Random( 7 );
+
+        AlgebraicVector[] grid = new AlgebraicVector[ 27 ];
+        for ( int i = 0; i < grid .length; i++ )
+            grid[ i ] = new AlgebraicVector( field .createRational( i % 3 ), field .createRational( ( i / 3 ) % 3 ), field .createRational( i / 9 ) );
+
+        List<Manifestation> made = new ArrayList<>();
+        RealizedModelImpl.Checkpoint checkpoint = null;
+        for ( int i = 0; i < 2000; i++ ) {
+            int action = random .nextInt( 10 );
+            AlgebraicVector p1 = grid[ random .nextInt( grid .length ) ];
+            AlgebraicVector p2 = grid[ random .nextInt( grid .length ) ];
+            AlgebraicVector p3 = grid[ random .nextInt( grid .length ) ];
+            if ( action < 2 )
+                made .add( new ConnectorImpl( p1 ) );
+            else if ( action < 4 && ! p1 .equals( p2 ) )
+                made .add( new StrutImpl( p1, p2 ) );
+            else if ( action < 5 && ! p1 .equals( p2 ) && ! p2 .equals( p3 ) && ! p3 .equals( p1 ) ) {
+                List<AlgebraicVector> vertices = new ArrayList<>();
+                vertices .add( p1 );
+                vertices .add( p2 );
+                vertices .add( p3 );
+                made .add( new PanelImpl( vertices ) );
+            }
+            else if ( action < 8 && ! made .isEmpty() )
+                // re-adding an equal manifestation replaces the one in the model
+                model .add( made .get( random .nextInt( made .size() ) ) );
+            else if ( action < 9 && ! made .isEmpty() )
+                model .remove( made .get( random .nextInt( made .size() ) ) );
+            else if ( checkpoint == null || random .nextBoolean() )
+                checkpoint = model .checkpoint();
+            else
+                model .restore( checkpoint );
+
+            if ( action < 5 && ! made .isEmpty() )
+                model .add( made .get( made .size() - 1 ) );
+            if ( i % 100 == 0 )
+                checkAll( model, grid, random );
+        }
+        checkAll( model, grid, random );
+    }
+}
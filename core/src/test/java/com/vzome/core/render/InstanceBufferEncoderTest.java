@@ -0,0 +1,109 @@
+package com.vzome.core.render;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.construction.Color;
+import com.vzome.core.editor.SymmetrySystem;
+import com.vzome.core.kinds.GoldenFieldApplication;
+import com.vzome.core.model.ConnectorImpl;
+import com.vzome.core.model.StrutImpl;
+
+public class InstanceBufferEncoderTest
+{
+    @Test
+    public void testFrames()
+    {
+        GoldenFieldApplication app = new GoldenFieldApplication( new PentagonField() );
+        AlgebraicField field = app .getField();
+        SymmetrySystem sys = new SymmetrySystem( null, app .getDefaultSymmetryPerspective(), null, new Colors( new Properties() ), true );
+        RenderedModel model = new RenderedModel( field, sys );
+
+        AlgebraicVector origin = field .origin( 3 );
+        AlgebraicVector x = field .basisVector( 3, 0 ) .scale( field .createRational( 2 ) );
+        ConnectorImpl ball = new ConnectorImpl( x );
+        StrutImpl strut = new StrutImpl( origin, x );
+        model .manifestationAdded( ball );
+        model .manifestationAdded( strut );
+        List<RenderedManifestation> added = new ArrayList<>();
+        for ( RenderedManifestation rm : model )
+            added .add( rm );
+        RenderedManifestation ballRm = (RenderedManifestation) ball .getRenderedObject();
+        RenderedManifestation strutRm = (RenderedManifestation) strut .getRenderedObject();
+
+        InstanceBufferEncoder encoder = new InstanceBufferEncoder();
+        float[][] orientations = encoder .getOrientations( sys );
+        assertNotNull( orientations );
+        assertEquals( 60, orientations .length );
+        assertNull( encoder .getOrientations( sys ) );
+        int strutShape = encoder .shapeIndex( strutRm .getShape() );
+
+        ByteBuffer frame = encoder .encode( Collections .<UUID>emptyList(), added, Collections .<RenderedManifestation>emptyList() );
+        frame .order( ByteOrder.LITTLE_ENDIAN );
+        assertEquals( 4 * ( InstanceBufferEncoder.HEADER_WORDS + 2 * InstanceBufferEncoder.ADDED_WORDS ), frame .remaining() );
+        assertEquals( InstanceBufferEncoder.VERSION, frame .getInt() );
+        assertEquals( 0, frame .getInt() );
+        assertEquals( 2, frame .getInt() );
+        assertEquals( 0, frame .getInt() );
+        assertEquals( 0, frame .getInt() ); // the first id
+        for ( int i = 0; i < 2; i++ ) {
+            RenderedManifestation rm = added .get( i );
+            assertEquals( i, encoder .getId( rm ) );
+            assertEquals( encoder .shapeIndex( rm .getShape() ), frame .getInt() );
+            if ( rm == strutRm )
+                assertEquals( strutShape, encoder .shapeIndex( rm .getShape() ) );
+            float[] position = { frame .getFloat(), frame .getFloat(), frame .getFloat() };
+            float[] expected = ( rm == ballRm )? new float[]{ 2f, 0f, 0f } : new float[]{ 0f, 0f, 0f };
+            for ( int k = 0; k < 3; k++ )
+                assertEquals( expected[ k ], position[ k ], 1e-6f );
+            int orientation = frame .getInt();
+            assertEquals( ( rm == strutRm )? strutRm .getStrutZone() : 0, orientation );
+            Color color = rm .getColor();
+            assertEquals( color .getRed(), frame .get() & 0xFF );
+            assertEquals( color .getGreen(), frame .get() & 0xFF );
+            assertEquals( color .getBlue(), frame .get() & 0xFF );
+            assertEquals( color .getAlpha(), frame .get() & 0xFF );
+        }
+
+        // removing retires the id, so re-adding assigns a new one; unknown instances are skipped
+        int oldId = encoder .getId( ballRm );
+        List<UUID> removed = new ArrayList<>();
+        removed .add( ballRm .getGuid() );
+        removed .add( UUID .randomUUID() );
+        model .setManifestationColor( strut, new Color( 10, 20, 30, 40 ) );
+        model .setManifestationGlow( ball, true );
+        frame = encoder .encode( removed, Collections .singletonList( ballRm ), Collections .singletonList( strutRm ) );
+        frame .order( ByteOrder.LITTLE_ENDIAN );
+        assertEquals( 4 * ( InstanceBufferEncoder.HEADER_WORDS + 1 + InstanceBufferEncoder.ADDED_WORDS + InstanceBufferEncoder.CHANGED_WORDS ), frame .remaining() );
+        frame .getInt();
+        assertEquals( 1, frame .getInt() );
+        assertEquals( 1, frame .getInt() );
+        assertEquals( 1, frame .getInt() );
+        assertEquals( 2, frame .getInt() ); // the first id
+        assertEquals( 2, encoder .getId( ballRm ) );
+        assertEquals( oldId, frame .getInt() );
+        // a glowing ball
+        frame .position( frame .position() + 4 * 4 );
+        assertEquals( InstanceBufferEncoder.GLOWING, frame .getInt() );
+        frame .getInt();
+        assertEquals( encoder .getId( strutRm ), frame .getInt() );
+        assertEquals( 10, frame .get() );
+        assertEquals( 20, frame .get() );
+        assertEquals( 30, frame .get() );
+        assertEquals( 40, frame .get() );
+    }
+}
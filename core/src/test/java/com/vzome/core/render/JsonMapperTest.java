@@ -0,0 +1,101 @@
+package com.vzome.core.render;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.editor.SymmetrySystem;
+import com.vzome.core.kinds.GoldenFieldApplication;
+import com.vzome.core.model.ConnectorImpl;
+import com.vzome.core.model.PanelImpl;
+import com.vzome.core.model.StrutImpl;
+
+public class JsonMapperTest
+{
+    private interface Body
+    {
+        void write( JsonMapper mapper, JsonGenerator generator ) throws IOException;
+    }
+
+    private static String write( JsonMapper mapper, Body body ) throws IOException
+    {
+        StringWriter out = new StringWriter();
+        JsonGenerator generator = new JsonFactory() .createGenerator( out );
+        generator .useDefaultPrettyPrinter();
+        generator .setCodec( mapper .getObjectMapper() );
+        generator .writeStartArray();
+        body .write( mapper, generator );
+        generator .writeEndArray();
+        generator .close();
+        return out .toString();
+    }
+
+    @Test
+    public void testStreamingMatchesNodes() throws IOException
+    {
+        GoldenFieldApplication app = new GoldenFieldApplication( new PentagonField() );
+        AlgebraicField field = app .getField();
+        SymmetrySystem sys = new SymmetrySystem( null, app .getDefaultSymmetryPerspective(), null, new Colors( new Properties() ), true );
+        RenderedModel model = new RenderedModel( field, sys );
+
+        AlgebraicVector origin = field .origin( 3 );
+        AlgebraicVector x = field .basisVector( 3, 0 ) .scale( field .createRational( 2 ) );
+        AlgebraicVector y = field .basisVector( 3, 1 ) .scale( field .createPower( 1 ) );
+        ConnectorImpl ball = new ConnectorImpl( origin );
+        ball .setLabel( "origin" );
+        model .manifestationAdded( ball );
+        model .manifestationAdded( new ConnectorImpl( x ) );
+        model .manifestationAdded( new StrutImpl( origin, x ) );
+        model .manifestationAdded( new StrutImpl( x, origin .minus( x ) ) );
+        model .manifestationAdded( new StrutImpl( origin, x .plus( y ) ) );
+        List<AlgebraicVector> vertices = new ArrayList<>();
+        vertices .add( origin );
+        vertices .add( x );
+        vertices .add( y );
+        model .manifestationAdded( new PanelImpl( vertices ) );
+        for ( RenderedManifestation rm : model )
+            if ( rm .getManifestation() == ball )
+                rm .setGlow( 0.5f );
+
+        for ( boolean justTriangles : new boolean[]{ false, true } ) {
+            for ( boolean sharedOrientations : new boolean[]{ false, true } ) {
+                String nodes = write( new JsonMapper( JsonMapper.RealTrianglesView.class, false, justTriangles ), ( mapper, generator ) -> {
+                    for ( RenderedManifestation rm : model ) {
+                        ObjectNode shape = mapper .getShapeNode( rm .getShape() );
+                        if ( shape != null )
+                            generator .writeTree( shape );
+                        generator .writeTree( mapper .getObjectNode( rm, sharedOrientations ) );
+                    }
+                } );
+                String streamed = write( new JsonMapper( JsonMapper.RealTrianglesView.class, false, justTriangles ), ( mapper, generator ) -> {
+                    for ( RenderedManifestation rm : model ) {
+                        mapper .writeShape( rm .getShape(), generator );
+                        mapper .writeInstance( rm, sharedOrientations, generator );
+                    }
+                } );
+                assertEquals( nodes, streamed );
+            }
+        }
+
+        // a shape is written only once
+        JsonMapper mapper = new JsonMapper();
+        write( mapper, ( m, generator ) -> {
+            RenderedManifestation rm = model .iterator() .next();
+            m .writeShape( rm .getShape(), generator );
+            assertFalse( m .writeShape( rm .getShape(), generator ) );
+        } );
+    }
+}
@@ -1,25 +1,40 @@
 package com.vzome.core.render;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
 
 import org.junit.Test;
 
 import com.vzome.core.algebra.AlgebraicNumber;
 import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.AlgebraicField;
 import com.vzome.core.algebra.HeptagonField;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.construction.Color;
 import com.vzome.core.editor.SymmetryPerspective;
 import com.vzome.core.editor.SymmetrySystem;
 import com.vzome.core.editor.api.Shapes;
+import com.vzome.core.kinds.GoldenFieldApplication;
 import com.vzome.core.kinds.HeptagonFieldApplication;
 import com.vzome.core.math.RealVector;
 import com.vzome.core.math.symmetry.Axis;
 import com.vzome.core.math.symmetry.Direction;
 import com.vzome.core.math.symmetry.OrbitSet;
 import com.vzome.core.math.symmetry.Symmetry;
+import com.vzome.core.model.Connector;
+import com.vzome.core.model.ConnectorImpl;
 import com.vzome.core.model.Strut;
 import com.vzome.core.model.StrutImpl;
 
@@ -186,4 +201,164 @@ public class RenderedModelTest
 	    strut = new StrutImpl( origin, expected .normal() );
 		model .manifestationAdded( strut );
 	}
+
+	private static final class EventRecorder implements RenderingChanges
+	{
+		private final List<String> events = new ArrayList<>();
+
+		@Override
+		public void manifestationAdded( RenderedManifestation rm ) { events .add( "added " + rm .getLocationAV() ); }
+
+		@Override
+		public void manifestationRemoved( RenderedManifestation rm ) { events .add( "removed " + rm .getLocationAV() ); }
+
+		@Override
+		public void manifestationSwitched( RenderedManifestation from, RenderedManifestation to ) { events .add( "switched " + to .getLocationAV() ); }
+
+		@Override
+		public void glowChanged( RenderedManifestation rm ) { events .add( "glow " + rm .getLocationAV() ); }
+
+		@Override
+		public void colorChanged( RenderedManifestation rm ) { events .add( "color " + rm .getLocationAV() ); }
+
+		@Override
+		public void shapeChanged( RenderedManifestation rm ) { fail( "should not be called" ); }
+
+		@Override
+		public void reset() { fail( "should not be called" ); }
+
+		@Override
+		public void orientationChanged( RenderedManifestation rm ) { fail( "should not be called" ); }
+
+		@Override
+		public void locationChanged( RenderedManifestation rm ) { fail( "should not be called" ); }
+
+		@Override
+		public void labelChanged( RenderedManifestation rm ) { fail( "should not be called" ); }
+
+		@Override
+		public boolean shapesChanged( Shapes shapes ) { fail( "should not be called" ); return false; }
+	}
+
+	@Test
+	public void testRenderChange()
+	{
+		HeptagonField field = new HeptagonField();
+		RenderedManifestation a = new RenderedManifestation( new ConnectorImpl( field .basisVector( 3, 0 ) ), null );
+		RenderedManifestation b = new RenderedManifestation( new ConnectorImpl( field .basisVector( 3, 1 ) ), null );
+		RenderedManifestation c = new RenderedManifestation( new ConnectorImpl( field .basisVector( 3, 2 ) ), null );
+		a .setColor( Color.WHITE );
+		RenderedManifestation aCopy = a .copy();
+		aCopy .setColor( Color.BLACK );
+		aCopy .setGlow( 0.8f );
+
+		RenderedModel from = new RenderedModel( null, null );
+		from .mRendered .add( a );
+		from .mRendered .add( b );
+		RenderedModel to = new RenderedModel( null, null );
+		to .mRendered .add( aCopy );
+		to .mRendered .add( c );
+		to .mRendered .add( b );
+
+		int[] reported = new int[3];
+		RenderedModel .setRenderChangeMetrics( ( removed, added, switched, nanos ) -> {
+			reported[0] = removed;
+			reported[1] = added;
+			reported[2] = switched;
+		} );
+		EventRecorder recorder = new EventRecorder();
+		try {
+			RenderedModel .renderChange( from, to, recorder );
+		} finally {
+			RenderedModel .setRenderChangeMetrics( null );
+		}
+
+		// copies are distinct instances, so "a" is removed and re-added as well as switched
+		Set<String> expected = new HashSet<>( Arrays.asList(
+				"removed " + a .getLocationAV(),
+				"added " + aCopy .getLocationAV(),
+				"added " + c .getLocationAV(),
+				"switched " + a .getLocationAV(),
+				"switched " + b .getLocationAV(),
+				"glow " + a .getLocationAV(),
+				"color " + a .getLocationAV() ) );
+		assertEquals( expected, new HashSet<>( recorder .events ) );
+		assertEquals( expected .size(), recorder .events .size() );
+		assertArrayEquals( new int[]{ 1, 2, 2 }, reported );
+		// removals are reported first, then additions, then the switches
+		assertEquals( "removed " + a .getLocationAV(), recorder .events .get( 0 ) );
+	}
+
+	@Test
+	public void testNearbyBall()
+	{
+		GoldenFieldApplication app = new GoldenFieldApplication( new PentagonField() );
+		AlgebraicField field = app .getField();
+		SymmetrySystem sys = new SymmetrySystem( null, app .getDefaultSymmetryPerspective(), null, new Colors( new Properties() ), true );
+		RenderedModel model = new RenderedModel( field, sys );
+
+		Random random = new Random( 1234 );
+		List<ConnectorImpl> balls = new ArrayList<>();
+		for ( int i = 0; i < 300; i++ ) {
+			AlgebraicVector location = field .createIntegerVector( new int[][]{
+				{ random .nextInt( 41 ) - 20, 1 }, { random .nextInt( 41 ) - 20, 1 }, { random .nextInt( 41 ) - 20, 1 } } );
+			ConnectorImpl ball = new ConnectorImpl( location );
+			balls .add( ball );
+			model .manifestationAdded( ball );
+			if ( i % 3 == 0 ) {
+				// blue struts of assorted lengths, which the index ignores
+				AlgebraicVector offset = field .createIntegerVector( new int[][]{ { 2 * ( 1 + random .nextInt( 12 ) ), 1 }, { 0, 1 }, { 0, 1 } } );
+				model .manifestationAdded( new StrutImpl( location, location .plus( offset ) ) );
+			}
+		}
+		// exercise incremental removal after the index exists
+		assertNotNull( model .getNearbyBall( model .renderVector( balls .get( 0 ) .getLocation() ), 0.1d ) );
+		for ( int i = 0; i < 50; i++ ) {
+			model .manifestationRemoved( balls .get( i ) );
+		}
+
+		for ( int q = 0; q < 100; q++ ) {
+			RealVector point = new RealVector( random .nextDouble() * 50 - 25, random .nextDouble() * 50 - 25, random .nextDouble() * 50 - 25 );
+			double tolerance = random .nextDouble() * 6;
+
+			RenderedManifestation nearest = null;
+			double best = tolerance;
+			for ( RenderedManifestation rm : model ) {
+				if ( rm .getManifestation() instanceof Connector ) {
+					double distance = rm .getLocation() .minus( point ) .length();
+					if ( distance < best ) {
+						best = distance;
+						nearest = rm;
+					}
+				}
+			}
+			assertEquals( nearest, model .getNearbyBall( point, tolerance ) );
+		}
+		assertNull( model .getNearbyBall( new RealVector( 1000d, 1000d, 1000d ), 1d ) );
+	}
+
+	@Test
+	public void testSpatialIndexUsesIdentity()
+	{
+		GoldenFieldApplication app = new GoldenFieldApplication( new PentagonField() );
+		AlgebraicField field = app .getField();
+		SymmetrySystem sys = new SymmetrySystem( null, app .getDefaultSymmetryPerspective(), null, new Colors( new Properties() ), true );
+		AlgebraicVector location = field .basisVector( 3, AlgebraicVector.X );
+		// equal, since they have the same geometry, but distinct
+		RenderedManifestation first = new RenderedManifestation( new ConnectorImpl( location ), sys );
+		RenderedManifestation second = new RenderedManifestation( new ConnectorImpl( location ), sys );
+		assertEquals( first, second );
+
+		SpatialIndex index = new SpatialIndex( 4d );
+		index .add( first );
+		index .add( second );
+		assertEquals( 2, index .size() );
+		index .remove( first );
+		assertEquals( 1, index .size() );
+		assertSame( second, index .nearestBall( first .getLocation(), 0.1d ) );
+		index .remove( first );
+		assertSame( second, index .nearestBall( first .getLocation(), 0.1d ) );
+		index .remove( second );
+		assertNull( index .nearestBall( first .getLocation(), 0.1d ) );
+	}
 }
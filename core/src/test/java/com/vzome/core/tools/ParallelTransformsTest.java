@@ -0,0 +1,191 @@
+package com.vzome.core.tools;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.vzome.api.ForkJoinTaskRunner;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.commands.Command.Failure;
+import com.vzome.core.construction.Color;
+import com.vzome.core.construction.Construction;
+import com.vzome.core.construction.FreePoint;
+import com.vzome.core.construction.Point;
+import com.vzome.core.construction.PolygonFromVertices;
+import com.vzome.core.construction.SegmentJoiningPoints;
+import com.vzome.core.editor.ApplyTool;
+import com.vzome.core.editor.EditorModelImpl;
+import com.vzome.core.editor.ToolsModel;
+import com.vzome.core.editor.api.EditorModel;
+import com.vzome.core.generic.ChunkedLoop;
+import com.vzome.core.generic.TaskRunner;
+import com.vzome.core.math.Projection;
+import com.vzome.core.math.symmetry.IcosahedralSymmetry;
+import com.vzome.core.model.Manifestation;
+import com.vzome.core.model.RealizedModelImpl;
+
+public class ParallelTransformsTest
+{
+    private static final Color RED = new Color( 0xFF, 0, 0 ), BLUE = new Color( 0, 0, 0xFF );
+
+    @Test
+    public void testSameAsSerial()
+    {
+        AlgebraicField field = new PentagonField();
+        ToolsModel tools = createTools( field );
+        SymmetryTool tool = createTool( field, tools );
+
+        List<Construction> inputs = new ArrayList<>();
+        Point origin = new FreePoint( field .origin( 3 ) );
+        for ( int i = 1; i <= 300; i++ ) {
+            Point p = new FreePoint( field .basisVector( 3, i % 3 ) .scale( field .createAlgebraicNumber( new int[]{ i, i % 7 } ) ) );
+            inputs .add( ( i % 2 == 0 )? p : new SegmentJoiningPoints( origin, p ) );
+        }
+        // the serial default, and a parallel runner even on a single processor
+        for ( TaskRunner runner : new TaskRunner[]{ null, new ForkJoinTaskRunner() } ) {
+            ChunkedLoop .setTaskRunner( runner );
+            Construction[][] results = ParallelTransforms .transform( tool, inputs );
+            assertEquals( inputs .size(), results .length );
+            for ( int i = 0; i < inputs .size(); i++ ) {
+                Construction[] expected = tool .transformInput( inputs .get( i ) );
+                assertEquals( expected .length, results[ i ] .length );
+                for ( int j = 0; j < expected .length; j++ )
+                    assertEquals( expected[ j ] .getSignatureKey(), results[ i ][ j ] .getSignatureKey() );
+            }
+        }
+    }
+
+    @After
+    public void restoreSerial()
+    {
+        ChunkedLoop .setTaskRunner( null );
+    }
+
+    @Test
+    public void testSharedPoints()
+    {
+        AlgebraicField field = new PentagonField();
+        ToolsModel tools = createTools( field );
+        SymmetryTool tool = createTool( field, tools );
+
+        // a triangle with its edges and vertices, so every vertex is shared
+        Point[] vertices = {
+            new FreePoint( field .basisVector( 3, 0 ) ),
+            new FreePoint( field .basisVector( 3, 1 ) .scale( field .createPower( 1 ) ) ),
+            new FreePoint( field .basisVector( 3, 2 ) .scale( field .createRational( 2 ) ) )
+        };
+        List<Construction> inputs = new ArrayList<>();
+        for ( int i = 0; i < 3; i++ ) {
+            inputs .add( vertices[ i ] );
+            inputs .add( new SegmentJoiningPoints( vertices[ i ], vertices[ ( i + 1 ) % 3 ] ) );
+        }
+        inputs .add( new PolygonFromVertices( vertices ) );
+
+        TransformedPoints points = new TransformedPoints( tool );
+        for ( Construction input : inputs ) {
+            Construction[] expected = tool .transformInput( input );
+            Construction[] results = tool .transformInput( input, points );
+            assertEquals( expected .length, results .length );
+            for ( int j = 0; j < expected .length; j++ )
+                assertEquals( expected[ j ] .getSignatureKey(), results[ j ] .getSignatureKey() );
+        }
+        // each vertex is transformed once per transform, and reused by two struts and the panel
+        int transforms = tool .transforms.length;
+        assertEquals( 3 * transforms, points .getMisses() );
+        assertEquals( 3 * 3 * transforms, points .getHits() );
+    }
+
+    @Test
+    public void testOneMemoWhenSerial()
+    {
+        AlgebraicField field = new PentagonField();
+        ToolsModel tools = createTools( field );
+        SymmetryTool tool = createTool( field, tools );
+
+        // the first and last inputs are the same point, far enough apart to be in different chunks if there were any
+        List<Construction> inputs = new ArrayList<>();
+        for ( int i = 0; i < 600; i++ )
+            inputs .add( new FreePoint( field .basisVector( 3, 0 ) .scale( field .createRational( ( i == 599 )? 1 : i + 1 ) ) ) );
+        Construction[][] results = ParallelTransforms .transform( tool, inputs );
+        for ( int j = 0; j < results[ 0 ] .length; j++ )
+            assertSame( results[ 0 ][ j ], results[ 599 ][ j ] );
+    }
+
+    @Test
+    public void testInputsChangedByEarlierOutputs() throws Failure
+    {
+        // The second input is an output for the first, so the first recolors it before it is
+        //  transformed in turn, and its outputs take that color.
+        AlgebraicField field = new PentagonField();
+        ToolsModel tools = createTools( field );
+        SymmetryTool tool = createTool( field, tools );
+        EditorModel editor = tools .getEditorModel();
+        RealizedModelImpl model = (RealizedModelImpl) editor .getRealizedModel();
+
+        // in general position, so its orbit has 60 points
+        AlgebraicVector first = field .basisVector( 3, 0 ) .scale( field .createAlgebraicNumber( new int[]{ 2, 1 } ) )
+                .plus( field .basisVector( 3, 1 ) .scale( field .createRational( 3 ) ) )
+                .plus( field .basisVector( 3, 2 ) );
+        AlgebraicVector second = tool .transforms[ 0 ] .transform( first );
+        editor .getSelection() .select( addBall( model, first, RED ) );
+        editor .getSelection() .select( addBall( model, second, BLUE ) );
+
+        new ApplyTool( tools, tool, true, false, true, true, false, true ) .perform();
+
+        // the orbit, and the center of the symmetry
+        assertEquals( 61, model .size() );
+        for ( Manifestation m : model )
+            if ( ! m .getLocation() .isOrigin() )
+                assertEquals( RED, m .getColor() );
+
+        // without copying colors, nothing is colored
+        tools = createTools( field );
+        tool = createTool( field, tools );
+        editor = tools .getEditorModel();
+        model = (RealizedModelImpl) editor .getRealizedModel();
+        Manifestation ball = addBall( model, first, null );
+        editor .getSelection() .select( ball );
+        new ApplyTool( tools, tool, true, false, true, true, false, false ) .perform();
+        assertEquals( 61, model .size() );
+        for ( Manifestation m : model )
+            assertNull( m .getColor() );
+    }
+
+    private static Manifestation addBall( RealizedModelImpl model, AlgebraicVector location, Color color )
+    {
+        Manifestation m = model .findConstruction( new FreePoint( location ) );
+        model .add( m );
+        model .show( m );
+        if ( color != null )
+            model .setColor( m, color );
+        return m;
+    }
+
+    private static ToolsModel createTools( AlgebraicField field )
+    {
+        Point originPoint = new FreePoint( field .origin( 3 ) );
+        RealizedModelImpl model = new RealizedModelImpl( field, new Projection.Default( field ) );
+        EditorModel editor = new EditorModelImpl( model, originPoint, null, null, new HashMap<>() );
+        ToolsModel tools = new ToolsModel( null, originPoint );
+        tools .setEditorModel( editor );
+        return tools;
+    }
+
+    private static SymmetryTool createTool( AlgebraicField field, ToolsModel tools )
+    {
+        SymmetryTool tool = new SymmetryTool( "icosahedral.auto/1", new IcosahedralSymmetry( field ), tools );
+        tool .setCategory( "icosahedral" );
+        tool .checkSelection( true );
+        return tool;
+    }
+}
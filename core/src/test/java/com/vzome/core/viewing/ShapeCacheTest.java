@@ -0,0 +1,196 @@
+package com.vzome.core.viewing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.editor.Application;
+import com.vzome.core.editor.DocumentModel;
+import com.vzome.core.editor.SymmetrySystem;
+import com.vzome.core.editor.api.Shapes;
+import com.vzome.core.editor.api.SymmetryAware;
+import com.vzome.core.kinds.GoldenFieldApplication;
+import com.vzome.core.math.Polyhedron;
+import com.vzome.core.model.ConnectorImpl;
+import com.vzome.core.model.Manifestation;
+import com.vzome.core.model.Panel;
+import com.vzome.core.model.StrutImpl;
+import com.vzome.core.render.Colors;
+import com.vzome.core.render.RenderedManifestation;
+import com.vzome.core.render.RenderedModel;
+import com.vzome.core.render.Scene;
+
+public class ShapeCacheTest
+{
+    private static Polyhedron shape( AlgebraicField field, int vertices )
+    {
+        Polyhedron shape = new Polyhedron( field );
+        for ( int i = 0; i < vertices; i++ )
+            shape .addVertex( field .basisVector( 3, 0 ) .scale( field .createRational( i ) ) );
+        return shape;
+    }
+
+    @Test
+    public void testEvictsOnlyUnused()
+    {
+        AlgebraicField field = new PentagonField();
+        ShapeCache<String> cache = new ShapeCache<>( "test", 10 );
+        Polyhedron a = cache .acquire( "a", key -> shape( field, 4 ) );
+        Polyhedron b = cache .acquire( "b", key -> shape( field, 4 ) );
+        Polyhedron c = cache .acquire( "c", key -> shape( field, 4 ) );
+        assertNull( cache .acquire( "none", key -> null ) );
+        assertNull( cache .acquire( "none", key -> shape( field, 4 ) ) );
+        assertSame( a, cache .acquire( "a", key -> shape( field, 4 ) ) );
+        assertEquals( 2, cache .getHits() );
+        assertEquals( 4, cache .getMisses() );
+
+        // a has two users, so it stays
+        cache .release( a );
+        cache .release( b );
+        cache .release( c );
+        assertEquals( 4, cache .getSize() );
+        assertEquals( 9, cache .getUnusedWeight() );
+
+        // exceeding the bound evicts the least recently used, starting with the null shape
+        Polyhedron d = cache .acquire( "d", key -> shape( field, 4 ) );
+        cache .release( d );
+        assertEquals( 2, cache .getEvictions() );
+        assertEquals( 3, cache .getSize() );
+        assertNotSame( b, cache .acquire( "b", key -> shape( field, 4 ) ) );
+        assertSame( c, cache .acquire( "c", key -> shape( field, 4 ) ) );
+        assertSame( a, cache .acquire( "a", key -> shape( field, 4 ) ) );
+
+        // releasing too often, or releasing a foreign shape, changes nothing
+        cache .release( d );
+        cache .release( shape( field, 4 ) );
+        assertEquals( 4, cache .getUnusedWeight() );
+    }
+
+    @Test
+    public void testRenderedModelReleases()
+    {
+        GoldenFieldApplication app = new GoldenFieldApplication( new PentagonField() );
+        AlgebraicField field = app .getField();
+        SymmetrySystem sys = new SymmetrySystem( null, app .getDefaultSymmetryPerspective(), null, new Colors( new Properties() ), true );
+        RenderedModel model = new RenderedModel( field, sys );
+        AbstractShapes shapes = (AbstractShapes) sys .getShapes();
+        ShapeCache<List<Object>> cache = shapes .getStrutShapeCache();
+
+        AlgebraicVector origin = field .origin( 3 );
+        model .manifestationAdded( new ConnectorImpl( origin ) );
+        StrutImpl kept = new StrutImpl( origin, field .basisVector( 3, 0 ) .scale( field .createRational( 2 ) ) );
+        model .manifestationAdded( kept );
+        Polyhedron keptShape = ((RenderedManifestation) kept .getRenderedObject()) .getShape();
+
+        // many distinct lengths, each added and removed again, as in a long editing session
+        int lengths = 3000;
+        List<StrutImpl> struts = new ArrayList<>();
+        for ( int i = 1; i <= lengths; i++ ) {
+            StrutImpl strut = new StrutImpl( origin, field .basisVector( 3, 1 ) .scale( field .createRational( 2 * i ) ) );
+            model .manifestationAdded( strut );
+            struts .add( strut );
+            if ( struts .size() > 10 )
+                model .manifestationRemoved( struts .remove( 0 ) );
+        }
+        assertTrue( cache .getEvictions() > 0 );
+        assertEquals( cache .getMisses() - cache .getEvictions(), cache .getSize() );
+        assertTrue( cache .getSize() < lengths );
+        assertTrue( cache .getUnusedWeight() <= 1 << 14 );
+        for ( StrutImpl strut : struts ) {
+            Polyhedron shape = ((RenderedManifestation) strut .getRenderedObject()) .getShape();
+            assertSame( shape, shapes .getStrutShape( shape .getOrbit(), ((RenderedManifestation) strut .getRenderedObject()) .getStrutLength() ) );
+            shapes .releaseShape( shape );
+        }
+        assertSame( keptShape, shapes .getStrutShape( keptShape .getOrbit(), ((RenderedManifestation) kept .getRenderedObject()) .getStrutLength() ) );
+    }
+
+    private static void assertAllUnused( Shapes shapes )
+    {
+        ShapeCache<List<Object>> struts = ((AbstractShapes) shapes) .getStrutShapeCache();
+        ShapeCache<List<Object>> panels = ((AbstractShapes) shapes) .getPanelShapeCache();
+        assertEquals( struts .toString(), struts .getSize(), struts .getUnusedSize() );
+        assertEquals( panels .toString(), panels .getSize(), panels .getUnusedSize() );
+    }
+
+    @Test
+    public void testLookupsAndRenderingsRelease()
+    {
+        GoldenFieldApplication app = new GoldenFieldApplication( new PentagonField() );
+        AlgebraicField field = app .getField();
+        SymmetrySystem sys = new SymmetrySystem( null, app .getDefaultSymmetryPerspective(), null, new Colors( new Properties() ), true );
+        Shapes original = sys .getShapes();
+        AlgebraicVector origin = field .origin( 3 );
+
+        // a bare lookup holds nothing
+        assertNotNull( sys .getShape( field .basisVector( 3, 0 ) .scale( field .createRational( 3 ) ) ) );
+        assertTrue( ((AbstractShapes) original) .getStrutShapeCache() .getSize() > 0 );
+        assertAllUnused( original );
+
+        // switching the shapes of a Scene, and back again, leaves one use per rendered strut
+        RenderedModel model = new RenderedModel( field, sys );
+        model .addListener( new Scene( new Lights(), false, 0 ) );
+        model .manifestationAdded( new ConnectorImpl( origin ) );
+        List<StrutImpl> struts = new ArrayList<>();
+        for ( int i = 1; i <= 5; i++ ) {
+            StrutImpl strut = new StrutImpl( origin, field .basisVector( 3, i % 3 ) .scale( field .createRational( 2 * i ) ) );
+            model .manifestationAdded( strut );
+            struts .add( strut );
+        }
+        String other = null;
+        for ( String name : sys .getStyleNames() )
+            if ( sys .getStyle( name ) != original && sys .getStyle( name ) instanceof AbstractShapes )
+                other = name;
+        sys .setStyle( other );
+        model .setShapes( sys .getShapes() );
+        sys .setStyle( original .getName() );
+        model .setShapes( sys .getShapes() );
+        for ( StrutImpl strut : struts )
+            model .manifestationRemoved( strut );
+        assertAllUnused( original );
+        assertAllUnused( sys .getStyle( other ) );
+    }
+
+    @Test
+    public void testReplaceWithShapeReleases()
+    {
+        DocumentModel doc = new Application( false, null, new Properties() ) .createDocument( "golden" );
+        Map<String,Object> params = new HashMap<>();
+        params .put( "vef", "vZome VEF 6 field golden\n"
+                + "3\n"
+                + "(0,0) (0,0) (0,0) (0,0)\n"
+                + "(0,0) (0,2) (0,0) (0,0)\n"
+                + "(0,0) (0,0) (0,2) (0,0)\n"
+                + "2\n"
+                + "0 1\n0 2\n"
+                + "0\n"
+                + "3\n"
+                + "0\n1\n2\n" );
+        params .put( "scale", doc .getField() .one() );
+        doc .doEdit( "LoadVEF/quaternion", params );
+        SymmetrySystem sys = (SymmetrySystem) ((SymmetryAware) doc .getEditorModel()) .getSymmetrySystem();
+        doc .doEdit( "SelectAll" );
+        doc .doEdit( "ReplaceWithShape/" + sys .getName() + ":" + sys .getStyle() .getName() );
+
+        // only panels are left, so none of the strut shapes are in use
+        for ( Manifestation m : doc .getEditorModel() .getRealizedModel() )
+            if ( m .isRendered() )
+                assertTrue( m instanceof Panel );
+        ShapeCache<List<Object>> struts = ((AbstractShapes) sys .getStyle()) .getStrutShapeCache();
+        assertTrue( struts .getSize() > 0 );
+        assertEquals( struts .toString(), struts .getSize(), struts .getUnusedSize() );
+    }
+}
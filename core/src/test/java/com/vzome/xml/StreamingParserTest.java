@@ -0,0 +1,117 @@
+package com.vzome.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+public class StreamingParserTest
+{
+    private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<vzome:vZome xmlns:vzome=\"http://xml.vzome.com/vZome/4.0.0/\" field=\"golden\" version=\"7.0\">\n"
+            + "  <!-- a comment outside the history -->\n"
+            + "  <EditHistory editNumber=\"3\" lastStickyEdit=\"-1\">\n"
+            + "    <!-- a comment between edits -->\n"
+            + "    <LoadVEF>\n"
+            + "      <vef><![CDATA[vZome VEF 6 field golden\n1\n(0,0) (0,0) (0,0) (0,0)\n]]></vef>\n"
+            + "    </LoadVEF>\n"
+            + "    <SelectManifestation point=\"0 0 0 0 0 0\" vzome:mode=\"select\"/>\n"
+            + "    <ApplyTool name=\"bookmark.builtin/ball at origin\">\n"
+            + "      <!-- a comment inside an edit -->\n"
+            + "      <Nested a=\"1\">text &amp; more</Nested>\n"
+            + "    </ApplyTool>\n"
+            + "  </EditHistory>\n"
+            + "  <notes>\n"
+            + "    <page title=\"one\">some &lt;notes&gt;</page>\n"
+            + "  </notes>\n"
+            + "  <Tools/>\n"
+            + "</vzome:vZome>\n";
+
+    @Test
+    public void testSameAsDom() throws Exception
+    {
+        Element dom = DomParser .parseXml( new ByteArrayInputStream( XML .getBytes( StandardCharsets.UTF_8 ) ), true );
+        List<Element> edits = new ArrayList<>();
+        Element streamed = StreamingParser .parseXml( new ByteArrayInputStream( XML .getBytes( StandardCharsets.UTF_8 ) ),
+                Arrays .asList( "EditHistory", "editHistory" ), true, edits::add );
+
+        assertEquals( dom .getNamespaceURI(), streamed .getNamespaceURI() );
+        assertEquals( dom .getLocalName(), streamed .getLocalName() );
+        assertEquals( describe( dom .getElementsByTagName( "notes" ) .item( 0 ) ), describe( streamed .getElementsByTagName( "notes" ) .item( 0 ) ) );
+        assertEquals( describe( dom .getElementsByTagName( "Tools" ) .item( 0 ) ), describe( streamed .getElementsByTagName( "Tools" ) .item( 0 ) ) );
+
+        Element history = (Element) streamed .getElementsByTagName( "EditHistory" ) .item( 0 );
+        assertEquals( "3", history .getAttribute( "editNumber" ) );
+        assertEquals( 0, history .getChildNodes() .getLength() );
+
+        List<Element> expected = new ArrayList<>();
+        NodeList kids = dom .getElementsByTagName( "EditHistory" ) .item( 0 ) .getChildNodes();
+        for ( int i = 0; i < kids .getLength(); i++ )
+            if ( kids .item( i ) instanceof Element )
+                expected .add( (Element) kids .item( i ) );
+        assertEquals( 3, edits .size() );
+        assertEquals( expected .size(), edits .size() );
+        for ( int i = 0; i < edits .size(); i++ ) {
+            Element edit = edits .get( i );
+            assertNull( edit .getParentNode() );
+            assertEquals( describe( expected .get( i ) ), describe( edit ) );
+            LocationData location = (LocationData) edit .getUserData( LocationData.LOCATION_DATA_KEY );
+            LocationData domLocation = (LocationData) expected .get( i ) .getUserData( LocationData.LOCATION_DATA_KEY );
+            assertNotNull( location );
+            assertEquals( domLocation .getStartLine(), location .getStartLine() );
+            assertEquals( domLocation .getEndLine(), location .getEndLine() );
+        }
+        assertEquals( "select", edits .get( 1 ) .getAttributeNS( "http://xml.vzome.com/vZome/4.0.0/", "mode" ) );
+        assertTrue( edits .get( 0 ) .getTextContent() .contains( "vZome VEF 6 field golden" ) );
+    }
+
+    @Test
+    public void testNoLineNumbers() throws Exception
+    {
+        List<Element> edits = new ArrayList<>();
+        StreamingParser .parseXml( new ByteArrayInputStream( XML .getBytes( StandardCharsets.UTF_8 ) ),
+                Arrays .asList( "EditHistory" ), false, edits::add );
+        assertEquals( 3, edits .size() );
+        for ( Element edit : edits )
+            assertNull( edit .getUserData( LocationData.LOCATION_DATA_KEY ) );
+    }
+
+    private static String describe( Node node )
+    {
+        StringBuilder buf = new StringBuilder();
+        describe( node, buf );
+        return buf .toString();
+    }
+
+    private static void describe( Node node, StringBuilder buf )
+    {
+        buf .append( node .getNodeType() ) .append( ':' ) .append( node .getNodeName() );
+        if ( node instanceof Element ) {
+            Element element = (Element) node;
+            List<String> attributes = new ArrayList<>();
+            for ( int i = 0; i < element .getAttributes() .getLength(); i++ ) {
+                Node attribute = element .getAttributes() .item( i );
+                attributes .add( attribute .getNamespaceURI() + " " + attribute .getNodeName() + "=" + attribute .getNodeValue() );
+            }
+            attributes .sort( null );
+            buf .append( attributes ) .append( '{' );
+            NodeList kids = element .getChildNodes();
+            for ( int i = 0; i < kids .getLength(); i++ )
+                describe( kids .item( i ), buf );
+            buf .append( '}' );
+        }
+        else
+            buf .append( '[' ) .append( node .getNodeValue() ) .append( ']' );
+    }
+}
@@ -26,6 +26,7 @@ import org.vorthmann.j3d.J3dComponentFactory;
 import org.vorthmann.j3d.Platform;
 import org.vorthmann.zome.ui.ApplicationUI;
 
+import com.vzome.api.ForkJoinTaskRunner;
 import com.vzome.core.commands.Command.Failure;
 import com.vzome.core.commands.Command.FailureChannel;
 import com.vzome.core.editor.DocumentModel;
@@ -85,6 +86,8 @@ public class ApplicationController extends DefaultController
 
         this.ui = ui;
 
+        ForkJoinTaskRunner .install();
+
         File prefsFolder = Platform .getPreferencesFolder();        
         File prefsFile = new File( prefsFolder, "vZome.preferences" );
         if ( ! prefsFile .exists() ) {
@@ -851,7 +851,14 @@ public class DocumentController extends DefaultGraphicsController implements Sce
 
                 // A try-with-resources block closes the resource even if an exception occurs
                 try (FileOutputStream out = new FileOutputStream( file )) {
-                    documentModel .serialize( out, this .properties );
+                    // Sample prefs file entry: save.model.cache=true
+                    //  to save the model beside the file, so viewers and exporters need not replay the history
+                    if ( propertyIsTrue( "save.model.cache" ) )
+                        try (FileOutputStream cache = new FileOutputStream( file .getPath() + DocumentModel.MODEL_CACHE_SUFFIX )) {
+                            documentModel .serialize( out, this .properties, cache );
+                        }
+                    else
+                        documentModel .serialize( out, this .properties );
                 }
                 // just did a save, so lets record the document change count again,
                 //  so isEdited() will return false until more changes occur.
@@ -924,7 +931,7 @@ public class DocumentController extends DefaultGraphicsController implements Sce
                 String format = command .substring( "export2d." .length() ) .toLowerCase();
                 Java2dSnapshot snapshot = Java2dSnapshotController .capture2d( currentSnapshot, size.height, size.width, cameraController .getView(), sceneLighting, false, true );
                 Java2dSnapshotController controller = new Java2dSnapshotController( cameraController .getView(), sceneLighting, currentSnapshot, this .drawOutlines, this .mApp :: get2dExporter ); 
-                controller .export2d( snapshot, format, file, this .drawOutlines, false, true );
+                controller .export2d( snapshot, format, file, this .drawOutlines, false, true, propertyIsTrue( "export.2d.remove.occluded" ) );
                 this .openApplication( file );
                 return;
             }
@@ -11,7 +11,9 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.Writer;
 import java.util.function.Function;
+import java.util.logging.Logger;
 
+import com.vzome.core.exporters2d.CoverageBuffer;
 import com.vzome.core.exporters2d.Java2dExporter;
 import com.vzome.core.exporters2d.Java2dSnapshot;
 import com.vzome.core.exporters2d.SnapshotExporter;
@@ -42,6 +44,8 @@ public class Java2dSnapshotController extends DefaultGraphicsController
 
     private final Function<String, SnapshotExporter> exporters;
 
+    private static final Logger logger = Logger .getLogger( "com.vzome.desktop.awt.export2d" );
+
     
     public Java2dSnapshotController( Camera camera, Lights lights, RenderedModel model, boolean outlinePanels, Function<String, SnapshotExporter> exporters )
     {
@@ -152,7 +156,7 @@ public class Java2dSnapshotController extends DefaultGraphicsController
     {
         try {
             String format = command .substring( "export2d." .length() ) .toLowerCase();
-            export2d( snapshot, format, file, this .outlinePanels, this .monochrome, this .showBackground );
+            export2d( snapshot, format, file, this .outlinePanels, this .monochrome, this .showBackground, propertyIsTrue( "export.2d.remove.occluded" ) );
             openApplication( file );
         } catch ( Exception e ) {
             mErrors .reportError( UNKNOWN_ERROR_CODE, new Object[]{ e } );
@@ -231,9 +235,15 @@ public class Java2dSnapshotController extends DefaultGraphicsController
         return snapshot;
     }
 
-    public void export2d( Java2dSnapshot snapshot, String format, File file, boolean doOutlines, boolean monochrome, boolean showBackground ) throws Exception
+    public void export2d( Java2dSnapshot snapshot, String format, File file, boolean doOutlines, boolean monochrome, boolean showBackground, boolean removeOccluded ) throws Exception
     {
         SnapshotExporter exporter = this .exporters .apply( format );
+        if ( removeOccluded ) {
+            // the preview still shows the given snapshot, so cull a copy
+            snapshot = snapshot .copy();
+            CoverageBuffer.Report report = snapshot .removeOccludedPolygons( doOutlines );
+            logger .info( "2D export to " + file .getName() + ": " + report );
+        }
         // A try-with-resources block closes the resource even if an exception occurs
         try ( Writer out = new FileWriter( file ) ) {
             exporter .export( snapshot, out, doOutlines, monochrome, showBackground );
@@ -1,29 +1,119 @@
 package com.vzome.desktop.controller;
 
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.vzome.core.editor.api.Shapes;
+import com.vzome.core.render.InstanceBufferEncoder;
 import com.vzome.core.render.JsonMapper;
 import com.vzome.core.render.RenderedManifestation;
 import com.vzome.core.render.RenderingChanges;
 
+/**
+ * Forwards rendering changes to a client as JSON events.
+ *
+ * By default, every added or removed instance is a separate INSTANCE_ADDED or INSTANCE_REMOVED event.
+ * When batching, instance changes are collected instead, and dispatched together as one INSTANCES_CHANGED
+ * event, with "removed", "added" and "changed" arrays, to be applied in that order.  Within a batch,
+ * an instance added and then removed again is never sent, and a color change to an instance added
+ * in the same batch is folded into the added instance.  A batch is dispatched once it holds maxBatchSize
+ * changes, or maxLatency milliseconds after its first change, or on flush(), whichever comes first.
+ * SHAPE_DEFINED events are never batched, and always precede the batch that uses the shape.
+ *
+ * With an InstanceBufferEncoder and a FrameDispatcher, each batch is dispatched as a binary frame instead, and the JSON events
+ * carry only what the frames refer to: SHAPE_DEFINED gains the "index" of the shape, and
+ * ORIENTATIONS_DEFINED precedes the first frame using each orientation table.
+ */
 public class JsonClientRendering implements RenderingChanges
 {
+    private static final Logger logger = Logger .getLogger( "com.vzome.desktop.controller.client" );
+
+    private static ScheduledExecutorService SCHEDULER = null;
+
     private EventDispatcher dispatcher;
+
+    private final FrameDispatcher frameDispatcher;
     
     private final JsonMapper mapper = new JsonMapper();
 
     private boolean instanceStreamEnabled = true;
+
+    private final int maxBatchSize;
+
+    private final long maxLatency;
+
+    private final InstanceBufferEncoder encoder;
+
+    // keyed by instance id, so later changes in a batch can cancel or update earlier ones;
+    //  binary frames encode the instances on flush, so they carry their latest color
+    private final Map<UUID, RenderedManifestation> added = new LinkedHashMap<>();
+
+    // the shape id of each removed instance, which may have changed by the time of the flush
+    private final Map<UUID, String> removed = new LinkedHashMap<>();
+
+    private final Map<UUID, RenderedManifestation> changed = new LinkedHashMap<>();
+
+    // Without an encoder, the JSON for each added or changed instance, made when the change is queued,
+    //  since a scheduled flush runs on another thread, while the instances may be changing.
+    private final Map<UUID, ObjectNode> addedNodes = new LinkedHashMap<>();
+
+    private final Map<UUID, ObjectNode> changedNodes = new LinkedHashMap<>();
+
+    private ScheduledFuture<?> scheduledFlush = null;
 	
 	public interface EventDispatcher
 	{
 	    void dispatchEvent( String type, JsonNode node );
 	}
+
+	public interface FrameDispatcher extends EventDispatcher
+	{
+	    void dispatchFrame( ByteBuffer frame );
+	}
 	
 	public JsonClientRendering( EventDispatcher dispatcher, boolean instanceStreamEnabled )
 	{
+        this( dispatcher, instanceStreamEnabled, 1, 0 );
+	}
+
+	/**
+	 * @param maxBatchSize the most instance changes dispatched in one INSTANCES_CHANGED event;
+	 *     1 dispatches every change as its own event, without batching
+	 * @param maxLatency milliseconds a change may wait for its batch to fill; 0 waits for flush()
+	 */
+	public JsonClientRendering( EventDispatcher dispatcher, boolean instanceStreamEnabled, int maxBatchSize, long maxLatency )
+	{
         this .dispatcher = dispatcher;
+        this .frameDispatcher = null;
         this .instanceStreamEnabled = instanceStreamEnabled;
+        this .maxBatchSize = Math .max( 1, maxBatchSize );
+        this .maxLatency = maxLatency;
+        this .encoder = null;
+	}
+
+	/**
+	 * @param encoder if not null, batches are dispatched as binary frames from this encoder, even when
+	 *     maxBatchSize is 1
+	 */
+	public JsonClientRendering( FrameDispatcher dispatcher, boolean instanceStreamEnabled, int maxBatchSize, long maxLatency, InstanceBufferEncoder encoder )
+	{
+        this .dispatcher = dispatcher;
+        this .frameDispatcher = dispatcher;
+        this .instanceStreamEnabled = instanceStreamEnabled;
+        this .maxBatchSize = Math .max( 1, maxBatchSize );
+        this .maxLatency = maxLatency;
+        this .encoder = encoder;
 	}
 	
 	public void enableInstanceStream( boolean value )
@@ -31,45 +121,182 @@ public class JsonClientRendering implements RenderingChanges
         this .instanceStreamEnabled = value;
     }
 
+    private boolean isBatching()
+    {
+        return this .maxBatchSize > 1 || this .encoder != null;
+    }
+
 	@Override
 	public void reset() {}
 
 	@Override
-	public void manifestationAdded( RenderedManifestation rm )
+	public synchronized void manifestationAdded( RenderedManifestation rm )
 	{
+        if ( this .encoder != null && this .instanceStreamEnabled && rm .getOrbitSource() != null ) {
+            float[][] orientations = this .encoder .getOrientations( rm .getOrbitSource() );
+            if ( orientations != null ) {
+                // pending instances were oriented by the previous table
+                this .flush();
+                ObjectNode node = this .mapper .getObjectMapper() .createObjectNode();
+                node .set( "orientations", this .mapper .getObjectMapper() .valueToTree( orientations ) );
+                this .dispatcher .dispatchEvent( "ORIENTATIONS_DEFINED", node );
+            }
+        }
+
         ObjectNode shapeNode = this .mapper .getShapeNode( rm .getShape() );
-        if ( shapeNode != null )
+        if ( shapeNode != null ) {
+            if ( this .encoder != null )
+                shapeNode .put( "index", this .encoder .shapeIndex( rm .getShape() ) );
             this .dispatcher .dispatchEvent( "SHAPE_DEFINED", shapeNode );
+        }
 
         if ( ! this .instanceStreamEnabled )
             return;
 
-        ObjectNode node = this .mapper .getObjectNode( rm, false );
-        if ( node != null ) {
-            node .put( "id", rm .getGuid() .toString() );
-            if ( this .instanceStreamEnabled )
-                this .dispatcher .dispatchEvent( "INSTANCE_ADDED", node );
+        if ( this .isBatching() ) {
+            // a removal earlier in the batch stays, since it is applied first
+            this .added .put( rm .getGuid(), rm );
+            if ( this .encoder == null )
+                this .addedNodes .put( rm .getGuid(), this .addedNode( rm ) );
+            this .batched();
+            return;
         }
+        ObjectNode node = this .addedNode( rm );
+        if ( node != null )
+            this .dispatcher .dispatchEvent( "INSTANCE_ADDED", node );
 	}
 
+    private ObjectNode addedNode( RenderedManifestation rm )
+    {
+        ObjectNode node = this .mapper .getObjectNode( rm, false );
+        if ( node != null )
+            node .put( "id", rm .getGuid() .toString() );
+        return node;
+    }
+
+    private ObjectNode changedNode( RenderedManifestation rm )
+    {
+        ObjectNode node = this .mapper .getObjectMapper() .createObjectNode();
+        node .put( "id", rm .getGuid() .toString() );
+        node .put( "color", rm .getColor() .toWebString() );
+        if ( rm .getShape() != null )
+            node .put( "shape", rm .getShape() .getGuid() .toString() );
+        return node;
+    }
+
 	@Override
-	public void manifestationRemoved( RenderedManifestation rm )
+	public synchronized void manifestationRemoved( RenderedManifestation rm )
 	{
         if ( ! this .instanceStreamEnabled )
             return;
-        ObjectNode node = this .mapper .getObjectMapper() .createObjectNode();
-        node .put( "id", rm .getGuid() .toString() );
-        this .dispatcher .dispatchEvent( "INSTANCE_REMOVED", node );
+        if ( ! this .isBatching() ) {
+            ObjectNode node = this .mapper .getObjectMapper() .createObjectNode();
+            node .put( "id", rm .getGuid() .toString() );
+            this .dispatcher .dispatchEvent( "INSTANCE_REMOVED", node );
+            return;
+        }
+        this .changed .remove( rm .getGuid() );
+        this .changedNodes .remove( rm .getGuid() );
+        this .addedNodes .remove( rm .getGuid() );
+        if ( this .added .remove( rm .getGuid() ) == null ) {
+            this .removed .put( rm .getGuid(), ( rm .getShape() == null )? null : rm .getShape() .getGuid() .toString() );
+            this .batched();
+        }
 	}
 
     @Override
-    public void colorChanged( RenderedManifestation rm )
+    public synchronized void colorChanged( RenderedManifestation rm )
     {
-        if ( ! this .instanceStreamEnabled )
+        if ( ! this .instanceStreamEnabled || ! this .isBatching() )
+            return;
+        if ( this .added .containsKey( rm .getGuid() ) ) {
+            if ( this .encoder == null )
+                this .addedNodes .put( rm .getGuid(), this .addedNode( rm ) );
+            return;
+        }
+        this .changed .put( rm .getGuid(), rm );
+        if ( this .encoder == null )
+            this .changedNodes .put( rm .getGuid(), this .changedNode( rm ) );
+        this .batched();
+    }
+
+    private void batched()
+    {
+        if ( this .added .size() + this .removed .size() + this .changed .size() >= this .maxBatchSize )
+            this .flush();
+        else if ( this .scheduledFlush == null && this .maxLatency > 0 )
+            this .scheduledFlush = scheduler() .schedule( this::flush, this .maxLatency, TimeUnit.MILLISECONDS );
+    }
+
+    /**
+     * Dispatches any pending instance changes now, as one INSTANCES_CHANGED event or binary frame.
+     */
+    public synchronized void flush()
+    {
+        if ( this .scheduledFlush != null ) {
+            this .scheduledFlush .cancel( false );
+            this .scheduledFlush = null;
+        }
+        if ( this .added .isEmpty() && this .removed .isEmpty() && this .changed .isEmpty() )
+            return;
+        if ( logger .isLoggable( Level .FINE ) )
+            logger .fine( "INSTANCES_CHANGED: " + this .removed .size() + " removed, " + this .added .size() + " added, "
+                    + this .changed .size() + " changed" );
+        if ( this .encoder != null ) {
+            ByteBuffer frame = this .encoder .encode( this .removed .keySet(), this .added .values(), this .changed .values() );
+            this .clear();
+            this .frameDispatcher .dispatchFrame( frame );
             return;
+        }
         ObjectNode node = this .mapper .getObjectMapper() .createObjectNode();
-        node .put( "id", rm .getGuid() .toString() );
-        node .put( "color", rm .getColor() .toWebString() );
+        ArrayNode removedNodes = node .putArray( "removed" );
+        for ( Map.Entry<UUID, String> entry : this .removed .entrySet() ) {
+            ObjectNode removedNode = removedNodes .addObject();
+            removedNode .put( "id", entry .getKey() .toString() );
+            if ( entry .getValue() != null )
+                removedNode .put( "shape", entry .getValue() );
+        }
+        ArrayNode addedArray = node .putArray( "added" );
+        for ( ObjectNode addedNode : this .addedNodes .values() )
+            if ( addedNode != null )
+                addedArray .add( addedNode );
+        ArrayNode changedArray = node .putArray( "changed" );
+        for ( ObjectNode changedNode : this .changedNodes .values() )
+            changedArray .add( changedNode );
+        this .clear();
+        this .dispatcher .dispatchEvent( "INSTANCES_CHANGED", node );
+    }
+
+    /**
+     * Cancels any scheduled flush and drops pending instance changes, when the client is gone.
+     */
+    public synchronized void close()
+    {
+        if ( this .scheduledFlush != null ) {
+            this .scheduledFlush .cancel( false );
+            this .scheduledFlush = null;
+        }
+        this .clear();
+    }
+
+    private void clear()
+    {
+        this .removed .clear();
+        this .added .clear();
+        this .changed .clear();
+        this .addedNodes .clear();
+        this .changedNodes .clear();
+    }
+
+    private static synchronized ScheduledExecutorService scheduler()
+    {
+        if ( SCHEDULER == null )
+            SCHEDULER = Executors .newSingleThreadScheduledExecutor( runnable -> {
+                Thread thread = new Thread( runnable, "vZome client batches" );
+                thread .setDaemon( true );
+                return thread;
+            } );
+        return SCHEDULER;
     }
 
 	@Override
@@ -98,4 +325,4 @@ public class JsonClientRendering implements RenderingChanges
     {
         System.out.println( "label changed: " + manifestation .getLabel() );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,170 @@
+package com.vzome.desktop.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.vzome.core.construction.Color;
+import com.vzome.core.editor.Application;
+import com.vzome.core.editor.DocumentModel;
+import com.vzome.core.render.RenderedManifestation;
+
+public class JsonClientRenderingTest
+{
+    private static final Color RED = new Color( 0xFF, 0, 0 ), BLUE = new Color( 0, 0, 0xFF ), GREEN = new Color( 0, 0xFF, 0 );
+
+    private static class Recorder implements JsonClientRendering.EventDispatcher
+    {
+        private final List<JsonNode> batches = new ArrayList<>();
+
+        @Override
+        public synchronized void dispatchEvent( String type, JsonNode node )
+        {
+            if ( type .equals( "INSTANCES_CHANGED" ) ) {
+                this .batches .add( node );
+                this .notifyAll();
+            }
+        }
+
+        synchronized List<JsonNode> awaitBatches( int count, long timeout ) throws InterruptedException
+        {
+            long end = System .currentTimeMillis() + timeout;
+            while ( this .batches .size() < count && System .currentTimeMillis() < end )
+                this .wait( Math .max( 1, end - System .currentTimeMillis() ) );
+            return new ArrayList<>( this .batches );
+        }
+    }
+
+    private static List<RenderedManifestation> instances()
+    {
+        DocumentModel doc = new Application( false, null, new Properties() ) .createDocument( "golden" );
+        Map<String,Object> params = new HashMap<>();
+        params .put( "vef", "vZome VEF 6 field golden\n"
+                + "3\n"
+                + "(0,0) (0,0) (0,0) (0,0)\n"
+                + "(0,0) (0,2) (0,0) (0,0)\n"
+                + "(0,0) (0,0) (0,2) (0,0)\n"
+                + "2\n"
+                + "0 1\n0 2\n"
+                + "0\n"
+                + "3\n"
+                + "0\n1\n2\n" );
+        params .put( "scale", doc .getField() .one() );
+        doc .doEdit( "LoadVEF/quaternion", params );
+        List<RenderedManifestation> instances = new ArrayList<>();
+        for ( RenderedManifestation rm : doc .getRenderedModel() )
+            instances .add( rm );
+        assertEquals( 5, instances .size() );
+        return instances;
+    }
+
+    @Test
+    public void testAddThenRemoveCancels() throws Exception
+    {
+        Recorder recorder = new Recorder();
+        JsonClientRendering rendering = new JsonClientRendering( recorder, true, 100, 0 );
+        List<RenderedManifestation> instances = instances();
+        rendering .manifestationAdded( instances .get( 0 ) );
+        rendering .manifestationAdded( instances .get( 1 ) );
+        rendering .manifestationRemoved( instances .get( 0 ) );
+        rendering .flush();
+
+        List<JsonNode> batches = recorder .awaitBatches( 1, 0 );
+        assertEquals( 1, batches .size() );
+        JsonNode batch = batches .get( 0 );
+        assertEquals( 0, batch .get( "removed" ) .size() );
+        assertEquals( 1, batch .get( "added" ) .size() );
+        assertEquals( instances .get( 1 ) .getGuid() .toString(), batch .get( "added" ) .get( 0 ) .get( "id" ) .asText() );
+
+        // nothing at all is sent when every change cancels
+        rendering .manifestationAdded( instances .get( 2 ) );
+        rendering .manifestationRemoved( instances .get( 2 ) );
+        rendering .flush();
+        assertEquals( 1, recorder .awaitBatches( 2, 0 ) .size() );
+    }
+
+    @Test
+    public void testColorChangesFold() throws Exception
+    {
+        Recorder recorder = new Recorder();
+        JsonClientRendering rendering = new JsonClientRendering( recorder, true, 100, 0 );
+        List<RenderedManifestation> instances = instances();
+        RenderedManifestation pending = instances .get( 0 ), shown = instances .get( 1 );
+        rendering .manifestationAdded( shown );
+        rendering .flush();
+
+        rendering .manifestationAdded( pending );
+        pending .setColor( RED );
+        rendering .colorChanged( pending );
+        shown .setColor( RED );
+        rendering .colorChanged( shown );
+        shown .setColor( BLUE );
+        rendering .colorChanged( shown );
+        // the batch carries the colors as they were queued
+        pending .setColor( GREEN );
+        shown .setColor( GREEN );
+        rendering .flush();
+
+        List<JsonNode> batches = recorder .awaitBatches( 2, 0 );
+        assertEquals( 2, batches .size() );
+        JsonNode batch = batches .get( 1 );
+        assertEquals( 1, batch .get( "added" ) .size() );
+        assertEquals( RED .toWebString(), batch .get( "added" ) .get( 0 ) .get( "color" ) .asText() );
+        assertEquals( 1, batch .get( "changed" ) .size() );
+        assertEquals( shown .getGuid() .toString(), batch .get( "changed" ) .get( 0 ) .get( "id" ) .asText() );
+        assertEquals( BLUE .toWebString(), batch .get( "changed" ) .get( 0 ) .get( "color" ) .asText() );
+    }
+
+    @Test
+    public void testSizeFlush() throws Exception
+    {
+        Recorder recorder = new Recorder();
+        JsonClientRendering rendering = new JsonClientRendering( recorder, true, 3, 0 );
+        List<RenderedManifestation> instances = instances();
+        for ( RenderedManifestation rm : instances )
+            rendering .manifestationAdded( rm );
+
+        List<JsonNode> batches = recorder .awaitBatches( 1, 0 );
+        assertEquals( 1, batches .size() );
+        assertEquals( 3, batches .get( 0 ) .get( "added" ) .size() );
+        rendering .flush();
+        batches = recorder .awaitBatches( 2, 0 );
+        assertEquals( 2, batches .size() );
+        assertEquals( 2, batches .get( 1 ) .get( "added" ) .size() );
+    }
+
+    @Test
+    public void testLatencyFlush() throws Exception
+    {
+        Recorder recorder = new Recorder();
+        JsonClientRendering rendering = new JsonClientRendering( recorder, true, 100, 20 );
+        List<RenderedManifestation> instances = instances();
+        rendering .manifestationAdded( instances .get( 0 ) );
+        rendering .manifestationAdded( instances .get( 1 ) );
+
+        List<JsonNode> batches = recorder .awaitBatches( 1, 5000 );
+        assertEquals( 1, batches .size() );
+        assertEquals( 2, batches .get( 0 ) .get( "added" ) .size() );
+    }
+
+    @Test
+    public void testCloseCancelsFlush() throws Exception
+    {
+        Recorder recorder = new Recorder();
+        JsonClientRendering rendering = new JsonClientRendering( recorder, true, 100, 20 );
+        rendering .manifestationAdded( instances() .get( 0 ) );
+        rendering .close();
+
+        assertTrue( recorder .awaitBatches( 1, 200 ) .isEmpty() );
+        rendering .flush();
+        assertTrue( recorder .awaitBatches( 1, 0 ) .isEmpty() );
+    }
+}
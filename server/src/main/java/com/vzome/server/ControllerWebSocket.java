@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.UnsupportedEncodingException;
 import java.net.URL;
 import java.net.URLDecoder;
+import java.nio.ByteBuffer;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.StringTokenizer;
@@ -25,6 +26,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.vzome.core.render.InstanceBufferEncoder;
 import com.vzome.core.render.Scene;
 import com.vzome.desktop.api.Controller;
 import com.vzome.desktop.awt.ApplicationController;
@@ -32,12 +34,18 @@ import com.vzome.desktop.awt.DocumentController;
 import com.vzome.desktop.awt.RenderingViewer;
 import com.vzome.desktop.controller.JsonClientRendering;
 
-public class ControllerWebSocket implements WebSocketListener, JsonClientRendering.EventDispatcher
+public class ControllerWebSocket implements WebSocketListener, JsonClientRendering.FrameDispatcher
 {
     private static final Logger LOG = Log.getLogger( ControllerWebSocket.class );
     private Session outbound;
     private final ThrottledQueue queue = new ThrottledQueue( 200, 1000 ); // 40 gets/second
     private DocumentController docController;
+    private JsonClientRendering clientRendering;
+    // instance changes are sent in batches, since the queue releases only one message at a time
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final long MAX_BATCH_LATENCY = 50; // milliseconds
+    // a client offering this subprotocol receives instances as InstanceBufferEncoder frames
+    public static final String BINARY_INSTANCES_PROTOCOL = "vzome-instances-binary";
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final ObjectWriter objectWriter = objectMapper .writer();
 
@@ -45,6 +53,12 @@ public class ControllerWebSocket implements WebSocketListener, JsonClientRenderi
     public void onWebSocketClose( int statusCode, String reason )
     {
         this.outbound = null;
+        if ( this .clientRendering != null ) {
+            this .docController .getModel() .getRenderedModel() .removeListener( this .clientRendering );
+            // the scheduler is shared, so a pending flush would otherwise outlive the socket
+            this .clientRendering .close();
+            this .clientRendering = null;
+        }
         if ( this .docController != null )
             this .docController .setProperty( "visible", false );
         LOG.info( "WebSocket Close: {} - {}", statusCode, reason );
@@ -76,6 +90,12 @@ public class ControllerWebSocket implements WebSocketListener, JsonClientRenderi
         publish( event );
     }
 
+    @Override
+    public void dispatchFrame( ByteBuffer frame )
+    {
+        this .queue .add( frame );
+    }
+
     @Override
     public void onWebSocketConnect( Session session )
     {
@@ -86,8 +106,11 @@ public class ControllerWebSocket implements WebSocketListener, JsonClientRenderi
             public void run() {
                 while (true)
                     if ( ! queue .isEmpty() ) {
-                        String msg = (String) queue .get();
-                        session .getRemote() .sendString( msg, null );
+                        Object msg = queue .get();
+                        if ( msg instanceof ByteBuffer )
+                            session .getRemote() .sendBytes( (ByteBuffer) msg, null );
+                        else
+                            session .getRemote() .sendString( (String) msg, null );
                         LOG.info( "WebSocket Send: ", msg );
                     }
             }
@@ -125,10 +148,12 @@ public class ControllerWebSocket implements WebSocketListener, JsonClientRenderi
                 dispatchEvent( "BACKGROUND_SET", bkgdColor );
             }
             consumer.start();
-            JsonClientRendering clientRendering = new JsonClientRendering( this, false );
-            this .docController .getModel() .getRenderedModel() .addListener( clientRendering );
+            boolean binary = BINARY_INSTANCES_PROTOCOL .equals( session .getUpgradeResponse() .getAcceptedSubProtocol() );
+            this .clientRendering = new JsonClientRendering( this, true, MAX_BATCH_SIZE, MAX_BATCH_LATENCY, binary? new InstanceBufferEncoder() : null );
+            this .docController .getModel() .getRenderedModel() .addListener( this .clientRendering );
             try {
                 this .docController .actionPerformed( this, "finish.load" );
+                this .clientRendering .flush();
                 dispatchEvent( "MODEL_LOADED", "" );
             } catch ( Exception e ) {
                 e.printStackTrace();
@@ -186,7 +211,11 @@ public class ControllerWebSocket implements WebSocketListener, JsonClientRenderi
         @Override
         public void configure(WebSocketServletFactory factory)
         {
-            factory.register( ControllerWebSocket.class );
+            factory.setCreator( ( request, response ) -> {
+                if ( request .getSubProtocols() .contains( BINARY_INSTANCES_PROTOCOL ) )
+                    response .setAcceptedSubProtocol( BINARY_INSTANCES_PROTOCOL );
+                return new ControllerWebSocket();
+            } );
         }
     }
 